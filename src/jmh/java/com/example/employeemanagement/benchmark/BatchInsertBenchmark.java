@@ -0,0 +1,82 @@
+package com.example.employeemanagement.benchmark;
+
+import com.example.employeemanagement.EmployeeManagementApiApplication;
+import com.example.employeemanagement.dto.BatchCreateResult;
+import com.example.employeemanagement.entity.Employee;
+import com.example.employeemanagement.repository.EmployeeRepository;
+import com.example.employeemanagement.repository.NotificationOutboxRepository;
+import com.example.employeemanagement.service.EmployeeService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// POST /api/employees/batch against the same number of single creates, on the real service with H2 and
+// hibernate batching. one op is a whole batch of `size` employees
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class BatchInsertBenchmark {
+
+    @Param({"100", "1000"})
+    public int size;
+
+    private ConfigurableApplicationContext context;
+    private EmployeeService employeeService;
+    private EmployeeRepository employeeRepository;
+    private NotificationOutboxRepository outboxRepository;
+    private int sequence;
+
+    @Setup
+    public void setUp() {
+        context = new SpringApplicationBuilder(EmployeeManagementApiApplication.class)
+                .web(WebApplicationType.NONE)
+                .profiles("test")
+                .properties("spring.jpa.show-sql=false", "logging.level.root=WARN")
+                .run();
+        employeeService = context.getBean(EmployeeService.class);
+        employeeRepository = context.getBean(EmployeeRepository.class);
+        outboxRepository = context.getBean(NotificationOutboxRepository.class);
+    }
+
+    @TearDown(Level.Iteration)
+    public void clear() {
+        outboxRepository.deleteAllInBatch();
+        employeeRepository.deleteAllInBatch();
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public BatchCreateResult batch() {
+        return employeeService.createEmployees(nextEmployees());
+    }
+
+    @Benchmark
+    public int oneByOne() {
+        int created = 0;
+        for (Employee employee : nextEmployees()) {
+            employeeService.createEmployee(employee);
+            created++;
+        }
+        return created;
+    }
+
+    private List<Employee> nextEmployees() {
+        List<Employee> employees = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            employees.add(Stubs.employee(sequence++));
+        }
+        return employees;
+    }
+}
@@ -0,0 +1,67 @@
+package com.example.employeemanagement.benchmark;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// compares two JMH JSON result files (-rf json) benchmark by benchmark:
+//   ./mvnw -Pjmh test-compile exec:exec -Djmh.main=com.example.employeemanagement.benchmark.BenchmarkComparison \
+//          -Djmh.args="baseline.json target/jmh-result.json"
+// a change is only flagged when the two scores are further apart than their combined error margins
+public class BenchmarkComparison {
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            System.err.println("usage: BenchmarkComparison <baseline.json> <candidate.json>");
+            System.exit(2);
+        }
+        Map<String, JsonNode> baseline = read(args[0]);
+        Map<String, JsonNode> candidate = read(args[1]);
+
+        System.out.printf("%-90s %14s %14s %9s%n", "benchmark", "baseline", "candidate", "change");
+        for (Map.Entry<String, JsonNode> entry : candidate.entrySet()) {
+            JsonNode before = baseline.get(entry.getKey());
+            JsonNode after = entry.getValue().get("primaryMetric");
+            String unit = after.get("scoreUnit").asText();
+            if (before == null) {
+                System.out.printf("%-90s %14s %14.3f %9s  %s%n", entry.getKey(), "-", after.get("score").asDouble(), "new", unit);
+                continue;
+            }
+            before = before.get("primaryMetric");
+            double beforeScore = before.get("score").asDouble();
+            double afterScore = after.get("score").asDouble();
+            double change = (afterScore - beforeScore) / beforeScore * 100;
+            boolean significant = Math.abs(afterScore - beforeScore) > error(before) + error(after);
+            System.out.printf("%-90s %14.3f %14.3f %+8.1f%%  %s%s%n", entry.getKey(), beforeScore, afterScore, change, unit,
+                    significant ? "" : "  (within error)");
+        }
+    }
+
+    // benchmark name plus its @Param values, so each parameter combination is compared separately
+    private static Map<String, JsonNode> read(String file) throws IOException {
+        Map<String, JsonNode> results = new LinkedHashMap<>();
+        for (JsonNode result : new ObjectMapper().readTree(new File(file))) {
+            StringBuilder key = new StringBuilder(result.get("benchmark").asText());
+            JsonNode params = result.get("params");
+            if (params != null) {
+                Iterator<Map.Entry<String, JsonNode>> fields = params.fields();
+                while (fields.hasNext()) {
+                    Map.Entry<String, JsonNode> param = fields.next();
+                    key.append(' ').append(param.getKey()).append('=').append(param.getValue().asText());
+                }
+            }
+            results.put(key.toString(), result);
+        }
+        return results;
+    }
+
+    private static double error(JsonNode metric) {
+        double error = metric.path("scoreError").asDouble(0);
+        return Double.isNaN(error) ? 0 : error;
+    }
+}
@@ -0,0 +1,90 @@
+package com.example.employeemanagement.benchmark;
+
+import com.example.employeemanagement.entity.Employee;
+import com.example.employeemanagement.repository.EmployeeRepository;
+import com.example.employeemanagement.service.impl.EmployeeServiceImpl;
+import com.example.employeemanagement.util.AuditLogger;
+import jakarta.validation.Validation;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.file.Files;
+import java.time.Duration;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// service overhead on its own: validation fan-out, audit publishing and the repository calls, with in-memory
+// collaborators. "direct" runs the third-party checks on the calling thread, "pool" goes through a thread pool
+// like production does
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class EmployeeServiceBenchmark {
+
+    @Param({"direct", "pool"})
+    public String validationExecutor;
+
+    private final AtomicInteger sequence = new AtomicInteger();
+    private final Map<UUID, Employee> store = new ConcurrentHashMap<>();
+    private ExecutorService pool;
+    private AuditLogger auditLogger;
+    private EmployeeServiceImpl employeeService;
+    private UUID existingId;
+
+    @Setup
+    public void setUp() throws Exception {
+        EmployeeRepository employeeRepository = Stubs.employeeRepository(store);
+        auditLogger = new AuditLogger(Files.createTempDirectory("audit-bench"), DataSize.ofMegabytes(64), 16384,
+                Duration.ofSeconds(1));
+        auditLogger.start();
+        pool = Executors.newFixedThreadPool(8);
+
+        employeeService = new EmployeeServiceImpl(
+                employeeRepository,
+                email -> true,
+                department -> true,
+                email -> false,
+                employee -> { },
+                auditLogger,
+                event -> { },
+                new ConcurrentMapCacheManager(),
+                Stubs.entityManager(),
+                new TransactionTemplate(),
+                Validation.buildDefaultValidatorFactory().getValidator(),
+                "pool".equals(validationExecutor) ? pool : Runnable::run);
+        ReflectionTestUtils.setField(employeeService, "batchChunkSize", 100);
+        ReflectionTestUtils.setField(employeeService, "validationTimeout", Duration.ofSeconds(5));
+
+        existingId = employeeService.createEmployee(Stubs.employee(-1)).getId();
+    }
+
+    @TearDown
+    public void tearDown() {
+        auditLogger.stop();
+        pool.shutdownNow();
+    }
+
+    @Benchmark
+    public Employee createEmployee() {
+        Employee employee = employeeService.createEmployee(Stubs.employee(sequence.incrementAndGet()));
+        // keep the map from growing for the whole run
+        store.remove(employee.getId());
+        return employee;
+    }
+
+    @Benchmark
+    public Employee getEmployeeById() {
+        return employeeService.getEmployeeById(existingId);
+    }
+}
@@ -0,0 +1,50 @@
+package com.example.employeemanagement.benchmark;
+
+import com.example.employeemanagement.exception.ApiError;
+import com.example.employeemanagement.exception.EmployeeNotFoundException;
+import com.example.employeemanagement.exception.GlobalExceptionHandler;
+import com.example.employeemanagement.exception.InvalidInputException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import java.io.IOException;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+// building an error response, with and without rendering it. "throwing" includes creating the exception and
+// filling in its stack trace, which is what an error path really costs
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class GlobalExceptionHandlerBenchmark {
+
+    private final GlobalExceptionHandler handler = new GlobalExceptionHandler();
+    private final ObjectMapper objectMapper = JsonMapper.builder().findAndAddModules().build();
+    private final MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/employees/" + UUID.randomUUID());
+    private final EmployeeNotFoundException notFound = new EmployeeNotFoundException("Employee not found with id: 42");
+
+    @Benchmark
+    public ResponseEntity<ApiError> notFound() {
+        return handler.handleEmployeeNotFoundException(notFound, request);
+    }
+
+    @Benchmark
+    public byte[] notFoundRendered() throws IOException {
+        return objectMapper.writeValueAsBytes(handler.handleEmployeeNotFoundException(notFound, request).getBody());
+    }
+
+    @Benchmark
+    public ResponseEntity<ApiError> invalidInputThrowing() {
+        try {
+            throw new InvalidInputException("Page size must be between 1 and 500");
+        } catch (InvalidInputException e) {
+            return handler.handleInvalidInputException(e, request);
+        }
+    }
+}
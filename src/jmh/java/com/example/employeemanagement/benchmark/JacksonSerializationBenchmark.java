@@ -0,0 +1,50 @@
+package com.example.employeemanagement.benchmark;
+
+import com.example.employeemanagement.entity.Employee;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// the two ways employees leave the api: a JSON array (list page) and one line per employee (NDJSON stream)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JacksonSerializationBenchmark {
+
+    @Param({"10", "50", "500"})
+    public int size;
+
+    private final ObjectMapper objectMapper = JsonMapper.builder().findAndAddModules().build();
+    private ObjectWriter employeeWriter;
+    private List<Employee> employees;
+
+    @Setup
+    public void setUp() {
+        employees = Stubs.employees(size);
+        employeeWriter = objectMapper.writerFor(Employee.class);
+    }
+
+    @Benchmark
+    public byte[] writeList() throws IOException {
+        return objectMapper.writeValueAsBytes(employees);
+    }
+
+    @Benchmark
+    public int writeNdjson() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(size * 200);
+        for (Employee employee : employees) {
+            out.write(employeeWriter.writeValueAsBytes(employee));
+            out.write('\n');
+        }
+        return out.size();
+    }
+}
@@ -0,0 +1,65 @@
+package com.example.employeemanagement.benchmark;
+
+import com.example.employeemanagement.config.InMemoryRateLimitBucketStore;
+import com.example.employeemanagement.config.RateLimitFilter;
+import com.example.employeemanagement.config.RateLimitProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+// per-request cost of the rate limit filter with 8 threads hammering it. clients=1 is every thread contending on
+// one bucket, the large values spread requests over that many distinct addresses, far beyond max-keys, so every
+// lookup is a miss that creates a bucket and pushes an old one out. the per-request time should stay flat as the
+// number of clients grows
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(8)
+@State(Scope.Benchmark)
+public class RateLimitFilterBenchmark {
+
+    private static final FilterChain NO_OP_CHAIN = (request, response) -> { };
+
+    @Param({"1", "1000", "1000000", "10000000"})
+    public int clients;
+
+    private RateLimitFilter filter;
+
+    @Setup
+    public void setUp() {
+        RateLimitProperties properties = new RateLimitProperties();
+        // high enough that the hot bucket measures the consume path rather than rejections
+        properties.setCapacity(1_000_000_000L);
+        properties.setRefillPeriod(Duration.ofSeconds(1));
+        properties.setMaxKeys(100_000);
+        properties.setExemptPaths(List.of("/h2-console/**", "/swagger-ui/**", "/actuator/**"));
+
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        filter = new RateLimitFilter(properties, new InMemoryRateLimitBucketStore(properties, meterRegistry), meterRegistry);
+    }
+
+    @State(Scope.Thread)
+    public static class Request {
+        final MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/employees");
+        final MockHttpServletResponse response = new MockHttpServletResponse();
+    }
+
+    @Benchmark
+    public int doFilter(Request state) throws Exception {
+        int client = clients == 1 ? 0 : ThreadLocalRandom.current().nextInt(clients);
+        state.request.setRemoteAddr("2001:db8::" + Integer.toHexString(client));
+        // MockHttpServletResponse keeps every header it's given
+        state.response.reset();
+        filter.doFilter(state.request, state.response, NO_OP_CHAIN);
+        return state.response.getStatus();
+    }
+}
@@ -0,0 +1,97 @@
+package com.example.employeemanagement.benchmark;
+
+import com.example.employeemanagement.dto.DepartmentSalaryDistribution;
+import com.example.employeemanagement.dto.SalaryHistogram;
+import com.example.employeemanagement.dto.SalaryPercentiles;
+import com.example.employeemanagement.entity.Employee;
+import com.example.employeemanagement.service.EmployeeService;
+import com.example.employeemanagement.service.impl.SalaryAnalyticsServiceImpl;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+// salary analytics against the columnar snapshot, next to what it replaces: the same percentiles computed from a
+// list of Employee entities with BigDecimal salaries (already loaded, so the database isn't even counted).
+// the snapshot's size is printed once in setUp
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SalaryAnalyticsBenchmark {
+
+    private static final String[] DEPARTMENTS = {"Engineering", "Sales", "Finance", "Support", "Marketing", "Legal"};
+    private static final List<Double> PERCENTILES = List.of(50.0, 90.0, 99.0);
+
+    @Param({"100000", "500000"})
+    public int employees;
+
+    private List<Employee> entities;
+    private SalaryAnalyticsServiceImpl analyticsService;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        entities = Stubs.employees(employees);
+        for (int i = 0; i < entities.size(); i++) {
+            entities.get(i).setDepartment(DEPARTMENTS[i % DEPARTMENTS.length]);
+            entities.get(i).setSalary(BigDecimal.valueOf(3_000_000 + random.nextInt(12_000_000), 2));
+        }
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        analyticsService = new SalaryAnalyticsServiceImpl(streaming(entities), meterRegistry, 65536);
+        analyticsService.rebuild();
+        System.out.printf("%n%d employees: ~%.1f MB, %.0f bytes per employee%n", employees,
+                meterRegistry.get("analytics.snapshot.memory").gauge().value() / (1024 * 1024),
+                meterRegistry.get("analytics.snapshot.memory").gauge().value() / employees);
+    }
+
+    @Benchmark
+    public SalaryPercentiles percentiles() {
+        return analyticsService.getPercentiles("Engineering", PERCENTILES);
+    }
+
+    @Benchmark
+    public SalaryHistogram histogram() {
+        return analyticsService.getHistogram(null, 50);
+    }
+
+    @Benchmark
+    public List<DepartmentSalaryDistribution> departmentDistributions() {
+        return analyticsService.getDepartmentDistributions();
+    }
+
+    @Benchmark
+    public BigDecimal[] percentilesFromEntities() {
+        List<BigDecimal> salaries = entities.stream()
+                .filter(employee -> employee.getDepartment().equals("Engineering"))
+                .map(Employee::getSalary)
+                .sorted()
+                .toList();
+        BigDecimal[] result = new BigDecimal[PERCENTILES.size()];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = salaries.get((int) Math.round((salaries.size() - 1) * PERCENTILES.get(i) / 100));
+        }
+        return result;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static EmployeeService streaming(List<Employee> employees) {
+        return (EmployeeService) Proxy.newProxyInstance(
+                EmployeeService.class.getClassLoader(),
+                new Class<?>[]{EmployeeService.class},
+                (proxy, method, args) -> {
+                    if (method.getName().equals("streamAllEmployees")) {
+                        employees.forEach((Consumer<Employee>) args[0]);
+                        return null;
+                    }
+                    throw new UnsupportedOperationException(method.getName());
+                });
+    }
+}
@@ -0,0 +1,76 @@
+package com.example.employeemanagement.benchmark;
+
+import com.example.employeemanagement.EmployeeManagementApiApplication;
+import com.example.employeemanagement.dto.EmployeeField;
+import com.example.employeemanagement.entity.Employee;
+import com.example.employeemanagement.repository.EmployeeRepository;
+import com.example.employeemanagement.service.EmployeeService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+// GET /api/employees?size=N as full entities vs fields=id,firstName,department, query plus JSON, real service on H2.
+// run with -prof gc to see the allocation per op next to the time, the response size is printed once in setUp
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SparseFieldsBenchmark {
+
+    private static final Set<EmployeeField> FIELDS = EnumSet.of(EmployeeField.ID, EmployeeField.FIRST_NAME, EmployeeField.DEPARTMENT);
+
+    @Param({"50", "500"})
+    public int size;
+
+    private ConfigurableApplicationContext context;
+    private EmployeeService employeeService;
+    private ObjectMapper objectMapper;
+
+    @Setup
+    public void setUp() throws IOException {
+        context = new SpringApplicationBuilder(EmployeeManagementApiApplication.class)
+                .web(WebApplicationType.NONE)
+                .profiles("test")
+                .properties("spring.jpa.show-sql=false", "logging.level.root=WARN")
+                .run();
+        employeeService = context.getBean(EmployeeService.class);
+        objectMapper = context.getBean(ObjectMapper.class);
+
+        EmployeeRepository employeeRepository = context.getBean(EmployeeRepository.class);
+        employeeRepository.deleteAllInBatch();
+        List<Employee> employees = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            employees.add(Stubs.employee(i));
+        }
+        employeeRepository.saveAll(employees);
+
+        System.out.printf("%n%d employees: entities %d bytes, fields %d bytes%n", size, entities().length, fields().length);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.getBean(EmployeeRepository.class).deleteAllInBatch();
+        context.close();
+    }
+
+    @Benchmark
+    public byte[] entities() throws IOException {
+        return objectMapper.writeValueAsBytes(employeeService.getEmployeesPage(null, size).getEmployees());
+    }
+
+    @Benchmark
+    public byte[] fields() throws IOException {
+        return objectMapper.writeValueAsBytes(employeeService.getEmployeeFieldsPage(null, size, FIELDS).getEmployees());
+    }
+}
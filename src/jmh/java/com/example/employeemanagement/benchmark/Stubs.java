@@ -0,0 +1,78 @@
+package com.example.employeemanagement.benchmark;
+
+import com.example.employeemanagement.entity.Employee;
+import com.example.employeemanagement.repository.EmployeeRepository;
+import jakarta.persistence.EntityManager;
+
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+// hand-rolled collaborators for the service benchmarks. mockito's invocation recording would cost more than
+// the code we're trying to measure
+final class Stubs {
+
+    private Stubs() {
+    }
+
+    // map-backed repository, only save and findById do anything
+    static EmployeeRepository employeeRepository(Map<UUID, Employee> store) {
+        return (EmployeeRepository) Proxy.newProxyInstance(
+                EmployeeRepository.class.getClassLoader(),
+                new Class<?>[]{EmployeeRepository.class},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "save", "saveAndFlush" -> {
+                        Employee employee = (Employee) args[0];
+                        if (employee.getId() == null) {
+                            employee.setId(UUID.randomUUID());
+                        }
+                        store.put(employee.getId(), employee);
+                        yield employee;
+                    }
+                    case "findById" -> Optional.ofNullable(store.get((UUID) args[0]));
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    case "equals" -> proxy == args[0];
+                    case "toString" -> "EmployeeRepositoryStub";
+                    default -> throw new UnsupportedOperationException(method.getName());
+                });
+    }
+
+    static EmployeeRepository employeeRepository() {
+        return employeeRepository(new ConcurrentHashMap<>());
+    }
+
+    // nothing on the single-create path touches the entity manager
+    static EntityManager entityManager() {
+        return (EntityManager) Proxy.newProxyInstance(
+                EntityManager.class.getClassLoader(),
+                new Class<?>[]{EntityManager.class},
+                (proxy, method, args) -> {
+                    throw new UnsupportedOperationException(method.getName());
+                });
+    }
+
+    static Employee employee(int i) {
+        return Employee.builder()
+                .firstName("First" + i)
+                .lastName("Last" + i)
+                .email("employee" + i + "@example.com")
+                .department("Engineering")
+                .salary(new BigDecimal("50000.00"))
+                .build();
+    }
+
+    static List<Employee> employees(int count) {
+        List<Employee> employees = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Employee employee = employee(i);
+            employee.setId(UUID.randomUUID());
+            employees.add(employee);
+        }
+        return employees;
+    }
+}
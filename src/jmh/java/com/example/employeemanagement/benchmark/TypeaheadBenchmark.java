@@ -0,0 +1,82 @@
+package com.example.employeemanagement.benchmark;
+
+import com.example.employeemanagement.dto.EmployeeSuggestion;
+import com.example.employeemanagement.entity.Employee;
+import com.example.employeemanagement.event.EmployeeChangedEvent;
+import com.example.employeemanagement.service.EmployeeService;
+import com.example.employeemanagement.service.impl.TypeaheadServiceImpl;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+// prefix lookups against the typeahead index, once right after a rebuild and once with a delta of a few
+// thousand changed employees that hasn't been merged yet. the index size is printed once in setUp
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TypeaheadBenchmark {
+
+    @Param({"100000", "500000"})
+    public int employees;
+
+    @Param({"0", "4000"})
+    public int changed;
+
+    private TypeaheadServiceImpl typeaheadService;
+    private String[] prefixes;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        List<Employee> all = new ArrayList<>();
+        for (int i = 0; i < employees; i++) {
+            Employee employee = Stubs.employee(i);
+            employee.setId(UUID.randomUUID());
+            all.add(employee);
+        }
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        typeaheadService = new TypeaheadServiceImpl(streaming(all), meterRegistry, Integer.MAX_VALUE);
+        typeaheadService.rebuild();
+        for (int i = 0; i < changed; i++) {
+            Employee employee = all.get(i);
+            EmployeeChangedEvent.Snapshot before = EmployeeChangedEvent.Snapshot.of(employee);
+            employee.setLastName("Renamed" + i);
+            typeaheadService.onEmployeeChanged(EmployeeChangedEvent.updated(before, employee));
+        }
+
+        // one, two and three characters of first names, last names and emails
+        prefixes = new String[]{"f", "fi", "fir", "l", "la", "las", "e", "em", "emp", "r", "re", "ren"};
+        System.out.printf("%n%d employees, %d changed: %.0f keys, ~%.1f MB%n", employees, changed,
+                meterRegistry.get("typeahead.index.keys").gauge().value(),
+                meterRegistry.get("typeahead.index.memory").gauge().value() / (1024 * 1024));
+    }
+
+    @Benchmark
+    public List<EmployeeSuggestion> suggest() {
+        String prefix = prefixes[next++ % prefixes.length];
+        return typeaheadService.suggest(prefix, 10);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static EmployeeService streaming(List<Employee> employees) {
+        return (EmployeeService) Proxy.newProxyInstance(
+                EmployeeService.class.getClassLoader(),
+                new Class<?>[]{EmployeeService.class},
+                (proxy, method, args) -> {
+                    if (method.getName().equals("streamAllEmployees")) {
+                        employees.forEach((Consumer<Employee>) args[0]);
+                        return null;
+                    }
+                    throw new UnsupportedOperationException(method.getName());
+                });
+    }
+}
@@ -0,0 +1,7 @@
+package com.example.employeemanagement.client;
+
+import java.util.List;
+
+// body of a bulk check: {"values": ["a@x.com", "b@x.com"]}
+public record BulkValidationRequest(List<String> values) {
+}
@@ -0,0 +1,7 @@
+package com.example.employeemanagement.client;
+
+import java.util.Map;
+
+// answer to a bulk check: {"results": {"a@x.com": true, "b@x.com": false}}
+public record BulkValidationResponse(Map<String, Boolean> results) {
+}
@@ -0,0 +1,98 @@
+package com.example.employeemanagement.client;
+
+import io.github.resilience4j.bulkhead.annotation.Bulkhead;
+import io.github.resilience4j.circuitbreaker.annotation.CircuitBreaker;
+import io.github.resilience4j.retry.annotation.Retry;
+import io.micrometer.core.annotation.Timed;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClient;
+
+import java.net.URI;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// the raw call to the third-party department validator, guarded the same way as EmailValidationClient
+// but with its own pool, bulkhead and circuit breaker
+@Component
+@Slf4j
+public class DepartmentValidationClient {
+
+    private final RestClient restClient;
+    private final URI bulkUrl;
+    private final boolean simulated;
+
+    public DepartmentValidationClient(
+            @Qualifier("departmentValidationRestClient") RestClient restClient,
+            @Value("${thirdparty.department.validation.bulk-url}") URI bulkUrl,
+            @Value("${thirdparty.simulated}") boolean simulated
+    ) {
+        this.restClient = restClient;
+        this.bulkUrl = bulkUrl;
+        this.simulated = simulated;
+    }
+
+    @Timed(value = "thirdparty.validation", extraTags = {"upstream", "department"},
+            description = "Calls to the third-party department validator")
+    @Retry(name = "departmentValidation", fallbackMethod = "departmentFallback")
+    @CircuitBreaker(name = "departmentValidatorService")
+    @Bulkhead(name = "departmentValidation")
+    public ValidationVerdict checkDepartment(String department) {
+        if (simulated) {
+            // no real upstream to talk to, every department is valid
+            log.info("Simulated third-party department validation for: {}", department);
+            return ValidationVerdict.VALID;
+        }
+
+        ValidationResponse response = restClient.get()
+                .uri(uri -> uri.queryParam("department", department).build())
+                .retrieve()
+                .body(ValidationResponse.class);
+        return response != null && response.valid() ? ValidationVerdict.VALID : ValidationVerdict.INVALID;
+    }
+
+    // one request for many values, see ValidationCollapser. same guards as the single check
+    @Timed(value = "thirdparty.validation.bulk", extraTags = {"upstream", "department"},
+            description = "Bulk calls to the third-party department validator")
+    @Retry(name = "departmentValidation", fallbackMethod = "departmentsFallback")
+    @CircuitBreaker(name = "departmentValidatorService")
+    @Bulkhead(name = "departmentValidation")
+    public Map<String, ValidationVerdict> checkDepartments(List<String> departments) {
+        if (simulated) {
+            log.info("Simulated third-party department validation for {} departments", departments.size());
+            return verdicts(departments, ValidationVerdict.VALID);
+        }
+
+        BulkValidationResponse response = restClient.post()
+                .uri(bulkUrl)
+                .body(new BulkValidationRequest(departments))
+                .retrieve()
+                .body(BulkValidationResponse.class);
+        Map<String, ValidationVerdict> verdicts = new HashMap<>();
+        if (response != null && response.results() != null) {
+            response.results().forEach((value, valid) ->
+                    verdicts.put(value, Boolean.TRUE.equals(valid) ? ValidationVerdict.VALID : ValidationVerdict.INVALID));
+        }
+        return verdicts;
+    }
+
+    // retries used up, circuit open or bulkhead full
+    public ValidationVerdict departmentFallback(String department, Throwable throwable) {
+        log.warn("Department validation unavailable for {}: {}", department, throwable.toString());
+        return ValidationVerdict.UNAVAILABLE;
+    }
+
+    public Map<String, ValidationVerdict> departmentsFallback(List<String> departments, Throwable throwable) {
+        log.warn("Bulk department validation unavailable for {} departments: {}", departments.size(), throwable.toString());
+        return verdicts(departments, ValidationVerdict.UNAVAILABLE);
+    }
+
+    private static Map<String, ValidationVerdict> verdicts(List<String> values, ValidationVerdict verdict) {
+        Map<String, ValidationVerdict> verdicts = new HashMap<>();
+        values.forEach(value -> verdicts.put(value, verdict));
+        return verdicts;
+    }
+}
@@ -0,0 +1,102 @@
+package com.example.employeemanagement.client;
+
+import io.github.resilience4j.bulkhead.annotation.Bulkhead;
+import io.github.resilience4j.circuitbreaker.annotation.CircuitBreaker;
+import io.github.resilience4j.retry.annotation.Retry;
+import io.micrometer.core.annotation.Timed;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClient;
+
+import java.net.URI;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// the raw call to the third-party email validator over its own connection pool (ThirdPartyHttpClientConfig).
+// each attempt goes through the bulkhead and the circuit breaker, failed attempts are retried with jittered backoff,
+// and whatever is left after that ends up in the fallback.
+// caching and request coalescing live in EmailValidatorServiceImpl on top of this, batching in ValidationCollapser.
+@Component
+@Slf4j
+public class EmailValidationClient {
+
+    private final RestClient restClient;
+    private final URI bulkUrl;
+    private final boolean simulated;
+
+    public EmailValidationClient(
+            @Qualifier("emailValidationRestClient") RestClient restClient,
+            @Value("${thirdparty.email.validation.bulk-url}") URI bulkUrl,
+            @Value("${thirdparty.simulated}") boolean simulated
+    ) {
+        this.restClient = restClient;
+        this.bulkUrl = bulkUrl;
+        this.simulated = simulated;
+    }
+
+    @Timed(value = "thirdparty.validation", extraTags = {"upstream", "email"},
+            description = "Calls to the third-party email validator, cache misses only")
+    @Retry(name = "emailValidation", fallbackMethod = "emailFallback")
+    @CircuitBreaker(name = "emailValidatorService")
+    @Bulkhead(name = "emailValidation")
+    public ValidationVerdict checkEmail(String email) {
+        if (simulated) {
+            // no real upstream to talk to, every email is valid
+            log.info("Simulated third-party email validation for: {}", email);
+            return ValidationVerdict.VALID;
+        }
+
+        ValidationResponse response = restClient.get()
+                .uri(uri -> uri.queryParam("email", email).build())
+                .retrieve()
+                .body(ValidationResponse.class);
+        return response != null && response.valid() ? ValidationVerdict.VALID : ValidationVerdict.INVALID;
+    }
+
+    // one request for many values, see ValidationCollapser. same guards as the single check
+    @Timed(value = "thirdparty.validation.bulk", extraTags = {"upstream", "email"},
+            description = "Bulk calls to the third-party email validator")
+    @Retry(name = "emailValidation", fallbackMethod = "emailsFallback")
+    @CircuitBreaker(name = "emailValidatorService")
+    @Bulkhead(name = "emailValidation")
+    public Map<String, ValidationVerdict> checkEmails(List<String> emails) {
+        if (simulated) {
+            log.info("Simulated third-party email validation for {} emails", emails.size());
+            return verdicts(emails, ValidationVerdict.VALID);
+        }
+
+        BulkValidationResponse response = restClient.post()
+                .uri(bulkUrl)
+                .body(new BulkValidationRequest(emails))
+                .retrieve()
+                .body(BulkValidationResponse.class);
+        Map<String, ValidationVerdict> verdicts = new HashMap<>();
+        if (response != null && response.results() != null) {
+            response.results().forEach((value, valid) ->
+                    verdicts.put(value, Boolean.TRUE.equals(valid) ? ValidationVerdict.VALID : ValidationVerdict.INVALID));
+        }
+        return verdicts;
+    }
+
+    // retries used up, circuit open or bulkhead full
+    public ValidationVerdict emailFallback(String email, Throwable throwable) {
+        log.warn("Email validation unavailable for {}: {}", email, throwable.toString());
+        // we don't know whether the email is valid, the caller decides what to do with that
+        // (and must not remember it as a verdict)
+        return ValidationVerdict.UNAVAILABLE;
+    }
+
+    public Map<String, ValidationVerdict> emailsFallback(List<String> emails, Throwable throwable) {
+        log.warn("Bulk email validation unavailable for {} emails: {}", emails.size(), throwable.toString());
+        return verdicts(emails, ValidationVerdict.UNAVAILABLE);
+    }
+
+    private static Map<String, ValidationVerdict> verdicts(List<String> values, ValidationVerdict verdict) {
+        Map<String, ValidationVerdict> verdicts = new HashMap<>();
+        values.forEach(value -> verdicts.put(value, verdict));
+        return verdicts;
+    }
+}
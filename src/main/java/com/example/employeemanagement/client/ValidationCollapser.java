@@ -0,0 +1,226 @@
+package com.example.employeemanagement.client;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Function;
+
+// collapses concurrent validation calls into bulk upstream requests. a call that finds nothing in flight to the
+// upstream goes straight out on its own thread, so a quiet service pays no window. only while a call is outstanding
+// do new calls collect: the first opens a window, calls arriving within it join the batch (the same value twice
+// shares one slot), and the batch goes out when the outstanding calls are done, the window closes or it has
+// max-size values, whichever comes first. a full batch is sent by the caller that filled it, the others by one of
+// our own dispatch threads. every caller waits for its own verdict.
+// the scheduler only fires the window timers, the (blocking, retried) bulk calls run on the dispatch pool, so a slow
+// upstream can't make later windows close late. when every dispatch thread is busy and the queue is full the batch
+// is turned away like a full bulkhead: every value in it is UNAVAILABLE.
+// a max-size of 1 turns batching off: each call goes straight out on the caller's thread
+public class ValidationCollapser implements AutoCloseable {
+
+    private final Function<List<String>, Map<String, ValidationVerdict>> bulkCheck;
+    private final Duration window;
+    private final int maxBatchSize;
+    private final ThreadPoolTaskScheduler scheduler;
+    private final ThreadPoolTaskExecutor dispatcher;
+
+    private final DistributionSummary batchSizes;
+    private final Counter idleFlushes;
+    private final Counter sizeFlushes;
+    private final Counter windowFlushes;
+    private final Counter drainedFlushes;
+    private final Timer linger;
+    private final Counter rejections;
+
+    private final Object lock = new Object();
+    // guarded by lock
+    private Batch pending;
+    // bulk calls sent (or queued to be) and not answered yet, guarded by lock
+    private int inFlight;
+
+    public ValidationCollapser(
+            String upstream,
+            Function<List<String>, Map<String, ValidationVerdict>> bulkCheck,
+            Duration window,
+            int maxBatchSize,
+            int dispatchThreads,
+            int dispatchQueueCapacity,
+            MeterRegistry meterRegistry
+    ) {
+        this.bulkCheck = bulkCheck;
+        this.window = window;
+        this.maxBatchSize = Math.max(1, maxBatchSize);
+
+        if (this.maxBatchSize > 1) {
+            scheduler = new ThreadPoolTaskScheduler();
+            scheduler.setPoolSize(1);
+            scheduler.setThreadNamePrefix(upstream + "-validation-window-");
+            scheduler.initialize();
+            // the default abort policy, a full pool rejects instead of running the call on the timer thread
+            dispatcher = new ThreadPoolTaskExecutor();
+            dispatcher.setCorePoolSize(dispatchThreads);
+            dispatcher.setMaxPoolSize(dispatchThreads);
+            dispatcher.setQueueCapacity(dispatchQueueCapacity);
+            dispatcher.setThreadNamePrefix(upstream + "-validation-batch-");
+            dispatcher.initialize();
+        } else {
+            scheduler = null;
+            dispatcher = null;
+        }
+
+        this.batchSizes = DistributionSummary.builder("thirdparty.batch.size")
+                .description("Distinct values per bulk validation request")
+                .tag("upstream", upstream)
+                .register(meterRegistry);
+        this.idleFlushes = flushes(meterRegistry, upstream, "idle");
+        this.sizeFlushes = flushes(meterRegistry, upstream, "size");
+        this.windowFlushes = flushes(meterRegistry, upstream, "window");
+        this.drainedFlushes = flushes(meterRegistry, upstream, "drained");
+        this.linger = Timer.builder("thirdparty.batch.linger")
+                .description("Time from the first call of a batch until it was sent")
+                .tag("upstream", upstream)
+                .register(meterRegistry);
+        this.rejections = Counter.builder("thirdparty.batch.rejected")
+                .description("Batches turned away because every dispatch thread was busy and the queue was full")
+                .tag("upstream", upstream)
+                .register(meterRegistry);
+    }
+
+    // blocks until the batch the value went into has been answered
+    public ValidationVerdict check(String value) {
+        try {
+            return submit(value).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    public CompletableFuture<ValidationVerdict> submit(String value) {
+        Batch ready = null;
+        Counter trigger = null;
+        CompletableFuture<ValidationVerdict> verdict;
+        synchronized (lock) {
+            if (pending == null && inFlight == 0) {
+                // nothing to collapse with, waiting out a window would only add latency
+                ready = new Batch(System.nanoTime());
+                verdict = ready.callers.computeIfAbsent(value, ignored -> new CompletableFuture<>());
+                inFlight++;
+                trigger = idleFlushes;
+            } else {
+                if (pending == null) {
+                    pending = new Batch(System.nanoTime());
+                    if (maxBatchSize > 1) {
+                        Batch opened = pending;
+                        scheduler.schedule(() -> closeWindow(opened), scheduler.getClock().instant().plus(window));
+                    }
+                }
+                verdict = pending.callers.computeIfAbsent(value, ignored -> new CompletableFuture<>());
+                if (pending.callers.size() >= maxBatchSize) {
+                    ready = pending;
+                    pending = null;
+                    inFlight++;
+                    trigger = sizeFlushes;
+                }
+            }
+        }
+        if (ready != null) {
+            trigger.increment();
+            send(ready);
+        }
+        return verdict;
+    }
+
+    // the batch may already have gone out because it filled up or the upstream was free again
+    private void closeWindow(Batch batch) {
+        synchronized (lock) {
+            if (pending != batch) {
+                return;
+            }
+            pending = null;
+            inFlight++;
+        }
+        dispatch(batch, windowFlushes);
+    }
+
+    private void dispatch(Batch batch, Counter trigger) {
+        trigger.increment();
+        try {
+            dispatcher.execute(() -> send(batch));
+        } catch (RejectedExecutionException e) {
+            rejections.increment();
+            batch.callers.values().forEach(caller -> caller.complete(ValidationVerdict.UNAVAILABLE));
+            answered();
+        }
+    }
+
+    private void send(Batch batch) {
+        batchSizes.record(batch.callers.size());
+        linger.record(Duration.ofNanos(System.nanoTime() - batch.openedAt));
+        try {
+            Map<String, ValidationVerdict> verdicts = bulkCheck.apply(List.copyOf(batch.callers.keySet()));
+            // a value the upstream left out of its answer wasn't checked
+            batch.callers.forEach((value, caller) ->
+                    caller.complete(verdicts.getOrDefault(value, ValidationVerdict.UNAVAILABLE)));
+        } catch (RuntimeException e) {
+            batch.callers.values().forEach(caller -> caller.completeExceptionally(e));
+        } finally {
+            answered();
+        }
+    }
+
+    // once the last outstanding call is answered, the batch that collected meanwhile doesn't have to wait out its
+    // window. it goes to a dispatch thread, the caller whose call just came back shouldn't wait for it too
+    private void answered() {
+        Batch next = null;
+        synchronized (lock) {
+            inFlight--;
+            if (inFlight == 0 && pending != null) {
+                next = pending;
+                pending = null;
+                inFlight++;
+            }
+        }
+        if (next != null) {
+            dispatch(next, drainedFlushes);
+        }
+    }
+
+    @Override
+    public void close() {
+        if (scheduler != null) {
+            scheduler.shutdown();
+            dispatcher.shutdown();
+        }
+    }
+
+    private static Counter flushes(MeterRegistry meterRegistry, String upstream, String trigger) {
+        return Counter.builder("thirdparty.batch.flushes")
+                .description("Bulk validation requests sent, by what closed the batch")
+                .tag("upstream", upstream)
+                .tag("trigger", trigger)
+                .register(meterRegistry);
+    }
+
+    private static final class Batch {
+        final long openedAt;
+        // value -> the future every caller with that value waits on, in arrival order
+        final Map<String, CompletableFuture<ValidationVerdict>> callers = new LinkedHashMap<>();
+
+        Batch(long openedAt) {
+            this.openedAt = openedAt;
+        }
+    }
+}
@@ -0,0 +1,5 @@
+package com.example.employeemanagement.client;
+
+// what both validators answer with: {"valid": true}
+public record ValidationResponse(boolean valid) {
+}
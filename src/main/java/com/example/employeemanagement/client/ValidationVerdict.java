@@ -0,0 +1,8 @@
+package com.example.employeemanagement.client;
+
+public enum ValidationVerdict {
+    VALID,
+    INVALID,
+    // the upstream couldn't give an answer (circuit open, call failed), this is not a verdict about the input
+    UNAVAILABLE
+}
@@ -0,0 +1,159 @@
+package com.example.employeemanagement.config;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+
+// vegas-style limit on requests in flight. the fastest average latency seen recently is taken as the latency without
+// queueing; from how much slower the current window is, limit * (1 - noLoad / latency) estimates how many requests are
+// waiting on something (database connections, a validator, cpu) instead of doing work. the limit grows while that queue
+// is shorter than alpha = 3 * log10(limit), and shrinks when it's longer than beta = 6 * log10(limit), at most by half
+// per window. a limit that isn't being used (fewer than half of it in flight) is left alone either way: growing it
+// proves nothing, and a slow window at low concurrency comes from the mix of endpoints, not from queueing.
+// reads may use the whole limit, writes only what's left after the share reserved for reads
+public class AdaptiveConcurrencyLimit {
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final double writeShare;
+    private final long windowNanos;
+    private final int windowMinSamples;
+    private final long noLoadWindowNanos;
+    private final LongSupplier nanoClock;
+
+    private final AtomicInteger inflight = new AtomicInteger();
+    // most requests in flight at once during the current window
+    private final AtomicInteger windowMaxInflight = new AtomicInteger();
+    private volatile int limit;
+
+    // every completed request adds to these without taking a lock, the lock is only taken (with tryLock, by one
+    // of the threads that see the window is over) to recompute the limit
+    private final LongAdder windowLatencySum = new LongAdder();
+    private final LongAdder windowSamples = new LongAdder();
+    private volatile long windowStart;
+    private final ReentrantLock updateLock = new ReentrantLock();
+
+    // written under updateLock
+    private double estimatedLimit;
+    private volatile long noLoadLatency = Long.MAX_VALUE;
+    private volatile long previousNoLoadLatency = Long.MAX_VALUE;
+    private long noLoadWindowStart;
+
+    public AdaptiveConcurrencyLimit(ConcurrencyLimitProperties properties, LongSupplier nanoClock) {
+        this.minLimit = Math.max(1, properties.getMinLimit());
+        this.maxLimit = Math.max(minLimit, properties.getMaxLimit());
+        this.writeShare = 1 - properties.getReservedForReads();
+        this.windowNanos = properties.getWindow().toNanos();
+        this.windowMinSamples = Math.max(1, properties.getWindowMinSamples());
+        this.noLoadWindowNanos = properties.getNoLoadLatencyWindow().toNanos();
+        this.nanoClock = nanoClock;
+
+        this.estimatedLimit = Math.max(minLimit, Math.min(maxLimit, properties.getInitialLimit()));
+        this.limit = (int) estimatedLimit;
+        this.windowStart = nanoClock.getAsLong();
+        this.noLoadWindowStart = windowStart;
+    }
+
+    // takes a slot if there's one left for this kind of request, it has to be given back with release
+    public boolean tryAcquire(boolean read) {
+        int allowed = read ? limit : Math.max(1, (int) (limit * writeShare));
+        while (true) {
+            int current = inflight.get();
+            if (current >= allowed) {
+                return false;
+            }
+            if (inflight.compareAndSet(current, current + 1)) {
+                windowMaxInflight.accumulateAndGet(current + 1, Math::max);
+                return true;
+            }
+        }
+    }
+
+    // gives the slot back and counts how long the request took
+    public void release(long latencyNanos) {
+        inflight.decrementAndGet();
+        sample(Math.max(1, latencyNanos));
+    }
+
+    // gives the slot back without a latency, for requests whose duration says nothing about load (async streams)
+    public void release() {
+        inflight.decrementAndGet();
+    }
+
+    public int getLimit() {
+        return limit;
+    }
+
+    public int getInflight() {
+        return inflight.get();
+    }
+
+    public double getNoLoadLatencyMillis() {
+        long noLoad = Math.min(noLoadLatency, previousNoLoadLatency);
+        return noLoad == Long.MAX_VALUE ? 0 : noLoad / (double) TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+    private void sample(long latencyNanos) {
+        windowLatencySum.add(latencyNanos);
+        windowSamples.increment();
+        long now = nanoClock.getAsLong();
+        if (!windowOver(now) || !updateLock.tryLock()) {
+            return;
+        }
+        try {
+            // another thread may have closed this window while we were getting here
+            if (!windowOver(now)) {
+                return;
+            }
+            // a sample landing between the two resets is split across windows, which one request in a window
+            // of many doesn't notice
+            long samples = windowSamples.sumThenReset();
+            long average = windowLatencySum.sumThenReset() / samples;
+            int maxInflight = windowMaxInflight.getAndSet(inflight.get());
+            windowStart = now;
+            update(average, maxInflight, now);
+        } finally {
+            updateLock.unlock();
+        }
+    }
+
+    private boolean windowOver(long now) {
+        return now - windowStart >= windowNanos && windowSamples.sum() >= windowMinSamples;
+    }
+
+    private void update(long latency, int maxInflight, long now) {
+        if (now - noLoadWindowStart >= noLoadWindowNanos) {
+            previousNoLoadLatency = noLoadLatency;
+            noLoadLatency = Long.MAX_VALUE;
+            noLoadWindowStart = now;
+        }
+        noLoadLatency = Math.min(noLoadLatency, latency);
+        long noLoad = Math.min(noLoadLatency, previousNoLoadLatency);
+
+        double queue = estimatedLimit * (1 - (double) noLoad / latency);
+        double log = Math.max(1, Math.log10(estimatedLimit));
+        double alpha = 3 * log;
+        double beta = 6 * log;
+
+        if (maxInflight * 2 < estimatedLimit) {
+            // far from the limit, whatever made this window slow it wasn't letting in too many requests
+            return;
+        }
+        double next;
+        if (queue > beta) {
+            // straight back to a queue of beta, but don't halve the limit on one bad window
+            next = Math.max(estimatedLimit - (queue - beta), estimatedLimit / 2);
+        } else if (queue <= log) {
+            // nothing is waiting, grow fast
+            next = estimatedLimit + beta;
+        } else if (queue < alpha) {
+            next = estimatedLimit + log;
+        } else {
+            return;
+        }
+        estimatedLimit = Math.max(minLimit, Math.min(maxLimit, next));
+        limit = (int) estimatedLimit;
+    }
+}
@@ -0,0 +1,71 @@
+package com.example.employeemanagement.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.boot.task.SimpleAsyncTaskExecutorBuilder;
+import org.springframework.boot.task.ThreadPoolTaskExecutorBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.scheduling.annotation.AsyncAnnotationBeanPostProcessor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.ThreadPoolExecutor;
+
+// executors follow spring.threads.virtual.enabled: pooled platform threads by default,
+// one virtual thread per task (with a concurrency cap where we call out to someone else) when enabled on java 21+
+@Configuration
+public class AsyncConfig {
+
+    // spring boot backs off from its own applicationTaskExecutor as soon as any other Executor bean exists,
+    // so we declare it here (same settings, spring.task.execution.*) next to the validation executor
+    @Bean(name = {
+            TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME,
+            AsyncAnnotationBeanPostProcessor.DEFAULT_TASK_EXECUTOR_BEAN_NAME
+    })
+    @ConditionalOnThreading(Threading.PLATFORM)
+    public ThreadPoolTaskExecutor applicationTaskExecutor(ThreadPoolTaskExecutorBuilder builder) {
+        return builder.build();
+    }
+
+    @Bean(name = {
+            TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME,
+            AsyncAnnotationBeanPostProcessor.DEFAULT_TASK_EXECUTOR_BEAN_NAME
+    })
+    @ConditionalOnThreading(Threading.VIRTUAL)
+    public SimpleAsyncTaskExecutor applicationTaskExecutorVirtualThreads(SimpleAsyncTaskExecutorBuilder builder) {
+        // the builder is already set up for virtual threads by boot in this mode
+        return builder.build();
+    }
+
+    // runs the third-party validation calls of a single request in parallel
+    @Bean
+    @ConditionalOnThreading(Threading.PLATFORM)
+    public ThreadPoolTaskExecutor validationExecutor(
+            @Value("${thirdparty.validation.executor.pool-size}") int poolSize,
+            @Value("${thirdparty.validation.executor.queue-capacity}") int queueCapacity
+    ) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("validation-");
+        // when saturated, the request thread runs the check itself instead of failing the request
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        return executor;
+    }
+
+    @Bean(name = "validationExecutor")
+    @ConditionalOnThreading(Threading.VIRTUAL)
+    public SimpleAsyncTaskExecutor validationExecutorVirtualThreads(
+            @Value("${thirdparty.validation.executor.pool-size}") int poolSize
+    ) {
+        SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("validation-");
+        executor.setVirtualThreads(true);
+        // virtual threads are cheap, the upstreams aren't: keep the same cap on concurrent calls as the platform pool
+        executor.setConcurrencyLimit(poolSize);
+        return executor;
+    }
+}
@@ -0,0 +1,7 @@
+package com.example.employeemanagement.config;
+
+import java.time.Duration;
+
+// capacity tokens, refilled continuously over refillPeriod
+public record BucketLimit(long capacity, Duration refillPeriod) {
+}
@@ -0,0 +1,31 @@
+package com.example.employeemanagement.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.cache.transaction.TransactionAwareCacheManagerProxy;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.List;
+
+@Configuration
+@EnableCaching
+public class CacheConfig {
+
+    public static final String EMPLOYEES_CACHE = "employees";
+
+    @Bean
+    public CacheManager cacheManager(@Value("${cache.employees.spec}") String employeesCacheSpec) {
+        CaffeineCacheManager caffeineCacheManager = new CaffeineCacheManager();
+        caffeineCacheManager.setCacheSpecification(employeesCacheSpec);
+        // create the cache up front so actuator binds its hit/miss/eviction metrics at startup
+        caffeineCacheManager.setCacheNames(List.of(EMPLOYEES_CACHE));
+        caffeineCacheManager.setAllowNullValues(false);
+
+        // evictions are deferred until the surrounding transaction commits,
+        // otherwise a concurrent read could put the pre-update row back before the update is visible
+        return new TransactionAwareCacheManagerProxy(caffeineCacheManager);
+    }
+}
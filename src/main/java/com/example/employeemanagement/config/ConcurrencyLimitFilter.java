@@ -0,0 +1,125 @@
+package com.example.employeemanagement.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.util.Set;
+
+// sheds requests with a fast 503 once the service as a whole has as many in flight as it can take without them
+// queueing (see AdaptiveConcurrencyLimit). runs after RateLimitFilter, so a client over its rate gets its 429
+// without taking a slot. reads are let in up to the limit, writes only up to the part not reserved for reads
+@Component
+@Order(Ordered.LOWEST_PRECEDENCE)
+public class ConcurrencyLimitFilter extends OncePerRequestFilter {
+
+    private static final Set<String> READ_METHODS = Set.of("GET", "HEAD", "OPTIONS");
+
+    private final AntPathMatcher pathMatcher = new AntPathMatcher();
+    private final ConcurrencyLimitProperties properties;
+    private final AdaptiveConcurrencyLimit limit;
+    private final String retryAfterSeconds;
+    private final Counter readAcceptances;
+    private final Counter writeAcceptances;
+    private final Counter readRejections;
+    private final Counter writeRejections;
+
+    public ConcurrencyLimitFilter(ConcurrencyLimitProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.limit = new AdaptiveConcurrencyLimit(properties, System::nanoTime);
+        this.retryAfterSeconds = String.valueOf(Math.max(1, properties.getRetryAfter().toSeconds()));
+
+        Gauge.builder("concurrencylimit.limit", limit, AdaptiveConcurrencyLimit::getLimit)
+                .description("Requests allowed in flight at once")
+                .register(meterRegistry);
+        Gauge.builder("concurrencylimit.inflight", limit, AdaptiveConcurrencyLimit::getInflight)
+                .description("Requests in flight")
+                .register(meterRegistry);
+        Gauge.builder("concurrencylimit.noload.latency", limit, AdaptiveConcurrencyLimit::getNoLoadLatencyMillis)
+                .description("Average latency the limit takes as unloaded")
+                .baseUnit("milliseconds")
+                .register(meterRegistry);
+        this.readAcceptances = counter(meterRegistry, "concurrencylimit.accepted", "Requests let through by the concurrency limiter", "read");
+        this.writeAcceptances = counter(meterRegistry, "concurrencylimit.accepted", "Requests let through by the concurrency limiter", "write");
+        this.readRejections = counter(meterRegistry, "concurrencylimit.rejected", "Requests shed with 503", "read");
+        this.writeRejections = counter(meterRegistry, "concurrencylimit.rejected", "Requests shed with 503", "write");
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        if (!properties.isEnabled()) {
+            return true;
+        }
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        for (String exempt : properties.getExemptPaths()) {
+            if (pathMatcher.match(exempt, path)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    protected void doFilterInternal(
+            HttpServletRequest request,
+            HttpServletResponse response,
+            FilterChain filterChain
+    ) throws java.io.IOException, jakarta.servlet.ServletException {
+
+        boolean read = READ_METHODS.contains(request.getMethod());
+        if (!limit.tryAcquire(read)) {
+            (read ? readRejections : writeRejections).increment();
+            response.setStatus(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+            response.addHeader("Retry-After", retryAfterSeconds);
+            response.getWriter().write("Service overloaded - try again later.");
+            return;
+        }
+
+        (read ? readAcceptances : writeAcceptances).increment();
+        long start = System.nanoTime();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            if (request.isAsyncStarted()) {
+                // a streamed export holds its slot until it's done, but how long it took says nothing about load
+                request.getAsyncContext().addListener(new AsyncListener() {
+                    @Override
+                    public void onComplete(AsyncEvent event) {
+                        limit.release();
+                    }
+
+                    @Override
+                    public void onTimeout(AsyncEvent event) {
+                    }
+
+                    @Override
+                    public void onError(AsyncEvent event) {
+                    }
+
+                    @Override
+                    public void onStartAsync(AsyncEvent event) {
+                    }
+                });
+            } else {
+                limit.release(System.nanoTime() - start);
+            }
+        }
+    }
+
+    private static Counter counter(MeterRegistry meterRegistry, String name, String description, String priority) {
+        return Counter.builder(name)
+                .description(description)
+                .tag("priority", priority)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,40 @@
+package com.example.employeemanagement.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+// server-wide concurrency limit settings, see the CONCURRENCY LIMIT section of application.properties
+@Component
+@ConfigurationProperties(prefix = "concurrencylimit")
+@Data
+public class ConcurrencyLimitProperties {
+
+    private boolean enabled = true;
+
+    // requests in flight allowed before the first latency measurements come in, and the range the limit moves in
+    private int initialLimit = 20;
+    private int minLimit = 4;
+    private int maxLimit = 200;
+
+    // share of the limit only reads may use: writes are shed once this much of it is left
+    private double reservedForReads = 0.25;
+
+    // latencies are averaged over windows of at least this long and this many requests, the limit moves once per window
+    private Duration window = Duration.ofMillis(100);
+    private int windowMinSamples = 10;
+
+    // the no-load latency is the fastest window seen in the last one to two of these, so it can follow a
+    // database that got slower for good instead of shedding against a latency it will never see again
+    private Duration noLoadLatencyWindow = Duration.ofMinutes(1);
+
+    // sent with the 503
+    private Duration retryAfter = Duration.ofSeconds(1);
+
+    // ant-style patterns that are never limited (h2 console, swagger, actuator)
+    private List<String> exemptPaths = new ArrayList<>();
+}
@@ -0,0 +1,54 @@
+package com.example.employeemanagement.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.github.bucket4j.Bandwidth;
+import io.github.bucket4j.Bucket;
+import io.github.bucket4j.Bucket4j;
+import io.github.bucket4j.ConsumptionProbe;
+import io.github.bucket4j.Refill;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+// buckets local to this instance, in a bounded caffeine cache that drops idle and least recently used clients.
+// with several instances behind a load balancer every one of them enforces the full limit, see the jdbc store
+@Component
+@ConditionalOnProperty(name = "ratelimit.store", havingValue = "memory", matchIfMissing = true)
+public class InMemoryRateLimitBucketStore implements RateLimitBucketStore {
+
+    private final Cache<String, Bucket> buckets;
+
+    public InMemoryRateLimitBucketStore(RateLimitProperties properties, MeterRegistry meterRegistry) {
+        this.buckets = Caffeine.newBuilder()
+                .maximumSize(properties.getMaxKeys())
+                .expireAfterAccess(properties.effectiveIdleTimeout())
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, buckets, "rateLimitBuckets");
+    }
+
+    @Override
+    public RateLimitDecision tryConsume(String key, BucketLimit limit) {
+        Bucket bucket = buckets.get(key, k -> newBucket(limit));
+        ConsumptionProbe probe = bucket.tryConsumeAndReturnRemaining(1);
+        if (probe.isConsumed()) {
+            return RateLimitDecision.allowed(probe.getRemainingTokens());
+        }
+        return RateLimitDecision.rejected(probe.getNanosToWaitForRefill());
+    }
+
+    @Override
+    public long activeKeys() {
+        // forces pending evictions first
+        buckets.cleanUp();
+        return buckets.estimatedSize();
+    }
+
+    private Bucket newBucket(BucketLimit limit) {
+        return Bucket4j.builder()
+                .addLimit(Bandwidth.classic(limit.capacity(), Refill.greedy(limit.capacity(), limit.refillPeriod())))
+                .build();
+    }
+}
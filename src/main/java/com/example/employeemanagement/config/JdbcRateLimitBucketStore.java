@@ -0,0 +1,173 @@
+package com.example.employeemanagement.config;
+
+import com.example.employeemanagement.entity.RateLimitBucket;
+import com.example.employeemanagement.repository.RateLimitBucketRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.locks.ReentrantLock;
+
+// buckets shared by all instances through the application database, so the configured limit holds for the
+// whole cluster instead of once per instance. to keep the database off the hot path each instance leases a few
+// tokens at a time (ratelimit.jdbc.lease-size) and hands them out locally until they run out or the lease
+// expires. leased tokens that expire unused are not returned, so under uneven load the cluster admits slightly
+// less than the limit, never more
+@Component
+@ConditionalOnProperty(name = "ratelimit.store", havingValue = "jdbc")
+@Slf4j
+public class JdbcRateLimitBucketStore implements RateLimitBucketStore {
+
+    private final RateLimitBucketRepository bucketRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final long leaseSize;
+    private final Duration leaseTtl;
+    private final Duration idleTimeout;
+    private final Cache<String, Lease> leases;
+
+    private ThreadPoolTaskScheduler cleanupScheduler;
+
+    public JdbcRateLimitBucketStore(
+            RateLimitBucketRepository bucketRepository,
+            TransactionTemplate transactionTemplate,
+            RateLimitProperties properties
+    ) {
+        this.bucketRepository = bucketRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.leaseSize = properties.getJdbc().getLeaseSize();
+        this.leaseTtl = properties.getJdbc().getLeaseTtl();
+        this.idleTimeout = properties.effectiveIdleTimeout();
+        this.leases = Caffeine.newBuilder()
+                .maximumSize(properties.getMaxKeys())
+                .expireAfterAccess(idleTimeout)
+                .build();
+    }
+
+    // drops rows nobody has touched for the idle timeout, they'd be full again anyway
+    @PostConstruct
+    void start() {
+        cleanupScheduler = new ThreadPoolTaskScheduler();
+        cleanupScheduler.setPoolSize(1);
+        cleanupScheduler.setThreadNamePrefix("ratelimit-cleanup-");
+        cleanupScheduler.initialize();
+        cleanupScheduler.scheduleWithFixedDelay(this::deleteIdleBuckets, idleTimeout);
+    }
+
+    @PreDestroy
+    void stop() {
+        if (cleanupScheduler != null) {
+            cleanupScheduler.shutdown();
+        }
+    }
+
+    @Override
+    public RateLimitDecision tryConsume(String key, BucketLimit limit) {
+        Lease lease = leases.get(key, k -> new Lease());
+        // a lock rather than synchronized, the lease may be refilled from the database and that shouldn't pin
+        // a virtual thread
+        lease.lock.lock();
+        try {
+            long now = System.nanoTime();
+            if (lease.tokens > 0 && now < lease.expiresAtNanos) {
+                lease.tokens--;
+                return RateLimitDecision.allowed(lease.tokens);
+            }
+            // the store said empty, keep saying so locally until the next token is due, or an abusive client would
+            // cost the shared store a locking write per rejected request
+            if (now - lease.emptyUntilNanos < 0) {
+                return RateLimitDecision.rejected(lease.emptyUntilNanos - now);
+            }
+
+            Grant grant = leaseFromStore(key, limit, Math.min(leaseSize, limit.capacity()));
+            if (grant.tokens() == 0) {
+                lease.tokens = 0;
+                lease.emptyUntilNanos = now + grant.nanosToWait();
+                return RateLimitDecision.rejected(grant.nanosToWait());
+            }
+            lease.tokens = grant.tokens() - 1;
+            lease.expiresAtNanos = now + leaseTtl.toNanos();
+            return RateLimitDecision.allowed(lease.tokens);
+        } finally {
+            lease.lock.unlock();
+        }
+    }
+
+    @Override
+    public long activeKeys() {
+        leases.cleanUp();
+        return leases.estimatedSize();
+    }
+
+    private Grant leaseFromStore(String key, BucketLimit limit, long wanted) {
+        try {
+            return transactionTemplate.execute(status -> grant(key, limit, wanted));
+        } catch (DataIntegrityViolationException e) {
+            // another instance inserted the row first, it exists now so the second go locks it
+            return transactionTemplate.execute(status -> grant(key, limit, wanted));
+        }
+    }
+
+    private Grant grant(String key, BucketLimit limit, long wanted) {
+        Instant now = Instant.now();
+        RateLimitBucket bucket = bucketRepository.findForUpdate(key)
+                .orElseGet(() -> RateLimitBucket.builder()
+                        .bucketKey(key)
+                        .tokens(limit.capacity())
+                        .refilledAt(now)
+                        .build());
+        refill(bucket, limit, now);
+
+        long granted = Math.min(wanted, (long) bucket.getTokens());
+        if (granted > 0) {
+            bucket.setTokens(bucket.getTokens() - granted);
+            bucketRepository.saveAndFlush(bucket);
+            return new Grant(granted, 0);
+        }
+        // nothing taken, nothing to write: the refill is worked out from refilledAt again next time
+        double missing = 1 - bucket.getTokens();
+        long nanosToWait = (long) Math.ceil(missing * limit.refillPeriod().toNanos() / limit.capacity());
+        return new Grant(0, nanosToWait);
+    }
+
+    // greedy refill: tokens come back continuously, capacity of them per refill period
+    private void refill(RateLimitBucket bucket, BucketLimit limit, Instant now) {
+        long elapsedNanos = Duration.between(bucket.getRefilledAt(), now).toNanos();
+        if (elapsedNanos <= 0) {
+            // another instance's clock is ahead of ours, just don't refill
+            return;
+        }
+        double refilled = (double) elapsedNanos * limit.capacity() / limit.refillPeriod().toNanos();
+        bucket.setTokens(Math.min(limit.capacity(), bucket.getTokens() + refilled));
+        bucket.setRefilledAt(now);
+    }
+
+    private void deleteIdleBuckets() {
+        try {
+            Integer deleted = transactionTemplate.execute(status ->
+                    bucketRepository.deleteIdleSince(Instant.now().minus(idleTimeout)));
+            log.debug("Deleted {} idle rate limit buckets", deleted);
+        } catch (Exception e) {
+            log.error("Rate limit bucket cleanup failed: {}", e.getMessage());
+        }
+    }
+
+    private record Grant(long tokens, long nanosToWait) {
+    }
+
+    private static class Lease {
+        private final ReentrantLock lock = new ReentrantLock();
+        private long tokens;
+        private long expiresAtNanos;
+        // nanoTime before which the store has no token for this key, compared by difference since nanoTime may wrap
+        private long emptyUntilNanos = System.nanoTime();
+    }
+}
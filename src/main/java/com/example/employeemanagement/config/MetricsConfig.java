@@ -0,0 +1,19 @@
+package com.example.employeemanagement.config;
+
+import io.micrometer.core.aop.TimedAspect;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+// everything ends up on /actuator/prometheus. most of it is bound by boot (http server requests, hikari pool,
+// task executors, caches) or resilience4j (circuit breaker state and calls), this adds what isn't:
+// @Timed on our own beans. percentile histograms are switched on per metric in application.properties
+@Configuration
+public class MetricsConfig {
+
+    // makes @Timed work on any bean, the service and the third-party clients use it
+    @Bean
+    public TimedAspect timedAspect(MeterRegistry meterRegistry) {
+        return new TimedAspect(meterRegistry);
+    }
+}
@@ -0,0 +1,11 @@
+package com.example.employeemanagement.config;
+
+// where RateLimitFilter's buckets live, picked with ratelimit.store (memory or jdbc)
+public interface RateLimitBucketStore {
+
+    // takes one token from the bucket behind key, creating it full if it doesn't exist yet
+    RateLimitDecision tryConsume(String key, BucketLimit limit);
+
+    // keys currently held in this instance's memory
+    long activeKeys();
+}
@@ -0,0 +1,12 @@
+package com.example.employeemanagement.config;
+
+public record RateLimitDecision(boolean allowed, long remainingTokens, long nanosToWait) {
+
+    static RateLimitDecision allowed(long remainingTokens) {
+        return new RateLimitDecision(true, remainingTokens, 0);
+    }
+
+    static RateLimitDecision rejected(long nanosToWait) {
+        return new RateLimitDecision(false, 0, nanosToWait);
+    }
+}
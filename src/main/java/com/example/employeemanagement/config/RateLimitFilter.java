@@ -1,20 +1,85 @@
 package com.example.employeemanagement.config;
 
-import io.github.bucket4j.*;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
 import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
 import org.springframework.web.filter.OncePerRequestFilter;
 
-import java.time.Duration;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ConcurrentMap;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
+// token bucket per client and tier. which tier applies is decided here, where the buckets live is up to the
+// RateLimitBucketStore (in memory by default, or shared through the database).
+// ordered before ConcurrencyLimitFilter, a client over its rate shouldn't take one of the server's slots
 @Component
+@Order(Ordered.LOWEST_PRECEDENCE - 10)
+@Slf4j
 public class RateLimitFilter extends OncePerRequestFilter {
 
-    private final ConcurrentMap<String, Bucket> cache = new ConcurrentHashMap<>();
+    static final String DEFAULT_TIER = "default";
+
+    private final AntPathMatcher pathMatcher = new AntPathMatcher();
+    private final RateLimitProperties properties;
+    private final RateLimitBucketStore bucketStore;
+    private final List<RateLimitProperties.Tier> tiers = new ArrayList<>();
+    private final Map<String, BucketLimit> limits = new HashMap<>();
+    private final Map<String, Counter> acceptances = new HashMap<>();
+    private final Map<String, Counter> rejections = new HashMap<>();
+
+    public RateLimitFilter(RateLimitProperties properties, RateLimitBucketStore bucketStore, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.bucketStore = bucketStore;
+
+        for (RateLimitProperties.Tier tier : properties.getTiers()) {
+            tiers.add(tier);
+            limits.put(tier.getName(), new BucketLimit(tier.getCapacity(), tier.getRefillPeriod()));
+        }
+        limits.put(DEFAULT_TIER, new BucketLimit(properties.getCapacity(), properties.getRefillPeriod()));
+
+        if (!properties.effectiveIdleTimeout().equals(properties.getIdleTimeout())) {
+            log.warn("ratelimit.idle-timeout {} is shorter than the longest refill period, using {}",
+                    properties.getIdleTimeout(), properties.effectiveIdleTimeout());
+        }
+
+        Gauge.builder("ratelimit.active.keys", bucketStore, RateLimitBucketStore::activeKeys)
+                .description("Clients currently holding a rate limit bucket in memory")
+                .register(meterRegistry);
+        for (String tier : limits.keySet()) {
+            acceptances.put(tier, Counter.builder("ratelimit.accepted")
+                    .description("Requests let through by the rate limiter")
+                    .tag("tier", tier)
+                    .register(meterRegistry));
+            rejections.put(tier, Counter.builder("ratelimit.rejected")
+                    .description("Requests rejected with 429")
+                    .tag("tier", tier)
+                    .register(meterRegistry));
+        }
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        if (!properties.isEnabled()) {
+            return true;
+        }
+        String path = path(request);
+        for (String exempt : properties.getExemptPaths()) {
+            if (pathMatcher.match(exempt, path)) {
+                return true;
+            }
+        }
+        return false;
+    }
 
     @Override
     protected void doFilterInternal(
@@ -23,25 +88,43 @@ public class RateLimitFilter extends OncePerRequestFilter {
             FilterChain filterChain
     ) throws java.io.IOException, jakarta.servlet.ServletException {
 
-        String ip = request.getRemoteAddr();
-        Bucket bucket = cache.computeIfAbsent(ip, this::newBucket);
+        String tier = resolveTier(request);
+        String key = tier + '|' + request.getRemoteAddr();
+        RateLimitDecision decision = bucketStore.tryConsume(key, limits.get(tier));
 
-        ConsumptionProbe probe = bucket.tryConsumeAndReturnRemaining(1);
-        if (probe.isConsumed()) {
+        if (decision.allowed()) {
             // allowed
+            acceptances.get(tier).increment();
             response.addHeader("X-Rate-Limit-Remaining",
-                    String.valueOf(probe.getRemainingTokens()));
+                    String.valueOf(decision.remainingTokens()));
             filterChain.doFilter(request, response);
         } else {
             // too many requests
+            rejections.get(tier).increment();
+            long retryAfterSeconds = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(decision.nanosToWait()));
             response.setStatus(429); // HTTP 429 Too Many Requests
+            response.addHeader("Retry-After", String.valueOf(retryAfterSeconds));
             response.getWriter().write("Too many requests - rate limit exceeded.");
         }
     }
 
-    private Bucket newBucket(String key) {
-        return Bucket4j.builder()
-                .addLimit(Bandwidth.classic(10, Refill.greedy(10, Duration.ofSeconds(60))))
-                .build();
+    private String resolveTier(HttpServletRequest request) {
+        String path = path(request);
+        String method = request.getMethod();
+        for (RateLimitProperties.Tier tier : tiers) {
+            if (!tier.getMethods().isEmpty() && !tier.getMethods().contains(method)) {
+                continue;
+            }
+            for (String pattern : tier.getPaths()) {
+                if (pathMatcher.match(pattern, path)) {
+                    return tier.getName();
+                }
+            }
+        }
+        return DEFAULT_TIER;
+    }
+
+    private String path(HttpServletRequest request) {
+        return request.getRequestURI().substring(request.getContextPath().length());
     }
 }
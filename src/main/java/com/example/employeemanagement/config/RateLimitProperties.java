@@ -0,0 +1,70 @@
+package com.example.employeemanagement.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+// rate limit settings, see the RATE LIMITING section of application.properties
+@Component
+@ConfigurationProperties(prefix = "ratelimit")
+@Data
+public class RateLimitProperties {
+
+    private boolean enabled = true;
+
+    // memory: buckets per instance. jdbc: buckets shared through the database, see JdbcRateLimitBucketStore
+    private String store = "memory";
+
+    // upper bound on buckets held in memory, the least recently used ones go first when it's reached
+    private long maxKeys = 100_000;
+
+    // buckets untouched for this long are dropped. a bucket idle for a full refill period is back at capacity
+    // anyway, so as long as this is at least the longest refill period evicting it loses nothing
+    private Duration idleTimeout = Duration.ofMinutes(5);
+
+    // ant-style patterns that are never limited (h2 console, swagger, actuator)
+    private List<String> exemptPaths = new ArrayList<>();
+
+    // checked in order, the first tier matching path and method wins
+    private List<Tier> tiers = new ArrayList<>();
+
+    // limit for anything that doesn't match a tier
+    private long capacity = 10;
+    private Duration refillPeriod = Duration.ofMinutes(1);
+
+    private Jdbc jdbc = new Jdbc();
+
+    // idle timeout raised to the longest refill period if it's configured shorter, evicting a bucket before it
+    // has refilled would hand the client a fresh one, i.e. extra tokens
+    public Duration effectiveIdleTimeout() {
+        Duration longest = refillPeriod;
+        for (Tier tier : tiers) {
+            if (tier.getRefillPeriod().compareTo(longest) > 0) {
+                longest = tier.getRefillPeriod();
+            }
+        }
+        return idleTimeout.compareTo(longest) < 0 ? longest : idleTimeout;
+    }
+
+    @Data
+    public static class Tier {
+        private String name;
+        private List<String> paths = new ArrayList<>();
+        // empty means every method
+        private List<String> methods = new ArrayList<>();
+        private long capacity;
+        private Duration refillPeriod;
+    }
+
+    @Data
+    public static class Jdbc {
+        // tokens an instance takes from the shared bucket per round trip, capped at the tier capacity
+        private long leaseSize = 5;
+        // unused leased tokens are dropped after this so one instance can't sit on them
+        private Duration leaseTtl = Duration.ofSeconds(1);
+    }
+}
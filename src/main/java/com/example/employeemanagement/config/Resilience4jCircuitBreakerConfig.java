@@ -1,7 +1,11 @@
 package com.example.employeemanagement.config;
 
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
 import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
 import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.micrometer.tagged.TaggedCircuitBreakerMetrics;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
@@ -9,12 +13,31 @@ import org.springframework.context.annotation.Configuration;
 public class Resilience4jCircuitBreakerConfig {
 
     @Bean
-    public CircuitBreakerRegistry circuitBreakerRegistry() {
+    public CircuitBreakerRegistry circuitBreakerRegistry(MeterRegistry meterRegistry) {
         // this is a programmatic config, we can also use the properties in application.properties
         CircuitBreakerConfig cbConfig = CircuitBreakerConfig.custom()
                 .failureRateThreshold(50) // 50% failures to open the circuit
                 .slidingWindowSize(5)
+                // a full bulkhead is our own limit, it says nothing about the upstream
+                .ignoreExceptions(BulkheadFullException.class)
                 .build();
-        return CircuitBreakerRegistry.of(cbConfig);
+        CircuitBreakerRegistry registry = CircuitBreakerRegistry.of(cbConfig);
+
+        // state, call counts and failure rate per circuit breaker. the starter only does this for the registry it
+        // creates itself, not for ours
+        TaggedCircuitBreakerMetrics.ofCircuitBreakerRegistry(registry).bindTo(meterRegistry);
+        // and how often the state changed. circuit breakers are created lazily on first use, hence the entry-added hook
+        registry.getEventPublisher().onEntryAdded(event -> countTransitions(event.getAddedEntry(), meterRegistry));
+        registry.getAllCircuitBreakers().forEach(circuitBreaker -> countTransitions(circuitBreaker, meterRegistry));
+        return registry;
+    }
+
+    private void countTransitions(CircuitBreaker circuitBreaker, MeterRegistry meterRegistry) {
+        circuitBreaker.getEventPublisher().onStateTransition(event -> meterRegistry.counter(
+                "resilience4j.circuitbreaker.transitions",
+                "name", event.getCircuitBreakerName(),
+                "from", event.getStateTransition().getFromState().name().toLowerCase(),
+                "to", event.getStateTransition().getToState().name().toLowerCase()
+        ).increment());
     }
 }
@@ -0,0 +1,117 @@
+package com.example.employeemanagement.config;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.core5.pool.PoolStats;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.web.client.RestClient;
+
+import java.time.Duration;
+import java.util.function.ToDoubleFunction;
+
+// one keep-alive connection pool per upstream, so a slow email validator can't take the department validator's
+// connections. every wait is bounded: getting a pooled connection, connecting, and each read of the response.
+// retries are resilience4j's job (see the clients), the http client's own are off
+@Configuration
+public class ThirdPartyHttpClientConfig {
+
+    @Value("${thirdparty.http.max-connections}")
+    private int maxConnections;
+
+    @Value("${thirdparty.http.connection-request-timeout}")
+    private Duration connectionRequestTimeout;
+
+    @Value("${thirdparty.http.connect-timeout}")
+    private Duration connectTimeout;
+
+    @Value("${thirdparty.http.response-timeout}")
+    private Duration responseTimeout;
+
+    @Value("${thirdparty.http.idle-timeout}")
+    private Duration idleTimeout;
+
+    @Bean
+    public CloseableHttpClient emailValidationHttpClient(MeterRegistry meterRegistry) {
+        return httpClient("email", meterRegistry);
+    }
+
+    @Bean
+    public CloseableHttpClient departmentValidationHttpClient(MeterRegistry meterRegistry) {
+        return httpClient("department", meterRegistry);
+    }
+
+    // built from boot's builder, so the calls show up in http.client.requests
+    @Bean
+    public RestClient emailValidationRestClient(
+            RestClient.Builder builder,
+            @Qualifier("emailValidationHttpClient") CloseableHttpClient httpClient,
+            @Value("${thirdparty.email.validation.url}") String url
+    ) {
+        return builder.clone()
+                .baseUrl(url)
+                .requestFactory(new HttpComponentsClientHttpRequestFactory(httpClient))
+                .build();
+    }
+
+    @Bean
+    public RestClient departmentValidationRestClient(
+            RestClient.Builder builder,
+            @Qualifier("departmentValidationHttpClient") CloseableHttpClient httpClient,
+            @Value("${thirdparty.department.validation.url}") String url
+    ) {
+        return builder.clone()
+                .baseUrl(url)
+                .requestFactory(new HttpComponentsClientHttpRequestFactory(httpClient))
+                .build();
+    }
+
+    private CloseableHttpClient httpClient(String upstream, MeterRegistry meterRegistry) {
+        PoolingHttpClientConnectionManager connectionManager = PoolingHttpClientConnectionManagerBuilder.create()
+                // every call of an upstream goes to the same host, so the route limit is the pool size
+                .setMaxConnTotal(maxConnections)
+                .setMaxConnPerRoute(maxConnections)
+                .setDefaultConnectionConfig(ConnectionConfig.custom()
+                        .setConnectTimeout(Timeout.of(connectTimeout))
+                        .setSocketTimeout(Timeout.of(responseTimeout))
+                        // a connection that sat in the pool for a while may have been closed by the other side
+                        .setValidateAfterInactivity(TimeValue.ofSeconds(2))
+                        .build())
+                .build();
+
+        poolGauge(meterRegistry, upstream, "leased", connectionManager, PoolStats::getLeased);
+        poolGauge(meterRegistry, upstream, "available", connectionManager, PoolStats::getAvailable);
+        poolGauge(meterRegistry, upstream, "pending", connectionManager, PoolStats::getPending);
+
+        return HttpClients.custom()
+                .setConnectionManager(connectionManager)
+                .setDefaultRequestConfig(RequestConfig.custom()
+                        .setConnectionRequestTimeout(Timeout.of(connectionRequestTimeout))
+                        .setResponseTimeout(Timeout.of(responseTimeout))
+                        .build())
+                .evictExpiredConnections()
+                .evictIdleConnections(TimeValue.of(idleTimeout))
+                .disableAutomaticRetries()
+                .build();
+    }
+
+    private void poolGauge(MeterRegistry meterRegistry, String upstream, String state,
+                           PoolingHttpClientConnectionManager connectionManager, ToDoubleFunction<PoolStats> stat) {
+        Gauge.builder("thirdparty.http.connections", connectionManager, manager -> stat.applyAsDouble(manager.getTotalStats()))
+                .description("Pooled connections to a third-party validator, pending = callers waiting for one")
+                .tag("upstream", upstream)
+                .tag("state", state)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,54 @@
+package com.example.employeemanagement.config;
+
+import com.example.employeemanagement.client.DepartmentValidationClient;
+import com.example.employeemanagement.client.EmailValidationClient;
+import com.example.employeemanagement.client.ValidationCollapser;
+import com.example.employeemanagement.client.ValidationVerdict;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+// concurrent validation calls that miss the validators' caches are collapsed into bulk upstream requests.
+// a batch that ends up with a single value goes to the upstream's single check instead
+@Configuration
+public class ValidationBatchingConfig {
+
+    @Value("${thirdparty.batching.window}")
+    private Duration window;
+
+    @Value("${thirdparty.batching.max-size}")
+    private int maxBatchSize;
+
+    @Value("${thirdparty.batching.dispatch-threads}")
+    private int dispatchThreads;
+
+    @Value("${thirdparty.batching.dispatch-queue-capacity}")
+    private int dispatchQueueCapacity;
+
+    @Bean
+    public ValidationCollapser emailValidationCollapser(EmailValidationClient client, MeterRegistry meterRegistry) {
+        return new ValidationCollapser("email", bulkOrSingle(client::checkEmails, client::checkEmail),
+                window, maxBatchSize, dispatchThreads, dispatchQueueCapacity, meterRegistry);
+    }
+
+    @Bean
+    public ValidationCollapser departmentValidationCollapser(DepartmentValidationClient client, MeterRegistry meterRegistry) {
+        return new ValidationCollapser("department", bulkOrSingle(client::checkDepartments, client::checkDepartment),
+                window, maxBatchSize, dispatchThreads, dispatchQueueCapacity, meterRegistry);
+    }
+
+    private static Function<List<String>, Map<String, ValidationVerdict>> bulkOrSingle(
+            Function<List<String>, Map<String, ValidationVerdict>> bulk,
+            Function<String, ValidationVerdict> single
+    ) {
+        return values -> values.size() == 1
+                ? Map.of(values.get(0), single.apply(values.get(0)))
+                : bulk.apply(values);
+    }
+}
@@ -0,0 +1,24 @@
+package com.example.employeemanagement.controller;
+
+import com.example.employeemanagement.dto.DepartmentStats;
+import com.example.employeemanagement.service.DepartmentStatisticsService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/departments")
+@RequiredArgsConstructor
+public class DepartmentController {
+
+    private final DepartmentStatisticsService departmentStatisticsService;
+
+    // served from in-memory aggregates, one entry per department with at least one employee
+    @GetMapping("/stats")
+    public List<DepartmentStats> getDepartmentStats() {
+        return departmentStatisticsService.getStatistics();
+    }
+}
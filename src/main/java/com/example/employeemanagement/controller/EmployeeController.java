@@ -1,21 +1,75 @@
 package com.example.employeemanagement.controller;
 
+import com.example.employeemanagement.dto.BatchCreateResult;
+import com.example.employeemanagement.dto.BulkOperationRequest;
+import com.example.employeemanagement.dto.BulkOperationResult;
+import com.example.employeemanagement.dto.EmployeeField;
+import com.example.employeemanagement.dto.EmployeeFieldsPage;
+import com.example.employeemanagement.dto.EmployeePage;
+import com.example.employeemanagement.dto.EmployeeSearchCriteria;
+import com.example.employeemanagement.dto.EmployeeSearchPage;
 import com.example.employeemanagement.entity.Employee;
+import com.example.employeemanagement.exception.InvalidInputException;
 import com.example.employeemanagement.service.EmployeeService;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.csv.CsvMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvSchema;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
+import java.util.stream.Collectors;
 
 @RestController
 @RequestMapping("/api/employees")
 @RequiredArgsConstructor
 public class EmployeeController {
 
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    public static final String NDJSON_VALUE = "application/x-ndjson";
+    public static final String MERGE_PATCH_VALUE = "application/merge-patch+json";
+    public static final String CSV_VALUE = "text/csv";
+
+    // header line plus the columns in a fixed order
+    private static final ObjectWriter CSV_WRITER = new CsvMapper()
+            .writerFor(Employee.class)
+            .with(CsvSchema.builder()
+                    .addColumns(List.of("id", "firstName", "lastName", "email", "department", "salary", "version"),
+                            CsvSchema.ColumnType.STRING)
+                    .build()
+                    .withHeader())
+            .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+
     private final EmployeeService employeeService;
+    private final ObjectMapper objectMapper;
+
+    @Value("${api.employees.page.max-size}")
+    private int maxPageSize;
+
+    @Value("${api.employees.batch.max-size}")
+    private int maxBatchSize;
 
     @PostMapping
     @ResponseStatus(HttpStatus.CREATED)
@@ -23,6 +77,15 @@ public class EmployeeController {
         return employeeService.createEmployee(employee);
     }
 
+    // items are validated one by one, so a bad employee shows up in its own result instead of failing the request
+    @PostMapping("/batch")
+    public BatchCreateResult createEmployees(@RequestBody List<Employee> employees) {
+        if (employees.isEmpty() || employees.size() > maxBatchSize) {
+            throw new InvalidInputException("Batch size must be between 1 and " + maxBatchSize);
+        }
+        return employeeService.createEmployees(employees);
+    }
+
     @GetMapping("/{id}")
     public Employee getEmployeeById(@PathVariable UUID id) {
         return employeeService.getEmployeeById(id);
@@ -33,14 +96,241 @@ public class EmployeeController {
         return employeeService.updateEmployee(id, employee);
     }
 
+    // JSON merge patch (RFC 7396): fields that are present are set, null clears them (which fails validation for
+    // the required ones), absent fields are left alone. include "version" from the last read to get a 409 instead
+    // of overwriting someone else's change
+    @PatchMapping(value = "/{id}", consumes = {MERGE_PATCH_VALUE, MediaType.APPLICATION_JSON_VALUE})
+    public Employee patchEmployee(@PathVariable UUID id, @RequestBody String body) {
+        JsonNode patch;
+        try {
+            // big decimals so a salary doesn't take a detour through double
+            patch = objectMapper.reader().with(DeserializationFeature.USE_BIG_DECIMAL_FOR_FLOATS).readTree(body);
+        } catch (IOException e) {
+            throw new InvalidInputException("Malformed JSON: " + e.getMessage());
+        }
+        if (patch == null || !patch.isObject()) {
+            throw new InvalidInputException("A merge patch must be a JSON object");
+        }
+
+        Long expectedVersion = null;
+        Map<EmployeeField, Object> changes = new EnumMap<>(EmployeeField.class);
+        for (Map.Entry<String, JsonNode> entry : patch.properties()) {
+            String name = entry.getKey();
+            JsonNode value = entry.getValue();
+            if (name.equals("version")) {
+                if (!value.canConvertToExactIntegral()) {
+                    throw new InvalidInputException("version must be a whole number");
+                }
+                expectedVersion = value.longValue();
+                continue;
+            }
+            EmployeeField field;
+            try {
+                field = EmployeeField.fromAttribute(name);
+            } catch (IllegalArgumentException e) {
+                throw new InvalidInputException("Unknown field '" + name + "', fields must be some of " + knownFields());
+            }
+            if (field == EmployeeField.ID) {
+                if (!value.asText().equals(id.toString())) {
+                    throw new InvalidInputException("id can't be changed");
+                }
+                continue;
+            }
+            changes.put(field, patchValue(field, value));
+        }
+
+        return employeeService.patchEmployee(id, changes, expectedVersion);
+    }
+
+    private Object patchValue(EmployeeField field, JsonNode value) {
+        if (value.isNull()) {
+            return null;
+        }
+        if (field == EmployeeField.SALARY) {
+            if (!value.isNumber()) {
+                throw new InvalidInputException("salary must be a number");
+            }
+            return value.decimalValue();
+        }
+        if (!value.isTextual()) {
+            throw new InvalidInputException(field.getAttribute() + " must be a string");
+        }
+        return value.textValue();
+    }
+
     @DeleteMapping("/{id}")
     @ResponseStatus(HttpStatus.NO_CONTENT)
     public void deleteEmployee(@PathVariable UUID id) {
         employeeService.deleteEmployee(id);
     }
 
+    // bulk operations select employees by "ids" and/or "filter" and run as a single statement each,
+    // the response only carries how many employees were affected
+    @PostMapping("/bulk/transfer")
+    public BulkOperationResult transferEmployees(@RequestBody BulkOperationRequest request) {
+        return employeeService.transferEmployees(request);
+    }
+
+    @PostMapping("/bulk/salary")
+    public BulkOperationResult adjustSalaries(@RequestBody BulkOperationRequest request) {
+        return employeeService.adjustSalaries(request);
+    }
+
+    @PostMapping("/bulk/delete")
+    public BulkOperationResult deleteEmployees(@RequestBody BulkOperationRequest request) {
+        return employeeService.deleteEmployees(request);
+    }
+
+    // keyset pagination: pass the X-Next-Cursor value of the previous page as "after" to get the next one.
+    // fields=id,firstName,... returns only those attributes and only selects those columns
     @GetMapping
-    public List<Employee> getAllEmployees() {
-        return employeeService.getAllEmployees();
+    public ResponseEntity<List<?>> getEmployees(
+            @RequestParam(required = false) UUID after,
+            @RequestParam(defaultValue = "${api.employees.page.default-size}") int size,
+            @RequestParam(required = false) String fields
+    ) {
+        if (size < 1 || size > maxPageSize) {
+            throw new InvalidInputException("Page size must be between 1 and " + maxPageSize);
+        }
+
+        if (fields != null) {
+            return fieldsResponse(employeeService.getEmployeeFieldsPage(after, size, parseFields(fields)));
+        }
+
+        EmployeePage page = employeeService.getEmployeesPage(after, size);
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.getNextCursor() != null) {
+            response.header(NEXT_CURSOR_HEADER, page.getNextCursor().toString());
+        }
+        return response.body(page.getEmployees());
+    }
+
+    // filters are optional and combined with AND. sort is id, lastName or salary; paging works like getEmployees,
+    // with an opaque cursor since the position depends on the sort
+    @GetMapping("/search")
+    public ResponseEntity<List<?>> searchEmployees(
+            @RequestParam(required = false) String department,
+            @RequestParam(required = false) BigDecimal minSalary,
+            @RequestParam(required = false) BigDecimal maxSalary,
+            @RequestParam(required = false) String lastNamePrefix,
+            @RequestParam(required = false) String emailDomain,
+            @RequestParam(defaultValue = "id") String sort,
+            @RequestParam(defaultValue = "asc") String direction,
+            @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "${api.employees.page.default-size}") int size,
+            @RequestParam(required = false) String fields
+    ) {
+        if (size < 1 || size > maxPageSize) {
+            throw new InvalidInputException("Page size must be between 1 and " + maxPageSize);
+        }
+        if (minSalary != null && maxSalary != null && minSalary.compareTo(maxSalary) > 0) {
+            throw new InvalidInputException("minSalary must not be greater than maxSalary");
+        }
+        if (!direction.equals("asc") && !direction.equals("desc")) {
+            throw new InvalidInputException("Direction must be asc or desc");
+        }
+        EmployeeSearchCriteria.SortField sortField;
+        try {
+            sortField = EmployeeSearchCriteria.SortField.fromAttribute(sort);
+        } catch (IllegalArgumentException e) {
+            throw new InvalidInputException("Sort must be one of id, lastName, salary");
+        }
+
+        EmployeeSearchCriteria criteria = EmployeeSearchCriteria.builder()
+                .department(department)
+                .minSalary(minSalary)
+                .maxSalary(maxSalary)
+                .lastNamePrefix(lastNamePrefix)
+                .emailDomain(emailDomain)
+                .sort(sortField)
+                .descending(direction.equals("desc"))
+                .after(after)
+                .size(size)
+                .build();
+
+        if (fields != null) {
+            return fieldsResponse(employeeService.searchEmployeeFields(criteria, parseFields(fields)));
+        }
+
+        EmployeeSearchPage page = employeeService.searchEmployees(criteria);
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.getNextCursor() != null) {
+            response.header(NEXT_CURSOR_HEADER, page.getNextCursor());
+        }
+        return response.body(page.getEmployees());
+    }
+
+    private ResponseEntity<List<?>> fieldsResponse(EmployeeFieldsPage page) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.getNextCursor() != null) {
+            response.header(NEXT_CURSOR_HEADER, page.getNextCursor());
+        }
+        return response.body(page.getEmployees());
+    }
+
+    private Set<EmployeeField> parseFields(String fields) {
+        Set<EmployeeField> parsed = new LinkedHashSet<>();
+        for (String field : fields.split(",")) {
+            if (field.isBlank()) {
+                continue;
+            }
+            try {
+                parsed.add(EmployeeField.fromAttribute(field.trim()));
+            } catch (IllegalArgumentException e) {
+                throw new InvalidInputException("Unknown field '" + field.trim() + "', fields must be some of " + knownFields());
+            }
+        }
+        if (parsed.isEmpty()) {
+            throw new InvalidInputException("fields must name at least one of " + knownFields());
+        }
+        return parsed;
+    }
+
+    private String knownFields() {
+        return Arrays.stream(EmployeeField.values()).map(EmployeeField::getAttribute).collect(Collectors.joining(","));
+    }
+
+    // the whole table as newline-delimited JSON, one employee per line, without buffering it in memory
+    @GetMapping(value = "/stream", produces = NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamEmployees() {
+        ObjectWriter writer = objectMapper.writer()
+                .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+
+        StreamingResponseBody body = outputStream -> employeeService.streamAllEmployees(employee -> {
+            try {
+                writer.writeValue(outputStream, employee);
+                outputStream.write('\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(NDJSON_VALUE))
+                .body(body);
+    }
+
+    // same cursor, as CSV with a header line (Accept: text/csv). the file can be fed back into /api/employees/imports
+    @GetMapping(value = "/stream", produces = CSV_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamEmployeesCsv() {
+        StreamingResponseBody body = outputStream -> {
+            try (SequenceWriter rows = CSV_WRITER.writeValues(outputStream)) {
+                employeeService.streamAllEmployees(employee -> {
+                    try {
+                        rows.write(employee);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            }
+        };
+
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(CSV_VALUE))
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=employees.csv")
+                .body(body);
     }
 }
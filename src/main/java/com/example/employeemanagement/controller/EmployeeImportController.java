@@ -0,0 +1,72 @@
+package com.example.employeemanagement.controller;
+
+import com.example.employeemanagement.entity.ImportFormat;
+import com.example.employeemanagement.entity.ImportJob;
+import com.example.employeemanagement.entity.ImportRowError;
+import com.example.employeemanagement.exception.InvalidInputException;
+import com.example.employeemanagement.service.EmployeeImportService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+
+import java.io.InputStream;
+import java.util.List;
+import java.util.UUID;
+
+// bulk loads as background jobs: upload the file, then poll the job for progress and page through its row errors
+@RestController
+@RequestMapping("/api/employees/imports")
+@RequiredArgsConstructor
+public class EmployeeImportController {
+
+    private final EmployeeImportService importService;
+
+    @Value("${api.employees.page.max-size}")
+    private int maxPageSize;
+
+    // the request body is streamed to disk as it arrives, it's never held in memory
+    @PostMapping(consumes = EmployeeController.CSV_VALUE)
+    public ResponseEntity<ImportJob> importCsv(InputStream body) {
+        return accepted(importService.startImport(ImportFormat.CSV, body));
+    }
+
+    @PostMapping(consumes = EmployeeController.NDJSON_VALUE)
+    public ResponseEntity<ImportJob> importNdjson(InputStream body) {
+        return accepted(importService.startImport(ImportFormat.NDJSON, body));
+    }
+
+    @GetMapping("/{id}")
+    public ImportJob getImportJob(@PathVariable UUID id) {
+        return importService.getImportJob(id);
+    }
+
+    // ordered by line, pass the X-Next-Cursor value back as "after" for the next page
+    @GetMapping("/{id}/errors")
+    public ResponseEntity<List<ImportRowError>> getImportErrors(
+            @PathVariable UUID id,
+            @RequestParam(defaultValue = "0") long after,
+            @RequestParam(defaultValue = "100") int size
+    ) {
+        if (size < 1 || size > maxPageSize) {
+            throw new InvalidInputException("size must be between 1 and " + maxPageSize);
+        }
+        List<ImportRowError> errors = importService.getImportErrors(id, after, size);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (errors.size() == size) {
+            response.header(EmployeeController.NEXT_CURSOR_HEADER,
+                    String.valueOf(errors.get(errors.size() - 1).getLineNumber()));
+        }
+        return response.body(errors);
+    }
+
+    private ResponseEntity<ImportJob> accepted(ImportJob job) {
+        return ResponseEntity.accepted()
+                .location(ServletUriComponentsBuilder.fromCurrentRequest()
+                        .path("/{id}")
+                        .buildAndExpand(job.getId())
+                        .toUri())
+                .body(job);
+    }
+}
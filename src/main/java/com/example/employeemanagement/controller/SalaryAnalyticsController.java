@@ -0,0 +1,54 @@
+package com.example.employeemanagement.controller;
+
+import com.example.employeemanagement.dto.DepartmentSalaryDistribution;
+import com.example.employeemanagement.dto.SalaryHistogram;
+import com.example.employeemanagement.dto.SalaryPercentiles;
+import com.example.employeemanagement.exception.InvalidInputException;
+import com.example.employeemanagement.service.SalaryAnalyticsService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+// answered from the in-memory columnar snapshot, not the database
+@RestController
+@RequestMapping("/api/analytics/salaries")
+@RequiredArgsConstructor
+public class SalaryAnalyticsController {
+
+    private final SalaryAnalyticsService salaryAnalyticsService;
+
+    @Value("${analytics.histogram.max-buckets}")
+    private int maxBuckets;
+
+    @GetMapping("/percentiles")
+    public SalaryPercentiles getPercentiles(
+            @RequestParam(required = false) String department,
+            @RequestParam(defaultValue = "50,90,99") List<Double> p
+    ) {
+        if (p.isEmpty() || p.stream().anyMatch(percentile -> percentile == null || !(percentile >= 0 && percentile <= 100))) {
+            throw new InvalidInputException("p must be a list of percentiles between 0 and 100");
+        }
+        return salaryAnalyticsService.getPercentiles(department, p);
+    }
+
+    @GetMapping("/histogram")
+    public SalaryHistogram getHistogram(
+            @RequestParam(required = false) String department,
+            @RequestParam(defaultValue = "20") int buckets
+    ) {
+        if (buckets < 1 || buckets > maxBuckets) {
+            throw new InvalidInputException("buckets must be between 1 and " + maxBuckets);
+        }
+        return salaryAnalyticsService.getHistogram(department, buckets);
+    }
+
+    @GetMapping("/departments")
+    public List<DepartmentSalaryDistribution> getDepartmentDistributions() {
+        return salaryAnalyticsService.getDepartmentDistributions();
+    }
+}
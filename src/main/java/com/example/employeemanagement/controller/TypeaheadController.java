@@ -0,0 +1,39 @@
+package com.example.employeemanagement.controller;
+
+import com.example.employeemanagement.dto.EmployeeSuggestion;
+import com.example.employeemanagement.exception.InvalidInputException;
+import com.example.employeemanagement.service.TypeaheadService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/employees/typeahead")
+@RequiredArgsConstructor
+public class TypeaheadController {
+
+    private final TypeaheadService typeaheadService;
+
+    @Value("${typeahead.max-limit}")
+    private int maxLimit;
+
+    // meant to be called on every keystroke, answered from memory
+    @GetMapping
+    public List<EmployeeSuggestion> suggest(
+            @RequestParam String q,
+            @RequestParam(defaultValue = "10") int limit
+    ) {
+        if (q.isBlank()) {
+            throw new InvalidInputException("q must not be blank");
+        }
+        if (limit < 1 || limit > maxLimit) {
+            throw new InvalidInputException("limit must be between 1 and " + maxLimit);
+        }
+        return typeaheadService.suggest(q, limit);
+    }
+}
@@ -0,0 +1,14 @@
+package com.example.employeemanagement.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@Builder
+public class BatchCreateResult {
+    private int created;
+    private int failed;
+    private List<BatchItemResult> results;
+}
@@ -0,0 +1,16 @@
+package com.example.employeemanagement.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.UUID;
+
+@Data
+@Builder
+public class BatchItemResult {
+    // position of the employee in the submitted batch
+    private int index;
+    private boolean success;
+    private UUID id;
+    private String error;
+}
@@ -0,0 +1,28 @@
+package com.example.employeemanagement.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.UUID;
+
+// employees are selected by ids, a filter, or both (then they have to match both).
+// an empty selection is rejected rather than meaning "everyone"
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BulkOperationRequest {
+    private List<UUID> ids;
+    private EmployeeFilter filter;
+
+    // transfer: the department to move the selected employees to
+    private String department;
+
+    // salary adjustment: either a percentage (10 = +10%, -5 = -5%) or an absolute amount added to every salary
+    private BigDecimal percent;
+    private BigDecimal amount;
+}
@@ -0,0 +1,12 @@
+package com.example.employeemanagement.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+@Data
+@Builder
+public class BulkOperationResult {
+    private String operation;
+    // rows actually changed, employees already in the target department aren't counted for a transfer
+    private int affected;
+}
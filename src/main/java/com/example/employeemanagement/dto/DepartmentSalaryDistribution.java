@@ -0,0 +1,22 @@
+package com.example.employeemanagement.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+
+import java.math.BigDecimal;
+
+@Data
+@Builder
+@AllArgsConstructor
+public class DepartmentSalaryDistribution {
+    private String department;
+    private long headcount;
+    private BigDecimal minSalary;
+    private BigDecimal p25;
+    private BigDecimal median;
+    private BigDecimal p75;
+    private BigDecimal p90;
+    private BigDecimal maxSalary;
+    private BigDecimal averageSalary;
+}
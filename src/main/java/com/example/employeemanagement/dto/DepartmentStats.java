@@ -0,0 +1,17 @@
+package com.example.employeemanagement.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.math.BigDecimal;
+
+@Data
+@Builder
+public class DepartmentStats {
+    private String department;
+    private long headcount;
+    private BigDecimal totalSalary;
+    private BigDecimal averageSalary;
+    private BigDecimal minSalary;
+    private BigDecimal maxSalary;
+}
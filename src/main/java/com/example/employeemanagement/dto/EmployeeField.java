@@ -0,0 +1,30 @@
+package com.example.employeemanagement.dto;
+
+// the employee attributes a client can ask for with fields=
+public enum EmployeeField {
+    ID("id"),
+    FIRST_NAME("firstName"),
+    LAST_NAME("lastName"),
+    EMAIL("email"),
+    DEPARTMENT("department"),
+    SALARY("salary");
+
+    private final String attribute;
+
+    EmployeeField(String attribute) {
+        this.attribute = attribute;
+    }
+
+    public String getAttribute() {
+        return attribute;
+    }
+
+    public static EmployeeField fromAttribute(String attribute) {
+        for (EmployeeField field : values()) {
+            if (field.attribute.equals(attribute)) {
+                return field;
+            }
+        }
+        throw new IllegalArgumentException("Unknown employee field: " + attribute);
+    }
+}
@@ -0,0 +1,16 @@
+package com.example.employeemanagement.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.List;
+import java.util.Map;
+
+// a page of employees with only the requested fields, attribute name -> value in the order they were asked for
+@Data
+@Builder
+public class EmployeeFieldsPage {
+    private List<Map<String, Object>> employees;
+    // same as the cursor of the full page it stands in for, null when there are no more pages
+    private String nextCursor;
+}
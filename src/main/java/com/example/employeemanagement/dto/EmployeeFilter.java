@@ -0,0 +1,36 @@
+package com.example.employeemanagement.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+// the filters of the search endpoint, as a request body
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class EmployeeFilter {
+    private String department;
+    private BigDecimal minSalary;
+    private BigDecimal maxSalary;
+    private String lastNamePrefix;
+    private String emailDomain;
+
+    public boolean isEmpty() {
+        return department == null && minSalary == null && maxSalary == null
+                && lastNamePrefix == null && emailDomain == null;
+    }
+
+    public EmployeeSearchCriteria toCriteria() {
+        return EmployeeSearchCriteria.builder()
+                .department(department)
+                .minSalary(minSalary)
+                .maxSalary(maxSalary)
+                .lastNamePrefix(lastNamePrefix)
+                .emailDomain(emailDomain)
+                .build();
+    }
+}
@@ -0,0 +1,16 @@
+package com.example.employeemanagement.dto;
+
+import com.example.employeemanagement.entity.Employee;
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.List;
+import java.util.UUID;
+
+@Data
+@Builder
+public class EmployeePage {
+    private List<Employee> employees;
+    // id of the last employee on this page, null when there are no more pages
+    private UUID nextCursor;
+}
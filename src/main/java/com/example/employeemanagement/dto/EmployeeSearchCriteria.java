@@ -0,0 +1,50 @@
+package com.example.employeemanagement.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.math.BigDecimal;
+
+// every filter is optional, the ones that are set are ANDed together
+@Data
+@Builder
+public class EmployeeSearchCriteria {
+    private String department;
+    private BigDecimal minSalary;
+    private BigDecimal maxSalary;
+    // case-sensitive, so it can be answered from the last_name index
+    private String lastNamePrefix;
+    private String emailDomain;
+
+    @Builder.Default
+    private SortField sort = SortField.ID;
+    private boolean descending;
+    // X-Next-Cursor of the previous page, only valid for the same sort
+    private String after;
+    private int size;
+
+    public enum SortField {
+        ID("id"),
+        LAST_NAME("lastName"),
+        SALARY("salary");
+
+        private final String attribute;
+
+        SortField(String attribute) {
+            this.attribute = attribute;
+        }
+
+        public String getAttribute() {
+            return attribute;
+        }
+
+        public static SortField fromAttribute(String attribute) {
+            for (SortField field : values()) {
+                if (field.attribute.equals(attribute)) {
+                    return field;
+                }
+            }
+            throw new IllegalArgumentException("Unknown sort field: " + attribute);
+        }
+    }
+}
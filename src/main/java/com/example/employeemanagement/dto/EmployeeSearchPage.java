@@ -0,0 +1,15 @@
+package com.example.employeemanagement.dto;
+
+import com.example.employeemanagement.entity.Employee;
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@Builder
+public class EmployeeSearchPage {
+    private List<Employee> employees;
+    // opaque position after the last employee on this page, null when there are no more pages
+    private String nextCursor;
+}
@@ -0,0 +1,18 @@
+package com.example.employeemanagement.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.UUID;
+
+@Data
+@Builder
+@AllArgsConstructor
+public class EmployeeSuggestion {
+    private UUID id;
+    private String firstName;
+    private String lastName;
+    private String email;
+    private String department;
+}
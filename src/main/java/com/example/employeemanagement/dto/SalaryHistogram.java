@@ -0,0 +1,28 @@
+package com.example.employeemanagement.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+@Data
+@Builder
+@AllArgsConstructor
+public class SalaryHistogram {
+    // null for the whole company
+    private String department;
+    private long headcount;
+    private BigDecimal bucketWidth;
+    private List<Bucket> buckets;
+
+    // salaries in [from, to)
+    @Data
+    @AllArgsConstructor
+    public static class Bucket {
+        private BigDecimal from;
+        private BigDecimal to;
+        private long count;
+    }
+}
@@ -0,0 +1,19 @@
+package com.example.employeemanagement.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.util.Map;
+
+@Data
+@Builder
+@AllArgsConstructor
+public class SalaryPercentiles {
+    // null for the whole company
+    private String department;
+    private long headcount;
+    // "p50" -> salary, in the order they were asked for. empty when there's nobody to rank
+    private Map<String, BigDecimal> percentiles;
+}
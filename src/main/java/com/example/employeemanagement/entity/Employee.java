@@ -1,16 +1,26 @@
 package com.example.employeemanagement.entity;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import lombok.*;
+import org.hibernate.annotations.ColumnDefault;
 
 import java.math.BigDecimal;
+import java.util.Locale;
 import java.util.UUID;
 
 @Entity
-@Table(name = "employees")
+// the search endpoint filters and sorts on these, id is the tie-breaker for keyset pagination
+@Table(name = "employees", indexes = {
+        @Index(name = "idx_employees_department_last_name", columnList = "department, last_name, id"),
+        @Index(name = "idx_employees_last_name", columnList = "last_name, id"),
+        @Index(name = "idx_employees_salary", columnList = "salary, id"),
+        @Index(name = "idx_employees_email_domain", columnList = "email_domain")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -37,4 +47,31 @@ public class Employee {
 
     @NotNull(message = "Salary is required")
     private BigDecimal salary;
+
+    // optimistic lock, bumped by every update. clients send it back in a PATCH to say which version they changed,
+    // it's never taken from a POST/PUT body. the default fills it in for rows that predate the column
+    @Version
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private Long version;
+
+    // lower-cased part of the email after the @, kept in its own column so filtering by domain is an index lookup
+    // instead of a LIKE '%@domain' scan over every row
+    @JsonIgnore
+    @Column(name = "email_domain")
+    private String emailDomain;
+
+    @PrePersist
+    @PreUpdate
+    void deriveEmailDomain() {
+        emailDomain = emailDomainOf(email);
+    }
+
+    public static String emailDomainOf(String email) {
+        if (email == null || email.indexOf('@') < 0) {
+            return null;
+        }
+        return email.substring(email.lastIndexOf('@') + 1).toLowerCase(Locale.ROOT);
+    }
 }
@@ -0,0 +1,8 @@
+package com.example.employeemanagement.entity;
+
+public enum ImportFormat {
+    // a header line naming the columns, then one employee per line
+    CSV,
+    // one employee JSON object per line
+    NDJSON
+}
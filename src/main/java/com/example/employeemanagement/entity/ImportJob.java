@@ -0,0 +1,64 @@
+package com.example.employeemanagement.entity;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.Instant;
+import java.util.UUID;
+
+// an uploaded file being imported in chunks. linesProcessed is the checkpoint: it's committed together with
+// the outcome of each chunk, so after a restart the job carries on from the first line it hasn't accounted for
+@Entity
+@Table(name = "import_jobs", indexes = {
+        @Index(name = "idx_import_jobs_status", columnList = "status")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ImportJob {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    private UUID id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private ImportFormat format;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private ImportStatus status;
+
+    // the spooled upload under import.jobs.dir, removed once the job is done
+    @JsonIgnore
+    @Column(nullable = false)
+    private String fileName;
+
+    private long fileSize;
+
+    // import.jobs.instance-id of the instance whose import.jobs.dir holds the file, the only one that resumes the job
+    @JsonIgnore
+    @Column(nullable = false)
+    private String owner;
+
+    private long linesProcessed;
+
+    private long imported;
+
+    private long failed;
+
+    // rows of a chunk that was cut short by a restart and had already been committed
+    private long skipped;
+
+    @Column(nullable = false)
+    private Instant createdAt;
+
+    private Instant updatedAt;
+
+    private Instant finishedAt;
+
+    @Column(length = 1000)
+    private String lastError;
+}
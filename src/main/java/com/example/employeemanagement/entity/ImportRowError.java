@@ -0,0 +1,34 @@
+package com.example.employeemanagement.entity;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.util.UUID;
+
+// why a line of an import didn't become an employee
+@Entity
+@Table(name = "import_row_errors", indexes = {
+        @Index(name = "idx_import_row_errors_job_line", columnList = "jobId, lineNumber")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ImportRowError {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    @JsonIgnore
+    private UUID id;
+
+    @JsonIgnore
+    @Column(nullable = false)
+    private UUID jobId;
+
+    // 1-based line in the uploaded file, the CSV header is line 1
+    private long lineNumber;
+
+    @Column(nullable = false, length = 1000)
+    private String message;
+}
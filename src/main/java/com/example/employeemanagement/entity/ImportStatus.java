@@ -0,0 +1,9 @@
+package com.example.employeemanagement.entity;
+
+public enum ImportStatus {
+    QUEUED,
+    RUNNING,
+    COMPLETED,
+    // the file couldn't be read any further, rows committed until then stay imported
+    FAILED
+}
@@ -0,0 +1,54 @@
+package com.example.employeemanagement.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.Instant;
+import java.util.UUID;
+
+// an email waiting to be sent. rows are written in the same transaction as the change they announce,
+// and NotificationOutboxDispatcher delivers them afterwards
+@Entity
+@Table(name = "notification_outbox", indexes = {
+        @Index(name = "idx_outbox_status_next_attempt", columnList = "status, nextAttemptAt")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class NotificationOutboxMessage {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    private UUID id;
+
+    @Column(nullable = false)
+    private String recipient;
+
+    @Column(nullable = false)
+    private String subject;
+
+    @Column(nullable = false, length = 4000)
+    private String body;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private OutboxStatus status;
+
+    private int attempts;
+
+    @Column(nullable = false)
+    private Instant nextAttemptAt;
+
+    @Column(nullable = false)
+    private Instant createdAt;
+
+    private Instant sentAt;
+
+    @Column(length = 1000)
+    private String lastError;
+
+    // the dispatch batch that claimed the message last
+    @Column(length = 36)
+    private String claimedBy;
+}
@@ -0,0 +1,10 @@
+package com.example.employeemanagement.entity;
+
+public enum OutboxStatus {
+    PENDING,
+    // claimed by a dispatcher that is sending it, until its lease (nextAttemptAt) runs out
+    IN_FLIGHT,
+    SENT,
+    // gave up after notification.outbox.max-attempts, needs a look from a human
+    DEAD
+}
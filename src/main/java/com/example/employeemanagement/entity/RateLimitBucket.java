@@ -0,0 +1,28 @@
+package com.example.employeemanagement.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.Instant;
+
+// shared token bucket for cluster-wide rate limiting, see JdbcRateLimitBucketStore
+@Entity
+@Table(name = "rate_limit_bucket", indexes = {
+        @Index(name = "idx_rate_limit_bucket_refilled_at", columnList = "refilledAt")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class RateLimitBucket {
+
+    @Id
+    @Column(length = 200)
+    private String bucketKey;
+
+    // fractional, tokens refill continuously
+    private double tokens;
+
+    @Column(nullable = false)
+    private Instant refilledAt;
+}
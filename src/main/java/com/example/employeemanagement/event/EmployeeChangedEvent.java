@@ -0,0 +1,33 @@
+package com.example.employeemanagement.event;
+
+import com.example.employeemanagement.entity.Employee;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+// published by EmployeeServiceImpl inside the transaction that changed the employee. listeners that keep derived
+// state use @TransactionalEventListener(phase = AFTER_COMMIT), so a rolled back change never reaches them.
+// before is null for a create, after is null for a delete
+public record EmployeeChangedEvent(UUID employeeId, Snapshot before, Snapshot after) {
+
+    public static EmployeeChangedEvent created(Employee employee) {
+        return new EmployeeChangedEvent(employee.getId(), null, Snapshot.of(employee));
+    }
+
+    public static EmployeeChangedEvent updated(Snapshot before, Employee employee) {
+        return new EmployeeChangedEvent(employee.getId(), before, Snapshot.of(employee));
+    }
+
+    public static EmployeeChangedEvent deleted(Employee employee) {
+        return new EmployeeChangedEvent(employee.getId(), Snapshot.of(employee), null);
+    }
+
+    // the fields listeners care about, copied so later changes to the entity don't leak into the event
+    public record Snapshot(String firstName, String lastName, String email, String department, BigDecimal salary) {
+
+        public static Snapshot of(Employee employee) {
+            return new Snapshot(employee.getFirstName(), employee.getLastName(), employee.getEmail(),
+                    employee.getDepartment(), employee.getSalary());
+        }
+    }
+}
@@ -0,0 +1,10 @@
+package com.example.employeemanagement.event;
+
+// published instead of one EmployeeChangedEvent per row when a set-based UPDATE/DELETE changed employees,
+// there are no per-row before/after values to hand out
+public record EmployeesBulkChangedEvent(String operation, int affected) {
+
+    public static final String TRANSFER = "transfer";
+    public static final String SALARY_ADJUSTMENT = "salary-adjustment";
+    public static final String DELETE = "delete";
+}
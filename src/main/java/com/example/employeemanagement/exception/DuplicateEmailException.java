@@ -0,0 +1,8 @@
+package com.example.employeemanagement.exception;
+
+// another employee already has the email
+public class DuplicateEmailException extends RuntimeException {
+    public DuplicateEmailException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,8 @@
+package com.example.employeemanagement.exception;
+
+// the employee was changed by someone else since the version the update was based on
+public class EmployeeVersionConflictException extends RuntimeException {
+    public EmployeeVersionConflictException(String message) {
+        super(message);
+    }
+}
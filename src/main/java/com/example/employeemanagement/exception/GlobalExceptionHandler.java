@@ -1,8 +1,10 @@
 package com.example.employeemanagement.exception;
 
 import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.validation.FieldError;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
@@ -19,15 +21,15 @@ public class GlobalExceptionHandler {
             EmployeeNotFoundException ex,
             HttpServletRequest request
     ) {
-        ApiError error = ApiError.builder()
-                .timestamp(LocalDateTime.now())
-                .status(HttpStatus.NOT_FOUND.value())
-                .error(HttpStatus.NOT_FOUND.getReasonPhrase())
-                .message(ex.getMessage())
-                .path(request.getRequestURI())
-                .build();
+        return notFound(ex.getMessage(), request);
+    }
 
-        return ResponseEntity.status(HttpStatus.NOT_FOUND).body(error);
+    @ExceptionHandler(ImportJobNotFoundException.class)
+    public ResponseEntity<ApiError> handleImportJobNotFoundException(
+            ImportJobNotFoundException ex,
+            HttpServletRequest request
+    ) {
+        return notFound(ex.getMessage(), request);
     }
 
     @ExceptionHandler(InvalidInputException.class)
@@ -46,6 +48,60 @@ public class GlobalExceptionHandler {
         return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(error);
     }
 
+    // a PATCH whose version is stale, or a PUT/DELETE that raced another write between its read and its flush
+    @ExceptionHandler({EmployeeVersionConflictException.class, ObjectOptimisticLockingFailureException.class})
+    public ResponseEntity<ApiError> handleConflict(
+            RuntimeException ex,
+            HttpServletRequest request
+    ) {
+        String message = ex instanceof EmployeeVersionConflictException
+                ? ex.getMessage()
+                : "Employee was modified concurrently, reload it and try again";
+        ApiError error = ApiError.builder()
+                .timestamp(LocalDateTime.now())
+                .status(HttpStatus.CONFLICT.value())
+                .error(HttpStatus.CONFLICT.getReasonPhrase())
+                .message(message)
+                .path(request.getRequestURI())
+                .build();
+
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(error);
+    }
+
+    @ExceptionHandler(DuplicateEmailException.class)
+    public ResponseEntity<ApiError> handleDuplicateEmailException(
+            DuplicateEmailException ex,
+            HttpServletRequest request
+    ) {
+        ApiError error = ApiError.builder()
+                .timestamp(LocalDateTime.now())
+                .status(HttpStatus.CONFLICT.value())
+                .error(HttpStatus.CONFLICT.getReasonPhrase())
+                .message(ex.getMessage())
+                .path(request.getRequestURI())
+                .build();
+
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(error);
+    }
+
+    // a write that got past the checks but not the database's constraints, e.g. two requests racing for the same
+    // email. the driver's message names tables and indexes, so it isn't passed on
+    @ExceptionHandler(DataIntegrityViolationException.class)
+    public ResponseEntity<ApiError> handleDataIntegrityViolationException(
+            DataIntegrityViolationException ex,
+            HttpServletRequest request
+    ) {
+        ApiError error = ApiError.builder()
+                .timestamp(LocalDateTime.now())
+                .status(HttpStatus.CONFLICT.value())
+                .error(HttpStatus.CONFLICT.getReasonPhrase())
+                .message("The request conflicts with existing data, e.g. an employee with the same email")
+                .path(request.getRequestURI())
+                .build();
+
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(error);
+    }
+
     @ExceptionHandler(ThirdPartyApiException.class)
     public ResponseEntity<ApiError> handleThirdPartyApiException(
             ThirdPartyApiException ex,
@@ -98,4 +154,16 @@ public class GlobalExceptionHandler {
 
         return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(error);
     }
+
+    private ResponseEntity<ApiError> notFound(String message, HttpServletRequest request) {
+        ApiError error = ApiError.builder()
+                .timestamp(LocalDateTime.now())
+                .status(HttpStatus.NOT_FOUND.value())
+                .error(HttpStatus.NOT_FOUND.getReasonPhrase())
+                .message(message)
+                .path(request.getRequestURI())
+                .build();
+
+        return ResponseEntity.status(HttpStatus.NOT_FOUND).body(error);
+    }
 }
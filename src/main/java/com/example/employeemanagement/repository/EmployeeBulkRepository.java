@@ -0,0 +1,19 @@
+package com.example.employeemanagement.repository;
+
+import com.example.employeemanagement.entity.Employee;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.math.BigDecimal;
+
+// custom fragment of EmployeeRepository for set-based changes: one statement each, no entity is loaded.
+// the selection specs only get a root and a builder, there is no CriteriaQuery for an update or delete
+public interface EmployeeBulkRepository {
+
+    // moves everyone selected who isn't in the department yet, returns how many moved
+    int transferAll(Specification<Employee> selection, String department);
+
+    // salary = salary * factor + amount for everyone selected
+    int adjustSalaries(Specification<Employee> selection, BigDecimal factor, BigDecimal amount);
+
+    int deleteAll(Specification<Employee> selection);
+}
@@ -0,0 +1,64 @@
+package com.example.employeemanagement.repository;
+
+import com.example.employeemanagement.entity.Employee;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaDelete;
+import jakarta.persistence.criteria.CriteriaUpdate;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Root;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.math.BigDecimal;
+
+// every update bumps the version, so a PATCH based on a read from before the bulk change gets its 409
+@RequiredArgsConstructor
+public class EmployeeBulkRepositoryImpl implements EmployeeBulkRepository {
+
+    private final EntityManager entityManager;
+
+    @Override
+    public int transferAll(Specification<Employee> selection, String department) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaUpdate<Employee> update = cb.createCriteriaUpdate(Employee.class);
+        Root<Employee> root = update.from(Employee.class);
+
+        Path<String> current = root.get("department");
+        update.set(current, department);
+        bumpVersion(cb, update, root);
+        update.where(selection.toPredicate(root, null, cb), cb.notEqual(current, department));
+
+        return entityManager.createQuery(update).executeUpdate();
+    }
+
+    @Override
+    public int adjustSalaries(Specification<Employee> selection, BigDecimal factor, BigDecimal amount) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaUpdate<Employee> update = cb.createCriteriaUpdate(Employee.class);
+        Root<Employee> root = update.from(Employee.class);
+
+        // the column has scale 2, the database rounds the result to cents
+        Path<BigDecimal> salary = root.get("salary");
+        update.set(salary, cb.sum(cb.prod(salary, factor), amount));
+        bumpVersion(cb, update, root);
+        update.where(selection.toPredicate(root, null, cb));
+
+        return entityManager.createQuery(update).executeUpdate();
+    }
+
+    @Override
+    public int deleteAll(Specification<Employee> selection) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaDelete<Employee> delete = cb.createCriteriaDelete(Employee.class);
+        Root<Employee> root = delete.from(Employee.class);
+        delete.where(selection.toPredicate(root, null, cb));
+
+        return entityManager.createQuery(delete).executeUpdate();
+    }
+
+    private void bumpVersion(CriteriaBuilder cb, CriteriaUpdate<Employee> update, Root<Employee> root) {
+        Path<Long> version = root.get("version");
+        update.set(version, cb.sum(version, 1L));
+    }
+}
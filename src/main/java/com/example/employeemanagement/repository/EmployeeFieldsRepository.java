@@ -0,0 +1,23 @@
+package com.example.employeemanagement.repository;
+
+import com.example.employeemanagement.dto.EmployeeField;
+import com.example.employeemanagement.entity.Employee;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+// custom fragment of EmployeeRepository for sparse fieldsets
+public interface EmployeeFieldsRepository {
+
+    // selects only the given columns, rows come back as attribute name -> value without ever becoming entities.
+    // spec may be null for no filter
+    List<Map<String, Object>> findFields(Collection<EmployeeField> fields, Specification<Employee> spec, Sort sort, int limit);
+
+    // one UPDATE that writes only the given columns and bumps the version, if the row is still at expectedVersion.
+    // returns the number of rows updated, 0 means the employee is gone or was changed in between
+    int updateFields(UUID id, long expectedVersion, Map<EmployeeField, Object> changes);
+}
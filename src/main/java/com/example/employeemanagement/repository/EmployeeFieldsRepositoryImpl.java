@@ -0,0 +1,84 @@
+package com.example.employeemanagement.repository;
+
+import com.example.employeemanagement.dto.EmployeeField;
+import com.example.employeemanagement.entity.Employee;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.CriteriaUpdate;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+// a tuple query rather than an entity query: hibernate only reads the selected columns and doesn't put
+// anything in the persistence context, so there's no entity to hydrate, snapshot or dirty-check
+@RequiredArgsConstructor
+public class EmployeeFieldsRepositoryImpl implements EmployeeFieldsRepository {
+
+    private final EntityManager entityManager;
+
+    @Override
+    public List<Map<String, Object>> findFields(Collection<EmployeeField> fields, Specification<Employee> spec, Sort sort, int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<Employee> root = query.from(Employee.class);
+
+        List<Selection<?>> selections = new ArrayList<>(fields.size());
+        for (EmployeeField field : fields) {
+            selections.add(root.get(field.getAttribute()).alias(field.getAttribute()));
+        }
+        query.multiselect(selections);
+        if (spec != null) {
+            Predicate predicate = spec.toPredicate(root, query, cb);
+            if (predicate != null) {
+                query.where(predicate);
+            }
+        }
+        query.orderBy(QueryUtils.toOrders(sort, root, cb));
+
+        List<Tuple> tuples = entityManager.createQuery(query)
+                .setMaxResults(limit)
+                .getResultList();
+
+        List<Map<String, Object>> rows = new ArrayList<>(tuples.size());
+        for (Tuple tuple : tuples) {
+            Map<String, Object> row = new LinkedHashMap<>();
+            for (EmployeeField field : fields) {
+                row.put(field.getAttribute(), tuple.get(field.getAttribute()));
+            }
+            rows.add(row);
+        }
+        return rows;
+    }
+
+    @Override
+    public int updateFields(UUID id, long expectedVersion, Map<EmployeeField, Object> changes) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaUpdate<Employee> update = cb.createCriteriaUpdate(Employee.class);
+        Root<Employee> root = update.from(Employee.class);
+
+        changes.forEach((field, value) -> update.set(root.get(field.getAttribute()), value));
+        // bulk updates skip @PreUpdate, so the derived column is kept in step here
+        if (changes.containsKey(EmployeeField.EMAIL)) {
+            update.set(root.get("emailDomain"), Employee.emailDomainOf((String) changes.get(EmployeeField.EMAIL)));
+        }
+        Path<Long> version = root.get("version");
+        update.set(version, cb.sum(version, 1L));
+        update.where(cb.equal(root.get("id"), id), cb.equal(version, expectedVersion));
+
+        return entityManager.createQuery(update).executeUpdate();
+    }
+}
@@ -1,10 +1,71 @@
 package com.example.employeemanagement.repository;
 
 import com.example.employeemanagement.entity.Employee;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
 import java.util.UUID;
+import java.util.stream.Stream;
 
-public interface EmployeeRepository extends JpaRepository<Employee, UUID> {
-    // no custom methods needed for now, i'll add them later if i need specialized queries
+// search queries are built from EmployeeSpecifications, sparse fieldsets come from EmployeeFieldsRepository
+// and set-based changes from EmployeeBulkRepository
+public interface EmployeeRepository extends JpaRepository<Employee, UUID>, JpaSpecificationExecutor<Employee>,
+        EmployeeFieldsRepository, EmployeeBulkRepository {
+
+    // keyset pagination on the primary key, so every page is an index range scan no matter how deep we are
+    List<Employee> findAllByOrderByIdAsc(Limit limit);
+
+    List<Employee> findByIdGreaterThanOrderByIdAsc(UUID after, Limit limit);
+
+    // server-side cursor for streaming the whole table, rows come over in fetch-size chunks instead of all at once
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("select e from Employee e order by e.id")
+    Stream<Employee> streamAllByOrderByIdAsc();
+
+    @Query("select e.email from Employee e where e.email in :emails")
+    Set<String> findExistingEmails(Collection<String> emails);
+
+    // answered from the unique index on email
+    boolean existsByEmail(String email);
+
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("select e.email from Employee e")
+    Stream<String> streamAllEmails();
+
+    // one row per department and distinct salary, enough to rebuild headcount, sums and min/max per department
+    @Query("select e.department as department, e.salary as salary, count(e) as headcount "
+            + "from Employee e group by e.department, e.salary")
+    List<DepartmentSalaryCount> countByDepartmentAndSalary();
+
+    @Query("select e.department as department, e.salary as salary from Employee e where e.id in :ids")
+    List<DepartmentSalary> findDepartmentSalariesByIdIn(Collection<UUID> ids);
+
+    interface DepartmentSalaryCount {
+        String getDepartment();
+
+        BigDecimal getSalary();
+
+        long getHeadcount();
+    }
+
+    interface DepartmentSalary {
+        String getDepartment();
+
+        BigDecimal getSalary();
+    }
 }
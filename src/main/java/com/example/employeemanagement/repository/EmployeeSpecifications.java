@@ -0,0 +1,80 @@
+package com.example.employeemanagement.repository;
+
+import com.example.employeemanagement.dto.EmployeeSearchCriteria;
+import com.example.employeemanagement.entity.Employee;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.UUID;
+
+// where clauses for the employee search. every predicate is on an indexed column (see the @Table on Employee)
+// and written so the database can use the index: equality, ranges and a LIKE with a fixed prefix only
+public final class EmployeeSpecifications {
+
+    private EmployeeSpecifications() {
+    }
+
+    public static Specification<Employee> matching(EmployeeSearchCriteria criteria) {
+        return (root, query, cb) -> {
+            List<Predicate> predicates = new ArrayList<>();
+            if (criteria.getDepartment() != null) {
+                predicates.add(cb.equal(root.get("department"), criteria.getDepartment()));
+            }
+            if (criteria.getMinSalary() != null) {
+                predicates.add(cb.greaterThanOrEqualTo(root.get("salary"), criteria.getMinSalary()));
+            }
+            if (criteria.getMaxSalary() != null) {
+                predicates.add(cb.lessThanOrEqualTo(root.get("salary"), criteria.getMaxSalary()));
+            }
+            if (criteria.getLastNamePrefix() != null) {
+                predicates.add(cb.like(root.get("lastName"), escapeLike(criteria.getLastNamePrefix()) + "%", '\\'));
+            }
+            if (criteria.getEmailDomain() != null) {
+                predicates.add(cb.equal(root.get("emailDomain"), criteria.getEmailDomain().toLowerCase(Locale.ROOT)));
+            }
+            return cb.and(predicates.toArray(Predicate[]::new));
+        };
+    }
+
+    public static Specification<Employee> idIn(Collection<UUID> ids) {
+        return (root, query, cb) -> root.get("id").in(ids);
+    }
+
+    // keyset condition: rows that come after (value, id) in the given order, so the next page is an index range
+    // scan that starts where the previous one stopped instead of skipping over an offset
+    public static Specification<Employee> after(EmployeeSearchCriteria.SortField sort, boolean descending,
+                                                Object value, UUID id) {
+        return (root, query, cb) -> switch (sort) {
+            case ID -> beyond(cb, root.get("id"), id, descending);
+            case LAST_NAME -> keyset(cb, root.get("lastName"), (String) value, root.get("id"), id, descending);
+            case SALARY -> keyset(cb, root.get("salary"), (BigDecimal) value, root.get("id"), id, descending);
+        };
+    }
+
+    private static <T extends Comparable<? super T>> Predicate keyset(
+            CriteriaBuilder cb, Path<T> column, T value, Path<UUID> idColumn, UUID id, boolean descending
+    ) {
+        // (column, id) > (value, id) spelled out, not every database optimizes the row value comparison
+        return cb.or(
+                beyond(cb, column, value, descending),
+                cb.and(cb.equal(column, value), beyond(cb, idColumn, id, descending))
+        );
+    }
+
+    private static <T extends Comparable<? super T>> Predicate beyond(
+            CriteriaBuilder cb, Path<T> column, T value, boolean descending
+    ) {
+        return descending ? cb.lessThan(column, value) : cb.greaterThan(column, value);
+    }
+
+    private static String escapeLike(String value) {
+        return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+}
@@ -0,0 +1,14 @@
+package com.example.employeemanagement.repository;
+
+import com.example.employeemanagement.entity.ImportJob;
+import com.example.employeemanagement.entity.ImportStatus;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+public interface ImportJobRepository extends JpaRepository<ImportJob, UUID> {
+
+    List<ImportJob> findByOwnerAndStatusInOrderByCreatedAtAsc(String owner, Collection<ImportStatus> statuses);
+}
@@ -0,0 +1,13 @@
+package com.example.employeemanagement.repository;
+
+import com.example.employeemanagement.entity.ImportRowError;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.List;
+import java.util.UUID;
+
+public interface ImportRowErrorRepository extends JpaRepository<ImportRowError, UUID> {
+
+    List<ImportRowError> findByJobIdAndLineNumberGreaterThanOrderByLineNumberAsc(UUID jobId, long afterLine, Limit limit);
+}
@@ -0,0 +1,32 @@
+package com.example.employeemanagement.repository;
+
+import com.example.employeemanagement.entity.NotificationOutboxMessage;
+import com.example.employeemanagement.entity.OutboxStatus;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+public interface NotificationOutboxRepository extends JpaRepository<NotificationOutboxMessage, UUID> {
+
+    List<NotificationOutboxMessage> findByStatusInAndNextAttemptAtLessThanEqualOrderByNextAttemptAtAsc(
+            Collection<OutboxStatus> statuses, Instant now, Limit limit);
+
+    // only takes rows that are still due, so of two dispatchers that picked the same row only the first one gets it.
+    // an IN_FLIGHT row whose lease ran out (its dispatcher died mid-batch) is due again
+    @Modifying
+    @Query("update NotificationOutboxMessage m "
+            + "set m.status = com.example.employeemanagement.entity.OutboxStatus.IN_FLIGHT, "
+            + "m.claimedBy = :claimedBy, m.nextAttemptAt = :leaseExpiry "
+            + "where m.id in :ids and m.status in :claimable and m.nextAttemptAt <= :now")
+    int claim(Collection<UUID> ids, Collection<OutboxStatus> claimable, String claimedBy, Instant now, Instant leaseExpiry);
+
+    List<NotificationOutboxMessage> findByClaimedByAndStatus(String claimedBy, OutboxStatus status);
+
+    long countByStatus(OutboxStatus status);
+}
@@ -0,0 +1,23 @@
+package com.example.employeemanagement.repository;
+
+import com.example.employeemanagement.entity.RateLimitBucket;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+
+import java.time.Instant;
+import java.util.Optional;
+
+public interface RateLimitBucketRepository extends JpaRepository<RateLimitBucket, String> {
+
+    // select ... for update, nodes leasing from the same bucket queue up on the row lock
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select b from RateLimitBucket b where b.bucketKey = :bucketKey")
+    Optional<RateLimitBucket> findForUpdate(String bucketKey);
+
+    @Modifying
+    @Query("delete from RateLimitBucket b where b.refilledAt < :cutoff")
+    int deleteIdleSince(Instant cutoff);
+}
@@ -0,0 +1,13 @@
+package com.example.employeemanagement.service;
+
+import com.example.employeemanagement.dto.DepartmentStats;
+
+import java.util.List;
+
+public interface DepartmentStatisticsService {
+
+    List<DepartmentStats> getStatistics();
+
+    // rebuilds the aggregates from the database, returns true if they had drifted
+    boolean reconcile();
+}
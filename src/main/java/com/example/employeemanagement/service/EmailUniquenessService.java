@@ -0,0 +1,8 @@
+package com.example.employeemanagement.service;
+
+public interface EmailUniquenessService {
+
+    // true if some employee already has exactly this email. meant to be asked before paying for third-party
+    // validation, the unique index on employees.email still has the last word
+    boolean isTaken(String email);
+}
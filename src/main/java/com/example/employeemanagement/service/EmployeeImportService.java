@@ -0,0 +1,22 @@
+package com.example.employeemanagement.service;
+
+import com.example.employeemanagement.entity.ImportFormat;
+import com.example.employeemanagement.entity.ImportJob;
+import com.example.employeemanagement.entity.ImportRowError;
+
+import java.io.InputStream;
+import java.util.List;
+import java.util.UUID;
+
+public interface EmployeeImportService {
+
+    // spools the content to disk and queues the job, the import itself runs in the background
+    ImportJob startImport(ImportFormat format, InputStream content);
+
+    ImportJob getImportJob(UUID id);
+
+    List<ImportRowError> getImportErrors(UUID id, long afterLine, int size);
+
+    // queues jobs that were still queued or running when the application stopped, returns how many
+    int resumeUnfinishedImports();
+}
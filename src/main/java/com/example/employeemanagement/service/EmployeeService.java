@@ -1,19 +1,52 @@
 package com.example.employeemanagement.service;
 
+import com.example.employeemanagement.dto.BatchCreateResult;
+import com.example.employeemanagement.dto.BulkOperationRequest;
+import com.example.employeemanagement.dto.BulkOperationResult;
+import com.example.employeemanagement.dto.EmployeeField;
+import com.example.employeemanagement.dto.EmployeeFieldsPage;
+import com.example.employeemanagement.dto.EmployeePage;
+import com.example.employeemanagement.dto.EmployeeSearchCriteria;
+import com.example.employeemanagement.dto.EmployeeSearchPage;
 import com.example.employeemanagement.entity.Employee;
 
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
+import java.util.function.Consumer;
 
 public interface EmployeeService {
 
     Employee createEmployee(Employee employee);
 
+    BatchCreateResult createEmployees(List<Employee> employees);
+
     Employee getEmployeeById(UUID id);
 
     Employee updateEmployee(UUID id, Employee employee);
 
+    // JSON merge patch: only the fields in the map are changed, a null value clears the field.
+    // expectedVersion is optional, when given the patch only applies to that version of the employee
+    Employee patchEmployee(UUID id, Map<EmployeeField, Object> patch, Long expectedVersion);
+
     void deleteEmployee(UUID id);
 
-    List<Employee> getAllEmployees();
+    // set-based, one UPDATE/DELETE each in a single transaction
+    BulkOperationResult transferEmployees(BulkOperationRequest request);
+
+    BulkOperationResult adjustSalaries(BulkOperationRequest request);
+
+    BulkOperationResult deleteEmployees(BulkOperationRequest request);
+
+    EmployeePage getEmployeesPage(UUID after, int size);
+
+    EmployeeSearchPage searchEmployees(EmployeeSearchCriteria criteria);
+
+    // same pages as above, with only the given fields selected and returned
+    EmployeeFieldsPage getEmployeeFieldsPage(UUID after, int size, Set<EmployeeField> fields);
+
+    EmployeeFieldsPage searchEmployeeFields(EmployeeSearchCriteria criteria, Set<EmployeeField> fields);
+
+    void streamAllEmployees(Consumer<Employee> consumer);
 }
@@ -0,0 +1,22 @@
+package com.example.employeemanagement.service;
+
+import com.example.employeemanagement.dto.DepartmentSalaryDistribution;
+import com.example.employeemanagement.dto.SalaryHistogram;
+import com.example.employeemanagement.dto.SalaryPercentiles;
+
+import java.util.List;
+
+public interface SalaryAnalyticsService {
+
+    // percentiles between 0 and 100, interpolated between the two closest salaries. department null = everyone
+    SalaryPercentiles getPercentiles(String department, List<Double> percentiles);
+
+    // equal-width buckets from the lowest to the highest salary. department null = everyone
+    SalaryHistogram getHistogram(String department, int buckets);
+
+    // one entry per department with at least one employee, ordered by name
+    List<DepartmentSalaryDistribution> getDepartmentDistributions();
+
+    // reloads the snapshot from the database
+    void rebuild();
+}
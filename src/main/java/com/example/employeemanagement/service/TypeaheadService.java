@@ -0,0 +1,15 @@
+package com.example.employeemanagement.service;
+
+import com.example.employeemanagement.dto.EmployeeSuggestion;
+
+import java.util.List;
+
+public interface TypeaheadService {
+
+    // employees whose "first last" name, last name or email starts with the query (case and accent insensitive),
+    // in key order and at most limit of them
+    List<EmployeeSuggestion> suggest(String query, int limit);
+
+    // reloads the index from the database
+    void rebuild();
+}
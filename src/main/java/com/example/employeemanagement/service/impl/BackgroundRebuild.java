@@ -0,0 +1,48 @@
+package com.example.employeemanagement.service.impl;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// runs an in-memory structure's rebuild on its own thread, so the after-commit listener that asked for it returns
+// at once. requests coalesce: while one is queued more requests are folded into it, and a request that comes in
+// while a rebuild runs queues exactly one more, so a change that rebuild may have missed is always picked up
+@Slf4j
+final class BackgroundRebuild {
+
+    private final String name;
+    private final Runnable rebuild;
+    private final ThreadPoolTaskExecutor executor;
+    private final AtomicBoolean queued = new AtomicBoolean();
+
+    BackgroundRebuild(String name, Runnable rebuild) {
+        this.name = name;
+        this.rebuild = rebuild;
+        executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(1);
+        executor.setMaxPoolSize(1);
+        executor.setThreadNamePrefix(name + "-rebuild-");
+        executor.initialize();
+    }
+
+    void request() {
+        if (queued.compareAndSet(false, true)) {
+            executor.execute(this::run);
+        }
+    }
+
+    void shutdown() {
+        executor.shutdown();
+    }
+
+    private void run() {
+        // cleared before the rebuild reads anything, a request from now on needs another pass
+        queued.set(false);
+        try {
+            rebuild.run();
+        } catch (Exception e) {
+            log.error("Rebuilding the {} failed: {}", name, e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package com.example.employeemanagement.service.impl;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// a plain bloom filter over strings: "definitely not added" or "maybe added". sized for an expected number of
+// entries and false positive rate, past that the rate goes up. adds are lock-free and may run alongside lookups.
+// there's no remove, EmailUniquenessServiceImpl rebuilds it instead
+final class BloomFilter {
+
+    private final AtomicLongArray words;
+    private final long bits;
+    private final int hashes;
+
+    BloomFilter(long expectedEntries, double falsePositiveRate) {
+        long entries = Math.max(1, expectedEntries);
+        // m = -n ln(p) / ln(2)^2, k = m/n ln(2)
+        long optimalBits = (long) Math.ceil(-entries * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+        int wordCount = (int) Math.min(Integer.MAX_VALUE - 8, Math.max(1, (optimalBits + 63) / 64));
+        this.words = new AtomicLongArray(wordCount);
+        this.bits = 64L * wordCount;
+        this.hashes = (int) Math.max(1, Math.round((double) bits / entries * Math.log(2)));
+    }
+
+    void add(String value) {
+        long hash = hash(value);
+        long step = step(hash);
+        for (int i = 0; i < hashes; i++) {
+            long bit = Math.floorMod(hash + i * step, bits);
+            int word = (int) (bit >>> 6);
+            long mask = 1L << bit;
+            if ((words.get(word) & mask) == 0) {
+                words.getAndAccumulate(word, mask, (current, set) -> current | set);
+            }
+        }
+    }
+
+    boolean mightContain(String value) {
+        long hash = hash(value);
+        long step = step(hash);
+        for (int i = 0; i < hashes; i++) {
+            long bit = Math.floorMod(hash + i * step, bits);
+            if ((words.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // (bits set / bits)^hashes, what a lookup for something never added currently risks
+    double estimatedFalsePositiveRate() {
+        long set = 0;
+        for (int i = 0; i < words.length(); i++) {
+            set += Long.bitCount(words.get(i));
+        }
+        return Math.pow((double) set / bits, hashes);
+    }
+
+    long sizeInBytes() {
+        return bits / 8;
+    }
+
+    // 64-bit FNV-1a over the chars, finished with murmur3's fmix64 so nearby emails land far apart
+    private static long hash(String value) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < value.length(); i++) {
+            hash ^= value.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        return mix(hash);
+    }
+
+    // second hash for double hashing, odd so it never degenerates into probing the same bit
+    private static long step(long hash) {
+        return mix(hash ^ 0x9E3779B97F4A7C15L) | 1;
+    }
+
+    private static long mix(long hash) {
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
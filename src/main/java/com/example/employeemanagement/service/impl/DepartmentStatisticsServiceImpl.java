@@ -0,0 +1,309 @@
+package com.example.employeemanagement.service.impl;
+
+import com.example.employeemanagement.dto.DepartmentStats;
+import com.example.employeemanagement.event.EmployeeChangedEvent;
+import com.example.employeemanagement.event.EmployeesBulkChangedEvent;
+import com.example.employeemanagement.repository.EmployeeRepository;
+import com.example.employeemanagement.service.DepartmentStatisticsService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// headcount and salary stats per department, kept up to date from EmployeeChangedEvents so a read costs
+// O(departments) instead of a scan over every employee. salaries are held in cents (the column has scale 2).
+// the aggregates are rebuilt from the database at startup and checked against it every
+// department.stats.reconcile-interval, which also repairs anything that changed the table behind our back.
+// events keep coming in while the rebuild query runs. they're recorded, and the employees they touched are corrected
+// (see correct), so a change the query already saw isn't counted twice. most are corrected before the new aggregates
+// are swapped in, the few that come in during that correction right after, outside the lock. adds commute, so events
+// applied to the new aggregates in between don't care about the order.
+// an event whose transaction committed before the query but only reaches us after the swap is still counted
+// twice, until the next reconcile. its listener would have to lag behind its commit by the whole query for that
+@Service
+@Slf4j
+public class DepartmentStatisticsServiceImpl implements DepartmentStatisticsService {
+
+    private final EmployeeRepository employeeRepository;
+    private final TransactionTemplate snapshotTransaction;
+    private final Duration reconcileInterval;
+    private final Counter driftCounter;
+
+    // events share the read lock, they only touch concurrent structures. a rebuild takes the write lock to start
+    // recording them and to swap the new map in, so no event lands in the map that's being thrown away unrecorded
+    private final ReadWriteLock rebuildLock = new ReentrantReadWriteLock();
+    private volatile Map<String, DepartmentAggregate> departments = new ConcurrentHashMap<>();
+    // events since the running rebuild started, null when there's none
+    private volatile Queue<EmployeeChangedEvent> missed;
+    // one rebuild at a time, the scheduled reconcile and a bulk change may ask at once
+    private final ReentrantLock rebuilding = new ReentrantLock();
+    private final BackgroundRebuild backgroundRebuild = new BackgroundRebuild("department stats", this::rebuild);
+
+    private ThreadPoolTaskScheduler scheduler;
+
+    public DepartmentStatisticsServiceImpl(
+            EmployeeRepository employeeRepository,
+            PlatformTransactionManager transactionManager,
+            MeterRegistry meterRegistry,
+            @Value("${department.stats.reconcile-interval}") Duration reconcileInterval
+    ) {
+        this.employeeRepository = employeeRepository;
+        // the aggregate query and the correction read the same snapshot. always a transaction of its own, an
+        // after-commit listener's thread still has the committed transaction bound and would otherwise join it
+        this.snapshotTransaction = new TransactionTemplate(transactionManager);
+        this.snapshotTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.snapshotTransaction.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+        this.snapshotTransaction.setReadOnly(true);
+        this.reconcileInterval = reconcileInterval;
+        this.driftCounter = Counter.builder("department.stats.drift")
+                .description("Reconciliations that found the department aggregates out of line with the database")
+                .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    void start() {
+        reconcile();
+        // own scheduler thread, same reasoning as the outbox dispatcher: a TaskScheduler bean would replace boot's
+        scheduler = new ThreadPoolTaskScheduler();
+        scheduler.setPoolSize(1);
+        scheduler.setThreadNamePrefix("department-stats-");
+        scheduler.initialize();
+        scheduler.scheduleWithFixedDelay(this::reconcileQuietly,
+                Instant.now().plus(reconcileInterval), reconcileInterval);
+    }
+
+    @PreDestroy
+    void stop() {
+        if (scheduler != null) {
+            scheduler.shutdown();
+        }
+        backgroundRebuild.shutdown();
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onEmployeeChanged(EmployeeChangedEvent event) {
+        rebuildLock.readLock().lock();
+        try {
+            apply(departments, event);
+            Queue<EmployeeChangedEvent> recording = missed;
+            if (recording != null) {
+                recording.add(event);
+            }
+        } finally {
+            rebuildLock.readLock().unlock();
+        }
+    }
+
+    // a bulk statement doesn't say which rows it touched, so start over from the table. that's expected, not drift.
+    // off the committing thread, the request shouldn't wait for a full table aggregate
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onEmployeesBulkChanged(EmployeesBulkChangedEvent event) {
+        if (event.affected() > 0) {
+            backgroundRebuild.request();
+        }
+    }
+
+    @Override
+    public List<DepartmentStats> getStatistics() {
+        return departments.entrySet().stream()
+                .map(entry -> entry.getValue().toStats(entry.getKey()))
+                .filter(Objects::nonNull)
+                .sorted(Comparator.comparing(DepartmentStats::getDepartment))
+                .toList();
+    }
+
+    @Override
+    public boolean reconcile() {
+        Map<String, DepartmentAggregate> previous = rebuild();
+        boolean drifted = !snapshot(previous).equals(snapshot(departments));
+        if (drifted) {
+            driftCounter.increment();
+            log.warn("Department statistics had drifted from the database, rebuilt {} departments", departments.size());
+        }
+        return drifted;
+    }
+
+    // swaps in aggregates loaded from the database and returns the ones they replaced
+    private Map<String, DepartmentAggregate> rebuild() {
+        rebuilding.lock();
+        try {
+            setMissed(new ConcurrentLinkedQueue<>());
+            try {
+                return snapshotTransaction.execute(status -> {
+                    Map<String, DepartmentAggregate> rebuilt = new ConcurrentHashMap<>();
+                    for (EmployeeRepository.DepartmentSalaryCount row : employeeRepository.countByDepartmentAndSalary()) {
+                        rebuilt.computeIfAbsent(row.getDepartment(), department -> new DepartmentAggregate())
+                                .add(toCents(row.getSalary()), row.getHeadcount());
+                    }
+                    // employee -> the state it was corrected to, null once deleted
+                    Map<UUID, EmployeeChangedEvent.Snapshot> corrected = new HashMap<>();
+                    correct(rebuilt, drain(missed), corrected);
+                    Map<String, DepartmentAggregate> previous;
+                    Queue<EmployeeChangedEvent> rest;
+                    rebuildLock.writeLock().lock();
+                    try {
+                        previous = departments;
+                        departments = rebuilt;
+                        rest = missed;
+                        missed = null;
+                    } finally {
+                        rebuildLock.writeLock().unlock();
+                    }
+                    correct(rebuilt, drain(rest), corrected);
+                    return previous;
+                });
+            } finally {
+                setMissed(null);
+            }
+        } finally {
+            rebuilding.unlock();
+        }
+    }
+
+    // the query may or may not have seen the changes of events recorded meanwhile. whichever it saw, taking out the
+    // employee's row as of the query (same snapshot) and putting in its latest state leaves it counted once.
+    // an employee corrected before is taken out as it was corrected to instead
+    private void correct(Map<String, DepartmentAggregate> rebuilt, List<EmployeeChangedEvent> events,
+                         Map<UUID, EmployeeChangedEvent.Snapshot> corrected) {
+        if (events.isEmpty()) {
+            return;
+        }
+        // null once deleted
+        Map<UUID, EmployeeChangedEvent.Snapshot> latest = new HashMap<>();
+        events.forEach(event -> latest.put(event.employeeId(), event.after()));
+        Set<UUID> uncorrected = new HashSet<>(latest.keySet());
+        uncorrected.removeAll(corrected.keySet());
+        if (!uncorrected.isEmpty()) {
+            for (EmployeeRepository.DepartmentSalary row : employeeRepository.findDepartmentSalariesByIdIn(uncorrected)) {
+                rebuilt.computeIfAbsent(row.getDepartment(), department -> new DepartmentAggregate())
+                        .add(toCents(row.getSalary()), -1);
+            }
+        }
+        latest.forEach((employeeId, after) -> {
+            EmployeeChangedEvent.Snapshot before = corrected.get(employeeId);
+            apply(rebuilt, new EmployeeChangedEvent(employeeId, before, after));
+            corrected.put(employeeId, after);
+        });
+    }
+
+    private static List<EmployeeChangedEvent> drain(Queue<EmployeeChangedEvent> events) {
+        List<EmployeeChangedEvent> drained = new ArrayList<>();
+        for (EmployeeChangedEvent event = events.poll(); event != null; event = events.poll()) {
+            drained.add(event);
+        }
+        return drained;
+    }
+
+    private void setMissed(Queue<EmployeeChangedEvent> recording) {
+        rebuildLock.writeLock().lock();
+        try {
+            missed = recording;
+        } finally {
+            rebuildLock.writeLock().unlock();
+        }
+    }
+
+    private void reconcileQuietly() {
+        try {
+            reconcile();
+        } catch (Exception e) {
+            log.error("Department statistics reconciliation failed: {}", e.getMessage());
+        }
+    }
+
+    private static void apply(Map<String, DepartmentAggregate> departments, EmployeeChangedEvent event) {
+        if (event.before() != null) {
+            departments.computeIfAbsent(event.before().department(), department -> new DepartmentAggregate())
+                    .add(toCents(event.before().salary()), -1);
+        }
+        if (event.after() != null) {
+            departments.computeIfAbsent(event.after().department(), department -> new DepartmentAggregate())
+                    .add(toCents(event.after().salary()), 1);
+        }
+    }
+
+    private static Map<String, DepartmentStats> snapshot(Map<String, DepartmentAggregate> departments) {
+        Map<String, DepartmentStats> snapshot = new HashMap<>();
+        departments.forEach((department, aggregate) -> {
+            DepartmentStats stats = aggregate.toStats(department);
+            if (stats != null) {
+                snapshot.put(department, stats);
+            }
+        });
+        return snapshot;
+    }
+
+    private static long toCents(BigDecimal salary) {
+        return salary.movePointRight(2).setScale(0, RoundingMode.HALF_UP).longValueExact();
+    }
+
+    private static BigDecimal fromCents(long cents) {
+        return BigDecimal.valueOf(cents, 2);
+    }
+
+    // counters are LongAdders so concurrent writers to the same department don't fight over one cache line.
+    // min/max need to survive deletes, so salaries are kept as a sorted multiset: salary -> number of employees
+    private static class DepartmentAggregate {
+        private final LongAdder headcount = new LongAdder();
+        private final LongAdder totalCents = new LongAdder();
+        private final ConcurrentSkipListMap<Long, Long> salaries = new ConcurrentSkipListMap<>();
+
+        void add(long cents, long employees) {
+            headcount.add(employees);
+            totalCents.add(cents * employees);
+            // merge may run the function more than once on this map, fine since it has no side effects
+            salaries.merge(cents, employees, (current, delta) -> current + delta == 0 ? null : current + delta);
+        }
+
+        // null once the department is empty, the entry stays around in case someone joins again
+        DepartmentStats toStats(String department) {
+            long count = headcount.sum();
+            Map.Entry<Long, Long> lowest = salaries.firstEntry();
+            Map.Entry<Long, Long> highest = salaries.lastEntry();
+            if (count <= 0 || lowest == null || highest == null) {
+                return null;
+            }
+            long total = totalCents.sum();
+            return DepartmentStats.builder()
+                    .department(department)
+                    .headcount(count)
+                    .totalSalary(fromCents(total))
+                    .averageSalary(fromCents(total).divide(BigDecimal.valueOf(count), 2, RoundingMode.HALF_UP))
+                    .minSalary(fromCents(lowest.getKey()))
+                    .maxSalary(fromCents(highest.getKey()))
+                    .build();
+        }
+    }
+}
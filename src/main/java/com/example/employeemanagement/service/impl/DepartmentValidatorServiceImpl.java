@@ -1,39 +1,31 @@
 package com.example.employeemanagement.service.impl;
 
+import com.example.employeemanagement.client.ValidationCollapser;
+import com.example.employeemanagement.client.ValidationVerdict;
 import com.example.employeemanagement.exception.ThirdPartyApiException;
 import com.example.employeemanagement.service.DepartmentValidatorService;
-import lombok.extern.slf4j.Slf4j;
-import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Service;
-import org.springframework.web.client.RestTemplate;
 
 @Service
-@Slf4j
 public class DepartmentValidatorServiceImpl implements DepartmentValidatorService {
 
-    @Value("${thirdparty.department.validation.url}")
-    private String departmentValidationApiUrl;
+    // concurrent checks go to the upstream in bulk
+    private final ValidationCollapser departmentValidationCollapser;
 
-    private final RestTemplate restTemplate = new RestTemplate();
+    public DepartmentValidatorServiceImpl(
+            @Qualifier("departmentValidationCollapser") ValidationCollapser departmentValidationCollapser
+    ) {
+        this.departmentValidationCollapser = departmentValidationCollapser;
+    }
 
     @Override
     public boolean validateDepartment(String department) {
-        try {
-            // simulated call to a 3rd party
-            String url = departmentValidationApiUrl + "?department=" + department;
-            log.info("Calling third-party department validation API at: {}", url);
-
-            // assume always valid for demonstration purposes :)
-            boolean isValid = true;
-
-            // in prod code we'd prob do:
-            // ResponseEntity<DepartmentValidationResponse> response = restTemplate.getForEntity(url, DepartmentValidationResponse.class);
-            // boolean isValid = response.getBody().isValid();
-
-            return isValid;
-        } catch (Exception e) {
-            log.error("Error calling department validation service: {}", e.getMessage());
+        ValidationVerdict verdict = departmentValidationCollapser.check(department);
+        if (verdict == ValidationVerdict.UNAVAILABLE) {
+            // unlike an email, there's no sensible default for a department we can't check
             throw new ThirdPartyApiException("Failed to validate department due to third-party API error");
         }
+        return verdict == ValidationVerdict.VALID;
     }
 }
@@ -0,0 +1,223 @@
+package com.example.employeemanagement.service.impl;
+
+import com.example.employeemanagement.event.EmployeeChangedEvent;
+import com.example.employeemanagement.event.EmployeesBulkChangedEvent;
+import com.example.employeemanagement.repository.EmployeeRepository;
+import com.example.employeemanagement.service.EmailUniquenessService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+
+// bloom filter of every email in the employees table in front of an indexed exists query: a miss is a definite
+// "not taken" and costs no round trip, a hit is confirmed against the database. emails are added as soon as the
+// change is published, inside its transaction (a rollback only leaves a false positive behind). a bloom filter
+// can't forget, so emails that went away are counted after commit and the filter is rebuilt from the database once
+// too many of its entries are stale, or once it holds more emails than it was sized for. that rebuild runs in the
+// background, emails added while it streams the table go into the new filter too, and emails of transactions that
+// hadn't committed when it started are replayed into it, since the stream may not see their rows.
+// before the first build every check goes to the database
+@Service
+@Slf4j
+public class EmailUniquenessServiceImpl implements EmailUniquenessService {
+
+    private final EmployeeRepository employeeRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final long expectedEmails;
+    private final double falsePositiveRate;
+    private final double maxStaleRatio;
+
+    private final Counter misses;
+    private final Counter taken;
+    private final Counter falsePositives;
+
+    private final BackgroundRebuild backgroundRebuild = new BackgroundRebuild("email filter", this::rebuild);
+    private final ReentrantLock rebuildLock = new ReentrantLock();
+
+    private volatile BloomFilter filter;
+    // the filter being rebuilt, gets every add too so nothing published during the rebuild is lost
+    private volatile BloomFilter building;
+    // emails added by transactions that haven't finished yet -> how many of them added it
+    private final Map<String, Integer> uncommitted = new ConcurrentHashMap<>();
+    private volatile long capacity;
+    // emails in the filter, and how many of them no employee has any more
+    private final AtomicLong entries = new AtomicLong();
+    private final AtomicLong stale = new AtomicLong();
+
+    public EmailUniquenessServiceImpl(
+            EmployeeRepository employeeRepository,
+            TransactionTemplate transactionTemplate,
+            MeterRegistry meterRegistry,
+            @Value("${email.filter.expected-emails}") long expectedEmails,
+            @Value("${email.filter.false-positive-rate}") double falsePositiveRate,
+            @Value("${email.filter.max-stale-ratio}") double maxStaleRatio
+    ) {
+        this.employeeRepository = employeeRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.expectedEmails = expectedEmails;
+        this.falsePositiveRate = falsePositiveRate;
+        this.maxStaleRatio = maxStaleRatio;
+
+        this.misses = checks(meterRegistry, "miss");
+        this.taken = checks(meterRegistry, "taken");
+        this.falsePositives = checks(meterRegistry, "false-positive");
+        Gauge.builder("email.filter.false-positive-rate", this,
+                        service -> service.filter == null ? 1 : service.filter.estimatedFalsePositiveRate())
+                .description("Estimated chance that a new email has to be checked against the database anyway")
+                .register(meterRegistry);
+        Gauge.builder("email.filter.memory", this, service -> service.filter == null ? 0 : service.filter.sizeInBytes())
+                .description("Heap held by the email bloom filter")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    void start() {
+        rebuild();
+    }
+
+    @PreDestroy
+    void stop() {
+        backgroundRebuild.shutdown();
+    }
+
+    @Override
+    public boolean isTaken(String email) {
+        if (email == null) {
+            return false;
+        }
+        BloomFilter current = filter;
+        if (current != null && !current.mightContain(email)) {
+            misses.increment();
+            return false;
+        }
+        boolean exists = employeeRepository.existsByEmail(email);
+        if (current != null) {
+            (exists ? taken : falsePositives).increment();
+        }
+        return exists;
+    }
+
+    // runs in the publishing transaction, so the email is in the filter before the row is visible to anyone else
+    @EventListener
+    public void onEmployeeSaved(EmployeeChangedEvent event) {
+        String email = addedEmail(event);
+        if (email != null) {
+            uncommitted.merge(email, 1, Integer::sum);
+            add(email);
+        }
+    }
+
+    // committed or rolled back, either way a rebuild from here on reads the table as it will stay
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMPLETION, fallbackExecution = true)
+    public void onEmployeeSaveCompleted(EmployeeChangedEvent event) {
+        String email = addedEmail(event);
+        if (email != null) {
+            uncommitted.computeIfPresent(email, (key, count) -> count == 1 ? null : count - 1);
+        }
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onEmployeeChanged(EmployeeChangedEvent event) {
+        String before = email(event.before());
+        if (before != null && !Objects.equals(before, email(event.after()))) {
+            stale.incrementAndGet();
+        }
+        rebuildIfWorn();
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onEmployeesBulkChanged(EmployeesBulkChangedEvent event) {
+        if (EmployeesBulkChangedEvent.DELETE.equals(event.operation())) {
+            stale.addAndGet(event.affected());
+            rebuildIfWorn();
+        }
+    }
+
+    // sized for twice the current table (at least email.filter.expected-emails), so it has room to grow
+    public void rebuild() {
+        rebuildLock.lock();
+        try {
+            long sizedFor = Math.max(expectedEmails, 2 * employeeRepository.count());
+            BloomFilter next = new BloomFilter(sizedFor, falsePositiveRate);
+            long added;
+            building = next;
+            try {
+                // an add that didn't see the new filter yet has already put its email in uncommitted
+                uncommitted.keySet().forEach(next::add);
+                added = transactionTemplate.execute(status -> {
+                    try (Stream<String> emails = employeeRepository.streamAllEmails()) {
+                        AtomicLong count = new AtomicLong();
+                        emails.forEach(email -> {
+                            next.add(email);
+                            count.incrementAndGet();
+                        });
+                        return count.get();
+                    }
+                });
+                capacity = sizedFor;
+                entries.set(added);
+                stale.set(0);
+                filter = next;
+            } finally {
+                // only once the new filter is in place, see add
+                building = null;
+            }
+            log.info("Email filter built: {} emails, {} KB", added, next.sizeInBytes() / 1024);
+        } finally {
+            rebuildLock.unlock();
+        }
+    }
+
+    // building is read first: if it's already gone again, the filter it was swapped for is in place
+    private void add(String email) {
+        BloomFilter next = building;
+        BloomFilter current = filter;
+        if (current != null) {
+            current.add(email);
+        }
+        if (next != null && next != current) {
+            next.add(email);
+        }
+        entries.incrementAndGet();
+    }
+
+    private void rebuildIfWorn() {
+        long count = entries.get();
+        if (filter != null && (stale.get() > maxStaleRatio * count || count > capacity)) {
+            backgroundRebuild.request();
+        }
+    }
+
+    // the email an event puts into the filter, null if it didn't bring a new one
+    private static String addedEmail(EmployeeChangedEvent event) {
+        String email = email(event.after());
+        return email == null || email.equals(email(event.before())) ? null : email;
+    }
+
+    private static String email(EmployeeChangedEvent.Snapshot snapshot) {
+        return snapshot == null ? null : snapshot.email();
+    }
+
+    private static Counter checks(MeterRegistry meterRegistry, String outcome) {
+        return Counter.builder("email.filter.checks")
+                .description("Duplicate email checks, by what the bloom filter said and the database confirmed")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+}
@@ -1,60 +1,102 @@
 package com.example.employeemanagement.service.impl;
 
-import com.example.employeemanagement.exception.ThirdPartyApiException;
+import com.example.employeemanagement.client.ValidationCollapser;
+import com.example.employeemanagement.client.ValidationVerdict;
 import com.example.employeemanagement.service.EmailValidatorService;
-import io.github.resilience4j.circuitbreaker.annotation.CircuitBreaker;
-import lombok.extern.slf4j.Slf4j;
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
-import org.springframework.web.client.RestTemplate;
+
+import java.time.Duration;
+import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 @Service
-@Slf4j
 public class EmailValidatorServiceImpl implements EmailValidatorService {
 
-    @Value("${thirdparty.email.validation.url}")
-    private String emailValidationApiUrl;
+    // misses go to the upstream in bulk, together with whatever other misses arrive at the same time
+    private final ValidationCollapser emailValidationCollapser;
+
+    // holds completed verdicts and, while a lookup is running, the future every concurrent caller waits on
+    private final AsyncCache<String, Boolean> verdictCache;
 
-    private final RestTemplate restTemplate = new RestTemplate();
+    public EmailValidatorServiceImpl(
+            @Qualifier("emailValidationCollapser") ValidationCollapser emailValidationCollapser,
+            MeterRegistry meterRegistry,
+            @Value("${thirdparty.email.validation.cache.max-size}") long maxSize,
+            @Value("${thirdparty.email.validation.cache.valid-ttl}") Duration validTtl,
+            @Value("${thirdparty.email.validation.cache.invalid-ttl}") Duration invalidTtl
+    ) {
+        this.emailValidationCollapser = emailValidationCollapser;
+        this.verdictCache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfter(new VerdictExpiry(validTtl, invalidTtl))
+                .recordStats()
+                .buildAsync();
+        CaffeineCacheMetrics.monitor(meterRegistry, verdictCache, "emailVerdicts");
+    }
 
     @Override
-    @CircuitBreaker(name = "emailValidatorService", fallbackMethod = "emailFallback")
     public boolean validateEmail(String email) {
+        String key = email.trim().toLowerCase(Locale.ROOT);
+
+        CompletableFuture<Boolean> lookup = new CompletableFuture<>();
+        CompletableFuture<Boolean> existing = verdictCache.asMap().putIfAbsent(key, lookup);
+        if (existing != null) {
+            // either a cached verdict or someone else's call that's still in flight
+            return awaitVerdict(existing);
+        }
+
+        try {
+            ValidationVerdict verdict = emailValidationCollapser.check(email);
+            if (verdict == ValidationVerdict.UNAVAILABLE) {
+                // completing with null drops the entry, so the next call asks the upstream again
+                lookup.complete(null);
+                return false;
+            }
+            boolean valid = verdict == ValidationVerdict.VALID;
+            lookup.complete(valid);
+            return valid;
+        } catch (RuntimeException e) {
+            lookup.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    private boolean awaitVerdict(CompletableFuture<Boolean> verdict) {
         try {
-            // simulate a third-party call
-            // in prod scenario, we'd pass the email in a request param or request body, etc
-            String url = emailValidationApiUrl + "?email=" + email;
-
-            log.info("Calling third-party email validation API at: {}", url);
-
-            // mock response: we just simulate a JSON response like {"isValid": true}
-            // for demonstration purposes, we can assume it always returns true
-            // or parse an actual JSON if the real service does
-            // so for now we use a dummy check:
-            boolean isValid = true;
-
-            // (in prod code) maybe we prob do:
-            // ResponseEntity<EmailValidationResponse> response = restTemplate.getForEntity(url, EmailValidationResponse.class);
-            // boolean isValid = response.getBody().isValid();
-
-            // for demonstration, we'll randomly throw an exception for circuit breaker demonstration
-            // double random = Math.random();
-            // if(random < 0.2) {
-            //     throw new RuntimeException("Simulated random third-party exception");
-            // }
-
-            return isValid;
-        } catch (Exception e) {
-            log.error("Error calling third-party email validation service: {}", e.getMessage());
-            throw new ThirdPartyApiException("Failed to validate email due to third-party API error");
+            // null means the upstream was unavailable for the call we piggybacked on, same as the fallback
+            return Boolean.TRUE.equals(verdict.join());
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
         }
     }
 
-    // fallback method if circuit breaker is OPEN or fails
-    public boolean emailFallback(String email, Throwable throwable) {
-        log.warn("Circuit breaker triggered for email validation. Using fallback for email: {}", email);
-        // decide whether to accept or reject email when the 3rd party is down
-        // for safety, let's consider all emails invalid if we can't validate them.
-        return false;
+    // invalid verdicts expire sooner: a mailbox that doesn't exist yet might be created shortly
+    private record VerdictExpiry(Duration validTtl, Duration invalidTtl) implements Expiry<String, Boolean> {
+
+        @Override
+        public long expireAfterCreate(String key, Boolean valid, long currentTime) {
+            return valid ? validTtl.toNanos() : invalidTtl.toNanos();
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, Boolean valid, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, valid, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String key, Boolean valid, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
     }
 }
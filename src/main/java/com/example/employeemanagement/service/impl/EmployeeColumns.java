@@ -0,0 +1,177 @@
+package com.example.employeemanagement.service.impl;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+// the employees table as columns of primitives, one row per employee in no particular order: salary in cents,
+// department as an index into a dictionary, and the id split in two longs. rows are found by id through an
+// open-addressing hash table of row numbers, and a delete moves the last row into the hole so the columns stay
+// dense. about 36 bytes per employee. not thread-safe, SalaryAnalyticsServiceImpl guards it with a lock
+final class EmployeeColumns {
+
+    private static final int INITIAL_CAPACITY = 1024;
+
+    private long[] salaryCents = new long[INITIAL_CAPACITY];
+    private int[] departmentCodes = new int[INITIAL_CAPACITY];
+    private long[] idHigh = new long[INITIAL_CAPACITY];
+    private long[] idLow = new long[INITIAL_CAPACITY];
+    private int size;
+
+    // row + 1 per slot, 0 is empty. at most half full
+    private int[] slots = new int[2 * INITIAL_CAPACITY];
+
+    private final Map<String, Integer> departmentCodesByName = new HashMap<>();
+    private final List<String> departmentNames = new ArrayList<>();
+
+    int size() {
+        return size;
+    }
+
+    long salaryCents(int row) {
+        return salaryCents[row];
+    }
+
+    int departmentCode(int row) {
+        return departmentCodes[row];
+    }
+
+    long[] salaryColumn() {
+        return salaryCents;
+    }
+
+    int[] departmentColumn() {
+        return departmentCodes;
+    }
+
+    int departmentCount() {
+        return departmentNames.size();
+    }
+
+    String departmentName(int code) {
+        return departmentNames.get(code);
+    }
+
+    // -1 if no employee ever had this department
+    int departmentCode(String department) {
+        return departmentCodesByName.getOrDefault(department, -1);
+    }
+
+    void upsert(UUID id, String department, long cents) {
+        int row = find(id.getMostSignificantBits(), id.getLeastSignificantBits());
+        if (row < 0) {
+            if (size == salaryCents.length) {
+                grow();
+            }
+            row = size++;
+            idHigh[row] = id.getMostSignificantBits();
+            idLow[row] = id.getLeastSignificantBits();
+            insertSlot(row);
+        }
+        salaryCents[row] = cents;
+        departmentCodes[row] = code(department);
+    }
+
+    void remove(UUID id) {
+        long high = id.getMostSignificantBits();
+        long low = id.getLeastSignificantBits();
+        int row = find(high, low);
+        if (row < 0) {
+            return;
+        }
+        removeSlot(high, low);
+        int last = --size;
+        if (row != last) {
+            salaryCents[row] = salaryCents[last];
+            departmentCodes[row] = departmentCodes[last];
+            idHigh[row] = idHigh[last];
+            idLow[row] = idLow[last];
+            slots[slotOf(idHigh[row], idLow[row])] = row + 1;
+        }
+    }
+
+    // what the arrays take, including the unused capacity
+    long estimatedBytes() {
+        return 8L * salaryCents.length + 4L * departmentCodes.length + 16L * idHigh.length + 4L * slots.length;
+    }
+
+    private int code(String department) {
+        Integer code = departmentCodesByName.get(department);
+        if (code == null) {
+            code = departmentNames.size();
+            departmentNames.add(department);
+            departmentCodesByName.put(department, code);
+        }
+        return code;
+    }
+
+    private int find(long high, long low) {
+        int mask = slots.length - 1;
+        for (int slot = hash(high, low) & mask; slots[slot] != 0; slot = (slot + 1) & mask) {
+            int row = slots[slot] - 1;
+            if (idHigh[row] == high && idLow[row] == low) {
+                return row;
+            }
+        }
+        return -1;
+    }
+
+    // the slot holding the row with this id, which must be there
+    private int slotOf(long high, long low) {
+        int mask = slots.length - 1;
+        int slot = hash(high, low) & mask;
+        while (idHigh[slots[slot] - 1] != high || idLow[slots[slot] - 1] != low) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private void insertSlot(int row) {
+        int mask = slots.length - 1;
+        int slot = hash(idHigh[row], idLow[row]) & mask;
+        while (slots[slot] != 0) {
+            slot = (slot + 1) & mask;
+        }
+        slots[slot] = row + 1;
+    }
+
+    // linear probing without tombstones: after emptying a slot, pull back any later entry of the same run that
+    // would no longer be reachable from its home slot
+    private void removeSlot(long high, long low) {
+        int mask = slots.length - 1;
+        int hole = slotOf(high, low);
+        slots[hole] = 0;
+        for (int slot = (hole + 1) & mask; slots[slot] != 0; slot = (slot + 1) & mask) {
+            int row = slots[slot] - 1;
+            int home = hash(idHigh[row], idLow[row]) & mask;
+            // is home cyclically outside (hole, slot]? then the entry has to move into the hole
+            boolean movable = hole <= slot ? (home <= hole || home > slot) : (home <= hole && home > slot);
+            if (movable) {
+                slots[hole] = slots[slot];
+                slots[slot] = 0;
+                hole = slot;
+            }
+        }
+    }
+
+    private void grow() {
+        int capacity = salaryCents.length * 2;
+        salaryCents = Arrays.copyOf(salaryCents, capacity);
+        departmentCodes = Arrays.copyOf(departmentCodes, capacity);
+        idHigh = Arrays.copyOf(idHigh, capacity);
+        idLow = Arrays.copyOf(idLow, capacity);
+        slots = new int[2 * capacity];
+        for (int row = 0; row < size; row++) {
+            insertSlot(row);
+        }
+    }
+
+    // random UUIDs are already well mixed, this just folds the two halves together
+    private static int hash(long high, long low) {
+        long mixed = (high ^ low) * 0x9E3779B97F4A7C15L;
+        return (int) (mixed ^ (mixed >>> 32));
+    }
+}
@@ -0,0 +1,454 @@
+package com.example.employeemanagement.service.impl;
+
+import com.example.employeemanagement.dto.BatchCreateResult;
+import com.example.employeemanagement.dto.BatchItemResult;
+import com.example.employeemanagement.entity.Employee;
+import com.example.employeemanagement.entity.ImportFormat;
+import com.example.employeemanagement.entity.ImportJob;
+import com.example.employeemanagement.entity.ImportRowError;
+import com.example.employeemanagement.entity.ImportStatus;
+import com.example.employeemanagement.exception.ImportJobNotFoundException;
+import com.example.employeemanagement.exception.InvalidInputException;
+import com.example.employeemanagement.repository.EmployeeRepository;
+import com.example.employeemanagement.repository.ImportJobRepository;
+import com.example.employeemanagement.repository.ImportRowErrorRepository;
+import com.example.employeemanagement.service.EmployeeImportService;
+import com.example.employeemanagement.service.EmployeeService;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.DatabindException;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.dataformat.csv.CsvMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvParser;
+import com.fasterxml.jackson.dataformat.csv.CsvSchema;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.unit.DataSize;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+// imports run one at a time on their own thread. the file is read row by row, so memory only depends on
+// import.jobs.chunk-size: each chunk goes through EmployeeService.createEmployees (bean validation, third-party
+// checks, duplicate emails) and its outcome is committed with the job's checkpoint.
+// the upload is spooled to this instance's import.jobs.dir, so a job belongs to the instance that took it
+// (import.jobs.instance-id) and only that instance resumes it after a restart
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class EmployeeImportServiceImpl implements EmployeeImportService {
+
+    private static final int MAX_MESSAGE_LENGTH = 1000;
+
+    private final ImportJobRepository jobRepository;
+    private final ImportRowErrorRepository errorRepository;
+    private final EmployeeRepository employeeRepository;
+    private final EmployeeService employeeService;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+
+    // columns are matched by the header line, the ones Employee doesn't know (or only writes, like version) are ignored
+    private final CsvMapper csvMapper = CsvMapper.builder()
+            .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES)
+            .enable(CsvParser.Feature.EMPTY_STRING_AS_NULL)
+            .enable(CsvParser.Feature.SKIP_EMPTY_LINES)
+            .build();
+
+    // jobs that are queued or running on this instance
+    private final Set<UUID> active = ConcurrentHashMap.newKeySet();
+
+    @Value("${import.jobs.dir}")
+    private String directory;
+
+    @Value("${import.jobs.chunk-size}")
+    private int chunkSize;
+
+    @Value("${import.jobs.max-file-size}")
+    private DataSize maxFileSize;
+
+    @Value("${import.jobs.instance-id}")
+    private String instanceId;
+
+    private ThreadPoolTaskExecutor executor;
+
+    @PostConstruct
+    void start() throws IOException {
+        Files.createDirectories(Path.of(directory));
+        executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(1);
+        executor.setMaxPoolSize(1);
+        executor.setThreadNamePrefix("employee-import-");
+        executor.initialize();
+    }
+
+    // interrupts a running import, it stops after its current chunk and carries on from there on the next start
+    @PreDestroy
+    void stop() {
+        executor.shutdown();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    void resumeOnStartup() {
+        resumeUnfinishedImports();
+    }
+
+    @Override
+    public int resumeUnfinishedImports() {
+        List<ImportJob> unfinished = jobRepository.findByOwnerAndStatusInOrderByCreatedAtAsc(
+                instanceId, EnumSet.of(ImportStatus.QUEUED, ImportStatus.RUNNING));
+        int resumed = 0;
+        for (ImportJob job : unfinished) {
+            if (submit(job.getId())) {
+                log.info("Resuming import {} after line {}", job.getId(), job.getLinesProcessed());
+                resumed++;
+            }
+        }
+        return resumed;
+    }
+
+    @Override
+    public ImportJob startImport(ImportFormat format, InputStream content) {
+        String fileName = UUID.randomUUID() + (format == ImportFormat.CSV ? ".csv" : ".ndjson");
+        Path file = Path.of(directory, fileName);
+        long size;
+        try {
+            size = spool(content, file, maxFileSize.toBytes());
+        } catch (IOException e) {
+            deleteQuietly(file);
+            throw new InvalidInputException("Couldn't read the uploaded file: " + e.getMessage());
+        }
+        if (size > maxFileSize.toBytes()) {
+            deleteQuietly(file);
+            throw new InvalidInputException("The uploaded file is larger than " + maxFileSize.toMegabytes() + " MB");
+        }
+        if (size == 0) {
+            deleteQuietly(file);
+            throw new InvalidInputException("The uploaded file is empty");
+        }
+
+        Instant now = Instant.now();
+        ImportJob job = jobRepository.save(ImportJob.builder()
+                .format(format)
+                .status(ImportStatus.QUEUED)
+                .fileName(fileName)
+                .fileSize(size)
+                .owner(instanceId)
+                .createdAt(now)
+                .updatedAt(now)
+                .build());
+        submit(job.getId());
+        log.info("Queued {} import {} ({} bytes)", format, job.getId(), size);
+        return job;
+    }
+
+    @Override
+    public ImportJob getImportJob(UUID id) {
+        return jobRepository.findById(id)
+                .orElseThrow(() -> new ImportJobNotFoundException("Import job not found with id: " + id));
+    }
+
+    @Override
+    public List<ImportRowError> getImportErrors(UUID id, long afterLine, int size) {
+        getImportJob(id);
+        return errorRepository.findByJobIdAndLineNumberGreaterThanOrderByLineNumberAsc(id, afterLine, Limit.of(size));
+    }
+
+    private boolean submit(UUID jobId) {
+        if (!active.add(jobId)) {
+            return false;
+        }
+        executor.execute(() -> {
+            try {
+                run(jobId);
+            } finally {
+                active.remove(jobId);
+            }
+        });
+        return true;
+    }
+
+    private void run(UUID jobId) {
+        ImportJob job = jobRepository.findById(jobId).orElse(null);
+        if (job == null || job.getStatus() == ImportStatus.COMPLETED || job.getStatus() == ImportStatus.FAILED) {
+            return;
+        }
+        // still RUNNING means we went down in the middle of it
+        boolean resumed = job.getStatus() == ImportStatus.RUNNING;
+        job.setStatus(ImportStatus.RUNNING);
+        job.setUpdatedAt(Instant.now());
+        jobRepository.save(job);
+
+        Path file = Path.of(directory, job.getFileName());
+        try {
+            Progress progress = new Progress(job, resumed);
+            boolean finished = job.getFormat() == ImportFormat.CSV ? importCsv(file, progress) : importNdjson(file, progress);
+            if (!finished) {
+                log.info("Import {} stopped after line {}, it carries on from there on the next start",
+                        jobId, job.getLinesProcessed());
+                return;
+            }
+            job.setStatus(ImportStatus.COMPLETED);
+        } catch (IOException | UncheckedIOException | InvalidInputException e) {
+            log.error("Import {} failed after line {}: {}", jobId, job.getLinesProcessed(), e.getMessage());
+            job.setStatus(ImportStatus.FAILED);
+            job.setLastError(truncate(e.getMessage()));
+        } catch (RuntimeException e) {
+            // most likely the database, the job stays RUNNING and carries on from its checkpoint on the next start
+            log.error("Import {} stopped after line {}: {}", jobId, job.getLinesProcessed(), e.getMessage());
+            return;
+        }
+
+        Instant now = Instant.now();
+        job.setFinishedAt(now);
+        job.setUpdatedAt(now);
+        jobRepository.save(job);
+        deleteQuietly(file);
+        log.info("Import {} {}: {} imported, {} failed, {} skipped", jobId, job.getStatus(),
+                job.getImported(), job.getFailed(), job.getSkipped());
+    }
+
+    // one object per line. returns false if the thread was interrupted between two chunks
+    private boolean importNdjson(Path file, Progress progress) throws IOException {
+        ObjectReader rowReader = objectMapper.readerFor(Employee.class);
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            long lineNumber = 0;
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (progress.done(lineNumber) || line.isBlank()) {
+                    continue;
+                }
+                Employee employee;
+                try {
+                    employee = rowReader.readValue(line);
+                } catch (JsonProcessingException e) {
+                    if (!progress.failed(lineNumber, "Unreadable row: " + e.getOriginalMessage())) {
+                        return false;
+                    }
+                    continue;
+                }
+                if (!progress.read(lineNumber, employee)) {
+                    return false;
+                }
+            }
+        }
+        progress.finish();
+        return true;
+    }
+
+    // parsed as a stream rather than line by line, a quoted value may span lines. a row is numbered by the line
+    // it ends on, that's where the checkpoint goes. a row that doesn't fit an Employee is reported and skipped,
+    // broken quoting (anything the parser can't find the end of the row for) fails the import
+    private boolean importCsv(Path file, Progress progress) throws IOException {
+        ObjectReader rowReader = csvMapper.readerFor(Employee.class).with(csvSchema(file));
+        try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8);
+             MappingIterator<Employee> rows = rowReader.readValues(reader)) {
+            while (rows.hasNextValue()) {
+                Employee employee;
+                try {
+                    employee = rows.nextValue();
+                } catch (DatabindException e) {
+                    long lineNumber = rows.getParser().currentTokenLocation().getLineNr();
+                    if (!progress.done(lineNumber) && !progress.failed(lineNumber, "Unreadable row: " + e.getOriginalMessage())) {
+                        return false;
+                    }
+                    continue;
+                }
+                long lineNumber = rows.getParser().currentTokenLocation().getLineNr();
+                if (!progress.done(lineNumber) && !progress.read(lineNumber, employee)) {
+                    return false;
+                }
+            }
+        }
+        progress.finish();
+        return true;
+    }
+
+    // columns are named by the header row, the rows after it are read with that schema
+    private CsvSchema csvSchema(Path file) throws IOException {
+        String[] columns;
+        try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8);
+             MappingIterator<String[]> rows = csvMapper.readerForArrayOf(String.class)
+                     .with(CsvParser.Feature.WRAP_AS_ARRAY).readValues(reader)) {
+            columns = rows.hasNextValue() ? rows.nextValue() : null;
+        }
+        if (columns == null || Arrays.stream(columns).allMatch(column -> column == null || column.isBlank())) {
+            throw new InvalidInputException("The CSV file has no header line");
+        }
+        return CsvSchema.builder()
+                .addColumns(Arrays.stream(columns).map(column -> column == null ? "" : column.trim()).toList(),
+                        CsvSchema.ColumnType.STRING)
+                .build()
+                .withSkipFirstDataRow(true);
+    }
+
+    // creates the chunk's employees, then records its row errors and moves the checkpoint in one transaction
+    private void commit(ImportJob job, Chunk chunk) {
+        if (chunk.size() == 0) {
+            return;
+        }
+        long skipped = chunk.replayed ? dropAlreadyImported(chunk) : 0;
+
+        long created = 0;
+        if (!chunk.employees.isEmpty()) {
+            BatchCreateResult result = employeeService.createEmployees(chunk.employees);
+            for (BatchItemResult item : result.getResults()) {
+                if (!item.isSuccess()) {
+                    chunk.errors.add(rowError(job, chunk.lines.get(item.getIndex()), item.getError()));
+                }
+            }
+            created = result.getCreated();
+        }
+
+        job.setLinesProcessed(chunk.lastLine);
+        job.setImported(job.getImported() + created);
+        job.setFailed(job.getFailed() + chunk.errors.size());
+        job.setSkipped(job.getSkipped() + skipped);
+        job.setUpdatedAt(Instant.now());
+        transactionTemplate.executeWithoutResult(status -> {
+            errorRepository.saveAll(chunk.errors);
+            jobRepository.save(job);
+        });
+    }
+
+    // emails are unique, so a row whose email is already there is one we imported before the restart
+    private long dropAlreadyImported(Chunk chunk) {
+        Set<String> existing = employeeRepository.findExistingEmails(
+                chunk.employees.stream().map(Employee::getEmail).toList());
+        long skipped = 0;
+        for (int i = chunk.employees.size() - 1; i >= 0; i--) {
+            if (existing.contains(chunk.employees.get(i).getEmail())) {
+                chunk.employees.remove(i);
+                chunk.lines.remove(i);
+                skipped++;
+            }
+        }
+        return skipped;
+    }
+
+    private ImportRowError rowError(ImportJob job, long lineNumber, String message) {
+        return ImportRowError.builder()
+                .jobId(job.getId())
+                .lineNumber(lineNumber)
+                .message(truncate(message))
+                .build();
+    }
+
+    private static String truncate(String message) {
+        if (message == null) {
+            return "Unknown error";
+        }
+        return message.length() <= MAX_MESSAGE_LENGTH ? message : message.substring(0, MAX_MESSAGE_LENGTH);
+    }
+
+    // copies the upload up to one byte past the limit, enough to tell it's too big without writing the rest
+    private static long spool(InputStream content, Path file, long limit) throws IOException {
+        try (OutputStream out = Files.newOutputStream(file, StandardOpenOption.CREATE_NEW)) {
+            byte[] buffer = new byte[8192];
+            long size = 0;
+            int read;
+            while ((read = content.read(buffer, 0, (int) Math.min(buffer.length, limit + 1 - size))) > 0) {
+                out.write(buffer, 0, read);
+                size += read;
+            }
+            return size;
+        }
+    }
+
+    private static void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.warn("Couldn't delete import file {}: {}", file, e.getMessage());
+        }
+    }
+
+    // the job's rows as they're read, committed every import.jobs.chunk-size of them. read and failed return false
+    // once the thread was interrupted between two chunks
+    private class Progress {
+        private final ImportJob job;
+        // the first chunk after a restart may have been committed without its checkpoint
+        private Chunk chunk;
+
+        Progress(ImportJob job, boolean resumed) {
+            this.job = job;
+            this.chunk = new Chunk(resumed);
+        }
+
+        // accounted for before a restart
+        boolean done(long lineNumber) {
+            return lineNumber <= job.getLinesProcessed();
+        }
+
+        boolean read(long lineNumber, Employee employee) {
+            // ids come from the database, an exported id column is just along for the ride
+            employee.setId(null);
+            chunk.employees.add(employee);
+            chunk.lines.add(lineNumber);
+            return next(lineNumber);
+        }
+
+        boolean failed(long lineNumber, String message) {
+            chunk.errors.add(rowError(job, lineNumber, message));
+            return next(lineNumber);
+        }
+
+        void finish() {
+            commit(job, chunk);
+        }
+
+        private boolean next(long lineNumber) {
+            chunk.lastLine = lineNumber;
+            if (chunk.size() < chunkSize) {
+                return true;
+            }
+            commit(job, chunk);
+            chunk = new Chunk(false);
+            return !Thread.currentThread().isInterrupted();
+        }
+    }
+
+    // the rows read since the last commit, with the line each employee came from
+    private static class Chunk {
+        private final boolean replayed;
+        private final List<Employee> employees = new ArrayList<>();
+        private final List<Long> lines = new ArrayList<>();
+        private final List<ImportRowError> errors = new ArrayList<>();
+        private long lastLine;
+
+        Chunk(boolean replayed) {
+            this.replayed = replayed;
+        }
+
+        int size() {
+            return employees.size() + errors.size();
+        }
+    }
+}
@@ -1,73 +1,351 @@
 package com.example.employeemanagement.service.impl;
 
+import com.example.employeemanagement.config.CacheConfig;
+import com.example.employeemanagement.dto.BatchCreateResult;
+import com.example.employeemanagement.dto.BatchItemResult;
+import com.example.employeemanagement.dto.BulkOperationRequest;
+import com.example.employeemanagement.dto.BulkOperationResult;
+import com.example.employeemanagement.dto.EmployeeField;
+import com.example.employeemanagement.dto.EmployeeFieldsPage;
+import com.example.employeemanagement.dto.EmployeePage;
+import com.example.employeemanagement.dto.EmployeeSearchCriteria;
+import com.example.employeemanagement.dto.EmployeeSearchPage;
 import com.example.employeemanagement.entity.Employee;
+import com.example.employeemanagement.event.EmployeeChangedEvent;
+import com.example.employeemanagement.event.EmployeesBulkChangedEvent;
 import com.example.employeemanagement.exception.EmployeeNotFoundException;
+import com.example.employeemanagement.exception.DuplicateEmailException;
+import com.example.employeemanagement.exception.EmployeeVersionConflictException;
 import com.example.employeemanagement.exception.InvalidInputException;
+import com.example.employeemanagement.exception.ThirdPartyApiException;
 import com.example.employeemanagement.repository.EmployeeRepository;
+import com.example.employeemanagement.repository.EmployeeSpecifications;
 import com.example.employeemanagement.service.DepartmentValidatorService;
+import com.example.employeemanagement.service.EmailUniquenessService;
 import com.example.employeemanagement.service.EmailValidatorService;
 import com.example.employeemanagement.service.EmployeeService;
 import com.example.employeemanagement.service.NotificationService;
+import com.example.employeemanagement.util.AuditEventType;
 import com.example.employeemanagement.util.AuditLogger;
+import io.micrometer.core.annotation.Timed;
+import jakarta.persistence.EntityManager;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
-import java.util.List;
-import java.util.UUID;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
 @Transactional
+@Timed(value = "employee.service", description = "EmployeeService calls, tagged with the method")
 public class EmployeeServiceImpl implements EmployeeService {
 
     private final EmployeeRepository employeeRepository;
     private final EmailValidatorService emailValidatorService;
     private final DepartmentValidatorService departmentValidatorService;
+    private final EmailUniquenessService emailUniquenessService;
     private final NotificationService notificationService;
     private final AuditLogger auditLogger;
+    private final ApplicationEventPublisher eventPublisher;
+    private final CacheManager cacheManager;
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+    private final Validator validator;
+    private final Executor validationExecutor;
+
+    @Value("${api.employees.batch.chunk-size}")
+    private int batchChunkSize;
+
+    @Value("${api.employees.batch.max-size}")
+    private int maxBulkIds;
+
+    @Value("${thirdparty.validation.timeout}")
+    private Duration validationTimeout;
 
     @Override
     public Employee createEmployee(Employee employee) {
-        auditLogger.log("Starting creation of employee with email: " + employee.getEmail());
+        auditLogger.log(AuditEventType.EMPLOYEE_CREATE_STARTED, null, employee.getEmail());
 
-        // validate email with third-party
-        boolean emailValid = emailValidatorService.validateEmail(employee.getEmail());
-        if (!emailValid) {
-            throw new InvalidInputException("Email is invalid according to third-party validation");
-        }
+        // a duplicate is cheaper to find here than after both third-party calls, at INSERT time
+        rejectTakenEmail(employee.getEmail());
 
-        // validate department with third-party
-        boolean departmentValid = departmentValidatorService.validateDepartment(employee.getDepartment());
-        if (!departmentValid) {
-            throw new InvalidInputException("Department is invalid according to third-party validation");
-        }
+        // validate email and department with third-party, both calls run at the same time
+        validateWithThirdParties(
+                employee.getEmail(), "Email is invalid according to third-party validation",
+                employee.getDepartment(), "Department is invalid according to third-party validation");
 
         // save employee
         Employee savedEmployee = employeeRepository.save(employee);
 
-        auditLogger.log("Employee saved successfully: " + savedEmployee.getId());
+        auditLogger.log(AuditEventType.EMPLOYEE_SAVED, savedEmployee.getId(), savedEmployee.getEmail());
+        eventPublisher.publishEvent(EmployeeChangedEvent.created(savedEmployee));
 
-        // send asynchronous email notification
+        // queue the welcome email, it's committed together with the employee and sent by the outbox dispatcher
         notificationService.sendEmployeeCreatedNotification(savedEmployee);
 
-        auditLogger.log("Employee creation process completed for: " + savedEmployee.getId());
+        auditLogger.log(AuditEventType.EMPLOYEE_CREATE_COMPLETED, savedEmployee.getId(), savedEmployee.getEmail());
         return savedEmployee;
     }
 
+    @Override
+    // every chunk gets its own transaction, so a bad row only rolls back the chunk it's in
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public BatchCreateResult createEmployees(List<Employee> employees) {
+        auditLogger.logBatch(AuditEventType.BATCH_CREATE_STARTED, employees.size(), 0);
+
+        BatchItemResult[] results = new BatchItemResult[employees.size()];
+        List<Integer> accepted = validateBatch(employees, results);
+
+        for (int from = 0; from < accepted.size(); from += batchChunkSize) {
+            List<Integer> chunk = accepted.subList(from, Math.min(from + batchChunkSize, accepted.size()));
+            persistChunk(employees, chunk, results);
+        }
+
+        List<BatchItemResult> resultList = Arrays.asList(results);
+        int created = (int) resultList.stream().filter(BatchItemResult::isSuccess).count();
+
+        auditLogger.logBatch(AuditEventType.BATCH_CREATE_COMPLETED, created, employees.size() - created);
+        return BatchCreateResult.builder()
+                .created(created)
+                .failed(employees.size() - created)
+                .results(resultList)
+                .build();
+    }
+
+    // runs bean validation per item, then the third-party checks once per distinct email and department. the checks
+    // run concurrently, so the ones that miss the validators' caches are collapsed into a few bulk upstream calls
+    private List<Integer> validateBatch(List<Employee> employees, BatchItemResult[] results) {
+        Set<String> seenEmails = new HashSet<>();
+        List<Integer> candidates = new ArrayList<>();
+
+        for (int i = 0; i < employees.size(); i++) {
+            Employee employee = employees.get(i);
+
+            Set<ConstraintViolation<Employee>> violations = validator.validate(employee);
+            if (!violations.isEmpty()) {
+                results[i] = failedItem(i, "Validation failed: " + violations.stream()
+                        .map(ConstraintViolation::getMessage)
+                        .sorted()
+                        .collect(Collectors.joining("; ")));
+                continue;
+            }
+            if (!seenEmails.add(employee.getEmail())) {
+                results[i] = failedItem(i, "Duplicate email in batch: " + employee.getEmail());
+                continue;
+            }
+            if (emailUniquenessService.isTaken(employee.getEmail())) {
+                results[i] = failedItem(i, "Employee with email " + employee.getEmail() + " already exists");
+                continue;
+            }
+            candidates.add(i);
+        }
+
+        // emails are distinct by now, departments are checked once however many items share one
+        Map<String, CompletableFuture<Boolean>> emailVerdicts = new HashMap<>();
+        Map<String, CompletableFuture<Boolean>> departmentVerdicts = new HashMap<>();
+        for (int i : candidates) {
+            Employee employee = employees.get(i);
+            emailVerdicts.put(employee.getEmail(), CompletableFuture.supplyAsync(
+                    () -> emailValidatorService.validateEmail(employee.getEmail()), validationExecutor));
+            departmentVerdicts.computeIfAbsent(employee.getDepartment(), department -> CompletableFuture.supplyAsync(
+                    () -> departmentValidatorService.validateDepartment(department), validationExecutor));
+        }
+
+        List<Integer> accepted = new ArrayList<>();
+        for (int i : candidates) {
+            Employee employee = employees.get(i);
+            try {
+                if (!emailVerdicts.get(employee.getEmail()).join()) {
+                    results[i] = failedItem(i, "Email is invalid according to third-party validation");
+                    continue;
+                }
+                if (!departmentVerdicts.get(employee.getDepartment()).join()) {
+                    results[i] = failedItem(i, "Department is invalid according to third-party validation");
+                    continue;
+                }
+            } catch (CompletionException e) {
+                results[i] = failedItem(i, e.getCause().getMessage());
+                continue;
+            }
+
+            accepted.add(i);
+        }
+        return accepted;
+    }
+
+    private void persistChunk(List<Employee> employees, List<Integer> chunk, BatchItemResult[] results) {
+        List<Employee> toSave = chunk.stream().map(employees::get).toList();
+        try {
+            // hibernate sends these as JDBC batches (see hibernate.jdbc.batch_size)
+            transactionTemplate.executeWithoutResult(status -> {
+                employeeRepository.saveAll(toSave);
+                toSave.forEach(notificationService::sendEmployeeCreatedNotification);
+                toSave.forEach(employee -> eventPublisher.publishEvent(EmployeeChangedEvent.created(employee)));
+                employeeRepository.flush();
+                entityManager.clear();
+            });
+            for (int index : chunk) {
+                markCreated(employees.get(index), index, results);
+            }
+        } catch (DataAccessException e) {
+            log.warn("Batch chunk of {} employees failed ({}), retrying one by one", chunk.size(), e.getMessage());
+            // ids and versions were assigned before the rollback, clear them so the retry inserts fresh rows
+            toSave.forEach(this::resetGenerated);
+            for (int index : chunk) {
+                persistSingle(employees.get(index), index, results);
+            }
+        }
+    }
+
+    private void persistSingle(Employee employee, int index, BatchItemResult[] results) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                employeeRepository.saveAndFlush(employee);
+                notificationService.sendEmployeeCreatedNotification(employee);
+                eventPublisher.publishEvent(EmployeeChangedEvent.created(employee));
+            });
+            markCreated(employee, index, results);
+        } catch (DataIntegrityViolationException e) {
+            resetGenerated(employee);
+            results[index] = failedItem(index, "Employee with email " + employee.getEmail() + " already exists");
+        } catch (DataAccessException e) {
+            resetGenerated(employee);
+            results[index] = failedItem(index, e.getMessage());
+        }
+    }
+
+    // a set version would make save() merge instead of insert
+    private void resetGenerated(Employee employee) {
+        employee.setId(null);
+        employee.setVersion(null);
+    }
+
+    private void markCreated(Employee employee, int index, BatchItemResult[] results) {
+        results[index] = BatchItemResult.builder()
+                .index(index)
+                .success(true)
+                .id(employee.getId())
+                .build();
+    }
+
+    private void rejectTakenEmail(String email) {
+        if (emailUniquenessService.isTaken(email)) {
+            throw new DuplicateEmailException("Employee with email " + email + " already exists");
+        }
+    }
+
+    // a null email/department is skipped. the checks run in parallel, the first invalid answer fails the
+    // whole thing without waiting for the other one, and both together get one deadline (thirdparty.validation.timeout)
+    private void validateWithThirdParties(
+            String email, String emailInvalidMessage,
+            String department, String departmentInvalidMessage
+    ) {
+        CompletableFuture<Void> firstFailure = new CompletableFuture<>();
+        List<CompletableFuture<Void>> checks = new ArrayList<>();
+        if (email != null) {
+            checks.add(thirdPartyCheck(() -> emailValidatorService.validateEmail(email), emailInvalidMessage, firstFailure));
+        }
+        if (department != null) {
+            checks.add(thirdPartyCheck(() -> departmentValidatorService.validateDepartment(department), departmentInvalidMessage, firstFailure));
+        }
+        if (checks.isEmpty()) {
+            return;
+        }
+
+        CompletableFuture<Void> allPassed = CompletableFuture.allOf(checks.toArray(CompletableFuture[]::new));
+        try {
+            CompletableFuture.anyOf(allPassed, firstFailure).get(validationTimeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new ThirdPartyApiException("Third-party validation failed: " + e.getCause().getMessage());
+        } catch (TimeoutException e) {
+            throw new ThirdPartyApiException("Third-party validation did not complete within " + validationTimeout.toMillis() + "ms");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ThirdPartyApiException("Interrupted while waiting for third-party validation");
+        }
+    }
+
+    private CompletableFuture<Void> thirdPartyCheck(BooleanSupplier check, String invalidMessage, CompletableFuture<Void> firstFailure) {
+        return CompletableFuture.supplyAsync(check::getAsBoolean, validationExecutor)
+                .thenAccept(valid -> {
+                    if (!valid) {
+                        throw new InvalidInputException(invalidMessage);
+                    }
+                })
+                .whenComplete((ignored, failure) -> {
+                    if (failure != null) {
+                        firstFailure.completeExceptionally(failure);
+                    }
+                });
+    }
+
+    private BatchItemResult failedItem(int index, String error) {
+        return BatchItemResult.builder()
+                .index(index)
+                .success(false)
+                .error(error)
+                .build();
+    }
+
     @Override
     @Transactional(readOnly = true)
+    @Cacheable(cacheNames = CacheConfig.EMPLOYEES_CACHE, key = "#id")
     public Employee getEmployeeById(UUID id) {
         return employeeRepository.findById(id)
                 .orElseThrow(() -> new EmployeeNotFoundException("Employee not found with id: " + id));
     }
 
     @Override
+    @CacheEvict(cacheNames = CacheConfig.EMPLOYEES_CACHE, key = "#id")
     public Employee updateEmployee(UUID id, Employee employee) {
+        // internal call doesn't go through the cache proxy, which is what we want: we need the managed entity
         Employee existing = getEmployeeById(id);
 
+        // compare before overwriting anything, otherwise we'd be comparing the new values with themselves
+        boolean emailChanged = !existing.getEmail().equals(employee.getEmail());
+        boolean departmentChanged = !existing.getDepartment().equals(employee.getDepartment());
+
+        if (emailChanged) {
+            rejectTakenEmail(employee.getEmail());
+        }
+
+        // re-validate only what changed
+        validateWithThirdParties(
+                emailChanged ? employee.getEmail() : null, "Updated email is invalid according to third-party validation",
+                departmentChanged ? employee.getDepartment() : null, "Updated department is invalid according to third-party validation");
+
+        EmployeeChangedEvent.Snapshot before = EmployeeChangedEvent.Snapshot.of(existing);
+
         // update fields
         existing.setFirstName(employee.getFirstName());
         existing.setLastName(employee.getLastName());
@@ -75,31 +353,353 @@ public class EmployeeServiceImpl implements EmployeeService {
         existing.setDepartment(employee.getDepartment());
         existing.setSalary(employee.getSalary());
 
-        // re-validate email if changed
-        if (!existing.getEmail().equals(employee.getEmail())) {
-            if (!emailValidatorService.validateEmail(employee.getEmail())) {
-                throw new InvalidInputException("Updated email is invalid according to third-party validation");
-            }
+        Employee saved = employeeRepository.save(existing);
+        eventPublisher.publishEvent(EmployeeChangedEvent.updated(before, saved));
+        return saved;
+    }
+
+    @Override
+    @CacheEvict(cacheNames = CacheConfig.EMPLOYEES_CACHE, key = "#id")
+    public Employee patchEmployee(UUID id, Map<EmployeeField, Object> patch, Long expectedVersion) {
+        Employee current = getEmployeeById(id);
+        if (expectedVersion != null && !expectedVersion.equals(current.getVersion())) {
+            evictNow(id);
+            throw new EmployeeVersionConflictException("Employee " + id + " is at version " + current.getVersion()
+                    + ", not " + expectedVersion);
         }
-        // re-validate department if changed
-        if (!existing.getDepartment().equals(employee.getDepartment())) {
-            if (!departmentValidatorService.validateDepartment(employee.getDepartment())) {
-                throw new InvalidInputException("Updated department is invalid according to third-party validation");
+
+        // work on a copy, the managed entity must stay as it is or hibernate would flush it as a second update
+        Employee patched = copyOf(current);
+        Map<EmployeeField, Object> changes = new EnumMap<>(EmployeeField.class);
+        patch.forEach((field, value) -> {
+            if (!sameValue(field, valueOf(current, field), value)) {
+                changes.put(field, value);
+                setValue(patched, field, value);
             }
+        });
+        if (changes.isEmpty()) {
+            return current;
         }
 
-        return employeeRepository.save(existing);
+        Set<ConstraintViolation<Employee>> violations = validator.validate(patched);
+        if (!violations.isEmpty()) {
+            throw new InvalidInputException("Validation failed: " + violations.stream()
+                    .map(ConstraintViolation::getMessage)
+                    .sorted()
+                    .collect(Collectors.joining("; ")));
+        }
+
+        if (changes.containsKey(EmployeeField.EMAIL)) {
+            rejectTakenEmail((String) changes.get(EmployeeField.EMAIL));
+        }
+
+        // only what the patch actually changes goes back to the third parties
+        validateWithThirdParties(
+                (String) changes.get(EmployeeField.EMAIL), "Updated email is invalid according to third-party validation",
+                (String) changes.get(EmployeeField.DEPARTMENT), "Updated department is invalid according to third-party validation");
+
+        // the version check is part of the update, so a write that committed after our read makes this match nothing
+        if (employeeRepository.updateFields(id, current.getVersion(), changes) == 0) {
+            evictNow(id);
+            throw new EmployeeVersionConflictException("Employee " + id + " was modified concurrently, reload it and try again");
+        }
+        patched.setVersion(current.getVersion() + 1);
+
+        eventPublisher.publishEvent(EmployeeChangedEvent.updated(EmployeeChangedEvent.Snapshot.of(current), patched));
+        return patched;
+    }
+
+    // a read that missed the cache while an update committed can put the old row back after the update's evict.
+    // clients re-read after a 409, so that entry has to go now (evictIfPresent isn't deferred to commit,
+    // and this transaction is about to roll back anyway) or they'd keep getting the stale version
+    private void evictNow(UUID id) {
+        Cache cache = cacheManager.getCache(CacheConfig.EMPLOYEES_CACHE);
+        if (cache != null) {
+            cache.evictIfPresent(id);
+        }
+    }
+
+    private static Employee copyOf(Employee employee) {
+        return Employee.builder()
+                .id(employee.getId())
+                .firstName(employee.getFirstName())
+                .lastName(employee.getLastName())
+                .email(employee.getEmail())
+                .department(employee.getDepartment())
+                .salary(employee.getSalary())
+                .version(employee.getVersion())
+                .build();
+    }
+
+    private static Object valueOf(Employee employee, EmployeeField field) {
+        return switch (field) {
+            case ID -> employee.getId();
+            case FIRST_NAME -> employee.getFirstName();
+            case LAST_NAME -> employee.getLastName();
+            case EMAIL -> employee.getEmail();
+            case DEPARTMENT -> employee.getDepartment();
+            case SALARY -> employee.getSalary();
+        };
+    }
+
+    private static void setValue(Employee employee, EmployeeField field, Object value) {
+        switch (field) {
+            case FIRST_NAME -> employee.setFirstName((String) value);
+            case LAST_NAME -> employee.setLastName((String) value);
+            case EMAIL -> employee.setEmail((String) value);
+            case DEPARTMENT -> employee.setDepartment((String) value);
+            case SALARY -> employee.setSalary((BigDecimal) value);
+            case ID -> throw new InvalidInputException("id can't be changed");
+        }
+    }
+
+    // 5000 and 5000.00 are the same salary
+    private static boolean sameValue(EmployeeField field, Object current, Object value) {
+        if (field == EmployeeField.SALARY && current != null && value != null) {
+            return ((BigDecimal) current).compareTo((BigDecimal) value) == 0;
+        }
+        return Objects.equals(current, value);
     }
 
     @Override
+    @CacheEvict(cacheNames = CacheConfig.EMPLOYEES_CACHE, key = "#id")
     public void deleteEmployee(UUID id) {
         Employee existing = getEmployeeById(id);
         employeeRepository.delete(existing);
+        eventPublisher.publishEvent(EmployeeChangedEvent.deleted(existing));
+    }
+
+    @Override
+    @CacheEvict(cacheNames = CacheConfig.EMPLOYEES_CACHE, allEntries = true)
+    public BulkOperationResult transferEmployees(BulkOperationRequest request) {
+        String department = request.getDepartment();
+        if (department == null || department.isBlank()) {
+            throw new InvalidInputException("Department is required");
+        }
+        Specification<Employee> selection = bulkSelection(request);
+
+        // once for the target, however many employees move
+        validateWithThirdParties(null, null, department, "Department is invalid according to third-party validation");
+
+        int moved = employeeRepository.transferAll(selection, department);
+        return bulkCompleted(EmployeesBulkChangedEvent.TRANSFER, moved);
+    }
+
+    @Override
+    @CacheEvict(cacheNames = CacheConfig.EMPLOYEES_CACHE, allEntries = true)
+    public BulkOperationResult adjustSalaries(BulkOperationRequest request) {
+        BigDecimal percent = request.getPercent();
+        BigDecimal amount = request.getAmount();
+        if ((percent == null) == (amount == null)) {
+            throw new InvalidInputException("Give either a percent or an amount");
+        }
+        Specification<Employee> selection = bulkSelection(request);
+
+        BigDecimal factor = BigDecimal.ONE;
+        BigDecimal increment = BigDecimal.ZERO;
+        if (percent != null) {
+            if (percent.compareTo(BigDecimal.valueOf(-100)) <= 0) {
+                throw new InvalidInputException("A salary can't be cut by 100% or more");
+            }
+            factor = BigDecimal.ONE.add(percent.movePointLeft(2));
+        } else {
+            increment = amount;
+            // all or nothing, checked in the same transaction as the update
+            if (amount.signum() < 0 && employeeRepository.count(selection.and((root, query, cb) ->
+                    cb.lessThan(root.get("salary"), amount.negate()))) > 0) {
+                throw new InvalidInputException("The adjustment would make a salary negative");
+            }
+        }
+
+        int adjusted = employeeRepository.adjustSalaries(selection, factor, increment);
+        return bulkCompleted(EmployeesBulkChangedEvent.SALARY_ADJUSTMENT, adjusted);
+    }
+
+    @Override
+    @CacheEvict(cacheNames = CacheConfig.EMPLOYEES_CACHE, allEntries = true)
+    public BulkOperationResult deleteEmployees(BulkOperationRequest request) {
+        int deleted = employeeRepository.deleteAll(bulkSelection(request));
+        return bulkCompleted(EmployeesBulkChangedEvent.DELETE, deleted);
+    }
+
+    // ids and/or a filter, never everything by accident
+    private Specification<Employee> bulkSelection(BulkOperationRequest request) {
+        List<UUID> ids = request.getIds();
+        boolean byIds = ids != null && !ids.isEmpty();
+        boolean byFilter = request.getFilter() != null && !request.getFilter().isEmpty();
+        if (!byIds && !byFilter) {
+            throw new InvalidInputException("Select employees by ids or a non-empty filter");
+        }
+        if (byIds && ids.size() > maxBulkIds) {
+            throw new InvalidInputException("At most " + maxBulkIds + " ids per request, use a filter for more");
+        }
+
+        Specification<Employee> selection = byFilter
+                ? EmployeeSpecifications.matching(request.getFilter().toCriteria())
+                : EmployeeSpecifications.idIn(ids);
+        return byFilter && byIds ? selection.and(EmployeeSpecifications.idIn(ids)) : selection;
+    }
+
+    // the cache is cleared after commit by the @CacheEvict, listeners (department stats) rebuild from the table
+    // and the audit journal records the change once it's committed
+    private BulkOperationResult bulkCompleted(String operation, int affected) {
+        eventPublisher.publishEvent(new EmployeesBulkChangedEvent(operation, affected));
+        log.info("Bulk {} changed {} employees", operation, affected);
+        return BulkOperationResult.builder()
+                .operation(operation)
+                .affected(affected)
+                .build();
     }
 
     @Override
     @Transactional(readOnly = true)
-    public List<Employee> getAllEmployees() {
-        return employeeRepository.findAll();
+    public EmployeePage getEmployeesPage(UUID after, int size) {
+        // fetch one extra row so we know whether there's a next page without a count query
+        Limit limit = Limit.of(size + 1);
+        List<Employee> employees = after == null
+                ? employeeRepository.findAllByOrderByIdAsc(limit)
+                : employeeRepository.findByIdGreaterThanOrderByIdAsc(after, limit);
+
+        UUID nextCursor = null;
+        if (employees.size() > size) {
+            employees = employees.subList(0, size);
+            nextCursor = employees.get(size - 1).getId();
+        }
+
+        return EmployeePage.builder()
+                .employees(employees)
+                .nextCursor(nextCursor)
+                .build();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public EmployeeSearchPage searchEmployees(EmployeeSearchCriteria criteria) {
+        EmployeeSearchCriteria.SortField sortField = criteria.getSort();
+
+        // one extra row tells us whether there's a next page, same as getEmployeesPage
+        int size = criteria.getSize();
+        List<Employee> employees = employeeRepository.findBy(searchSpec(criteria),
+                query -> query.sortBy(searchSort(criteria)).limit(size + 1).all());
+
+        String nextCursor = null;
+        if (employees.size() > size) {
+            employees = employees.subList(0, size);
+            Employee last = employees.get(size - 1);
+            nextCursor = encodeCursor(sortField, last.getId(), switch (sortField) {
+                case ID -> null;
+                case LAST_NAME -> last.getLastName();
+                case SALARY -> last.getSalary();
+            });
+        }
+
+        return EmployeeSearchPage.builder()
+                .employees(employees)
+                .nextCursor(nextCursor)
+                .build();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public EmployeeFieldsPage getEmployeeFieldsPage(UUID after, int size, Set<EmployeeField> fields) {
+        Specification<Employee> spec = after == null
+                ? null
+                : EmployeeSpecifications.after(EmployeeSearchCriteria.SortField.ID, false, null, after);
+        return fieldsPage(fields, spec, Sort.by("id"), size, EmployeeField.ID, row -> row.get("id").toString());
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public EmployeeFieldsPage searchEmployeeFields(EmployeeSearchCriteria criteria, Set<EmployeeField> fields) {
+        EmployeeSearchCriteria.SortField sortField = criteria.getSort();
+        EmployeeField sortedBy = EmployeeField.fromAttribute(sortField.getAttribute());
+        return fieldsPage(fields, searchSpec(criteria), searchSort(criteria), criteria.getSize(), sortedBy,
+                row -> encodeCursor(sortField, (UUID) row.get("id"), row.get(sortField.getAttribute())));
+    }
+
+    // id and the sort column are selected even when not asked for, the cursor is made from them
+    private EmployeeFieldsPage fieldsPage(
+            Set<EmployeeField> fields, Specification<Employee> spec, Sort sort, int size,
+            EmployeeField sortedBy, Function<Map<String, Object>, String> cursorOf
+    ) {
+        Set<EmployeeField> selected = new LinkedHashSet<>(fields);
+        selected.add(EmployeeField.ID);
+        selected.add(sortedBy);
+
+        List<Map<String, Object>> rows = employeeRepository.findFields(selected, spec, sort, size + 1);
+
+        String nextCursor = null;
+        if (rows.size() > size) {
+            rows = rows.subList(0, size);
+            nextCursor = cursorOf.apply(rows.get(size - 1));
+        }
+        if (selected.size() > fields.size()) {
+            Set<String> requested = fields.stream().map(EmployeeField::getAttribute).collect(Collectors.toSet());
+            rows.forEach(row -> row.keySet().retainAll(requested));
+        }
+
+        return EmployeeFieldsPage.builder()
+                .employees(rows)
+                .nextCursor(nextCursor)
+                .build();
+    }
+
+    private Specification<Employee> searchSpec(EmployeeSearchCriteria criteria) {
+        Specification<Employee> spec = EmployeeSpecifications.matching(criteria);
+        if (criteria.getAfter() != null) {
+            spec = spec.and(afterCursor(criteria.getAfter(), criteria.getSort(), criteria.isDescending()));
+        }
+        return spec;
+    }
+
+    // id last so the order is total, which keyset pagination needs to not skip or repeat rows
+    private Sort searchSort(EmployeeSearchCriteria criteria) {
+        Sort.Direction direction = criteria.isDescending() ? Sort.Direction.DESC : Sort.Direction.ASC;
+        return criteria.getSort() == EmployeeSearchCriteria.SortField.ID
+                ? Sort.by(direction, "id")
+                : Sort.by(direction, criteria.getSort().getAttribute(), "id");
+    }
+
+    // a cursor is "<sort>|<id>|<sort value>" in url-safe base64, the sort is in there so a cursor from one
+    // ordering can't be used to page through another one
+    private String encodeCursor(EmployeeSearchCriteria.SortField sortField, UUID id, Object value) {
+        String text = switch (sortField) {
+            case ID -> "";
+            case LAST_NAME -> (String) value;
+            case SALARY -> ((BigDecimal) value).toPlainString();
+        };
+        String raw = sortField.getAttribute() + '|' + id + '|' + text;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private Specification<Employee> afterCursor(String cursor, EmployeeSearchCriteria.SortField sortField, boolean descending) {
+        try {
+            String[] parts = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split("\\|", 3);
+            if (parts.length != 3 || !parts[0].equals(sortField.getAttribute())) {
+                throw new InvalidInputException("Cursor does not belong to a search sorted by " + sortField.getAttribute());
+            }
+            UUID id = UUID.fromString(parts[1]);
+            Object value = switch (sortField) {
+                case ID -> null;
+                case LAST_NAME -> parts[2];
+                case SALARY -> new BigDecimal(parts[2]);
+            };
+            return EmployeeSpecifications.after(sortField, descending, value, id);
+        } catch (IllegalArgumentException e) {
+            // also covers bad base64, uuids and numbers
+            throw new InvalidInputException("Invalid cursor: " + cursor);
+        }
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void streamAllEmployees(Consumer<Employee> consumer) {
+        try (Stream<Employee> employees = employeeRepository.streamAllByOrderByIdAsc()) {
+            employees.forEach(employee -> {
+                consumer.accept(employee);
+                // detach right away, otherwise the persistence context keeps every row we've streamed so far
+                entityManager.detach(employee);
+            });
+        }
     }
 }
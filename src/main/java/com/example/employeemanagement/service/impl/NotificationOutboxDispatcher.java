@@ -0,0 +1,214 @@
+package com.example.employeemanagement.service.impl;
+
+import com.example.employeemanagement.entity.NotificationOutboxMessage;
+import com.example.employeemanagement.entity.OutboxStatus;
+import com.example.employeemanagement.repository.NotificationOutboxRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.SimpleMailMessage;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
+// drains the notification outbox: picks up due PENDING rows in batches, sends each batch over a single
+// SMTP connection and records the outcome per message (sent, retry later with backoff, or dead).
+// a batch is claimed before it's sent (IN_FLIGHT, for notification.outbox.lease), so several instances can run the
+// dispatcher without mailing anyone twice. if an instance dies mid-batch its messages are picked up again once the
+// lease runs out, the lease has to outlast sending a whole batch
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class NotificationOutboxDispatcher {
+
+    private static final List<OutboxStatus> CLAIMABLE = List.of(OutboxStatus.PENDING, OutboxStatus.IN_FLIGHT);
+
+    private final NotificationOutboxRepository outboxRepository;
+    private final JavaMailSender mailSender;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${notification.outbox.dispatcher.enabled}")
+    private boolean enabled;
+
+    @Value("${notification.outbox.poll-interval}")
+    private Duration pollInterval;
+
+    @Value("${notification.outbox.batch-size}")
+    private int batchSize;
+
+    @Value("${notification.outbox.max-attempts}")
+    private int maxAttempts;
+
+    @Value("${notification.outbox.initial-backoff}")
+    private Duration initialBackoff;
+
+    @Value("${notification.outbox.max-backoff}")
+    private Duration maxBackoff;
+
+    @Value("${notification.outbox.lease}")
+    private Duration lease;
+
+    // our own single platform thread rather than @Scheduled: jakarta mail's Transport is synchronized and would pin
+    // a virtual scheduler thread in virtual-thread mode, and a TaskScheduler bean would replace boot's default one
+    private ThreadPoolTaskScheduler scheduler;
+
+    @PostConstruct
+    void start() {
+        if (!enabled) {
+            log.info("Notification outbox dispatcher is disabled");
+            return;
+        }
+        scheduler = new ThreadPoolTaskScheduler();
+        scheduler.setPoolSize(1);
+        scheduler.setThreadNamePrefix("outbox-dispatcher-");
+        scheduler.initialize();
+        scheduler.scheduleWithFixedDelay(this::drain, pollInterval);
+    }
+
+    @PreDestroy
+    void stop() {
+        if (scheduler != null) {
+            scheduler.shutdown();
+        }
+    }
+
+    private void drain() {
+        try {
+            // keep going while we get full batches, a bulk onboarding shouldn't wait one poll interval per batch
+            while (dispatchBatch() == batchSize) {
+                log.debug("Outbox still has due messages, dispatching next batch");
+            }
+        } catch (Exception e) {
+            log.error("Notification outbox dispatch failed: {}", e.getMessage());
+        }
+    }
+
+    // sends one batch of due messages and returns how many were picked up
+    public int dispatchBatch() {
+        List<NotificationOutboxMessage> due = claimBatch();
+        if (due.isEmpty()) {
+            return 0;
+        }
+
+        SimpleMailMessage[] messages = due.stream().map(this::toMailMessage).toArray(SimpleMailMessage[]::new);
+        Map<Object, Exception> failures = send(messages);
+
+        Instant now = Instant.now();
+        for (int i = 0; i < due.size(); i++) {
+            Exception failure = failures.get(messages[i]);
+            if (failure == null) {
+                markSent(due.get(i), now);
+            } else {
+                markFailed(due.get(i), failure, now);
+            }
+        }
+        transactionTemplate.executeWithoutResult(status -> outboxRepository.saveAll(due));
+
+        log.info("Outbox batch dispatched: {} sent, {} failed", due.size() - failures.size(), failures.size());
+        return due.size();
+    }
+
+    // the due messages this batch got hold of, another dispatcher may have claimed some of the candidates first
+    private List<NotificationOutboxMessage> claimBatch() {
+        return transactionTemplate.execute(status -> {
+            Instant now = Instant.now();
+            List<UUID> candidates = outboxRepository.findByStatusInAndNextAttemptAtLessThanEqualOrderByNextAttemptAtAsc(
+                            CLAIMABLE, now, Limit.of(batchSize)).stream()
+                    .map(NotificationOutboxMessage::getId)
+                    .toList();
+            if (candidates.isEmpty()) {
+                return List.of();
+            }
+            String claim = UUID.randomUUID().toString();
+            if (outboxRepository.claim(candidates, CLAIMABLE, claim, now, now.plus(lease)) == 0) {
+                return List.of();
+            }
+            return outboxRepository.findByClaimedByAndStatus(claim, OutboxStatus.IN_FLIGHT);
+        });
+    }
+
+    // JavaMailSenderImpl opens one transport connection for the whole array and reports failures per message
+    private Map<Object, Exception> send(SimpleMailMessage[] messages) {
+        try {
+            mailSender.send(messages);
+            return Map.of();
+        } catch (MailSendException e) {
+            if (!e.getFailedMessages().isEmpty()) {
+                return e.getFailedMessages();
+            }
+            return allFailed(messages, e);
+        } catch (MailException e) {
+            return allFailed(messages, e);
+        }
+    }
+
+    private Map<Object, Exception> allFailed(SimpleMailMessage[] messages, Exception e) {
+        Map<Object, Exception> failures = new HashMap<>();
+        for (SimpleMailMessage message : messages) {
+            failures.put(message, e);
+        }
+        return failures;
+    }
+
+    private SimpleMailMessage toMailMessage(NotificationOutboxMessage outboxMessage) {
+        SimpleMailMessage message = new SimpleMailMessage();
+        message.setTo(outboxMessage.getRecipient());
+        message.setSubject(outboxMessage.getSubject());
+        message.setText(outboxMessage.getBody());
+        return message;
+    }
+
+    private void markSent(NotificationOutboxMessage message, Instant now) {
+        message.setStatus(OutboxStatus.SENT);
+        message.setAttempts(message.getAttempts() + 1);
+        message.setSentAt(now);
+        message.setLastError(null);
+        log.info("Email notification sent to {}", message.getRecipient());
+    }
+
+    private void markFailed(NotificationOutboxMessage message, Exception failure, Instant now) {
+        int attempts = message.getAttempts() + 1;
+        message.setAttempts(attempts);
+        message.setLastError(truncate(failure.getMessage()));
+
+        if (attempts >= maxAttempts) {
+            message.setStatus(OutboxStatus.DEAD);
+            log.error("Giving up on email notification to {} after {} attempts: {}",
+                    message.getRecipient(), attempts, failure.getMessage());
+            return;
+        }
+        message.setStatus(OutboxStatus.PENDING);
+        message.setNextAttemptAt(now.plus(backoff(attempts)));
+        log.warn("Failed to send email notification to {} (attempt {}), retrying at {}: {}",
+                message.getRecipient(), attempts, message.getNextAttemptAt(), failure.getMessage());
+    }
+
+    // exponential backoff capped at max-backoff, with up to 20% jitter so a failed batch doesn't retry in lockstep
+    private Duration backoff(int attempts) {
+        long exponential = initialBackoff.toMillis() << Math.min(attempts - 1, 20);
+        long capped = Math.min(exponential, maxBackoff.toMillis());
+        long jitter = ThreadLocalRandom.current().nextLong(capped / 5 + 1);
+        return Duration.ofMillis(capped + jitter);
+    }
+
+    private String truncate(String error) {
+        if (error == null || error.length() <= 1000) {
+            return error;
+        }
+        return error.substring(0, 1000);
+    }
+}
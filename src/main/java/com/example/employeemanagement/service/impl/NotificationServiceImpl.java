@@ -1,40 +1,46 @@
 package com.example.employeemanagement.service.impl;
 
 import com.example.employeemanagement.entity.Employee;
+import com.example.employeemanagement.entity.NotificationOutboxMessage;
+import com.example.employeemanagement.entity.OutboxStatus;
+import com.example.employeemanagement.repository.NotificationOutboxRepository;
 import com.example.employeemanagement.service.NotificationService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.mail.SimpleMailMessage;
-import org.springframework.mail.javamail.JavaMailSender;
-import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class NotificationServiceImpl implements NotificationService {
 
-    private final JavaMailSender mailSender;
+    private final NotificationOutboxRepository outboxRepository;
 
+    // doesn't talk to SMTP at all: the mail goes into the outbox as part of the caller's transaction,
+    // so it's only ever sent for employees that were actually committed, and survives a restart.
+    // NotificationOutboxDispatcher does the sending.
     @Override
-    @Async
+    @Transactional(propagation = Propagation.MANDATORY)
     public void sendEmployeeCreatedNotification(Employee employee) {
-        // since we don't have an actual SMTP, we can simply just log it
-        // but let's demonstrate a real SimpleMailMessage
-        try {
-            SimpleMailMessage message = new SimpleMailMessage();
-            message.setTo(employee.getEmail());
-            message.setSubject("Welcome to the Company!");
-            message.setText("Hello " + employee.getFirstName() + ",\n\n" +
-                    "Your employee record has been created successfully.\n" +
-                    "Department: " + employee.getDepartment() + "\n" +
-                    "Salary: $" + employee.getSalary() + "\n\n" +
-                    "Best Regards,\nCompany HR");
+        Instant now = Instant.now();
+        outboxRepository.save(NotificationOutboxMessage.builder()
+                .recipient(employee.getEmail())
+                .subject("Welcome to the Company!")
+                .body("Hello " + employee.getFirstName() + ",\n\n" +
+                        "Your employee record has been created successfully.\n" +
+                        "Department: " + employee.getDepartment() + "\n" +
+                        "Salary: $" + employee.getSalary() + "\n\n" +
+                        "Best Regards,\nCompany HR")
+                .status(OutboxStatus.PENDING)
+                .attempts(0)
+                .createdAt(now)
+                .nextAttemptAt(now)
+                .build());
 
-            mailSender.send(message);
-            log.info("Email notification sent to {}", employee.getEmail());
-        } catch (Exception e) {
-            log.error("Failed to send email notification to {}: {}", employee.getEmail(), e.getMessage());
-        }
+        log.debug("Queued welcome email for {}", employee.getEmail());
     }
 }
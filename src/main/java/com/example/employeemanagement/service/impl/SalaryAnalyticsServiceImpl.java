@@ -0,0 +1,429 @@
+package com.example.employeemanagement.service.impl;
+
+import com.example.employeemanagement.dto.DepartmentSalaryDistribution;
+import com.example.employeemanagement.dto.SalaryHistogram;
+import com.example.employeemanagement.dto.SalaryPercentiles;
+import com.example.employeemanagement.event.EmployeeChangedEvent;
+import com.example.employeemanagement.event.EmployeesBulkChangedEvent;
+import com.example.employeemanagement.service.EmployeeService;
+import com.example.employeemanagement.service.SalaryAnalyticsService;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+import java.util.stream.IntStream;
+
+// salary analytics over a columnar copy of the employees table (see EmployeeColumns) instead of loading entities.
+// scans run over the primitive columns in chunks of analytics.scan.chunk-size rows, in parallel on the common
+// fork-join pool when there's more than one chunk. the per-row loops don't allocate, a query allocates its per-chunk
+// partials and, for percentiles, one long[] of the salaries it ranks.
+// kept up to date after commit like the department statistics. the committing thread only queues the change, a
+// single writer thread applies what's queued in place under the write lock, queries share the read lock. so a long
+// query holds up the writer, never a create/update response (and the size gauges read what the writer last
+// published, not the columns). a rebuild streams the table into new columns without holding any lock (in the
+// background when a bulk change asked for it), the changes that come in meanwhile are applied to the old columns as
+// usual and replayed onto the new ones before they're swapped in
+@Service
+@Slf4j
+public class SalaryAnalyticsServiceImpl implements SalaryAnalyticsService {
+
+    private static final int ANY_DEPARTMENT = -1;
+
+    private final EmployeeService employeeService;
+    private final int chunkSize;
+    private final MeterRegistry meterRegistry;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private EmployeeColumns columns = new EmployeeColumns();
+    // changes since the running rebuild started, null when there's none. guarded by the write lock
+    private List<EmployeeChangedEvent> missed;
+
+    private final ReentrantLock rebuildLock = new ReentrantLock();
+    private final BackgroundRebuild backgroundRebuild = new BackgroundRebuild("salary analytics", this::rebuild);
+
+    // committed changes the writer hasn't applied yet
+    private final Queue<EmployeeChangedEvent> pending = new ConcurrentLinkedQueue<>();
+    private final ThreadPoolTaskExecutor writer;
+
+    // the columns' size as of the last write, for the gauges
+    private volatile int rows;
+    private volatile long estimatedBytes;
+
+    public SalaryAnalyticsServiceImpl(
+            EmployeeService employeeService,
+            MeterRegistry meterRegistry,
+            @Value("${analytics.scan.chunk-size}") int chunkSize
+    ) {
+        this.employeeService = employeeService;
+        this.chunkSize = chunkSize;
+        this.meterRegistry = meterRegistry;
+        writer = new ThreadPoolTaskExecutor();
+        writer.setCorePoolSize(1);
+        writer.setMaxPoolSize(1);
+        writer.setThreadNamePrefix("salary-analytics-writer-");
+        writer.initialize();
+        Gauge.builder("analytics.snapshot.rows", this, service -> service.rows)
+                .description("Employees in the salary analytics snapshot")
+                .register(meterRegistry);
+        Gauge.builder("analytics.snapshot.memory", this, service -> service.estimatedBytes)
+                .description("Heap held by the salary analytics snapshot")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    void start() {
+        rebuild();
+    }
+
+    @PreDestroy
+    void stop() {
+        backgroundRebuild.shutdown();
+        writer.shutdown();
+    }
+
+    @Override
+    public SalaryPercentiles getPercentiles(String department, List<Double> percentiles) {
+        return timer("percentiles").record(() -> read(() -> {
+            long[] sorted = gather(departmentFilter(department));
+            Arrays.parallelSort(sorted);
+
+            Map<String, BigDecimal> values = new LinkedHashMap<>();
+            if (sorted.length > 0) {
+                for (double percentile : percentiles) {
+                    values.put(label(percentile), percentile(sorted, 0, sorted.length, percentile / 100));
+                }
+            }
+            return new SalaryPercentiles(department, sorted.length, values);
+        }));
+    }
+
+    @Override
+    public SalaryHistogram getHistogram(String department, int buckets) {
+        return timer("histogram").record(() -> read(() -> {
+            int code = departmentFilter(department);
+            // {count, min, max}
+            long[] range = chunks().mapToObj(chunk -> range(chunk, code)).reduce(new long[]{0, Long.MAX_VALUE, Long.MIN_VALUE},
+                    (left, right) -> new long[]{left[0] + right[0], Math.min(left[1], right[1]), Math.max(left[2], right[2])});
+            if (range[0] == 0) {
+                return new SalaryHistogram(department, 0, BigDecimal.ZERO.setScale(2), List.of());
+            }
+
+            long min = range[1];
+            // at least a cent wide, and wide enough that the highest salary falls into the last bucket
+            long width = Math.max(1, (range[2] - min) / buckets + 1);
+            long[] counts = chunks().mapToObj(chunk -> histogram(chunk, code, min, width, buckets))
+                    .reduce(new long[buckets], SalaryAnalyticsServiceImpl::sum);
+
+            List<SalaryHistogram.Bucket> result = new ArrayList<>(buckets);
+            for (int bucket = 0; bucket < buckets; bucket++) {
+                long from = min + bucket * width;
+                result.add(new SalaryHistogram.Bucket(fromCents(from), fromCents(from + width), counts[bucket]));
+            }
+            return new SalaryHistogram(department, range[0], fromCents(width), result);
+        }));
+    }
+
+    @Override
+    public List<DepartmentSalaryDistribution> getDepartmentDistributions() {
+        return timer("distributions").record(() -> read(() -> {
+            int departments = columns.departmentCount();
+            int chunks = chunkCount();
+
+            // headcount per chunk and department, then where each chunk writes its salaries of a department so
+            // the scatter below can run in parallel without two chunks touching the same slot
+            int[][] counts = chunks().mapToObj(chunk -> departmentCounts(chunk, departments)).toArray(int[][]::new);
+            int[] starts = new int[departments + 1];
+            int[][] cursors = new int[chunks][departments];
+            for (int department = 0; department < departments; department++) {
+                int position = starts[department];
+                for (int chunk = 0; chunk < chunks; chunk++) {
+                    cursors[chunk][department] = position;
+                    position += counts[chunk][department];
+                }
+                starts[department + 1] = position;
+            }
+
+            long[] grouped = new long[columns.size()];
+            chunks().forEach(chunk -> scatter(chunk, cursors[chunk], grouped));
+            parallel(IntStream.range(0, departments), chunks > 1)
+                    .forEach(department -> Arrays.sort(grouped, starts[department], starts[department + 1]));
+
+            List<DepartmentSalaryDistribution> result = new ArrayList<>();
+            for (int department = 0; department < departments; department++) {
+                int from = starts[department];
+                int to = starts[department + 1];
+                if (from < to) {
+                    result.add(distribution(columns.departmentName(department), grouped, from, to));
+                }
+            }
+            result.sort(Comparator.comparing(DepartmentSalaryDistribution::getDepartment));
+            return result;
+        }));
+    }
+
+    // a replayed change the stream already saw is harmless, upsert and remove set the employee's latest state
+    @Override
+    public void rebuild() {
+        rebuildLock.lock();
+        try {
+            write(() -> missed = new ArrayList<>());
+            EmployeeColumns rebuilt = new EmployeeColumns();
+            try {
+                employeeService.streamAllEmployees(employee ->
+                        rebuilt.upsert(employee.getId(), employee.getDepartment(), toCents(employee.getSalary())));
+                write(() -> {
+                    missed.forEach(event -> apply(rebuilt, event));
+                    columns = rebuilt;
+                });
+            } finally {
+                write(() -> missed = null);
+            }
+            log.info("Salary analytics snapshot built: {} employees, ~{} KB", rebuilt.size(), rebuilt.estimatedBytes() / 1024);
+        } finally {
+            rebuildLock.unlock();
+        }
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onEmployeeChanged(EmployeeChangedEvent event) {
+        pending.add(event);
+        writer.execute(this::applyPending);
+    }
+
+    // on the writer thread. one pass takes everything queued so far under one write lock, the passes queued for
+    // the events it took find nothing left to do
+    private void applyPending() {
+        if (pending.isEmpty()) {
+            return;
+        }
+        write(() -> {
+            for (EmployeeChangedEvent event = pending.poll(); event != null; event = pending.poll()) {
+                apply(columns, event);
+                if (missed != null) {
+                    missed.add(event);
+                }
+            }
+        });
+    }
+
+    // bulk operations don't say which employees they touched
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onEmployeesBulkChanged(EmployeesBulkChangedEvent event) {
+        if (event.affected() > 0) {
+            backgroundRebuild.request();
+        }
+    }
+
+    private static void apply(EmployeeColumns columns, EmployeeChangedEvent event) {
+        EmployeeChangedEvent.Snapshot after = event.after();
+        if (after == null) {
+            columns.remove(event.employeeId());
+        } else {
+            columns.upsert(event.employeeId(), after.department(), toCents(after.salary()));
+        }
+    }
+
+    // everything below runs under the read lock
+
+    // the department's code, ANY_DEPARTMENT for null, and a code no row has if nobody was ever in it
+    private int departmentFilter(String department) {
+        if (department == null) {
+            return ANY_DEPARTMENT;
+        }
+        int code = columns.departmentCode(department);
+        return code < 0 ? Integer.MAX_VALUE : code;
+    }
+
+    // the salaries of the department (or everyone), in row order
+    private long[] gather(int code) {
+        if (code == ANY_DEPARTMENT) {
+            return Arrays.copyOf(columns.salaryColumn(), columns.size());
+        }
+        int chunks = chunkCount();
+        int[] offsets = new int[chunks + 1];
+        chunks().forEach(chunk -> offsets[chunk + 1] = (int) range(chunk, code)[0]);
+        Arrays.parallelPrefix(offsets, Integer::sum);
+
+        long[] gathered = new long[offsets[chunks]];
+        chunks().forEach(chunk -> {
+            long[] salaries = columns.salaryColumn();
+            int[] departments = columns.departmentColumn();
+            int position = offsets[chunk];
+            for (int row = chunkStart(chunk), end = chunkEnd(chunk); row < end; row++) {
+                if (departments[row] == code) {
+                    gathered[position++] = salaries[row];
+                }
+            }
+        });
+        return gathered;
+    }
+
+    // {count, min, max} of the chunk's rows in the department
+    private long[] range(int chunk, int code) {
+        long[] salaries = columns.salaryColumn();
+        int[] departments = columns.departmentColumn();
+        long count = 0;
+        long min = Long.MAX_VALUE;
+        long max = Long.MIN_VALUE;
+        for (int row = chunkStart(chunk), end = chunkEnd(chunk); row < end; row++) {
+            if (code == ANY_DEPARTMENT || departments[row] == code) {
+                long salary = salaries[row];
+                count++;
+                min = Math.min(min, salary);
+                max = Math.max(max, salary);
+            }
+        }
+        return new long[]{count, min, max};
+    }
+
+    private long[] histogram(int chunk, int code, long min, long width, int buckets) {
+        long[] salaries = columns.salaryColumn();
+        int[] departments = columns.departmentColumn();
+        long[] counts = new long[buckets];
+        for (int row = chunkStart(chunk), end = chunkEnd(chunk); row < end; row++) {
+            if (code == ANY_DEPARTMENT || departments[row] == code) {
+                counts[(int) ((salaries[row] - min) / width)]++;
+            }
+        }
+        return counts;
+    }
+
+    private int[] departmentCounts(int chunk, int departmentCount) {
+        int[] departments = columns.departmentColumn();
+        int[] counts = new int[departmentCount];
+        for (int row = chunkStart(chunk), end = chunkEnd(chunk); row < end; row++) {
+            counts[departments[row]]++;
+        }
+        return counts;
+    }
+
+    private void scatter(int chunk, int[] cursors, long[] grouped) {
+        long[] salaries = columns.salaryColumn();
+        int[] departments = columns.departmentColumn();
+        for (int row = chunkStart(chunk), end = chunkEnd(chunk); row < end; row++) {
+            grouped[cursors[departments[row]]++] = salaries[row];
+        }
+    }
+
+    private IntStream chunks() {
+        int chunks = chunkCount();
+        return parallel(IntStream.range(0, chunks), chunks > 1);
+    }
+
+    private int chunkCount() {
+        return Math.max(1, (columns.size() + chunkSize - 1) / chunkSize);
+    }
+
+    private int chunkStart(int chunk) {
+        return chunk * chunkSize;
+    }
+
+    private int chunkEnd(int chunk) {
+        return Math.min(columns.size(), (chunk + 1) * chunkSize);
+    }
+
+    private static IntStream parallel(IntStream stream, boolean parallel) {
+        return parallel ? stream.parallel() : stream;
+    }
+
+    private static DepartmentSalaryDistribution distribution(String department, long[] sorted, int from, int to) {
+        long total = 0;
+        for (int i = from; i < to; i++) {
+            total += sorted[i];
+        }
+        return DepartmentSalaryDistribution.builder()
+                .department(department)
+                .headcount(to - from)
+                .minSalary(fromCents(sorted[from]))
+                .p25(percentile(sorted, from, to, 0.25))
+                .median(percentile(sorted, from, to, 0.5))
+                .p75(percentile(sorted, from, to, 0.75))
+                .p90(percentile(sorted, from, to, 0.9))
+                .maxSalary(fromCents(sorted[to - 1]))
+                .averageSalary(fromCents(total).divide(BigDecimal.valueOf(to - from), 2, RoundingMode.HALF_UP))
+                .build();
+    }
+
+    // linear interpolation between the closest ranks of sorted[from..to), fraction between 0 and 1
+    private static BigDecimal percentile(long[] sorted, int from, int to, double fraction) {
+        double rank = (to - from - 1) * fraction;
+        int lower = (int) Math.floor(rank);
+        int upper = Math.min(lower + 1, to - from - 1);
+        double value = sorted[from + lower] + (rank - lower) * (sorted[from + upper] - sorted[from + lower]);
+        return fromCents(Math.round(value));
+    }
+
+    // 50 -> "p50", 99.9 -> "p99.9"
+    private static String label(double percentile) {
+        return "p" + BigDecimal.valueOf(percentile).stripTrailingZeros().toPlainString();
+    }
+
+    private static long[] sum(long[] left, long[] right) {
+        long[] sum = new long[left.length];
+        for (int i = 0; i < sum.length; i++) {
+            sum[i] = left[i] + right[i];
+        }
+        return sum;
+    }
+
+    private static long toCents(BigDecimal salary) {
+        return salary.movePointRight(2).setScale(0, RoundingMode.HALF_UP).longValueExact();
+    }
+
+    private static BigDecimal fromCents(long cents) {
+        return BigDecimal.valueOf(cents, 2);
+    }
+
+    private Timer timer(String query) {
+        return Timer.builder("analytics.query")
+                .description("Salary analytics queries against the columnar snapshot")
+                .tag("query", query)
+                .register(meterRegistry);
+    }
+
+    private <T> T read(Supplier<T> query) {
+        Lock readLock = lock.readLock();
+        readLock.lock();
+        try {
+            return query.get();
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    private void write(Runnable change) {
+        Lock writeLock = lock.writeLock();
+        writeLock.lock();
+        try {
+            change.run();
+            rows = columns.size();
+            estimatedBytes = columns.estimatedBytes();
+        } finally {
+            writeLock.unlock();
+        }
+    }
+}
@@ -0,0 +1,481 @@
+package com.example.employeemanagement.service.impl;
+
+import com.example.employeemanagement.dto.EmployeeSuggestion;
+import com.example.employeemanagement.entity.Employee;
+import com.example.employeemanagement.event.EmployeeChangedEvent;
+import com.example.employeemanagement.event.EmployeesBulkChangedEvent;
+import com.example.employeemanagement.service.EmployeeService;
+import com.example.employeemanagement.service.TypeaheadService;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.regex.Pattern;
+
+// typeahead over every employee's "first last" name, last name and email, without touching the database.
+// most keys sit in one sorted array (the base) that's binary searched for the first key >= the prefix and walked
+// from there. changes since the base was built go to a small sorted delta, and the employees they touch are
+// hidden in the base. once the delta has typeahead.compaction-threshold employees it's merged into a new base.
+// lookups never lock, writes (after commit, like the department statistics) are serialized. a rebuild reads the
+// table without blocking them (in the background when a bulk change asked for it), the changes that come in
+// meanwhile go into the current index as usual and are replayed onto the new one before it's swapped in
+@Service
+@Slf4j
+public class TypeaheadServiceImpl implements TypeaheadService {
+
+    private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+    private static final Pattern SPACES = Pattern.compile("\\s+");
+    private static final UUID LOWEST_ID = new UUID(Long.MIN_VALUE, Long.MIN_VALUE);
+    // unit separator, won't show up in a name or an email
+    private static final String SEPARATOR = "\u001f";
+
+    // rough object sizes with compressed oops: String + its byte[] (latin-1) header, an array header, a reference,
+    // an entry and its UUID
+    private static final long STRING_BYTES = 24 + 16;
+    private static final long ARRAY_BYTES = 16;
+    private static final long REFERENCE_BYTES = 4;
+    private static final long ENTRY_BYTES = 24;
+    private static final long UUID_BYTES = 32;
+    // skip list node, index share, map entry key and its String
+    private static final long DELTA_KEY_BYTES = 96;
+
+    private final EmployeeService employeeService;
+    private final int compactionThreshold;
+    private final Timer lookupTimer;
+
+    // a few distinct departments shared by every entry
+    private final Map<String, String> departments = new ConcurrentHashMap<>();
+
+    private volatile Index index = Index.EMPTY;
+
+    private final ReentrantLock writeLock = new ReentrantLock();
+    // changes since the running rebuild started, null when there's none. guarded by writeLock
+    private List<Change> missed;
+
+    private final ReentrantLock rebuildLock = new ReentrantLock();
+    private final BackgroundRebuild backgroundRebuild = new BackgroundRebuild("typeahead index", this::rebuild);
+
+    public TypeaheadServiceImpl(
+            EmployeeService employeeService,
+            MeterRegistry meterRegistry,
+            @Value("${typeahead.compaction-threshold}") int compactionThreshold
+    ) {
+        this.employeeService = employeeService;
+        this.compactionThreshold = compactionThreshold;
+        this.lookupTimer = Timer.builder("typeahead.lookup")
+                .description("Prefix lookups against the in-memory typeahead index")
+                .register(meterRegistry);
+        Gauge.builder("typeahead.index.keys", this, service -> service.index.size())
+                .description("Keys in the typeahead index, three per employee")
+                .register(meterRegistry);
+        Gauge.builder("typeahead.index.memory", this, service -> service.index.estimatedBytes())
+                .description("Estimated heap held by the typeahead index")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    void start() {
+        rebuild();
+    }
+
+    @PreDestroy
+    void stop() {
+        backgroundRebuild.shutdown();
+    }
+
+    @Override
+    public List<EmployeeSuggestion> suggest(String query, int limit) {
+        String prefix = normalize(query);
+        if (prefix.isEmpty() || limit < 1) {
+            return List.of();
+        }
+        return lookupTimer.record(() -> index.find(prefix, limit));
+    }
+
+    @Override
+    public void rebuild() {
+        rebuildLock.lock();
+        try {
+            locked(() -> missed = new ArrayList<>());
+            try {
+                List<Map.Entry<String, Entry>> entries = new ArrayList<>();
+                employeeService.streamAllEmployees(employee -> {
+                    Entry entry = entry(employee.getId(), employee.getFirstName(), employee.getLastName(),
+                            employee.getEmail(), employee.getDepartment());
+                    for (String key : keys(entry)) {
+                        entries.add(Map.entry(key, entry));
+                    }
+                });
+                entries.sort(Comparator.comparing((Map.Entry<String, Entry> entry) -> entry.getKey())
+                        .thenComparing(entry -> entry.getValue().id()));
+                Index rebuilt = Index.of(
+                        entries.stream().map(Map.Entry::getKey).toList(),
+                        entries.stream().map(Map.Entry::getValue).toList());
+
+                // a replayed change the stream already saw just puts the same version in the delta
+                locked(() -> {
+                    Index replayed = rebuilt;
+                    for (Change change : missed) {
+                        replayed = put(replayed, change.id(), change.before(), change.after());
+                    }
+                    index = replayed;
+                });
+            } finally {
+                locked(() -> missed = null);
+            }
+            log.info("Typeahead index built: {} keys, ~{} KB", index.size(), index.estimatedBytes() / 1024);
+        } finally {
+            rebuildLock.unlock();
+        }
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onEmployeeChanged(EmployeeChangedEvent event) {
+        Entry before = entry(event.employeeId(), event.before());
+        Entry after = entry(event.employeeId(), event.after());
+        // salary changes don't show up here
+        if (before == null || !before.equals(after)) {
+            locked(() -> {
+                index = put(index, event.employeeId(), before, after);
+                if (missed != null) {
+                    missed.add(new Change(event.employeeId(), before, after));
+                }
+            });
+        }
+    }
+
+    // bulk transfers change the department shown next to a suggestion and deletes drop employees, neither says
+    // which ones. salary adjustments don't touch anything we hold
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onEmployeesBulkChanged(EmployeesBulkChangedEvent event) {
+        if (event.affected() > 0 && !EmployeesBulkChangedEvent.SALARY_ADJUSTMENT.equals(event.operation())) {
+            backgroundRebuild.request();
+        }
+    }
+
+    // a null entry removes the employee. new keys go in before the employee is marked as changed and the
+    // replaced ones come out after, so a concurrent lookup sees either the old or the new version.
+    // returns the index to use from now on, a new one if the delta was merged. called with writeLock held
+    private Index put(Index current, UUID id, Entry before, Entry entry) {
+        if (entry != null) {
+            for (String key : keys(entry)) {
+                current.delta.put(new DeltaKey(key, id), entry);
+            }
+        }
+        Optional<Entry> replaced = current.changed.put(id, Optional.ofNullable(entry));
+        if (replaced == null) {
+            // first change since the base was built, its keys there are hidden from now on. the base may hold
+            // either version when it was built while the change came in
+            if (inBase(current, id, before) || inBase(current, id, entry)) {
+                current.hidden += 3;
+            }
+        } else if (replaced.isPresent()) {
+            for (String key : keys(replaced.get())) {
+                DeltaKey stale = new DeltaKey(key, id);
+                if (current.delta.get(stale) == replaced.get()) {
+                    current.delta.remove(stale);
+                }
+            }
+        }
+
+        if (current.changed.size() >= compactionThreshold) {
+            Index compacted = current.compact();
+            log.debug("Typeahead delta merged, {} keys", compacted.size());
+            return compacted;
+        }
+        return current;
+    }
+
+    private static boolean inBase(Index current, UUID id, Entry entry) {
+        return entry != null && current.inBase(normalize(entry.names()[2]), id);
+    }
+
+    private void locked(Runnable change) {
+        writeLock.lock();
+        try {
+            change.run();
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    private Entry entry(UUID id, EmployeeChangedEvent.Snapshot snapshot) {
+        if (snapshot == null) {
+            return null;
+        }
+        return entry(id, snapshot.firstName(), snapshot.lastName(), snapshot.email(), snapshot.department());
+    }
+
+    private Entry entry(UUID id, String firstName, String lastName, String email, String department) {
+        return new Entry(id, String.join(SEPARATOR, firstName, lastName, email),
+                department == null ? null : departments.computeIfAbsent(department, name -> name));
+    }
+
+    private static List<String> keys(Entry entry) {
+        String[] names = entry.names();
+        return List.of(normalize(names[0] + " " + names[1]), normalize(names[1]), normalize(names[2]));
+    }
+
+    // lower case, no accents, single spaces: "  José  Núñez" -> "jose nunez"
+    static String normalize(String value) {
+        if (value == null) {
+            return "";
+        }
+        String stripped = MARKS.matcher(Normalizer.normalize(value, Normalizer.Form.NFD)).replaceAll("");
+        return SPACES.matcher(stripped.trim()).replaceAll(" ").toLowerCase(Locale.ROOT);
+    }
+
+    // what the index holds per employee: the names in one String, the department shared with everyone in it
+    private record Entry(UUID id, String packedNames, String department) {
+
+        String[] names() {
+            return packedNames.split(SEPARATOR, -1);
+        }
+
+        EmployeeSuggestion toSuggestion() {
+            String[] names = names();
+            return new EmployeeSuggestion(id, names[0], names[1], names[2], department);
+        }
+    }
+
+    // a change to replay onto an index built while it came in
+    private record Change(UUID id, Entry before, Entry after) {
+    }
+
+    private record DeltaKey(String key, UUID id) implements Comparable<DeltaKey> {
+
+        @Override
+        public int compareTo(DeltaKey other) {
+            int byKey = key.compareTo(other.key);
+            return byKey != 0 ? byKey : id.compareTo(other.id);
+        }
+    }
+
+    // the base keeps every key in one char array, key i is chars[offsets[i]..offsets[i + 1]), so there's no String
+    // object per key. compared char by char like String.compareTo, which keeps it in line with the delta's order.
+    // the base arrays are never modified after construction, the delta and the changed ids are
+    private static final class Index {
+
+        static final Index EMPTY = new Index(new char[0], new int[1], new Entry[0]);
+
+        final char[] chars;
+        final int[] offsets;
+        final Entry[] owners;
+        final long baseBytes;
+        // base keys of employees in changed, only written by put
+        volatile int hidden;
+        // employee id -> current version, empty once deleted. their base entries are out of date
+        final Map<UUID, Optional<Entry>> changed = new ConcurrentHashMap<>();
+        final ConcurrentSkipListMap<DeltaKey, Entry> delta = new ConcurrentSkipListMap<>();
+
+        Index(char[] chars, int[] offsets, Entry[] owners) {
+            this.chars = chars;
+            this.offsets = offsets;
+            this.owners = owners;
+            this.baseBytes = estimateBaseBytes(chars, owners);
+        }
+
+        // keys must already be sorted
+        static Index of(List<String> keys, List<Entry> owners) {
+            Builder builder = new Builder(keys.size(), keys.stream().mapToInt(String::length).sum());
+            for (int i = 0; i < keys.size(); i++) {
+                builder.add(keys.get(i), owners.get(i));
+            }
+            return builder.build();
+        }
+
+        int size() {
+            return owners.length - hidden + delta.size();
+        }
+
+        long estimatedBytes() {
+            return baseBytes + delta.size() * DELTA_KEY_BYTES + changed.size() * (DELTA_KEY_BYTES + ENTRY_BYTES + UUID_BYTES);
+        }
+
+        // walks the base range and the delta range side by side, so results come out in key order
+        List<EmployeeSuggestion> find(String prefix, int limit) {
+            Map<UUID, Entry> found = new LinkedHashMap<>();
+            int position = lowerBound(prefix);
+            Iterator<Map.Entry<DeltaKey, Entry>> deltaEntries =
+                    delta.tailMap(new DeltaKey(prefix, LOWEST_ID)).entrySet().iterator();
+            Map.Entry<DeltaKey, Entry> next = nextMatch(deltaEntries, prefix);
+
+            while (found.size() < limit) {
+                boolean baseLeft = position < owners.length && startsWith(position, prefix);
+                if (!baseLeft && next == null) {
+                    break;
+                }
+                if (baseLeft && (next == null || compare(position, next.getKey().key()) <= 0)) {
+                    Entry owner = owners[position++];
+                    if (!changed.containsKey(owner.id())) {
+                        found.putIfAbsent(owner.id(), owner);
+                    }
+                } else {
+                    Entry owner = next.getValue();
+                    // a key left over from a version that has been replaced since
+                    if (changed.getOrDefault(owner.id(), Optional.empty()).orElse(null) == owner) {
+                        found.putIfAbsent(owner.id(), owner);
+                    }
+                    next = nextMatch(deltaEntries, prefix);
+                }
+            }
+            return found.values().stream().map(Entry::toSuggestion).toList();
+        }
+
+        // a new base with the changed employees' old keys left out and the delta merged in
+        Index compact() {
+            Builder builder = new Builder(owners.length + delta.size(), chars.length
+                    + delta.keySet().stream().mapToInt(key -> key.key().length()).sum());
+            int position = 0;
+            Iterator<Map.Entry<DeltaKey, Entry>> deltaEntries = delta.entrySet().iterator();
+            Map.Entry<DeltaKey, Entry> next = deltaEntries.hasNext() ? deltaEntries.next() : null;
+
+            while (position < owners.length || next != null) {
+                if (position < owners.length && changed.containsKey(owners[position].id())) {
+                    position++;
+                } else if (position < owners.length && (next == null || precedes(position, next.getKey()))) {
+                    builder.add(chars, offsets[position], offsets[position + 1], owners[position]);
+                    position++;
+                } else {
+                    builder.add(next.getKey().key(), next.getValue());
+                    next = deltaEntries.hasNext() ? deltaEntries.next() : null;
+                }
+            }
+            return builder.build();
+        }
+
+        // emails are unique, so the email key is enough to find an employee in the base
+        boolean inBase(String emailKey, UUID id) {
+            for (int i = lowerBound(emailKey); i < owners.length && compare(i, emailKey) == 0; i++) {
+                if (owners[i].id().equals(id)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private int lowerBound(String prefix) {
+            int low = 0;
+            int high = owners.length;
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                if (compare(middle, prefix) < 0) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+            return low;
+        }
+
+        // base key i against other, same result as keyAt(i).compareTo(other)
+        private int compare(int i, String other) {
+            int from = offsets[i];
+            int length = offsets[i + 1] - from;
+            int common = Math.min(length, other.length());
+            for (int k = 0; k < common; k++) {
+                char c = chars[from + k];
+                char o = other.charAt(k);
+                if (c != o) {
+                    return c - o;
+                }
+            }
+            return length - other.length();
+        }
+
+        private boolean startsWith(int i, String prefix) {
+            int from = offsets[i];
+            if (offsets[i + 1] - from < prefix.length()) {
+                return false;
+            }
+            for (int k = 0; k < prefix.length(); k++) {
+                if (chars[from + k] != prefix.charAt(k)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private boolean precedes(int i, DeltaKey other) {
+            int byKey = compare(i, other.key());
+            return byKey != 0 ? byKey < 0 : owners[i].id().compareTo(other.id()) <= 0;
+        }
+
+        private static Map.Entry<DeltaKey, Entry> nextMatch(
+                Iterator<Map.Entry<DeltaKey, Entry>> entries, String prefix) {
+            if (!entries.hasNext()) {
+                return null;
+            }
+            Map.Entry<DeltaKey, Entry> entry = entries.next();
+            return entry.getKey().key().startsWith(prefix) ? entry : null;
+        }
+
+        // the key chars, an offset and an owner reference per key, and each entry with its id and names once.
+        // an entry is shared by its three keys, so each key carries a third of it
+        private static long estimateBaseBytes(char[] chars, Entry[] owners) {
+            long bytes = 3 * ARRAY_BYTES + 2L * chars.length + (4 + REFERENCE_BYTES) * (owners.length + 1L);
+            for (Entry owner : owners) {
+                bytes += (ENTRY_BYTES + UUID_BYTES + STRING_BYTES + owner.packedNames().length()) / 3;
+            }
+            return bytes;
+        }
+    }
+
+    // appends keys in order, sized up front
+    private static final class Builder {
+        private final char[] chars;
+        private final int[] offsets;
+        private final Entry[] owners;
+        private int size;
+        private int length;
+
+        Builder(int maxKeys, int maxChars) {
+            chars = new char[maxChars];
+            offsets = new int[maxKeys + 1];
+            owners = new Entry[maxKeys];
+        }
+
+        void add(String key, Entry owner) {
+            key.getChars(0, key.length(), chars, length);
+            append(key.length(), owner);
+        }
+
+        void add(char[] source, int from, int to, Entry owner) {
+            System.arraycopy(source, from, chars, length, to - from);
+            append(to - from, owner);
+        }
+
+        private void append(int keyLength, Entry owner) {
+            length += keyLength;
+            owners[size++] = owner;
+            offsets[size] = length;
+        }
+
+        Index build() {
+            return new Index(Arrays.copyOf(chars, length), Arrays.copyOf(offsets, size + 1), Arrays.copyOf(owners, size));
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package com.example.employeemanagement.util;
+
+import java.util.UUID;
+
+// one pre-allocated slot of the audit ring buffer. producers overwrite the fields in place,
+// so publishing an event doesn't allocate anything on the request thread
+class AuditEvent {
+
+    long timestampMillis;
+    AuditEventType type;
+    UUID employeeId;
+    String email;
+    int count;
+    int failed;
+    // set for events from AuditLogger.logBatch, whose count/failed are written whatever the type
+    boolean counted;
+
+    void set(AuditEventType type, UUID employeeId, String email, int count, int failed, boolean counted) {
+        this.timestampMillis = System.currentTimeMillis();
+        this.type = type;
+        this.employeeId = employeeId;
+        this.email = email;
+        this.count = count;
+        this.failed = failed;
+        this.counted = counted;
+    }
+
+    // drop references once written so the ring doesn't keep old objects alive
+    void clear() {
+        this.type = null;
+        this.employeeId = null;
+        this.email = null;
+    }
+}
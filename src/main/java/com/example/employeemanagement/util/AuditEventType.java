@@ -0,0 +1,12 @@
+package com.example.employeemanagement.util;
+
+public enum AuditEventType {
+    EMPLOYEE_CREATE_STARTED,
+    EMPLOYEE_SAVED,
+    EMPLOYEE_CREATE_COMPLETED,
+    BATCH_CREATE_STARTED,
+    BATCH_CREATE_COMPLETED,
+    BULK_TRANSFER,
+    BULK_SALARY_ADJUSTMENT,
+    BULK_DELETE
+}
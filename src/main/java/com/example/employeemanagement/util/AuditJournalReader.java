@@ -0,0 +1,114 @@
+package com.example.employeemanagement.util;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+
+// reads the audit journal back, file by file in the order it was written.
+// also runnable on its own to query a journal directory from the command line:
+//   java -cp app.jar -Dloader.main=com.example.employeemanagement.util.AuditJournalReader \
+//        org.springframework.boot.loader.launch.PropertiesLauncher \
+//        --dir logs/audit [--employee <uuid>] [--type EMPLOYEE_SAVED] [--from 2024-01-01T00:00:00Z] [--to ...]
+// matching events are printed as JSON lines.
+public class AuditJournalReader {
+
+    private static final ObjectMapper MAPPER = JsonMapper.builder()
+            .findAndAddModules()
+            .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES)
+            .build();
+
+    private final Path directory;
+
+    public AuditJournalReader(Path directory) {
+        this.directory = directory;
+    }
+
+    public void replay(Predicate<AuditRecord> filter, Consumer<AuditRecord> consumer) throws IOException {
+        for (Path file : journalFiles()) {
+            try (BufferedReader reader = Files.newBufferedReader(file)) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    // a crash can leave a half-written last line, everything before it is still good
+                    if (line.isBlank() || !line.endsWith("}")) {
+                        continue;
+                    }
+                    AuditRecord record = MAPPER.readValue(line, AuditRecord.class);
+                    if (filter.test(record)) {
+                        consumer.accept(record);
+                    }
+                }
+            }
+        }
+    }
+
+    public List<AuditRecord> query(Predicate<AuditRecord> filter) throws IOException {
+        List<AuditRecord> records = new ArrayList<>();
+        replay(filter, records::add);
+        return records;
+    }
+
+    private List<Path> journalFiles() throws IOException {
+        if (!Files.isDirectory(directory)) {
+            return List.of();
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            return files
+                    .filter(file -> {
+                        String name = file.getFileName().toString();
+                        return name.startsWith(AuditJournalWriter.FILE_PREFIX) && name.endsWith(AuditJournalWriter.FILE_SUFFIX);
+                    })
+                    .sorted()
+                    .toList();
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        Path directory = Path.of("logs/audit");
+        Predicate<AuditRecord> filter = record -> true;
+
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            String value = args[i + 1];
+            switch (args[i]) {
+                case "--dir" -> directory = Path.of(value);
+                case "--employee" -> {
+                    UUID employeeId = UUID.fromString(value);
+                    filter = filter.and(record -> employeeId.equals(record.employeeId()));
+                }
+                case "--type" -> {
+                    AuditEventType type = AuditEventType.valueOf(value);
+                    filter = filter.and(record -> record.type() == type);
+                }
+                case "--from" -> {
+                    Instant from = Instant.parse(value);
+                    filter = filter.and(record -> !record.timestamp().isBefore(from));
+                }
+                case "--to" -> {
+                    Instant to = Instant.parse(value);
+                    filter = filter.and(record -> record.timestamp().isBefore(to));
+                }
+                default -> throw new IllegalArgumentException("Unknown option: " + args[i]);
+            }
+        }
+
+        new AuditJournalReader(directory).replay(filter, record -> {
+            try {
+                System.out.println(MAPPER.writeValueAsString(record));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+}
@@ -0,0 +1,125 @@
+package com.example.employeemanagement.util;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.stream.Stream;
+
+// append-only, size-rolled JSON-lines files. only ever used from the single journal writer thread
+@Slf4j
+class AuditJournalWriter implements AutoCloseable {
+
+    static final String FILE_PREFIX = "audit-";
+    static final String FILE_SUFFIX = ".jsonl";
+
+    // sortable file names, so replaying the directory in name order replays the journal in order
+    private static final DateTimeFormatter FILE_TIMESTAMP = DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmss'Z'")
+            .withZone(ZoneOffset.UTC);
+
+    private final JsonFactory jsonFactory = new JsonFactory();
+    private final Path directory;
+    private final long maxFileSize;
+
+    private FileChannel channel;
+    private JsonGenerator generator;
+    private int fileIndex;
+    private boolean dirty;
+
+    AuditJournalWriter(Path directory, long maxFileSize) throws IOException {
+        this.directory = directory;
+        this.maxFileSize = maxFileSize;
+        Files.createDirectories(directory);
+        fileIndex = nextFileIndex(directory);
+        openNextFile();
+    }
+
+    void append(AuditEvent event, long sequence) throws IOException {
+        generator.writeStartObject();
+        generator.writeNumberField("sequence", sequence);
+        generator.writeStringField("timestamp", Instant.ofEpochMilli(event.timestampMillis).toString());
+        generator.writeStringField("type", event.type.name());
+        if (event.employeeId != null) {
+            generator.writeStringField("employeeId", event.employeeId.toString());
+        }
+        if (event.email != null) {
+            generator.writeStringField("email", event.email);
+        }
+        if (event.counted) {
+            generator.writeNumberField("count", event.count);
+            generator.writeNumberField("failed", event.failed);
+        }
+        generator.writeEndObject();
+        generator.writeRaw('\n');
+        dirty = true;
+    }
+
+    // hands everything written so far to the OS and rolls over to a new file once this one is big enough
+    void flush() throws IOException {
+        generator.flush();
+        if (channel.size() >= maxFileSize) {
+            sync();
+            generator.close();
+            openNextFile();
+        }
+    }
+
+    // forces written events to disk, called by the writer thread at most once per fsync interval
+    void sync() throws IOException {
+        if (dirty) {
+            generator.flush();
+            channel.force(false);
+            dirty = false;
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        sync();
+        generator.close();
+    }
+
+    private void openNextFile() throws IOException {
+        Path file;
+        while (true) {
+            file = directory.resolve(FILE_PREFIX + FILE_TIMESTAMP.format(Instant.now())
+                    + "-" + String.format("%04d", fileIndex++) + FILE_SUFFIX);
+            try {
+                channel = FileChannel.open(file, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+                break;
+            } catch (FileAlreadyExistsException e) {
+                // another instance sharing the directory took this name in the same second, try the next index
+            }
+        }
+        generator = jsonFactory.createGenerator(new BufferedOutputStream(Channels.newOutputStream(channel), 64 * 1024),
+                JsonEncoding.UTF8);
+        // values are separated by the newline we write ourselves
+        generator.setRootValueSeparator(null);
+        log.info("Audit journal writing to {}", file);
+    }
+
+    // carries on after the files already there, so a restart within the same second gets names that sort after them
+    private static int nextFileIndex(Path directory) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.map(file -> file.getFileName().toString())
+                    .filter(name -> name.startsWith(FILE_PREFIX) && name.endsWith(FILE_SUFFIX))
+                    .map(name -> name.substring(name.lastIndexOf('-') + 1, name.length() - FILE_SUFFIX.length()))
+                    .filter(index -> !index.isEmpty() && index.chars().allMatch(Character::isDigit))
+                    .mapToInt(index -> Integer.parseInt(index) + 1)
+                    .max()
+                    .orElse(0);
+        }
+    }
+}
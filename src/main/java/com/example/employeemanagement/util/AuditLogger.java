@@ -1,13 +1,160 @@
 package com.example.employeemanagement.util;
 
+import com.example.employeemanagement.event.EmployeesBulkChangedEvent;
+import com.lmax.disruptor.EventHandler;
+import com.lmax.disruptor.EventTranslatorThreeArg;
+import com.lmax.disruptor.RingBuffer;
+import com.lmax.disruptor.LiteTimeoutBlockingWaitStrategy;
+import com.lmax.disruptor.dsl.Disruptor;
+import com.lmax.disruptor.dsl.ProducerType;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.util.unit.DataSize;
 
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+// audit events go into a lock-free ring buffer (LMAX disruptor) on the calling thread and are written
+// to the journal (see AuditJournalWriter) by a single background thread. the writer flushes at the end of
+// every batch it drains, so an event reaches the file as soon as the writer catches up, and fsyncs at most
+// once per audit.journal.fsync-interval. if the ring is ever full, producers wait for a free slot rather
+// than drop events.
 @Component
 @Slf4j
 public class AuditLogger {
 
-    public void log(String message) {
-        log.info("[AUDIT] {}", message);
+    private static final EventTranslatorThreeArg<AuditEvent, AuditEventType, UUID, String> EMPLOYEE_EVENT =
+            (event, sequence, type, employeeId, email) -> event.set(type, employeeId, email, 0, 0, false);
+
+    private static final EventTranslatorThreeArg<AuditEvent, AuditEventType, Integer, Integer> BATCH_EVENT =
+            (event, sequence, type, count, failed) -> event.set(type, null, null, count, failed, true);
+
+    private final Path journalDirectory;
+    private final long maxFileSize;
+    private final int ringSize;
+    private final Duration fsyncInterval;
+
+    private Disruptor<AuditEvent> disruptor;
+    private RingBuffer<AuditEvent> ringBuffer;
+    private AuditJournalWriter journalWriter;
+
+    public AuditLogger(
+            @Value("${audit.journal.dir}") Path journalDirectory,
+            @Value("${audit.journal.max-file-size}") DataSize maxFileSize,
+            @Value("${audit.journal.ring-size}") int ringSize,
+            @Value("${audit.journal.fsync-interval}") Duration fsyncInterval
+    ) {
+        this.journalDirectory = journalDirectory;
+        this.maxFileSize = maxFileSize.toBytes();
+        this.ringSize = ringSize;
+        this.fsyncInterval = fsyncInterval;
+    }
+
+    @PostConstruct
+    public void start() throws IOException, InterruptedException {
+        journalWriter = new AuditJournalWriter(journalDirectory, maxFileSize);
+
+        disruptor = new Disruptor<>(
+                AuditEvent::new,
+                ringSize,
+                runnable -> {
+                    Thread thread = new Thread(runnable, "audit-journal-writer");
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                ProducerType.MULTI,
+                // wakes the writer up when it's been idle for a whole fsync interval, see onTimeout. the lite one
+                // only takes the monitor to signal when the writer is actually parked, so publishing doesn't
+                // contend on it (or pin a virtual thread) while the writer keeps up
+                new LiteTimeoutBlockingWaitStrategy(fsyncInterval.toMillis(), TimeUnit.MILLISECONDS));
+        JournalHandler handler = new JournalHandler();
+        disruptor.handleEventsWith(handler);
+        ringBuffer = disruptor.start();
+        // disruptor.shutdown() only drains processors that are already running, a writer thread that hasn't
+        // started yet would be halted with events still in the ring
+        handler.started.await();
+    }
+
+    @PreDestroy
+    public void stop() {
+        // drains whatever is still in the ring before closing the file
+        disruptor.shutdown();
+        try {
+            journalWriter.close();
+        } catch (IOException e) {
+            log.error("Failed to close audit journal: {}", e.getMessage());
+        }
+    }
+
+    public void log(AuditEventType type, UUID employeeId, String email) {
+        ringBuffer.publishEvent(EMPLOYEE_EVENT, type, employeeId, email);
+    }
+
+    public void logBatch(AuditEventType type, int count, int failed) {
+        ringBuffer.publishEvent(BATCH_EVENT, type, count, failed);
+    }
+
+    // bulk changes are journaled once they're committed, a rolled back UPDATE/DELETE didn't change anything
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onEmployeesBulkChanged(EmployeesBulkChangedEvent event) {
+        AuditEventType type = switch (event.operation()) {
+            case EmployeesBulkChangedEvent.TRANSFER -> AuditEventType.BULK_TRANSFER;
+            case EmployeesBulkChangedEvent.SALARY_ADJUSTMENT -> AuditEventType.BULK_SALARY_ADJUSTMENT;
+            case EmployeesBulkChangedEvent.DELETE -> AuditEventType.BULK_DELETE;
+            default -> throw new IllegalArgumentException("Unknown bulk operation: " + event.operation());
+        };
+        logBatch(type, event.affected(), 0);
+    }
+
+    private class JournalHandler implements EventHandler<AuditEvent> {
+
+        private final CountDownLatch started = new CountDownLatch(1);
+        private long lastSyncNanos = System.nanoTime();
+
+        @Override
+        public void onStart() {
+            started.countDown();
+        }
+
+        @Override
+        public void onEvent(AuditEvent event, long sequence, boolean endOfBatch) {
+            try {
+                journalWriter.append(event, sequence);
+                if (endOfBatch) {
+                    journalWriter.flush();
+                    syncIfDue();
+                }
+            } catch (IOException e) {
+                log.error("Failed to write audit event {} ({}): {}", sequence, event.type, e.getMessage());
+            } finally {
+                event.clear();
+            }
+        }
+
+        @Override
+        public void onTimeout(long sequence) {
+            try {
+                syncIfDue();
+            } catch (IOException e) {
+                log.error("Failed to sync audit journal: {}", e.getMessage());
+            }
+        }
+
+        private void syncIfDue() throws IOException {
+            long now = System.nanoTime();
+            if (now - lastSyncNanos >= fsyncInterval.toNanos()) {
+                journalWriter.sync();
+                lastSyncNanos = now;
+            }
+        }
     }
 }
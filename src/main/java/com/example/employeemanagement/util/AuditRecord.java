@@ -0,0 +1,16 @@
+package com.example.employeemanagement.util;
+
+import java.time.Instant;
+import java.util.UUID;
+
+// an audit event as read back from the journal
+public record AuditRecord(
+        long sequence,
+        Instant timestamp,
+        AuditEventType type,
+        UUID employeeId,
+        String email,
+        Integer count,
+        Integer failed
+) {
+}
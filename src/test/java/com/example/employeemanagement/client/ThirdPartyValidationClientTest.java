@@ -0,0 +1,159 @@
+package com.example.employeemanagement.client;
+
+import com.github.tomakehurst.wiremock.WireMockServer;
+import com.github.tomakehurst.wiremock.http.Fault;
+import com.github.tomakehurst.wiremock.stubbing.Scenario;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.*;
+import static com.github.tomakehurst.wiremock.core.WireMockConfiguration.options;
+import static org.assertj.core.api.Assertions.assertThat;
+
+// the validation clients against a stub upstream that answers, fails, stalls or drops the connection
+@SpringBootTest(properties = {
+        "thirdparty.simulated=false",
+        "thirdparty.http.response-timeout=200ms",
+        "resilience4j.retry.configs.default.waitDuration=10ms",
+        "resilience4j.bulkhead.configs.default.maxConcurrentCalls=2",
+        "resilience4j.bulkhead.configs.default.maxWaitDuration=0"
+})
+@ActiveProfiles("test")
+class ThirdPartyValidationClientTest {
+
+    private static final WireMockServer upstream = new WireMockServer(options().dynamicPort());
+
+    @Autowired
+    private EmailValidationClient emailValidationClient;
+
+    @Autowired
+    private DepartmentValidationClient departmentValidationClient;
+
+    @Autowired
+    private CircuitBreakerRegistry circuitBreakerRegistry;
+
+    @DynamicPropertySource
+    static void upstreamUrls(DynamicPropertyRegistry registry) {
+        upstream.start();
+        registry.add("thirdparty.email.validation.url", () -> upstream.baseUrl() + "/email/check");
+        registry.add("thirdparty.email.validation.bulk-url", () -> upstream.baseUrl() + "/email/check/bulk");
+        registry.add("thirdparty.department.validation.url", () -> upstream.baseUrl() + "/department/check");
+        registry.add("thirdparty.department.validation.bulk-url", () -> upstream.baseUrl() + "/department/check/bulk");
+    }
+
+    @AfterAll
+    static void stopUpstream() {
+        upstream.stop();
+    }
+
+    @BeforeEach
+    void setUp() {
+        upstream.resetAll();
+        // failures of one test must not leave a breaker open for the next
+        circuitBreakerRegistry.getAllCircuitBreakers().forEach(CircuitBreaker::reset);
+    }
+
+    @Test
+    void check_ShouldReturnUpstreamVerdict() {
+        upstream.stubFor(get(urlPathEqualTo("/email/check")).withQueryParam("email", equalTo("good@test.com"))
+                .willReturn(okJson("{\"valid\": true}")));
+        upstream.stubFor(get(urlPathEqualTo("/email/check")).withQueryParam("email", equalTo("bad@test.com"))
+                .willReturn(okJson("{\"valid\": false}")));
+        upstream.stubFor(get(urlPathEqualTo("/department/check")).withQueryParam("department", equalTo("R&D"))
+                .willReturn(okJson("{\"valid\": true}")));
+
+        assertThat(emailValidationClient.checkEmail("good@test.com")).isEqualTo(ValidationVerdict.VALID);
+        assertThat(emailValidationClient.checkEmail("bad@test.com")).isEqualTo(ValidationVerdict.INVALID);
+        assertThat(departmentValidationClient.checkDepartment("R&D")).isEqualTo(ValidationVerdict.VALID);
+    }
+
+    @Test
+    void bulkCheck_ShouldPostAllValues_AndReturnVerdictPerValue() {
+        upstream.stubFor(post(urlPathEqualTo("/email/check/bulk"))
+                .withRequestBody(equalToJson("{\"values\": [\"good@test.com\", \"bad@test.com\"]}"))
+                .willReturn(okJson("{\"results\": {\"good@test.com\": true, \"bad@test.com\": false}}")));
+        upstream.stubFor(post(urlPathEqualTo("/department/check/bulk"))
+                .willReturn(serverError()));
+
+        assertThat(emailValidationClient.checkEmails(List.of("good@test.com", "bad@test.com"))).containsOnly(
+                Map.entry("good@test.com", ValidationVerdict.VALID),
+                Map.entry("bad@test.com", ValidationVerdict.INVALID));
+        // retried like the single check, then every value is unavailable
+        assertThat(departmentValidationClient.checkDepartments(List.of("R&D", "Sales"))).containsOnly(
+                Map.entry("R&D", ValidationVerdict.UNAVAILABLE),
+                Map.entry("Sales", ValidationVerdict.UNAVAILABLE));
+        upstream.verify(3, postRequestedFor(urlPathEqualTo("/department/check/bulk")));
+    }
+
+    @Test
+    void check_ShouldRetryServerError_AndReturnVerdictOfLaterAttempt() {
+        upstream.stubFor(get(urlPathEqualTo("/department/check")).inScenario("flaky")
+                .whenScenarioStateIs(Scenario.STARTED)
+                .willReturn(serviceUnavailable())
+                .willSetStateTo("recovered"));
+        upstream.stubFor(get(urlPathEqualTo("/department/check")).inScenario("flaky")
+                .whenScenarioStateIs("recovered")
+                .willReturn(okJson("{\"valid\": true}")));
+
+        assertThat(departmentValidationClient.checkDepartment("Engineering")).isEqualTo(ValidationVerdict.VALID);
+        upstream.verify(2, getRequestedFor(urlPathEqualTo("/department/check")));
+    }
+
+    @Test
+    void check_ShouldGiveUpWithinDeadline_WhenUpstreamStallsOrDropsConnection() {
+        upstream.stubFor(get(urlPathEqualTo("/email/check"))
+                .willReturn(okJson("{\"valid\": true}").withFixedDelay(5_000)));
+        upstream.stubFor(get(urlPathEqualTo("/department/check"))
+                .willReturn(aResponse().withFault(Fault.CONNECTION_RESET_BY_PEER)));
+
+        long start = System.nanoTime();
+        assertThat(emailValidationClient.checkEmail("slow@test.com")).isEqualTo(ValidationVerdict.UNAVAILABLE);
+        // 3 attempts of 200ms plus two short backoffs, nowhere near the stub's 5s
+        assertThat((System.nanoTime() - start) / 1_000_000).isLessThan(2_000);
+        assertThat(departmentValidationClient.checkDepartment("Engineering")).isEqualTo(ValidationVerdict.UNAVAILABLE);
+
+        upstream.verify(3, getRequestedFor(urlPathEqualTo("/email/check")));
+        upstream.verify(3, getRequestedFor(urlPathEqualTo("/department/check")));
+    }
+
+    @Test
+    void check_ShouldNotSendMoreConcurrentCallsThanBulkheadAllows() throws Exception {
+        upstream.stubFor(get(urlPathEqualTo("/email/check"))
+                .willReturn(okJson("{\"valid\": true}").withFixedDelay(150)));
+
+        ExecutorService callers = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<ValidationVerdict>> verdicts = new ArrayList<>();
+            for (int i = 0; i < 4; i++) {
+                String email = "caller" + i + "@test.com";
+                verdicts.add(callers.submit(() -> emailValidationClient.checkEmail(email)));
+            }
+            List<ValidationVerdict> results = new ArrayList<>();
+            for (Future<ValidationVerdict> verdict : verdicts) {
+                results.add(verdict.get());
+            }
+
+            // two got a slot, the other two were turned away without reaching the upstream (and not retried)
+            assertThat(results).filteredOn(ValidationVerdict.VALID::equals).hasSize(2);
+            assertThat(results).filteredOn(ValidationVerdict.UNAVAILABLE::equals).hasSize(2);
+            upstream.verify(2, getRequestedFor(urlPathEqualTo("/email/check")));
+        } finally {
+            callers.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,227 @@
+package com.example.employeemanagement.client;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ValidationCollapserTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    // every bulk call the upstream got, in order
+    private final List<List<String>> bulkCalls = new CopyOnWriteArrayList<>();
+
+    private ValidationCollapser collapser;
+
+    @AfterEach
+    void tearDown() {
+        collapser.close();
+    }
+
+    @Test
+    void submit_ShouldSendRightAway_WhenNothingIsInFlight() {
+        // arrange: a window far longer than the test may take
+        collapser = collapser(upstream(), Duration.ofSeconds(10), 50);
+
+        // act
+        long start = System.nanoTime();
+        ValidationVerdict verdict = collapser.check("alone@test.com");
+
+        // assert: a lone call doesn't wait for company
+        assertThat(verdict).isEqualTo(ValidationVerdict.VALID);
+        assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)).isLessThan(1000);
+        assertThat(meterRegistry.get("thirdparty.batch.flushes").tag("trigger", "idle").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void submit_ShouldSendCollectedBatch_AsSoonAsTheOutstandingCallIsAnswered() throws Exception {
+        // arrange: the first call hangs until released, the window is far longer than the test may take
+        CountDownLatch entered = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        collapser = collapser(holding("first@test.com", entered, release), Duration.ofSeconds(10), 50);
+        CompletableFuture<ValidationVerdict> first = CompletableFuture.supplyAsync(() -> collapser.check("first@test.com"));
+        assertThat(entered.await(1, TimeUnit.SECONDS)).isTrue();
+
+        // act: two calls collect behind it, then it comes back
+        CompletableFuture<ValidationVerdict> x = collapser.submit("x@test.com");
+        CompletableFuture<ValidationVerdict> y = collapser.submit("y@test.com");
+        release.countDown();
+
+        // assert
+        assertThat(first.get(1, TimeUnit.SECONDS)).isEqualTo(ValidationVerdict.VALID);
+        assertThat(x.get(1, TimeUnit.SECONDS)).isEqualTo(ValidationVerdict.VALID);
+        assertThat(y.get(1, TimeUnit.SECONDS)).isEqualTo(ValidationVerdict.VALID);
+        assertThat(bulkCalls).containsExactly(List.of("first@test.com"), List.of("x@test.com", "y@test.com"));
+        assertThat(meterRegistry.get("thirdparty.batch.flushes").tag("trigger", "drained").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void submit_ShouldSendOneBulkCall_ForCallsWithinWindow_AndFanVerdictsOut() throws Exception {
+        // arrange: a long window, so only the max size or the window closes the batch. a call stays in flight
+        // the whole time, so nothing goes out just because the upstream is free
+        CountDownLatch entered = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        collapser = collapser(holding("first@test.com", entered, release), Duration.ofMillis(200), 3);
+        CompletableFuture<ValidationVerdict> first = CompletableFuture.supplyAsync(() -> collapser.check("first@test.com"));
+        assertThat(entered.await(1, TimeUnit.SECONDS)).isTrue();
+
+        // act
+        CompletableFuture<ValidationVerdict> a = collapser.submit("a@test.com");
+        CompletableFuture<ValidationVerdict> bad = collapser.submit("bad@test.com");
+        CompletableFuture<ValidationVerdict> sameAsA = collapser.submit("a@test.com");
+        // the third distinct value fills the batch, it goes out right away
+        CompletableFuture<ValidationVerdict> c = collapser.submit("c@test.com");
+        // opens the next batch, which only the window closes
+        CompletableFuture<ValidationVerdict> late = collapser.submit("late@test.com");
+
+        // assert
+        assertThat(a.get(1, TimeUnit.SECONDS)).isEqualTo(ValidationVerdict.VALID);
+        assertThat(bad.get(1, TimeUnit.SECONDS)).isEqualTo(ValidationVerdict.INVALID);
+        assertThat(sameAsA.get(1, TimeUnit.SECONDS)).isEqualTo(ValidationVerdict.VALID);
+        assertThat(c.get(1, TimeUnit.SECONDS)).isEqualTo(ValidationVerdict.VALID);
+        assertThat(late.get(2, TimeUnit.SECONDS)).isEqualTo(ValidationVerdict.VALID);
+        release.countDown();
+        assertThat(first.get(1, TimeUnit.SECONDS)).isEqualTo(ValidationVerdict.VALID);
+
+        // in the order they were answered, the held first call last
+        assertThat(bulkCalls).containsExactly(
+                List.of("a@test.com", "bad@test.com", "c@test.com"),
+                List.of("late@test.com"),
+                List.of("first@test.com"));
+        assertThat(meterRegistry.get("thirdparty.batch.flushes").tag("trigger", "size").counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("thirdparty.batch.flushes").tag("trigger", "window").counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("thirdparty.batch.size").summary().totalAmount()).isEqualTo(5);
+        // the late batch waited out its window
+        assertThat(meterRegistry.get("thirdparty.batch.linger").timer().max(TimeUnit.MILLISECONDS)).isGreaterThanOrEqualTo(150);
+    }
+
+    @Test
+    void submit_ShouldCollapseConcurrentCallers_IntoFewerBulkCalls() throws Exception {
+        // arrange: an upstream that takes a moment, like a real one, so calls overlap
+        Function<List<String>, Map<String, ValidationVerdict>> upstream = upstream();
+        collapser = collapser(values -> {
+            sleep(20);
+            return upstream.apply(values);
+        }, Duration.ofMillis(50), 100);
+
+        // act: 40 callers on their own threads, all within one window
+        List<CompletableFuture<ValidationVerdict>> verdicts = new ArrayList<>();
+        for (int i = 0; i < 40; i++) {
+            String email = "caller" + i + "@test.com";
+            verdicts.add(CompletableFuture.supplyAsync(() -> collapser.check(email)));
+        }
+
+        // assert
+        for (CompletableFuture<ValidationVerdict> verdict : verdicts) {
+            assertThat(verdict.get(2, TimeUnit.SECONDS)).isEqualTo(ValidationVerdict.VALID);
+        }
+        assertThat(bulkCalls.size()).isLessThan(40);
+        assertThat(bulkCalls.stream().mapToInt(List::size).sum()).isEqualTo(40);
+    }
+
+    @Test
+    void check_ShouldFailEveryCallerOfBatch_WhenUpstreamThrows_AndMarkMissingValuesUnavailable() {
+        // arrange: the upstream leaves out what it doesn't know and blows up on "boom"
+        collapser = collapser(values -> {
+            if (values.contains("boom@test.com")) {
+                throw new IllegalStateException("upstream down");
+            }
+            return Map.of();
+        }, Duration.ofMillis(5), 1);
+
+        // act & assert
+        assertThat(collapser.check("unknown@test.com")).isEqualTo(ValidationVerdict.UNAVAILABLE);
+        assertThatThrownBy(() -> collapser.check("boom@test.com"))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessage("upstream down");
+    }
+
+    @Test
+    void submit_ShouldTurnBatchAway_WhenDispatchPoolIsFull_WithoutHoldingUpWindows() throws Exception {
+        // arrange: one dispatch thread, no queue, and an upstream that hangs until released
+        CountDownLatch firstEntered = new CountDownLatch(1);
+        CountDownLatch stuckEntered = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Function<List<String>, Map<String, ValidationVerdict>> upstream = upstream();
+        collapser = new ValidationCollapser("email", values -> {
+            (values.contains("first@test.com") ? firstEntered : stuckEntered).countDown();
+            await(release);
+            return upstream.apply(values);
+        }, Duration.ofMillis(20), 10, 1, 0, meterRegistry);
+
+        // act: the first call goes out on its caller's thread, the window batch behind it takes the only dispatch thread
+        CompletableFuture<ValidationVerdict> first = CompletableFuture.supplyAsync(() -> collapser.check("first@test.com"));
+        assertThat(firstEntered.await(1, TimeUnit.SECONDS)).isTrue();
+        CompletableFuture<ValidationVerdict> stuck = collapser.submit("stuck@test.com");
+        assertThat(stuckEntered.await(1, TimeUnit.SECONDS)).isTrue();
+        long start = System.nanoTime();
+        CompletableFuture<ValidationVerdict> turnedAway = collapser.submit("next@test.com");
+
+        // assert: the second window still closes on time and its batch is answered without reaching the upstream
+        assertThat(turnedAway.get(1, TimeUnit.SECONDS)).isEqualTo(ValidationVerdict.UNAVAILABLE);
+        assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)).isLessThan(500);
+        assertThat(meterRegistry.get("thirdparty.batch.rejected").counter().count()).isEqualTo(1);
+        release.countDown();
+        assertThat(first.get(1, TimeUnit.SECONDS)).isEqualTo(ValidationVerdict.VALID);
+        assertThat(stuck.get(1, TimeUnit.SECONDS)).isEqualTo(ValidationVerdict.VALID);
+        assertThat(bulkCalls).containsExactlyInAnyOrder(List.of("first@test.com"), List.of("stuck@test.com"));
+    }
+
+    // like upstream(), but the call with the given value hangs until released
+    private Function<List<String>, Map<String, ValidationVerdict>> holding(String value, CountDownLatch entered,
+                                                                           CountDownLatch release) {
+        Function<List<String>, Map<String, ValidationVerdict>> upstream = upstream();
+        return values -> {
+            if (values.contains(value)) {
+                entered.countDown();
+                await(release);
+            }
+            return upstream.apply(values);
+        };
+    }
+
+    // everything is valid except addresses starting with "bad"
+    private Function<List<String>, Map<String, ValidationVerdict>> upstream() {
+        return values -> {
+            bulkCalls.add(values);
+            Map<String, ValidationVerdict> verdicts = new HashMap<>();
+            values.forEach(value -> verdicts.put(value,
+                    value.startsWith("bad") ? ValidationVerdict.INVALID : ValidationVerdict.VALID));
+            return verdicts;
+        };
+    }
+
+    private ValidationCollapser collapser(Function<List<String>, Map<String, ValidationVerdict>> bulkCheck,
+                                          Duration window, int maxBatchSize) {
+        return new ValidationCollapser("email", bulkCheck, window, maxBatchSize, 2, 10, meterRegistry);
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
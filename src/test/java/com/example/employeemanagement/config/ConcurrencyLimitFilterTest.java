@@ -0,0 +1,159 @@
+package com.example.employeemanagement.config;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.IntToLongFunction;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ConcurrencyLimitFilterTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private ConcurrencyLimitProperties properties;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        properties = new ConcurrencyLimitProperties();
+        properties.setInitialLimit(20);
+        properties.setMinLimit(4);
+        properties.setMaxLimit(200);
+        properties.setWindow(Duration.ofMillis(100));
+        properties.setWindowMinSamples(10);
+    }
+
+    @Test
+    void filter_ShouldShedWritesBeforeReads_WhenLimitIsReached() throws Exception {
+        // arrange: a fixed limit of 4, half of it kept for reads
+        properties.setInitialLimit(4);
+        properties.setMaxLimit(4);
+        properties.setReservedForReads(0.5);
+        ConcurrencyLimitFilter filter = new ConcurrencyLimitFilter(properties, meterRegistry);
+
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch entered = new CountDownLatch(2);
+        ExecutorService callers = Executors.newFixedThreadPool(2);
+        try {
+            // two writes that stay in flight
+            List<Future<MockHttpServletResponse>> slow = new ArrayList<>();
+            for (int i = 0; i < 2; i++) {
+                slow.add(callers.submit(() -> call(filter, "PUT", "/api/employees/1", (request, response) -> {
+                    entered.countDown();
+                    await(release);
+                })));
+            }
+            assertThat(entered.await(5, TimeUnit.SECONDS)).isTrue();
+
+            // act
+            MockHttpServletResponse write = call(filter, "POST", "/api/employees", (request, response) -> { });
+            MockHttpServletResponse read = call(filter, "GET", "/api/employees", (request, response) -> { });
+            release.countDown();
+
+            // assert
+            assertThat(write.getStatus()).isEqualTo(503);
+            assertThat(write.getHeader("Retry-After")).isEqualTo("1");
+            assertThat(read.getStatus()).isEqualTo(200);
+            for (Future<MockHttpServletResponse> response : slow) {
+                assertThat(response.get(5, TimeUnit.SECONDS).getStatus()).isEqualTo(200);
+            }
+            assertThat(meterRegistry.get("concurrencylimit.rejected").tag("priority", "write").counter().count()).isEqualTo(1);
+            assertThat(meterRegistry.get("concurrencylimit.rejected").tag("priority", "read").counter().count()).isZero();
+            assertThat(meterRegistry.get("concurrencylimit.inflight").gauge().value()).isZero();
+        } finally {
+            callers.shutdownNow();
+        }
+    }
+
+    @Test
+    void limit_ShouldFollowLatency_ShrinkingWhenRequestsQueue_AndGrowingBackAfterwards() {
+        // arrange: a dependency that takes 10ms and can work on 8 requests at a time, more than that queue
+        AtomicLong clock = new AtomicLong();
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(properties, clock::get);
+        IntToLongFunction unbounded = inflight -> TimeUnit.MILLISECONDS.toNanos(10);
+        IntToLongFunction eightWide = inflight -> TimeUnit.MILLISECONDS.toNanos(10) * Math.max(8, inflight) / 8;
+
+        // act + assert: no queueing while there's demand, the limit grows
+        for (int i = 0; i < 20; i++) {
+            saturatedWindow(limit, clock, unbounded);
+        }
+        assertThat(limit.getLimit()).isGreaterThan(100);
+        assertThat(limit.getNoLoadLatencyMillis()).isEqualTo(10.0);
+
+        // requests queue behind the 8 slots, the limit comes down to a little above 8 and stays there
+        for (int i = 0; i < 50; i++) {
+            saturatedWindow(limit, clock, eightWide);
+        }
+        int settled = limit.getLimit();
+        assertThat(settled).isBetween(9, 20);
+        for (int i = 0; i < 50; i++) {
+            saturatedWindow(limit, clock, eightWide);
+            assertThat(limit.getLimit()).isBetween(settled - 3, settled + 3);
+        }
+
+        // the dependency recovers
+        for (int i = 0; i < 20; i++) {
+            saturatedWindow(limit, clock, unbounded);
+        }
+        assertThat(limit.getLimit()).isGreaterThan(100);
+    }
+
+    @Test
+    void limit_ShouldNotGrow_WhileMostOfItIsUnused() {
+        // arrange
+        AtomicLong clock = new AtomicLong();
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(properties, clock::get);
+
+        // act: one request at a time, always fast
+        for (int i = 0; i < 200; i++) {
+            assertThat(limit.tryAcquire(true)).isTrue();
+            clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(20));
+            limit.release(TimeUnit.MILLISECONDS.toNanos(5));
+        }
+
+        // assert
+        assertThat(limit.getLimit()).isEqualTo(20);
+    }
+
+    // fills every slot the limit currently allows, then lets them all finish, 100ms later
+    private void saturatedWindow(AdaptiveConcurrencyLimit limit, AtomicLong clock, IntToLongFunction latency) {
+        int inflight = 0;
+        while (limit.tryAcquire(true)) {
+            inflight++;
+        }
+        long nanos = latency.applyAsLong(inflight);
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(100));
+        for (int i = 0; i < inflight; i++) {
+            limit.release(nanos);
+        }
+    }
+
+    private MockHttpServletResponse call(ConcurrencyLimitFilter filter, String method, String path,
+                                         FilterChain chain) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest(method, path);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, chain);
+        return response;
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
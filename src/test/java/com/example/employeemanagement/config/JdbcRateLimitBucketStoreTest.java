@@ -0,0 +1,98 @@
+package com.example.employeemanagement.config;
+
+import com.example.employeemanagement.entity.RateLimitBucket;
+import com.example.employeemanagement.repository.RateLimitBucketRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+@SpringBootTest(properties = {
+        "ratelimit.store=jdbc",
+        "ratelimit.jdbc.lease-size=3",
+        "ratelimit.jdbc.lease-ttl=1h"
+})
+@ActiveProfiles("test")
+class JdbcRateLimitBucketStoreTest {
+
+    private static final BucketLimit TEN_PER_HOUR = new BucketLimit(10, Duration.ofHours(1));
+
+    @Autowired
+    private RateLimitBucketStore bucketStore;
+
+    @Autowired
+    private RateLimitBucketRepository bucketRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private RateLimitProperties properties;
+
+    @BeforeEach
+    void setUp() {
+        bucketRepository.deleteAll();
+    }
+
+    @Test
+    void limit_ShouldHoldAcrossInstances_SharingTheDatabase() {
+        // arrange: a second instance talking to the same database
+        assertThat(bucketStore).isInstanceOf(JdbcRateLimitBucketStore.class);
+        JdbcRateLimitBucketStore otherInstance = new JdbcRateLimitBucketStore(bucketRepository, transactionTemplate, properties);
+
+        // act: the load balancer alternates between the two
+        int allowed = 0;
+        for (int i = 0; i < 30; i++) {
+            RateLimitBucketStore instance = i % 2 == 0 ? bucketStore : otherInstance;
+            if (instance.tryConsume("writes|10.0.0.1", TEN_PER_HOUR).allowed()) {
+                allowed++;
+            }
+        }
+
+        // assert
+        assertThat(allowed).isEqualTo(10);
+        RateLimitDecision rejected = bucketStore.tryConsume("writes|10.0.0.1", TEN_PER_HOUR);
+        assertThat(rejected.allowed()).isFalse();
+        assertThat(rejected.nanosToWait()).isPositive();
+    }
+
+    @Test
+    void tokens_ShouldBeLeasedInBatches() {
+        // act
+        for (int i = 0; i < 3; i++) {
+            assertThat(bucketStore.tryConsume("reads|10.0.0.2", TEN_PER_HOUR).allowed()).isTrue();
+        }
+
+        // assert: three requests, one round trip that took three tokens
+        assertThat(bucketRepository.findById("reads|10.0.0.2"))
+                .hasValueSatisfying(bucket -> assertThat(bucket.getTokens()).isCloseTo(7.0, within(0.01)));
+    }
+
+    @Test
+    void rejections_ShouldNotGoToTheStore_UntilTheNextTokenIsDue() {
+        // arrange: empty the bucket, the last request finds the store empty
+        for (int i = 0; i < 11; i++) {
+            bucketStore.tryConsume("writes|10.0.0.3", TEN_PER_HOUR);
+        }
+        RateLimitBucket emptied = bucketRepository.findById("writes|10.0.0.3").orElseThrow();
+        // someone refills the row behind the instance's back, only a store round trip would notice
+        emptied.setTokens(10);
+        bucketRepository.saveAndFlush(emptied);
+
+        // act
+        RateLimitDecision rejected = bucketStore.tryConsume("writes|10.0.0.3", TEN_PER_HOUR);
+
+        // assert: answered locally, with about the six minutes one token takes to come back
+        assertThat(rejected.allowed()).isFalse();
+        assertThat(rejected.nanosToWait()).isGreaterThan(Duration.ofMinutes(5).toNanos());
+        assertThat(bucketRepository.findById("writes|10.0.0.3"))
+                .hasValueSatisfying(bucket -> assertThat(bucket.getTokens()).isCloseTo(10.0, within(0.01)));
+    }
+}
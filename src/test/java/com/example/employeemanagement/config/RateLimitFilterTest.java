@@ -0,0 +1,99 @@
+package com.example.employeemanagement.config;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RateLimitFilterTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private RateLimitProperties properties;
+    private InMemoryRateLimitBucketStore bucketStore;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        properties = new RateLimitProperties();
+        properties.setCapacity(5);
+        properties.setRefillPeriod(Duration.ofMinutes(1));
+        properties.setExemptPaths(List.of("/h2-console/**"));
+
+        RateLimitProperties.Tier batch = new RateLimitProperties.Tier();
+        batch.setName("batch");
+        batch.setPaths(List.of("/api/employees/batch"));
+        batch.setMethods(List.of("POST"));
+        batch.setCapacity(1);
+        batch.setRefillPeriod(Duration.ofMinutes(1));
+        properties.setTiers(List.of(batch));
+    }
+
+    @Test
+    void tiers_ShouldBeLimitedIndependently() throws Exception {
+        // arrange
+        RateLimitFilter filter = newFilter();
+
+        // act
+        MockHttpServletResponse first = call(filter, "POST", "/api/employees/batch", "10.0.0.1");
+        MockHttpServletResponse second = call(filter, "POST", "/api/employees/batch", "10.0.0.1");
+        MockHttpServletResponse read = call(filter, "GET", "/api/employees", "10.0.0.1");
+
+        // assert
+        assertThat(first.getStatus()).isEqualTo(200);
+        assertThat(second.getStatus()).isEqualTo(429);
+        assertThat(second.getHeader("Retry-After")).isNotNull();
+        assertThat(read.getStatus()).isEqualTo(200);
+        assertThat(read.getHeader("X-Rate-Limit-Remaining")).isEqualTo("4");
+        assertThat(meterRegistry.get("ratelimit.rejected").tag("tier", "batch").counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("ratelimit.rejected").tag("tier", "default").counter().count()).isZero();
+    }
+
+    @Test
+    void exemptPaths_ShouldNeverBeLimited() throws Exception {
+        // arrange
+        RateLimitFilter filter = newFilter();
+
+        // act + assert
+        for (int i = 0; i < 20; i++) {
+            assertThat(call(filter, "GET", "/h2-console/login.jsp", "10.0.0.1").getStatus()).isEqualTo(200);
+        }
+        assertThat(bucketStore.activeKeys()).isZero();
+    }
+
+    @Test
+    void buckets_ShouldStayBounded_WithManyDistinctClients() throws Exception {
+        // arrange
+        properties.setMaxKeys(1_000);
+        RateLimitFilter filter = newFilter();
+
+        // act
+        for (int i = 0; i < 100_000; i++) {
+            call(filter, "GET", "/api/employees", "10." + (i >> 16 & 0xff) + "." + (i >> 8 & 0xff) + "." + (i & 0xff));
+        }
+
+        // assert
+        assertThat(bucketStore.activeKeys()).isLessThanOrEqualTo(1_000);
+        assertThat(meterRegistry.get("ratelimit.active.keys").gauge().value()).isLessThanOrEqualTo(1_000);
+    }
+
+    private RateLimitFilter newFilter() {
+        bucketStore = new InMemoryRateLimitBucketStore(properties, meterRegistry);
+        return new RateLimitFilter(properties, bucketStore, meterRegistry);
+    }
+
+    private MockHttpServletResponse call(RateLimitFilter filter, String method, String path, String remoteAddr)
+            throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest(method, path);
+        request.setRemoteAddr(remoteAddr);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, new MockFilterChain());
+        return response;
+    }
+}
@@ -0,0 +1,44 @@
+package com.example.employeemanagement.config;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledForJreRange;
+import org.junit.jupiter.api.condition.JRE;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// virtual threads only exist from java 21 on, boot ignores the flag below that
+@SpringBootTest(properties = "spring.threads.virtual.enabled=true")
+@ActiveProfiles("test")
+@EnabledForJreRange(min = JRE.JAVA_21)
+class VirtualThreadsModeTest {
+
+    @Autowired
+    @Qualifier("applicationTaskExecutor")
+    private TaskExecutor applicationTaskExecutor;
+
+    @Autowired
+    @Qualifier("validationExecutor")
+    private Executor validationExecutor;
+
+    @Test
+    void asyncAndValidationWork_ShouldRunOnVirtualThreads_WhenEnabled() throws Exception {
+        assertThat(applicationTaskExecutor).isInstanceOf(SimpleAsyncTaskExecutor.class);
+        assertThat(threadTypeOf(applicationTaskExecutor)).isEqualTo("java.lang.VirtualThread");
+        assertThat(threadTypeOf(validationExecutor)).isEqualTo("java.lang.VirtualThread");
+    }
+
+    private String threadTypeOf(Executor executor) throws Exception {
+        return CompletableFuture.supplyAsync(() -> Thread.currentThread().getClass().getName(), executor)
+                .get(5, TimeUnit.SECONDS);
+    }
+}
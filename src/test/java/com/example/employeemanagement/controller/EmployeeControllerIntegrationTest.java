@@ -1,26 +1,54 @@
 package com.example.employeemanagement.controller;
 
+import com.example.employeemanagement.dto.DepartmentStats;
 import com.example.employeemanagement.entity.Employee;
+import com.example.employeemanagement.entity.ImportFormat;
+import com.example.employeemanagement.entity.ImportJob;
+import com.example.employeemanagement.entity.ImportStatus;
 import com.example.employeemanagement.repository.EmployeeRepository;
+import com.example.employeemanagement.repository.ImportJobRepository;
+import com.example.employeemanagement.service.DepartmentStatisticsService;
+import com.example.employeemanagement.service.EmployeeImportService;
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
 import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 // we can run with a random port, but here we'll just rely on MockMvc & SpringBootTest
 @SpringBootTest
 @AutoConfigureMockMvc
+// boot only wires the prometheus registry in tests when asked to
+@AutoConfigureObservability(tracing = false)
 @ActiveProfiles("test") // optional, if you want to use a separate application-test.properties
 class EmployeeControllerIntegrationTest {
 
@@ -33,6 +61,15 @@ class EmployeeControllerIntegrationTest {
     @Autowired
     private ObjectMapper objectMapper;
 
+    @Autowired
+    private DepartmentStatisticsService departmentStatisticsService;
+
+    @Autowired
+    private EmployeeImportService importService;
+
+    @Autowired
+    private ImportJobRepository importJobRepository;
+
     @BeforeEach
     void setUp() {
         employeeRepository.deleteAll();
@@ -61,6 +98,47 @@ class EmployeeControllerIntegrationTest {
                 .andExpect(jsonPath("$.firstName").value("John"));
     }
 
+    @Test
+    void createAndPatchEmployee_ShouldReturnConflict_WhenEmailTaken() throws Exception {
+        Employee employee = Employee.builder()
+                .firstName("Taken")
+                .lastName("Email")
+                .email("taken@test.com")
+                .department("Engineering")
+                .salary(BigDecimal.valueOf(3000))
+                .build();
+        mockMvc.perform(post("/api/employees")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(employee)))
+                .andExpect(status().isCreated());
+
+        mockMvc.perform(post("/api/employees")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(employee)))
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.message").value("Employee with email taken@test.com already exists"));
+
+        employee.setEmail("other@test.com");
+        MvcResult other = mockMvc.perform(post("/api/employees")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(employee)))
+                .andExpect(status().isCreated())
+                .andReturn();
+        mockMvc.perform(patch("/api/employees/{id}", objectMapper.readTree(other.getResponse().getContentAsString()).get("id").asText())
+                        .contentType(EmployeeController.MERGE_PATCH_VALUE)
+                        .content("{\"email\": \"taken@test.com\"}"))
+                .andExpect(status().isConflict());
+
+        // written behind the service's back, so only the unique index knows. still a conflict, not a 500
+        employeeRepository.save(Employee.builder().firstName("Behind").lastName("Back").email("behind.back@test.com")
+                .department("Engineering").salary(BigDecimal.valueOf(3000)).build());
+        employee.setEmail("behind.back@test.com");
+        mockMvc.perform(post("/api/employees")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(employee)))
+                .andExpect(status().isConflict());
+    }
+
     @Test
     void createEmployee_ShouldReturnBadRequest_WhenInvalidEmail() throws Exception {
         Employee employee = Employee.builder()
@@ -78,6 +156,40 @@ class EmployeeControllerIntegrationTest {
                 .andExpect(jsonPath("$.message").value(org.hamcrest.Matchers.containsString("Validation failed")));
     }
 
+    @Test
+    void createEmployees_ShouldReportPerItemResults_WhenBatchHasBadItems() throws Exception {
+        employeeRepository.save(Employee.builder()
+                .firstName("Already")
+                .lastName("There")
+                .email("already.there@test.com")
+                .department("Engineering")
+                .salary(BigDecimal.valueOf(3000))
+                .build());
+
+        List<Employee> batch = List.of(
+                Employee.builder().firstName("Good").lastName("One").email("good.one@test.com")
+                        .department("Engineering").salary(BigDecimal.valueOf(3000)).build(),
+                Employee.builder().firstName("Bad").lastName("Email").email("not-an-email")
+                        .department("Engineering").salary(BigDecimal.valueOf(3000)).build(),
+                Employee.builder().firstName("Existing").lastName("Email").email("already.there@test.com")
+                        .department("Engineering").salary(BigDecimal.valueOf(3000)).build(),
+                Employee.builder().firstName("Good").lastName("Two").email("good.two@test.com")
+                        .department("HR").salary(BigDecimal.valueOf(3000)).build());
+
+        mockMvc.perform(post("/api/employees/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(batch)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.created").value(2))
+                .andExpect(jsonPath("$.failed").value(2))
+                .andExpect(jsonPath("$.results[0].success").value(true))
+                .andExpect(jsonPath("$.results[1].error").value(org.hamcrest.Matchers.containsString("Validation failed")))
+                .andExpect(jsonPath("$.results[2].error").value(org.hamcrest.Matchers.containsString("already exists")))
+                .andExpect(jsonPath("$.results[3].id").exists());
+
+        org.assertj.core.api.Assertions.assertThat(employeeRepository.count()).isEqualTo(3);
+    }
+
     @Test
     void getEmployeeById_ShouldReturnEmployee_WhenEmployeeExists() throws Exception {
         // pre-save an employee
@@ -94,6 +206,79 @@ class EmployeeControllerIntegrationTest {
                 .andExpect(jsonPath("$.email").value("jane.doe@test.com"));
     }
 
+    @Test
+    void getEmployeeById_ShouldServeRepeatedReadsFromCache_UntilUpdated() throws Exception {
+        Employee saved = employeeRepository.save(Employee.builder()
+                .firstName("Cached")
+                .lastName("Employee")
+                .email("cached.employee@test.com")
+                .department("HR")
+                .salary(BigDecimal.valueOf(4000))
+                .build());
+
+        mockMvc.perform(get("/api/employees/{id}", saved.getId())).andExpect(status().isOk());
+
+        // a write that bypasses the service isn't visible while the entry is cached
+        saved.setDepartment("Finance");
+        employeeRepository.save(saved);
+        mockMvc.perform(get("/api/employees/{id}", saved.getId()))
+                .andExpect(jsonPath("$.department").value("HR"));
+
+        Employee updateReq = Employee.builder()
+                .firstName("Cached")
+                .lastName("Employee")
+                .email("cached.employee@test.com")
+                .department("Marketing")
+                .salary(BigDecimal.valueOf(4000))
+                .build();
+        mockMvc.perform(put("/api/employees/{id}", saved.getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(updateReq)))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/api/employees/{id}", saved.getId()))
+                .andExpect(jsonPath("$.department").value("Marketing"));
+
+        mockMvc.perform(get("/actuator/metrics/cache.gets").param("tag", "result:hit"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.measurements[0].value").value(org.hamcrest.Matchers.greaterThanOrEqualTo(1.0)));
+    }
+
+    @Test
+    void prometheusEndpoint_ShouldExposeHotPathMetrics() throws Exception {
+        // arrange
+        Employee newEmployee = Employee.builder()
+                .firstName("Metered")
+                .lastName("Employee")
+                .email("metered.employee@test.com")
+                .department("Engineering")
+                .salary(BigDecimal.valueOf(3000))
+                .build();
+        mockMvc.perform(post("/api/employees")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(newEmployee)))
+                .andExpect(status().isCreated());
+
+        // act
+        String scrape = mockMvc.perform(get("/actuator/prometheus"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+
+        // assert
+        org.assertj.core.api.Assertions.assertThat(scrape)
+                .contains("employee_service_seconds_bucket{")
+                .contains("method=\"createEmployee\"")
+                .contains("thirdparty_validation_seconds_bucket{")
+                .contains("upstream=\"email\"")
+                .contains("upstream=\"department\"")
+                .contains("resilience4j_circuitbreaker_state{")
+                .contains("executor_queued_tasks{")
+                .contains("executor_active_threads{")
+                .contains("ratelimit_accepted_total{")
+                .contains("ratelimit_rejected_total{")
+                .contains("hikaricp_connections_acquire_seconds_bucket{");
+    }
+
     @Test
     void getEmployeeById_ShouldReturnNotFound_WhenEmployeeDoesNotExist() throws Exception {
         mockMvc.perform(get("/api/employees/{id}", "00000000-0000-0000-0000-000000000000"))
@@ -127,6 +312,94 @@ class EmployeeControllerIntegrationTest {
                 .andExpect(jsonPath("$.department").value("Marketing"));
     }
 
+    @Test
+    void patchEmployee_ShouldMergeOnlyGivenFields_AndRejectStaleVersion() throws Exception {
+        Employee saved = employeeRepository.save(Employee.builder()
+                .firstName("Patch")
+                .lastName("Me")
+                .email("patch.me@test.com")
+                .department("Engineering")
+                .salary(BigDecimal.valueOf(4000))
+                .build());
+
+        mockMvc.perform(patch("/api/employees/{id}", saved.getId())
+                        .contentType(EmployeeController.MERGE_PATCH_VALUE)
+                        .content("{\"salary\": 4500.50, \"version\": 0}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.salary").value(4500.50))
+                .andExpect(jsonPath("$.firstName").value("Patch"))
+                .andExpect(jsonPath("$.department").value("Engineering"))
+                .andExpect(jsonPath("$.version").value(1));
+
+        // still based on version 0
+        mockMvc.perform(patch("/api/employees/{id}", saved.getId())
+                        .contentType(EmployeeController.MERGE_PATCH_VALUE)
+                        .content("{\"firstName\": \"Stale\", \"version\": 0}"))
+                .andExpect(status().isConflict());
+
+        // null clears a field, which a required one can't be
+        mockMvc.perform(patch("/api/employees/{id}", saved.getId())
+                        .contentType(EmployeeController.MERGE_PATCH_VALUE)
+                        .content("{\"lastName\": null}"))
+                .andExpect(status().isBadRequest());
+
+        Employee stored = employeeRepository.findById(saved.getId()).orElseThrow();
+        assertThat(stored.getFirstName()).isEqualTo("Patch");
+        assertThat(stored.getSalary()).isEqualByComparingTo("4500.50");
+        assertThat(stored.getVersion()).isEqualTo(1L);
+    }
+
+    @Test
+    void patchEmployee_ShouldNotLoseUpdates_UnderConcurrentRaises() throws Exception {
+        Employee saved = employeeRepository.save(Employee.builder()
+                .firstName("Contended")
+                .lastName("Employee")
+                .email("contended@test.com")
+                .department("Engineering")
+                .salary(BigDecimal.valueOf(1000))
+                .build());
+        int threads = 8;
+        int raisesPerThread = 10;
+
+        // every thread reads the employee, raises the salary by 1 based on what it read, and retries on 409
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        AtomicInteger conflicts = new AtomicInteger();
+        List<Future<?>> workers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            workers.add(pool.submit(() -> {
+                for (int raise = 0; raise < raisesPerThread; ) {
+                    MvcResult read = mockMvc.perform(get("/api/employees/{id}", saved.getId())).andReturn();
+                    JsonNode employee = objectMapper.readTree(read.getResponse().getContentAsString());
+                    BigDecimal raised = employee.get("salary").decimalValue().add(BigDecimal.ONE);
+                    int status = mockMvc.perform(patch("/api/employees/{id}", saved.getId())
+                                    .contentType(EmployeeController.MERGE_PATCH_VALUE)
+                                    .content("{\"salary\": " + raised + ", \"version\": " + employee.get("version") + "}"))
+                            .andReturn().getResponse().getStatus();
+                    if (status == 200) {
+                        raise++;
+                    } else if (status == 409) {
+                        conflicts.incrementAndGet();
+                    } else {
+                        throw new AssertionError("Unexpected status " + status);
+                    }
+                }
+                return null;
+            }));
+        }
+        for (Future<?> worker : workers) {
+            worker.get(2, TimeUnit.MINUTES);
+        }
+        pool.shutdown();
+
+        // every successful raise is in the final salary, conflicting ones were retried instead of overwriting
+        Employee stored = employeeRepository.findById(saved.getId()).orElseThrow();
+        assertThat(stored.getSalary()).isEqualByComparingTo(BigDecimal.valueOf(1000 + threads * raisesPerThread));
+        assertThat(stored.getVersion()).isEqualTo((long) threads * raisesPerThread);
+        // a conflict means another raise committed between the read and the patch, each one can cost the other
+        // threads at most one retry, so anything beyond that would be conflicts that don't come from contention
+        assertThat(conflicts.get()).isLessThanOrEqualTo(threads * raisesPerThread * (threads - 1));
+    }
+
     @Test
     void deleteEmployee_ShouldReturnNoContent_WhenEmployeeExists() throws Exception {
         Employee saved = employeeRepository.save(Employee.builder()
@@ -163,4 +436,597 @@ class EmployeeControllerIntegrationTest {
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.length()").value(2));
     }
+
+    @Test
+    void getAllEmployees_ShouldPageWithCursor_WhenSizeIsSmallerThanTable() throws Exception {
+        for (int i = 0; i < 3; i++) {
+            employeeRepository.save(Employee.builder()
+                    .firstName("Paged" + i)
+                    .lastName("Employee")
+                    .email("paged" + i + "@test.com")
+                    .department("Engineering")
+                    .salary(BigDecimal.valueOf(5000))
+                    .build());
+        }
+
+        MvcResult firstPage = mockMvc.perform(get("/api/employees").param("size", "2"))
+                .andExpect(status().isOk())
+                .andExpect(header().exists(EmployeeController.NEXT_CURSOR_HEADER))
+                .andExpect(jsonPath("$.length()").value(2))
+                .andReturn();
+
+        String cursor = firstPage.getResponse().getHeader(EmployeeController.NEXT_CURSOR_HEADER);
+
+        mockMvc.perform(get("/api/employees").param("size", "2").param("after", cursor))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(EmployeeController.NEXT_CURSOR_HEADER))
+                .andExpect(jsonPath("$.length()").value(1));
+    }
+
+    @Test
+    void searchEmployees_ShouldFilterAndPageInSortOrder() throws Exception {
+        String[] lastNames = {"Brown", "Baker", "Bell", "Adams", "Black"};
+        for (int i = 0; i < lastNames.length; i++) {
+            employeeRepository.save(Employee.builder()
+                    .firstName("Search" + i)
+                    .lastName(lastNames[i])
+                    .email("search" + i + (i == 3 ? "@Other.com" : "@Corp.com"))
+                    .department(i == 2 ? "HR" : "Engineering")
+                    .salary(BigDecimal.valueOf(5000 + i * 1000))
+                    .build());
+        }
+
+        // Brown, Baker and Black match, Bell is in HR and Adams doesn't start with B
+        MvcResult firstPage = mockMvc.perform(get("/api/employees/search")
+                        .param("department", "Engineering")
+                        .param("lastNamePrefix", "B")
+                        .param("emailDomain", "corp.com")
+                        .param("sort", "lastName")
+                        .param("size", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[*].lastName").value(org.hamcrest.Matchers.contains("Baker", "Black")))
+                .andExpect(header().exists(EmployeeController.NEXT_CURSOR_HEADER))
+                .andReturn();
+
+        String cursor = firstPage.getResponse().getHeader(EmployeeController.NEXT_CURSOR_HEADER);
+
+        mockMvc.perform(get("/api/employees/search")
+                        .param("department", "Engineering")
+                        .param("lastNamePrefix", "B")
+                        .param("emailDomain", "corp.com")
+                        .param("sort", "lastName")
+                        .param("size", "2")
+                        .param("after", cursor))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[*].lastName").value(org.hamcrest.Matchers.contains("Brown")))
+                .andExpect(header().doesNotExist(EmployeeController.NEXT_CURSOR_HEADER));
+
+        mockMvc.perform(get("/api/employees/search")
+                        .param("minSalary", "6000")
+                        .param("maxSalary", "8000")
+                        .param("sort", "salary")
+                        .param("direction", "desc"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[*].lastName").value(org.hamcrest.Matchers.contains("Adams", "Bell", "Baker")));
+
+        // a cursor only works with the sort it came from
+        mockMvc.perform(get("/api/employees/search").param("sort", "salary").param("after", cursor))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void getEmployees_ShouldReturnOnlyRequestedFields_AndStillPage() throws Exception {
+        for (int i = 0; i < 3; i++) {
+            employeeRepository.save(Employee.builder()
+                    .firstName("Sparse" + i)
+                    .lastName("Employee" + i)
+                    .email("sparse" + i + "@test.com")
+                    .department("Engineering")
+                    .salary(BigDecimal.valueOf(5000 + i))
+                    .build());
+        }
+
+        // id isn't asked for, the cursor still works
+        MvcResult firstPage = mockMvc.perform(get("/api/employees").param("size", "2").param("fields", "firstName,department"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[0].firstName").exists())
+                .andExpect(jsonPath("$[0].department").value("Engineering"))
+                .andExpect(jsonPath("$[0].id").doesNotExist())
+                .andExpect(jsonPath("$[0].email").doesNotExist())
+                .andExpect(jsonPath("$[0].salary").doesNotExist())
+                .andExpect(header().exists(EmployeeController.NEXT_CURSOR_HEADER))
+                .andReturn();
+
+        mockMvc.perform(get("/api/employees")
+                        .param("size", "2")
+                        .param("fields", "firstName,department")
+                        .param("after", firstPage.getResponse().getHeader(EmployeeController.NEXT_CURSOR_HEADER)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(header().doesNotExist(EmployeeController.NEXT_CURSOR_HEADER));
+
+        mockMvc.perform(get("/api/employees/search")
+                        .param("sort", "salary")
+                        .param("direction", "desc")
+                        .param("fields", "id,lastName"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[*].lastName").value(org.hamcrest.Matchers.contains("Employee2", "Employee1", "Employee0")))
+                .andExpect(jsonPath("$[0].id").exists())
+                .andExpect(jsonPath("$[0].salary").doesNotExist());
+
+        mockMvc.perform(get("/api/employees").param("fields", "firstName,password"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void departmentStats_ShouldFollowCreateUpdateDelete() throws Exception {
+        // setUp clears the table behind the service's back
+        departmentStatisticsService.reconcile();
+
+        String[] ids = new String[3];
+        for (int i = 0; i < 3; i++) {
+            Employee employee = Employee.builder()
+                    .firstName("Stats" + i)
+                    .lastName("Employee")
+                    .email("stats" + i + "@test.com")
+                    .department("Engineering")
+                    .salary(BigDecimal.valueOf(4000 + i * 1000))
+                    .build();
+            MvcResult created = mockMvc.perform(post("/api/employees")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(employee)))
+                    .andExpect(status().isCreated())
+                    .andReturn();
+            ids[i] = objectMapper.readTree(created.getResponse().getContentAsString()).get("id").asText();
+        }
+
+        // the 4000 one moves to HR, the 6000 one leaves
+        mockMvc.perform(put("/api/employees/{id}", ids[0])
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(Employee.builder()
+                                .firstName("Stats0")
+                                .lastName("Employee")
+                                .email("stats0@test.com")
+                                .department("HR")
+                                .salary(BigDecimal.valueOf(4000))
+                                .build())))
+                .andExpect(status().isOk());
+        mockMvc.perform(delete("/api/employees/{id}", ids[2]))
+                .andExpect(status().isNoContent());
+
+        mockMvc.perform(get("/api/departments/stats"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[0].department").value("Engineering"))
+                .andExpect(jsonPath("$[0].headcount").value(1))
+                .andExpect(jsonPath("$[0].totalSalary").value(5000.0))
+                .andExpect(jsonPath("$[0].maxSalary").value(5000.0))
+                .andExpect(jsonPath("$[1].department").value("HR"))
+                .andExpect(jsonPath("$[1].headcount").value(1));
+
+        // and they agree with the database
+        assertThat(departmentStatisticsService.reconcile()).isFalse();
+    }
+
+    @Test
+    void bulkOperations_ShouldChangeSelectedEmployeesInOneGo() throws Exception {
+        List<Employee> saved = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            saved.add(employeeRepository.save(Employee.builder()
+                    .firstName("Bulk" + i)
+                    .lastName(i < 3 ? "Mover" : "Stayer")
+                    .email("bulk" + i + "@test.com")
+                    .department("Engineering")
+                    .salary(BigDecimal.valueOf(1000))
+                    .build()));
+        }
+        departmentStatisticsService.reconcile();
+        // warm the cache
+        mockMvc.perform(get("/api/employees/{id}", saved.get(2).getId()))
+                .andExpect(jsonPath("$.department").value("Engineering"));
+
+        // by filter
+        mockMvc.perform(post("/api/employees/bulk/transfer")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"filter\":{\"lastNamePrefix\":\"Mov\"},\"department\":\"HR\"}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.operation").value("transfer"))
+                .andExpect(jsonPath("$.affected").value(3));
+
+        // by ids, a 10% raise for two of the movers
+        String ids = objectMapper.writeValueAsString(List.of(saved.get(0).getId(), saved.get(1).getId()));
+        mockMvc.perform(post("/api/employees/bulk/salary")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"ids\":" + ids + ",\"percent\":10}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.affected").value(2));
+
+        // all or nothing: 1000 can't take a cut of 1050
+        mockMvc.perform(post("/api/employees/bulk/salary")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"filter\":{\"department\":\"HR\"},\"amount\":-1050}"))
+                .andExpect(status().isBadRequest());
+
+        // nothing selected is never "everyone"
+        mockMvc.perform(post("/api/employees/bulk/delete")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"filter\":{}}"))
+                .andExpect(status().isBadRequest());
+
+        Employee raised = employeeRepository.findById(saved.get(0).getId()).orElseThrow();
+        assertThat(raised.getDepartment()).isEqualTo("HR");
+        assertThat(raised.getSalary()).isEqualByComparingTo("1100");
+        assertThat(raised.getVersion()).isEqualTo(saved.get(0).getVersion() + 2);
+        assertThat(employeeRepository.findById(saved.get(3).getId()).orElseThrow().getDepartment())
+                .isEqualTo("Engineering");
+
+        // a cached read from before must not survive the bulk change
+        mockMvc.perform(get("/api/employees/{id}", saved.get(2).getId()))
+                .andExpect(jsonPath("$.department").value("HR"));
+
+        mockMvc.perform(post("/api/employees/bulk/delete")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"filter\":{\"department\":\"HR\",\"minSalary\":1050}}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.affected").value(2));
+
+        assertThat(employeeRepository.count()).isEqualTo(2);
+        // the stats catch up with bulk changes in the background
+        await().atMost(Duration.ofSeconds(5)).untilAsserted(() -> mockMvc.perform(get("/api/departments/stats"))
+                .andExpect(jsonPath("$[1].department").value("HR"))
+                .andExpect(jsonPath("$[1].headcount").value(1)));
+        assertThat(departmentStatisticsService.reconcile()).isFalse();
+    }
+
+    @Test
+    void departmentStats_ShouldMatchTheDatabase_AfterBulkChangesDuringSingleUpdates() throws Exception {
+        List<Employee> stayers = new ArrayList<>();
+        for (int i = 0; i < 60; i++) {
+            Employee employee = employeeRepository.save(Employee.builder()
+                    .firstName("Busy" + i)
+                    .lastName(i < 40 ? "Mover" : "Stayer")
+                    .email("busy" + i + "@test.com")
+                    .department("Engineering")
+                    .salary(BigDecimal.valueOf(1000))
+                    .build());
+            if (i >= 40) {
+                stayers.add(employee);
+            }
+        }
+        departmentStatisticsService.reconcile();
+
+        // the stayers keep getting raises and moving between departments while the movers are moved in bulk
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        List<Future<?>> writers = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            List<Employee> mine = stayers.subList(t * 5, t * 5 + 5);
+            writers.add(pool.submit(() -> {
+                for (int round = 0; round < 10; round++) {
+                    for (Employee employee : mine) {
+                        mockMvc.perform(patch("/api/employees/{id}", employee.getId())
+                                        .contentType(EmployeeController.MERGE_PATCH_VALUE)
+                                        .content("{\"salary\": " + (1000 + round) + ", \"department\": \""
+                                                + (round % 2 == 0 ? "Sales" : "Engineering") + "\"}"))
+                                .andExpect(status().isOk());
+                    }
+                }
+                return null;
+            }));
+        }
+        for (String department : List.of("HR", "Finance", "HR")) {
+            mockMvc.perform(post("/api/employees/bulk/transfer")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content("{\"filter\":{\"lastNamePrefix\":\"Mov\"},\"department\":\"" + department + "\"}"))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.affected").value(40));
+            mockMvc.perform(post("/api/employees/bulk/salary")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content("{\"filter\":{\"lastNamePrefix\":\"Mov\"},\"amount\":5}"))
+                    .andExpect(status().isOk());
+        }
+        for (Future<?> writer : writers) {
+            writer.get(2, TimeUnit.MINUTES);
+        }
+        pool.shutdown();
+
+        // once the background rebuilds are done the stats agree with the table, a double count would stay
+        // until the next scheduled reconcile
+        await().atMost(Duration.ofSeconds(10)).untilAsserted(() ->
+                assertThat(statsByDepartment(departmentStatisticsService.getStatistics()))
+                        .isEqualTo(statsFromDatabase()));
+        assertThat(departmentStatisticsService.reconcile()).isFalse();
+    }
+
+    private static Map<String, String> statsByDepartment(List<DepartmentStats> stats) {
+        Map<String, String> byDepartment = new TreeMap<>();
+        stats.forEach(department -> byDepartment.put(department.getDepartment(),
+                department.getHeadcount() + " / " + department.getTotalSalary().stripTrailingZeros().toPlainString()));
+        return byDepartment;
+    }
+
+    private Map<String, String> statsFromDatabase() {
+        Map<String, Long> headcounts = new TreeMap<>();
+        Map<String, BigDecimal> totals = new TreeMap<>();
+        for (Employee employee : employeeRepository.findAll()) {
+            headcounts.merge(employee.getDepartment(), 1L, Long::sum);
+            totals.merge(employee.getDepartment(), employee.getSalary(), BigDecimal::add);
+        }
+        Map<String, String> byDepartment = new TreeMap<>();
+        headcounts.forEach((department, headcount) -> byDepartment.put(department,
+                headcount + " / " + totals.get(department).stripTrailingZeros().toPlainString()));
+        return byDepartment;
+    }
+
+    @Test
+    void typeahead_ShouldFollowCreatesUpdatesAndDeletes() throws Exception {
+        MvcResult created = mockMvc.perform(post("/api/employees")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(Employee.builder()
+                                .firstName("Zoë")
+                                .lastName("Typeahead")
+                                .email("zoe.typeahead@test.com")
+                                .department("Engineering")
+                                .salary(BigDecimal.valueOf(4000))
+                                .build())))
+                .andExpect(status().isCreated())
+                .andReturn();
+        String id = objectMapper.readTree(created.getResponse().getContentAsString()).get("id").asText();
+
+        mockMvc.perform(get("/api/employees/typeahead").param("q", "zoe t"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].id").value(id))
+                .andExpect(jsonPath("$[0].firstName").value("Zoë"))
+                .andExpect(jsonPath("$[0].department").value("Engineering"));
+
+        mockMvc.perform(patch("/api/employees/{id}", id)
+                        .contentType(EmployeeController.MERGE_PATCH_VALUE)
+                        .content("{\"lastName\": \"Renamed\"}"))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/api/employees/typeahead").param("q", "typeahead"))
+                .andExpect(jsonPath("$.length()").value(0));
+        mockMvc.perform(get("/api/employees/typeahead").param("q", "RENAM"))
+                .andExpect(jsonPath("$[0].lastName").value("Renamed"));
+
+        mockMvc.perform(delete("/api/employees/{id}", id))
+                .andExpect(status().isNoContent());
+        mockMvc.perform(get("/api/employees/typeahead").param("q", "zoe"))
+                .andExpect(jsonPath("$.length()").value(0));
+
+        mockMvc.perform(get("/api/employees/typeahead").param("q", " "))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void salaryAnalytics_ShouldFollowWrites() throws Exception {
+        List<String> ids = new ArrayList<>();
+        for (int salary : new int[]{1000, 2000, 3000}) {
+            MvcResult created = mockMvc.perform(post("/api/employees")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(Employee.builder()
+                                    .firstName("Ana")
+                                    .lastName("Lytics")
+                                    .email("ana.lytics." + salary + "@test.com")
+                                    .department("Analytics")
+                                    .salary(BigDecimal.valueOf(salary))
+                                    .build())))
+                    .andExpect(status().isCreated())
+                    .andReturn();
+            ids.add(objectMapper.readTree(created.getResponse().getContentAsString()).get("id").asText());
+        }
+
+        // writes reach the snapshot on its writer thread, shortly after the response
+        await().atMost(Duration.ofSeconds(5)).untilAsserted(() -> mockMvc.perform(get("/api/analytics/salaries/percentiles")
+                        .param("department", "Analytics").param("p", "50,100"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.headcount").value(3))
+                .andExpect(jsonPath("$.percentiles.p50").value(2000.00))
+                .andExpect(jsonPath("$.percentiles.p100").value(3000.00)));
+
+        mockMvc.perform(patch("/api/employees/{id}", ids.get(2))
+                        .contentType(EmployeeController.MERGE_PATCH_VALUE)
+                        .content("{\"salary\": 5000}"))
+                .andExpect(status().isOk());
+        mockMvc.perform(delete("/api/employees/{id}", ids.get(0)))
+                .andExpect(status().isNoContent());
+
+        await().atMost(Duration.ofSeconds(5)).untilAsserted(() -> mockMvc.perform(get("/api/analytics/salaries/histogram")
+                        .param("department", "Analytics").param("buckets", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.headcount").value(2))
+                .andExpect(jsonPath("$.buckets[0].from").value(2000.00))
+                .andExpect(jsonPath("$.buckets[0].count").value(1))
+                .andExpect(jsonPath("$.buckets[1].count").value(1)));
+        mockMvc.perform(get("/api/analytics/salaries/departments"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[?(@.department == 'Analytics')].median").value(3500.00));
+
+        mockMvc.perform(get("/api/analytics/salaries/percentiles").param("p", "101"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/analytics/salaries/histogram").param("buckets", "0"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void getAllEmployees_ShouldReturnBadRequest_WhenSizeTooLarge() throws Exception {
+        mockMvc.perform(get("/api/employees").param("size", "100000"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void streamEmployees_ShouldWriteOneJsonLinePerEmployee() throws Exception {
+        employeeRepository.save(Employee.builder()
+                .firstName("Streamed")
+                .lastName("Employee")
+                .email("streamed.employee@test.com")
+                .department("Engineering")
+                .salary(BigDecimal.valueOf(5000))
+                .build());
+
+        MvcResult result = mockMvc.perform(get("/api/employees/stream"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(EmployeeController.NDJSON_VALUE))
+                .andExpect(content().string(org.hamcrest.Matchers.endsWith("}\n")))
+                .andExpect(content().string(org.hamcrest.Matchers.containsString("\"email\":\"streamed.employee@test.com\"")));
+    }
+
+    @Test
+    void streamEmployeesCsv_ShouldWriteHeaderAndOneLinePerEmployee() throws Exception {
+        employeeRepository.save(Employee.builder()
+                .firstName("Streamed")
+                .lastName("Employee, Jr.")
+                .email("streamed.csv@test.com")
+                .department("Engineering")
+                .salary(new BigDecimal("5000.50"))
+                .build());
+
+        MvcResult result = mockMvc.perform(get("/api/employees/stream").accept(EmployeeController.CSV_VALUE))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        String csv = mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(EmployeeController.CSV_VALUE))
+                .andReturn().getResponse().getContentAsString();
+        String[] lines = csv.split("\n");
+        assertThat(lines).hasSize(2);
+        assertThat(lines[0]).isEqualTo("id,firstName,lastName,email,department,salary,version");
+        assertThat(lines[1]).endsWith(",Streamed,\"Employee, Jr.\",streamed.csv@test.com,Engineering,5000.50,0");
+    }
+
+    @Test
+    void importEmployees_ShouldCommitValidRowsAndReportTheRest() throws Exception {
+        String csv = """
+                firstName,lastName,email,department,salary
+                Imported,One,imported.one@test.com,Engineering,4000
+                Imported,Two,imported.two@test.com,Engineering,4100
+
+                Imported,Three,not-an-email,Engineering,4200
+                Imported,Four,imported.four@test.com,Engineering,lots
+                Imported,Five,imported.one@test.com,Engineering,4300
+                Imported,Six,imported.six@test.com,HR,4400
+                Imported,"Seven
+                Lines",imported.seven@test.com,HR,4500
+                """;
+
+        MvcResult created = mockMvc.perform(post("/api/employees/imports")
+                        .contentType(EmployeeController.CSV_VALUE)
+                        .content(csv))
+                .andExpect(status().isAccepted())
+                .andExpect(header().exists("Location"))
+                .andExpect(jsonPath("$.format").value("CSV"))
+                .andReturn();
+        String jobId = objectMapper.readTree(created.getResponse().getContentAsString()).get("id").asText();
+
+        JsonNode job = awaitImport(jobId);
+        assertThat(job.get("status").asText()).isEqualTo("COMPLETED");
+        assertThat(job.get("imported").asLong()).isEqualTo(4);
+        assertThat(job.get("failed").asLong()).isEqualTo(3);
+        assertThat(job.get("linesProcessed").asLong()).isEqualTo(10);
+        assertThat(employeeRepository.count()).isEqualTo(4);
+        // a quoted value may span lines
+        assertThat(employeeRepository.findAll()).extracting(Employee::getLastName).contains("Seven\nLines");
+
+        // lines of the file, the header is line 1
+        mockMvc.perform(get("/api/employees/imports/{id}/errors", jobId).param("size", "2"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(EmployeeController.NEXT_CURSOR_HEADER, "6"))
+                .andExpect(jsonPath("$[0].lineNumber").value(5))
+                .andExpect(jsonPath("$[0].message").value(org.hamcrest.Matchers.startsWith("Validation failed")))
+                .andExpect(jsonPath("$[1].lineNumber").value(6))
+                .andExpect(jsonPath("$[1].message").value(org.hamcrest.Matchers.startsWith("Unreadable row")));
+        mockMvc.perform(get("/api/employees/imports/{id}/errors", jobId).param("after", "6"))
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].lineNumber").value(7))
+                .andExpect(jsonPath("$[0].message").value(org.hamcrest.Matchers.containsString("already exists")));
+    }
+
+    @Test
+    void importEmployees_ShouldRejectUpload_WhenLargerThanMaxFileSize() throws Exception {
+        String csv = "firstName,lastName,email,department,salary\n"
+                + "Too,Big,too.big@test.com,Engineering,4000\n".repeat(100);
+        long jobs = importJobRepository.count();
+
+        mockMvc.perform(post("/api/employees/imports")
+                        .contentType(EmployeeController.CSV_VALUE)
+                        .content(csv))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value(org.hamcrest.Matchers.containsString("larger than")));
+        assertThat(importJobRepository.count()).isEqualTo(jobs);
+    }
+
+    @Test
+    void importEmployees_ShouldCarryOnFromCheckpoint_AfterRestart() throws Exception {
+        // a job that went down after committing lines 1-3 and part of the next chunk (line 4)
+        Path file = Path.of("target/imports", UUID.randomUUID() + ".ndjson");
+        Files.createDirectories(file.getParent());
+        List<String> lines = new ArrayList<>();
+        for (int i = 1; i <= 5; i++) {
+            lines.add(objectMapper.writeValueAsString(Employee.builder()
+                    .firstName("Resumed" + i)
+                    .lastName("Employee")
+                    .email("resumed" + i + "@test.com")
+                    .department("Engineering")
+                    .salary(BigDecimal.valueOf(3000))
+                    .build()));
+        }
+        Files.write(file, lines);
+        employeeRepository.save(Employee.builder()
+                .firstName("Resumed4")
+                .lastName("Employee")
+                .email("resumed4@test.com")
+                .department("Engineering")
+                .salary(BigDecimal.valueOf(3000))
+                .build());
+        ImportJob job = importJobRepository.save(ImportJob.builder()
+                .format(ImportFormat.NDJSON)
+                .status(ImportStatus.RUNNING)
+                .fileName(file.getFileName().toString())
+                .fileSize(Files.size(file))
+                .owner("test-instance")
+                .linesProcessed(3)
+                .imported(3)
+                .createdAt(Instant.now())
+                .build());
+        // its file is on another instance's disk, that one carries on with it
+        importJobRepository.save(ImportJob.builder()
+                .format(ImportFormat.NDJSON)
+                .status(ImportStatus.RUNNING)
+                .fileName(UUID.randomUUID() + ".ndjson")
+                .owner("other-instance")
+                .createdAt(Instant.now())
+                .build());
+
+        assertThat(importService.resumeUnfinishedImports()).isEqualTo(1);
+
+        JsonNode resumed = awaitImport(job.getId().toString());
+        assertThat(resumed.get("status").asText()).isEqualTo("COMPLETED");
+        assertThat(resumed.get("imported").asLong()).isEqualTo(4);
+        assertThat(resumed.get("skipped").asLong()).isEqualTo(1);
+        assertThat(resumed.get("failed").asLong()).isZero();
+        assertThat(employeeRepository.findAll()).extracting(Employee::getEmail)
+                .containsExactlyInAnyOrder("resumed4@test.com", "resumed5@test.com");
+        assertThat(file).doesNotExist();
+    }
+
+    private JsonNode awaitImport(String jobId) throws Exception {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(20);
+        while (true) {
+            MvcResult result = mockMvc.perform(get("/api/employees/imports/{id}", jobId))
+                    .andExpect(status().isOk())
+                    .andReturn();
+            JsonNode job = objectMapper.readTree(result.getResponse().getContentAsString());
+            String status = job.get("status").asText();
+            if (!status.equals("QUEUED") && !status.equals("RUNNING")) {
+                return job;
+            }
+            assertThat(System.nanoTime()).as("import %s still %s", jobId, status).isLessThan(deadline);
+            Thread.sleep(50);
+        }
+    }
 }
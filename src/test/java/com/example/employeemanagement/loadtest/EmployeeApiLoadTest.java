@@ -0,0 +1,311 @@
+package com.example.employeemanagement.loadtest;
+
+import com.example.employeemanagement.entity.Employee;
+import com.example.employeemanagement.repository.EmployeeRepository;
+import com.icegreen.greenmail.junit5.GreenMailExtension;
+import com.icegreen.greenmail.util.ServerSetupTest;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.SynchronizedHistogram;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+// macro load test: the whole app on a real port with H2, the simulated validators and GreenMail as SMTP server,
+// driven with a mixed create/read/update/delete/list workload at a fixed rate. requests are sent on schedule
+// whether or not earlier ones have come back (open model), and latency is measured from when a request was
+// due, so a stall shows up as latency instead of silently lowering the rate.
+//
+// not part of the normal build, run it with the loadtest profile (see "Load Test" in the README):
+//   ./mvnw -Ploadtest test -Dloadtest.rate=100 -Dloadtest.duration=60s
+@Tag("load")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.mail.host=localhost",
+        "spring.mail.port=3025",
+        "spring.mail.username=",
+        "spring.mail.password=",
+        "spring.mail.properties.mail.smtp.auth=false",
+        "spring.mail.properties.mail.smtp.starttls.enable=false",
+        "notification.outbox.dispatcher.enabled=true",
+        "notification.outbox.poll-interval=500ms",
+        "spring.jpa.show-sql=false",
+        "logging.level.com.example.employeemanagement=WARN"
+})
+@ActiveProfiles("test")
+class EmployeeApiLoadTest {
+
+    private static final String THREADS = System.getProperty("loadtest.threads", "platform");
+    private static final double RATE = Double.parseDouble(System.getProperty("loadtest.rate", "100"));
+    private static final Duration WARMUP = Duration.parse("PT" + System.getProperty("loadtest.warmup", "30s"));
+    private static final Duration DURATION = Duration.parse("PT" + System.getProperty("loadtest.duration", "60s"));
+    private static final Path BASELINE = Path.of(System.getProperty("loadtest.baseline",
+            "src/test/resources/loadtest/baseline-" + THREADS + ".json"));
+    private static final boolean UPDATE_BASELINE = Boolean.getBoolean("loadtest.update-baseline");
+    // allowed growth over the baseline, the tail is noisier than the median so it gets more room
+    private static final double P50_THRESHOLD = Double.parseDouble(System.getProperty("loadtest.threshold.p50", "0.3"));
+    private static final double P99_THRESHOLD = Double.parseDouble(System.getProperty("loadtest.threshold.p99", "0.6"));
+    private static final double SLACK_MILLIS = Double.parseDouble(System.getProperty("loadtest.slack-ms", "5"));
+    private static final Path OUTPUT = Path.of("target/loadtest", THREADS);
+
+    private static final int SEED_EMPLOYEES = 1_000;
+
+    // share of each operation in the traffic, adds up to 100
+    private static final Map<Operation, Integer> MIX = Map.of(
+            Operation.CREATE, 20,
+            Operation.READ, 45,
+            Operation.UPDATE, 15,
+            Operation.DELETE, 5,
+            Operation.LIST, 15);
+
+    @RegisterExtension
+    static GreenMailExtension greenMail = new GreenMailExtension(ServerSetupTest.SMTP);
+
+    @DynamicPropertySource
+    static void threads(DynamicPropertyRegistry registry) {
+        registry.add("spring.threads.virtual.enabled", () -> "virtual".equals(THREADS));
+    }
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private EmployeeRepository employeeRepository;
+
+    private final HttpClient client = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .executor(Executors.newCachedThreadPool())
+            .build();
+    private final AtomicLong emailSequence = new AtomicLong();
+    private final List<Employee> seeded = new ArrayList<>();
+    // only employees the test created itself get deleted, reads and updates stay on the seeded ones
+    private final ConcurrentLinkedQueue<UUID> deletable = new ConcurrentLinkedQueue<>();
+
+    enum Operation {
+        CREATE("POST /api/employees"),
+        READ("GET /api/employees/{id}"),
+        UPDATE("PUT /api/employees/{id}"),
+        DELETE("DELETE /api/employees/{id}"),
+        LIST("GET /api/employees");
+
+        final String endpoint;
+
+        Operation(String endpoint) {
+            this.endpoint = endpoint;
+        }
+    }
+
+    @Test
+    void mixedTraffic_ShouldStayWithinBaseline() throws Exception {
+        assumeTrue(!"virtual".equals(THREADS) || Runtime.version().feature() >= 21,
+                "virtual threads need a java 21 runtime");
+        seed();
+
+        run(WARMUP);
+        Map<Operation, Recording> recordings = run(DURATION);
+        LoadTestReport report = report(recordings);
+
+        System.out.println(report.table());
+        report.write(OUTPUT.resolve("report.json"));
+        writeHistograms(recordings);
+
+        assertThat(report.endpoints().values())
+                .as("server errors")
+                .allSatisfy(stats -> assertThat(stats.errors()).isZero());
+        assertThat(report.totalThroughput())
+                .as("achieved throughput, the app (or this machine) couldn't keep up with %s req/s", RATE)
+                .isGreaterThan(RATE * 0.95);
+
+        if (UPDATE_BASELINE || !Files.exists(BASELINE)) {
+            report.write(BASELINE);
+            System.out.println("Recorded new load test baseline at " + BASELINE);
+            return;
+        }
+        LoadTestReport baseline = LoadTestReport.read(BASELINE);
+        assertThat(baseline.targetRate())
+                .as("baseline %s was recorded at a different rate, latencies aren't comparable", BASELINE)
+                .isEqualTo(RATE);
+        List<String> regressions = report.regressionsAgainst(baseline, P50_THRESHOLD, P99_THRESHOLD, SLACK_MILLIS);
+        assertThat(regressions).as("latency regressions against " + BASELINE).isEmpty();
+    }
+
+    private void seed() {
+        List<Employee> employees = new ArrayList<>(SEED_EMPLOYEES);
+        for (int i = 0; i < SEED_EMPLOYEES; i++) {
+            employees.add(employee("load.seed" + i + "@test.com"));
+        }
+        seeded.addAll(employeeRepository.saveAll(employees));
+    }
+
+    private Map<Operation, Recording> run(Duration duration) throws InterruptedException {
+        Map<Operation, Recording> recordings = new LinkedHashMap<>();
+        for (Operation operation : Operation.values()) {
+            recordings.put(operation, new Recording());
+        }
+        AtomicInteger inFlight = new AtomicInteger();
+        long intervalNanos = (long) (TimeUnit.SECONDS.toNanos(1) / RATE);
+        long start = System.nanoTime();
+        long end = start + duration.toNanos();
+
+        for (long due = start; due < end; due += intervalNanos) {
+            long wait = due - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            Operation operation = pick();
+            Recording recording = recordings.get(operation);
+            long dueAt = due;
+            inFlight.incrementAndGet();
+            client.sendAsync(request(operation), HttpResponse.BodyHandlers.ofString())
+                    .whenComplete((response, failure) -> {
+                        recording.record(System.nanoTime() - dueAt, failure != null || response.statusCode() >= 500);
+                        if (failure == null && operation == Operation.CREATE && response.statusCode() == 201) {
+                            deletable.add(UUID.fromString(response.body().replaceAll(".*\"id\":\"([^\"]+)\".*", "$1")));
+                        }
+                        inFlight.decrementAndGet();
+                    });
+        }
+
+        long drainDeadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+        while (inFlight.get() > 0 && System.nanoTime() < drainDeadline) {
+            Thread.sleep(10);
+        }
+        for (Recording recording : recordings.values()) {
+            recording.seconds = (System.nanoTime() - start) / 1e9;
+        }
+        return recordings;
+    }
+
+    private Operation pick() {
+        int roll = ThreadLocalRandom.current().nextInt(100);
+        for (Operation operation : Operation.values()) {
+            roll -= MIX.get(operation);
+            if (roll < 0) {
+                return operation == Operation.DELETE && deletable.isEmpty() ? Operation.READ : operation;
+            }
+        }
+        return Operation.READ;
+    }
+
+    private HttpRequest request(Operation operation) {
+        String base = "http://localhost:" + port + "/api/employees";
+        Employee target = seeded.get(ThreadLocalRandom.current().nextInt(seeded.size()));
+        return switch (operation) {
+            case CREATE -> json(HttpRequest.newBuilder(URI.create(base)), "POST",
+                    employee("load" + emailSequence.incrementAndGet() + "@test.com"));
+            case READ -> HttpRequest.newBuilder(URI.create(base + "/" + target.getId())).GET().build();
+            case UPDATE -> {
+                // same email and department, so this measures the update itself rather than re-validation
+                Employee employee = employee(target.getEmail());
+                employee.setSalary(BigDecimal.valueOf(ThreadLocalRandom.current().nextInt(40_000, 90_000)));
+                yield json(HttpRequest.newBuilder(URI.create(base + "/" + target.getId())), "PUT", employee);
+            }
+            case DELETE -> {
+                UUID id = deletable.poll();
+                yield id == null
+                        ? HttpRequest.newBuilder(URI.create(base + "/" + target.getId())).GET().build()
+                        : HttpRequest.newBuilder(URI.create(base + "/" + id)).DELETE().build();
+            }
+            case LIST -> HttpRequest.newBuilder(URI.create(base + "?size=50")).GET().build();
+        };
+    }
+
+    private HttpRequest json(HttpRequest.Builder builder, String method, Employee employee) {
+        String body = String.format(
+                "{\"firstName\":\"%s\",\"lastName\":\"%s\",\"email\":\"%s\",\"department\":\"%s\",\"salary\":%s}",
+                employee.getFirstName(), employee.getLastName(), employee.getEmail(), employee.getDepartment(),
+                employee.getSalary().toPlainString());
+        return builder.header("Content-Type", "application/json")
+                .method(method, HttpRequest.BodyPublishers.ofString(body))
+                .build();
+    }
+
+    private Employee employee(String email) {
+        return Employee.builder()
+                .firstName("Load")
+                .lastName("Test")
+                .email(email)
+                .department("Engineering")
+                .salary(new BigDecimal("50000.00"))
+                .build();
+    }
+
+    private LoadTestReport report(Map<Operation, Recording> recordings) {
+        Map<String, LoadTestReport.EndpointStats> endpoints = new LinkedHashMap<>();
+        double seconds = 0;
+        for (Map.Entry<Operation, Recording> entry : recordings.entrySet()) {
+            Recording recording = entry.getValue();
+            Histogram histogram = recording.histogram;
+            seconds = recording.seconds;
+            endpoints.put(entry.getKey().endpoint, new LoadTestReport.EndpointStats(
+                    histogram.getTotalCount(),
+                    recording.errors.get(),
+                    histogram.getTotalCount() / recording.seconds,
+                    millis(histogram.getValueAtPercentile(50)),
+                    millis(histogram.getValueAtPercentile(99)),
+                    millis(histogram.getValueAtPercentile(99.9)),
+                    millis(histogram.getMaxValue())));
+        }
+        return new LoadTestReport(THREADS, RATE, seconds, endpoints);
+    }
+
+    // full percentile distributions in HdrHistogram's .hgrm format, they can be plotted with its online plotter
+    private void writeHistograms(Map<Operation, Recording> recordings) throws IOException {
+        Files.createDirectories(OUTPUT);
+        for (Map.Entry<Operation, Recording> entry : recordings.entrySet()) {
+            Path file = OUTPUT.resolve(entry.getKey().name().toLowerCase() + ".hgrm");
+            try (PrintStream out = new PrintStream(Files.newOutputStream(file))) {
+                // recorded in microseconds, printed in milliseconds
+                entry.getValue().histogram.outputPercentileDistribution(out, 1000.0);
+            }
+        }
+    }
+
+    private static double millis(long micros) {
+        return micros / 1000.0;
+    }
+
+    private static class Recording {
+        // microseconds, up to a minute, 3 significant digits
+        private final Histogram histogram = new SynchronizedHistogram(TimeUnit.MINUTES.toMicros(1), 3);
+        private final AtomicLong errors = new AtomicLong();
+        private double seconds;
+
+        void record(long nanos, boolean error) {
+            histogram.recordValue(Math.min(TimeUnit.NANOSECONDS.toMicros(nanos), histogram.getHighestTrackableValue()));
+            if (error) {
+                errors.incrementAndGet();
+            }
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package com.example.employeemanagement.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+// what a load test run produced, per endpoint. stored as JSON so a run can serve as the baseline for the next one
+record LoadTestReport(String threads, double targetRate, double seconds, Map<String, EndpointStats> endpoints) {
+
+    private static final ObjectMapper MAPPER = JsonMapper.builder()
+            .enable(SerializationFeature.INDENT_OUTPUT)
+            .build();
+
+    record EndpointStats(long requests, long errors, double throughput,
+                         double p50Millis, double p99Millis, double p999Millis, double maxMillis) {
+    }
+
+    static LoadTestReport read(Path file) throws IOException {
+        return MAPPER.readValue(file.toFile(), LoadTestReport.class);
+    }
+
+    void write(Path file) throws IOException {
+        Files.createDirectories(file.toAbsolutePath().getParent());
+        MAPPER.writeValue(file.toFile(), this);
+    }
+
+    double totalThroughput() {
+        return endpoints.values().stream().mapToDouble(EndpointStats::throughput).sum();
+    }
+
+    // p50 and p99 of every endpoint in the baseline must stay within a relative threshold plus an absolute slack
+    // (so millisecond-level endpoints don't fail on scheduler noise). p999 is reported but too noisy to gate on
+    List<String> regressionsAgainst(LoadTestReport baseline, double p50Threshold, double p99Threshold,
+                                    double slackMillis) {
+        List<String> regressions = new ArrayList<>();
+        for (Map.Entry<String, EndpointStats> entry : baseline.endpoints().entrySet()) {
+            EndpointStats before = entry.getValue();
+            EndpointStats after = endpoints.get(entry.getKey());
+            if (after == null) {
+                regressions.add(entry.getKey() + ": no requests in this run");
+                continue;
+            }
+            check(regressions, entry.getKey(), "p50", before.p50Millis(), after.p50Millis(), p50Threshold, slackMillis);
+            check(regressions, entry.getKey(), "p99", before.p99Millis(), after.p99Millis(), p99Threshold, slackMillis);
+        }
+        return regressions;
+    }
+
+    String table() {
+        StringBuilder table = new StringBuilder(String.format("%-30s %9s %7s %9s %9s %9s %9s %9s%n",
+                "endpoint (" + threads + " threads)", "requests", "errors", "req/s", "p50 ms", "p99 ms", "p999 ms", "max ms"));
+        for (Map.Entry<String, EndpointStats> entry : endpoints.entrySet()) {
+            EndpointStats stats = entry.getValue();
+            table.append(String.format("%-30s %9d %7d %9.1f %9.2f %9.2f %9.2f %9.2f%n", entry.getKey(), stats.requests(),
+                    stats.errors(), stats.throughput(), stats.p50Millis(), stats.p99Millis(), stats.p999Millis(),
+                    stats.maxMillis()));
+        }
+        return table.toString();
+    }
+
+    private static void check(List<String> regressions, String endpoint, String percentile,
+                              double before, double after, double threshold, double slackMillis) {
+        double allowed = before * (1 + threshold) + slackMillis;
+        if (after > allowed) {
+            regressions.add(String.format("%s %s: %.2f ms, baseline %.2f ms (allowed up to %.2f ms)",
+                    endpoint, percentile, after, before, allowed));
+        }
+    }
+}
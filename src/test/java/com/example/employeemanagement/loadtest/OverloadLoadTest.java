@@ -0,0 +1,289 @@
+package com.example.employeemanagement.loadtest;
+
+import com.example.employeemanagement.entity.Employee;
+import com.example.employeemanagement.repository.EmployeeRepository;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.SynchronizedHistogram;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// overload test for ConcurrencyLimitFilter: every request has to go through a dependency that can work on
+// DEPENDENCY_SLOTS requests at a time and takes DEPENDENCY_MILLIS for each (think of a small database pool), so the
+// app can't do more than slots / millis requests a second. it's driven at a calm rate first, then at several times
+// what it can do, open model like EmployeeApiLoadTest. with the limiter the requests it lets in keep a p99 close to
+// the calm one and the rest get a fast 503; without it (-Dloadtest.limiter=false) every request queues and latency
+// keeps growing for as long as the overload lasts.
+//
+// not part of the normal build (see "Load Test" in the README):
+//   ./mvnw -Ploadtest test -Dtest=OverloadLoadTest
+@Tag("load")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.jpa.show-sql=false",
+        "logging.level.com.example.employeemanagement=WARN"
+})
+@ActiveProfiles("test")
+class OverloadLoadTest {
+
+    private static final int DEPENDENCY_SLOTS = 4;
+    private static final long DEPENDENCY_MILLIS = 20;
+    private static final double CAPACITY = DEPENDENCY_SLOTS * 1000.0 / DEPENDENCY_MILLIS;
+
+    private static final boolean LIMITER = Boolean.parseBoolean(System.getProperty("loadtest.limiter", "true"));
+    private static final double CALM_RATE = Double.parseDouble(System.getProperty("loadtest.calm-rate", "80"));
+    private static final double OVERLOAD_RATE = Double.parseDouble(System.getProperty("loadtest.overload-rate", "500"));
+    private static final Duration WARMUP = Duration.parse("PT" + System.getProperty("loadtest.warmup", "10s"));
+    private static final Duration DURATION = Duration.parse("PT" + System.getProperty("loadtest.duration", "30s"));
+    // how much the p99 of admitted requests may grow over the calm one, plus an absolute slack for scheduler noise
+    private static final double MAX_P99_GROWTH = Double.parseDouble(System.getProperty("loadtest.overload.max-p99-growth", "4"));
+    private static final double SLACK_MILLIS = Double.parseDouble(System.getProperty("loadtest.slack-ms", "20"));
+    private static final Path OUTPUT = Path.of("target/loadtest/overload");
+
+    private static final int SEED_EMPLOYEES = 200;
+    // share of reads, the rest are updates
+    private static final int READ_PERCENT = 70;
+
+    @DynamicPropertySource
+    static void limiter(DynamicPropertyRegistry registry) {
+        registry.add("concurrencylimit.enabled", () -> LIMITER);
+    }
+
+    @TestConfiguration
+    static class SlowDependency implements WebMvcConfigurer {
+
+        private final Semaphore slots = new Semaphore(DEPENDENCY_SLOTS, true);
+
+        @Override
+        public void addInterceptors(InterceptorRegistry registry) {
+            registry.addInterceptor(new HandlerInterceptor() {
+                @Override
+                public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler)
+                        throws InterruptedException {
+                    slots.acquire();
+                    try {
+                        Thread.sleep(DEPENDENCY_MILLIS);
+                    } finally {
+                        slots.release();
+                    }
+                    return true;
+                }
+            }).addPathPatterns("/api/**");
+        }
+    }
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private EmployeeRepository employeeRepository;
+
+    private final HttpClient client = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .executor(Executors.newCachedThreadPool())
+            .build();
+    private final List<Employee> seeded = new ArrayList<>();
+
+    @Test
+    void overload_ShouldShedExcess_AndKeepLatencyOfAdmittedRequestsStable() throws Exception {
+        seed();
+
+        run(CALM_RATE, WARMUP);
+        Map<String, Recording> calm = run(CALM_RATE, DURATION);
+        Map<String, Recording> overload = run(OVERLOAD_RATE, DURATION);
+
+        LoadTestReport calmReport = report(CALM_RATE, calm);
+        LoadTestReport overloadReport = report(OVERLOAD_RATE, overload);
+        System.out.printf("capacity %.0f req/s, limiter %s%n", CAPACITY, LIMITER ? "on" : "off");
+        System.out.printf("calm, %.0f req/s%n%s%n", CALM_RATE, calmReport.table());
+        System.out.printf("overload, %.0f req/s%n%s%n", OVERLOAD_RATE, overloadReport.table());
+        calmReport.write(OUTPUT.resolve("calm.json"));
+        overloadReport.write(OUTPUT.resolve("overload.json"));
+
+        if (!LIMITER) {
+            // the run without the limiter is there to compare against, there's nothing to hold it to
+            return;
+        }
+
+        for (Recording recording : calm.values()) {
+            assertThat(recording.shed.getTotalCount()).as("requests shed below capacity").isZero();
+        }
+        for (Map.Entry<String, Recording> entry : overload.entrySet()) {
+            Recording recording = entry.getValue();
+            assertThat(recording.errors.get()).as("%s: errors other than 503", entry.getKey()).isZero();
+            assertThat(recording.missingRetryAfter.get()).as("%s: 503 without Retry-After", entry.getKey()).isZero();
+
+            double calmP99 = millis(calm.get(entry.getKey()).admitted.getValueAtPercentile(99));
+            double overloadP99 = millis(recording.admitted.getValueAtPercentile(99));
+            assertThat(overloadP99)
+                    .as("%s: p99 of admitted requests under overload, calm p99 was %.2f ms", entry.getKey(), calmP99)
+                    .isLessThanOrEqualTo(calmP99 * MAX_P99_GROWTH + SLACK_MILLIS);
+            assertThat(millis(recording.shed.getValueAtPercentile(99)))
+                    .as("%s: shedding should be fast", entry.getKey())
+                    .isLessThan(overloadP99);
+        }
+
+        Recording reads = overload.get("GET");
+        Recording writes = overload.get("PUT");
+        double admittedPerSecond = (reads.admitted.getTotalCount() + writes.admitted.getTotalCount()) / reads.seconds;
+        assertThat(admittedPerSecond)
+                .as("admitted req/s, shedding shouldn't leave much of the capacity of %.0f req/s unused", CAPACITY)
+                .isGreaterThan(CAPACITY * 0.7);
+        assertThat(shedShare(reads)).as("share of reads shed vs writes").isLessThan(shedShare(writes));
+    }
+
+    private void seed() {
+        List<Employee> employees = new ArrayList<>(SEED_EMPLOYEES);
+        for (int i = 0; i < SEED_EMPLOYEES; i++) {
+            employees.add(employee("overload.seed" + i + "@test.com"));
+        }
+        seeded.addAll(employeeRepository.saveAll(employees));
+    }
+
+    private Map<String, Recording> run(double rate, Duration duration) throws InterruptedException {
+        Map<String, Recording> recordings = new LinkedHashMap<>();
+        recordings.put("GET", new Recording());
+        recordings.put("PUT", new Recording());
+        AtomicInteger inFlight = new AtomicInteger();
+        long intervalNanos = (long) (TimeUnit.SECONDS.toNanos(1) / rate);
+        long start = System.nanoTime();
+        long end = start + duration.toNanos();
+
+        for (long due = start; due < end; due += intervalNanos) {
+            long wait = due - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            boolean read = ThreadLocalRandom.current().nextInt(100) < READ_PERCENT;
+            Recording recording = recordings.get(read ? "GET" : "PUT");
+            long dueAt = due;
+            inFlight.incrementAndGet();
+            client.sendAsync(request(read), HttpResponse.BodyHandlers.discarding())
+                    .whenComplete((response, failure) -> {
+                        recording.record(System.nanoTime() - dueAt, response, failure);
+                        inFlight.decrementAndGet();
+                    });
+        }
+
+        long drainDeadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(60);
+        while (inFlight.get() > 0 && System.nanoTime() < drainDeadline) {
+            Thread.sleep(10);
+        }
+        for (Recording recording : recordings.values()) {
+            recording.seconds = (System.nanoTime() - start) / 1e9;
+        }
+        return recordings;
+    }
+
+    private HttpRequest request(boolean read) {
+        Employee target = seeded.get(ThreadLocalRandom.current().nextInt(seeded.size()));
+        URI uri = URI.create("http://localhost:" + port + "/api/employees/" + target.getId());
+        if (read) {
+            return HttpRequest.newBuilder(uri).GET().build();
+        }
+        // same email and department, the update itself is what's measured
+        String body = String.format(
+                "{\"firstName\":\"Load\",\"lastName\":\"Test\",\"email\":\"%s\",\"department\":\"Engineering\",\"salary\":%d}",
+                target.getEmail(), ThreadLocalRandom.current().nextInt(40_000, 90_000));
+        return HttpRequest.newBuilder(uri)
+                .header("Content-Type", "application/json")
+                .PUT(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+    }
+
+    private Employee employee(String email) {
+        return Employee.builder()
+                .firstName("Load")
+                .lastName("Test")
+                .email(email)
+                .department("Engineering")
+                .salary(new BigDecimal("50000.00"))
+                .build();
+    }
+
+    // admitted and shed requests as separate rows, errors are anything but 2xx and 503
+    private LoadTestReport report(double rate, Map<String, Recording> recordings) {
+        Map<String, LoadTestReport.EndpointStats> rows = new LinkedHashMap<>();
+        for (Map.Entry<String, Recording> entry : recordings.entrySet()) {
+            Recording recording = entry.getValue();
+            rows.put(entry.getKey() + " admitted", stats(recording.admitted, recording.errors.get(), recording.seconds));
+            rows.put(entry.getKey() + " shed (503)", stats(recording.shed, 0, recording.seconds));
+        }
+        return new LoadTestReport("platform", rate, recordings.get("GET").seconds, rows);
+    }
+
+    private static LoadTestReport.EndpointStats stats(Histogram histogram, long errors, double seconds) {
+        return new LoadTestReport.EndpointStats(
+                histogram.getTotalCount(),
+                errors,
+                histogram.getTotalCount() / seconds,
+                millis(histogram.getValueAtPercentile(50)),
+                millis(histogram.getValueAtPercentile(99)),
+                millis(histogram.getValueAtPercentile(99.9)),
+                millis(histogram.getMaxValue()));
+    }
+
+    private static double shedShare(Recording recording) {
+        long total = recording.admitted.getTotalCount() + recording.shed.getTotalCount();
+        return total == 0 ? 0 : recording.shed.getTotalCount() / (double) total;
+    }
+
+    private static double millis(long micros) {
+        return micros / 1000.0;
+    }
+
+    private static class Recording {
+        // microseconds, up to a minute, 3 significant digits
+        private final Histogram admitted = new SynchronizedHistogram(TimeUnit.MINUTES.toMicros(1), 3);
+        private final Histogram shed = new SynchronizedHistogram(TimeUnit.MINUTES.toMicros(1), 3);
+        private final AtomicLong errors = new AtomicLong();
+        private final AtomicLong missingRetryAfter = new AtomicLong();
+        private double seconds;
+
+        void record(long nanos, HttpResponse<?> response, Throwable failure) {
+            long micros = Math.min(TimeUnit.NANOSECONDS.toMicros(nanos), admitted.getHighestTrackableValue());
+            if (failure == null && response.statusCode() == 503) {
+                shed.recordValue(micros);
+                if (response.headers().firstValue("Retry-After").isEmpty()) {
+                    missingRetryAfter.incrementAndGet();
+                }
+                return;
+            }
+            admitted.recordValue(micros);
+            if (failure != null || response.statusCode() >= 300) {
+                errors.incrementAndGet();
+            }
+        }
+    }
+}
@@ -0,0 +1,159 @@
+package com.example.employeemanagement.repository;
+
+import com.example.employeemanagement.dto.EmployeeField;
+import com.example.employeemanagement.dto.EmployeeSearchCriteria;
+import com.example.employeemanagement.entity.Employee;
+import com.example.employeemanagement.service.EmployeeService;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// runs the queries the search endpoint generates through EXPLAIN and checks the database answers them from an index
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+        + "com.example.employeemanagement.repository.EmployeeSearchQueryPlanTest$CapturingInspector")
+@ActiveProfiles("test")
+class EmployeeSearchQueryPlanTest {
+
+    @Autowired
+    private EmployeeService employeeService;
+
+    @Autowired
+    private EmployeeRepository employeeRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        employeeRepository.deleteAll();
+        List<Employee> employees = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            employees.add(Employee.builder()
+                    .firstName("First" + i)
+                    .lastName("Last" + (i % 97))
+                    .email("employee" + i + "@domain" + (i % 20) + ".com")
+                    .department("Department" + (i % 25))
+                    .salary(BigDecimal.valueOf(1000 + i * 10L))
+                    .build());
+        }
+        employeeRepository.saveAll(employees);
+        CapturingInspector.STATEMENTS.clear();
+    }
+
+    @AfterEach
+    void tearDown() {
+        employeeRepository.deleteAll();
+    }
+
+    @Test
+    void departmentFilter_ShouldUseDepartmentIndex() {
+        String plan = explain(EmployeeSearchCriteria.builder()
+                .department("Department3")
+                .sort(EmployeeSearchCriteria.SortField.LAST_NAME)
+                .size(20)
+                .build());
+
+        assertThat(plan).containsIgnoringCase("IDX_EMPLOYEES_DEPARTMENT_LAST_NAME");
+    }
+
+    @Test
+    void salaryRange_ShouldUseSalaryIndex() {
+        String plan = explain(EmployeeSearchCriteria.builder()
+                .minSalary(BigDecimal.valueOf(2000))
+                .maxSalary(BigDecimal.valueOf(2500))
+                .sort(EmployeeSearchCriteria.SortField.SALARY)
+                .size(20)
+                .build());
+
+        assertThat(plan).containsIgnoringCase("IDX_EMPLOYEES_SALARY");
+    }
+
+    @Test
+    void lastNamePrefix_ShouldUseLastNameIndex() {
+        String plan = explain(EmployeeSearchCriteria.builder()
+                .lastNamePrefix("Last4")
+                .sort(EmployeeSearchCriteria.SortField.LAST_NAME)
+                .size(20)
+                .build());
+
+        assertThat(plan).containsIgnoringCase("IDX_EMPLOYEES_LAST_NAME");
+    }
+
+    @Test
+    void emailDomain_ShouldUseEmailDomainIndex() {
+        String plan = explain(EmployeeSearchCriteria.builder()
+                .emailDomain("Domain7.com")
+                .size(20)
+                .build());
+
+        assertThat(plan).containsIgnoringCase("IDX_EMPLOYEES_EMAIL_DOMAIN");
+    }
+
+    @Test
+    void nextPage_ShouldStayOnTheIndex() {
+        EmployeeSearchCriteria.EmployeeSearchCriteriaBuilder criteria = EmployeeSearchCriteria.builder()
+                .minSalary(BigDecimal.valueOf(2000))
+                .sort(EmployeeSearchCriteria.SortField.SALARY)
+                .size(20);
+        String cursor = employeeService.searchEmployees(criteria.build()).getNextCursor();
+        CapturingInspector.STATEMENTS.clear();
+
+        String plan = explain(criteria.after(cursor).build());
+
+        assertThat(plan).containsIgnoringCase("IDX_EMPLOYEES_SALARY");
+    }
+
+    @Test
+    void fields_ShouldOnlySelectRequestedColumns() {
+        employeeService.searchEmployeeFields(EmployeeSearchCriteria.builder()
+                        .department("Department3")
+                        .size(20)
+                        .build(),
+                EnumSet.of(EmployeeField.FIRST_NAME, EmployeeField.DEPARTMENT));
+
+        String sql = lastSelect();
+        // id comes along for the cursor
+        assertThat(sql.substring(0, sql.indexOf(" from ")))
+                .contains("first_name", "department", "id")
+                .doesNotContain("last_name", "email", "salary");
+        assertThat(jdbcTemplate.queryForObject("explain " + sql, String.class))
+                .containsIgnoringCase("IDX_EMPLOYEES_DEPARTMENT_LAST_NAME");
+    }
+
+    // runs the search, then EXPLAINs the select hibernate sent. h2 plans parameterized statements without values
+    private String explain(EmployeeSearchCriteria criteria) {
+        employeeService.searchEmployees(criteria);
+        return jdbcTemplate.queryForObject("explain " + lastSelect(), String.class);
+    }
+
+    private String lastSelect() {
+        return CapturingInspector.STATEMENTS.stream()
+                .filter(statement -> statement.startsWith("select") && statement.contains("employees"))
+                .reduce((first, second) -> second)
+                .orElseThrow();
+    }
+
+    public static class CapturingInspector implements StatementInspector {
+
+        static final List<String> STATEMENTS = new CopyOnWriteArrayList<>();
+
+        @Override
+        public String inspect(String sql) {
+            STATEMENTS.add(sql);
+            return sql;
+        }
+    }
+}
@@ -0,0 +1,184 @@
+package com.example.employeemanagement.service;
+
+import com.example.employeemanagement.dto.DepartmentStats;
+import com.example.employeemanagement.event.EmployeeChangedEvent;
+import com.example.employeemanagement.event.EmployeeChangedEvent.Snapshot;
+import com.example.employeemanagement.repository.EmployeeRepository;
+import com.example.employeemanagement.service.impl.DepartmentStatisticsServiceImpl;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class DepartmentStatisticsServiceTest {
+
+    @Mock
+    private EmployeeRepository employeeRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private DepartmentStatisticsServiceImpl statisticsService;
+
+    @BeforeEach
+    void setUp() {
+        statisticsService = new DepartmentStatisticsServiceImpl(
+                employeeRepository, transactionManager, new SimpleMeterRegistry(), Duration.ofMinutes(5));
+    }
+
+    @Test
+    void statistics_ShouldFollowCreatesUpdatesAndDeletes() {
+        // arrange
+        UUID alice = UUID.randomUUID();
+        UUID bob = UUID.randomUUID();
+        UUID carol = UUID.randomUUID();
+
+        // act
+        statisticsService.onEmployeeChanged(new EmployeeChangedEvent(alice, null, snapshot("Engineering", "5000")));
+        statisticsService.onEmployeeChanged(new EmployeeChangedEvent(bob, null, snapshot("Engineering", "7000.50")));
+        statisticsService.onEmployeeChanged(new EmployeeChangedEvent(carol, null, snapshot("HR", "4000")));
+        // bob gets a raise, carol moves to engineering, alice leaves
+        statisticsService.onEmployeeChanged(new EmployeeChangedEvent(bob, snapshot("Engineering", "7000.50"), snapshot("Engineering", "8000")));
+        statisticsService.onEmployeeChanged(new EmployeeChangedEvent(carol, snapshot("HR", "4000"), snapshot("Engineering", "4000")));
+        statisticsService.onEmployeeChanged(new EmployeeChangedEvent(alice, snapshot("Engineering", "5000"), null));
+
+        // assert: HR is empty and left out, min/max no longer see the old values
+        List<DepartmentStats> stats = statisticsService.getStatistics();
+        assertThat(stats).hasSize(1);
+        DepartmentStats engineering = stats.get(0);
+        assertThat(engineering.getDepartment()).isEqualTo("Engineering");
+        assertThat(engineering.getHeadcount()).isEqualTo(2);
+        assertThat(engineering.getTotalSalary()).isEqualByComparingTo("12000");
+        assertThat(engineering.getAverageSalary()).isEqualByComparingTo("6000");
+        assertThat(engineering.getMinSalary()).isEqualByComparingTo("4000");
+        assertThat(engineering.getMaxSalary()).isEqualByComparingTo("8000");
+    }
+
+    @Test
+    void statistics_ShouldNotLoseUpdates_WhenWrittenConcurrently() throws Exception {
+        // arrange
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        List<Future<?>> writers = new ArrayList<>();
+
+        // act: every writer hires 1000 employees and lets 500 of them go again
+        for (int writer = 0; writer < 8; writer++) {
+            writers.add(pool.submit(() -> {
+                for (int i = 0; i < 1000; i++) {
+                    Snapshot hired = snapshot("Engineering", String.valueOf(1000 + i));
+                    statisticsService.onEmployeeChanged(new EmployeeChangedEvent(UUID.randomUUID(), null, hired));
+                    if (i % 2 == 1) {
+                        statisticsService.onEmployeeChanged(new EmployeeChangedEvent(UUID.randomUUID(), hired, null));
+                    }
+                }
+            }));
+        }
+        for (Future<?> future : writers) {
+            future.get();
+        }
+        pool.shutdown();
+
+        // assert: the even salaries 1000..1998 are left, 8 times each
+        DepartmentStats engineering = statisticsService.getStatistics().get(0);
+        assertThat(engineering.getHeadcount()).isEqualTo(4000);
+        assertThat(engineering.getTotalSalary()).isEqualByComparingTo(BigDecimal.valueOf(8L * 500 * (1000 + 1998) / 2));
+        assertThat(engineering.getMinSalary()).isEqualByComparingTo("1000");
+        assertThat(engineering.getMaxSalary()).isEqualByComparingTo("1998");
+    }
+
+    @Test
+    void reconcile_ShouldRepairDrift_FromTheDatabase() {
+        // arrange: we saw one employee, the database has two (e.g. inserted by a script)
+        statisticsService.onEmployeeChanged(new EmployeeChangedEvent(UUID.randomUUID(), null, snapshot("Engineering", "5000")));
+        when(employeeRepository.countByDepartmentAndSalary()).thenReturn(List.of(
+                row("Engineering", "5000", 1),
+                row("Engineering", "9000", 1)));
+
+        // act
+        boolean drifted = statisticsService.reconcile();
+
+        // assert
+        assertThat(drifted).isTrue();
+        DepartmentStats engineering = statisticsService.getStatistics().get(0);
+        assertThat(engineering.getHeadcount()).isEqualTo(2);
+        assertThat(engineering.getMaxSalary()).isEqualByComparingTo("9000");
+        // nothing changed since, so a second check is clean
+        assertThat(statisticsService.reconcile()).isFalse();
+    }
+
+    @Test
+    void reconcile_ShouldCountChangesOnce_WhenTheyCameInDuringTheQuery() {
+        // arrange: alice's raise and bob's hire commit while the query runs, which sees the raise but not bob
+        UUID alice = UUID.randomUUID();
+        UUID bob = UUID.randomUUID();
+        statisticsService.onEmployeeChanged(new EmployeeChangedEvent(alice, null, snapshot("Engineering", "5000")));
+        when(employeeRepository.countByDepartmentAndSalary()).thenAnswer(invocation -> {
+            statisticsService.onEmployeeChanged(new EmployeeChangedEvent(alice, snapshot("Engineering", "5000"), snapshot("Engineering", "6000")));
+            statisticsService.onEmployeeChanged(new EmployeeChangedEvent(bob, null, snapshot("Engineering", "7000")));
+            return List.of(row("Engineering", "6000", 1));
+        });
+        when(employeeRepository.findDepartmentSalariesByIdIn(any())).thenReturn(List.of(salary("Engineering", "6000")));
+
+        // act
+        statisticsService.reconcile();
+
+        // assert
+        DepartmentStats engineering = statisticsService.getStatistics().get(0);
+        assertThat(engineering.getHeadcount()).isEqualTo(2);
+        assertThat(engineering.getTotalSalary()).isEqualByComparingTo("13000");
+        assertThat(engineering.getMinSalary()).isEqualByComparingTo("6000");
+    }
+
+    private static Snapshot snapshot(String department, String salary) {
+        return new Snapshot("Jane", "Doe", "jane.doe@test.com", department, new BigDecimal(salary));
+    }
+
+    private static EmployeeRepository.DepartmentSalary salary(String department, String salary) {
+        return new EmployeeRepository.DepartmentSalary() {
+            @Override
+            public String getDepartment() {
+                return department;
+            }
+
+            @Override
+            public BigDecimal getSalary() {
+                return new BigDecimal(salary);
+            }
+        };
+    }
+
+    private static EmployeeRepository.DepartmentSalaryCount row(String department, String salary, long headcount) {
+        return new EmployeeRepository.DepartmentSalaryCount() {
+            @Override
+            public String getDepartment() {
+                return department;
+            }
+
+            @Override
+            public BigDecimal getSalary() {
+                return new BigDecimal(salary);
+            }
+
+            @Override
+            public long getHeadcount() {
+                return headcount;
+            }
+        };
+    }
+}
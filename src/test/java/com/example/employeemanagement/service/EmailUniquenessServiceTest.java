@@ -0,0 +1,131 @@
+package com.example.employeemanagement.service;
+
+import com.example.employeemanagement.entity.Employee;
+import com.example.employeemanagement.event.EmployeeChangedEvent;
+import com.example.employeemanagement.repository.EmployeeRepository;
+import com.example.employeemanagement.service.impl.EmailUniquenessServiceImpl;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class EmailUniquenessServiceTest {
+
+    @Mock
+    private EmployeeRepository employeeRepository;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    private SimpleMeterRegistry meterRegistry;
+    private EmailUniquenessServiceImpl emailUniquenessService;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        // room for 10 emails, rebuilt once a quarter of them are stale
+        emailUniquenessService = new EmailUniquenessServiceImpl(
+                employeeRepository, transactionTemplate, meterRegistry, 10, 0.01, 0.25);
+        lenient().when(transactionTemplate.execute(any()))
+                .thenAnswer(invocation -> invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+    }
+
+    @Test
+    void isTaken_ShouldOnlyAskDatabase_WhenFilterMightContainEmail() {
+        // not built yet, so everything is checked against the database
+        emailUniquenessService.isTaken("before.build@test.com");
+        verify(employeeRepository).existsByEmail("before.build@test.com");
+
+        when(employeeRepository.streamAllEmails()).thenReturn(Stream.of("ann@test.com", "bob@test.com"));
+        emailUniquenessService.rebuild();
+        when(employeeRepository.existsByEmail("ann@test.com")).thenReturn(true);
+
+        assertThat(emailUniquenessService.isTaken("ann@test.com")).isTrue();
+        for (int i = 0; i < 100; i++) {
+            emailUniquenessService.isTaken("new" + i + "@test.com");
+        }
+
+        // a handful of false positives at most, each confirmed by the database and let through
+        long falsePositives = (long) meterRegistry.get("email.filter.checks").tag("outcome", "false-positive").counter().count();
+        assertThat(falsePositives).isLessThan(10);
+        assertThat(meterRegistry.get("email.filter.checks").tag("outcome", "miss").counter().count()).isEqualTo(100 - falsePositives);
+        verify(employeeRepository, times(2 + (int) falsePositives)).existsByEmail(anyString());
+    }
+
+    @Test
+    void onEmployeeChanged_ShouldAddEmailsAtOnce_AndRebuildOnceTooManyAreStale() {
+        when(employeeRepository.streamAllEmails()).thenReturn(Stream.of("ann@test.com", "bob@test.com", "cid@test.com"));
+        emailUniquenessService.rebuild();
+
+        Employee dan = Employee.builder().id(UUID.randomUUID()).firstName("Dan").lastName("Smith")
+                .email("dan@test.com").department("Engineering").salary(BigDecimal.valueOf(3000)).build();
+        EmployeeChangedEvent created = EmployeeChangedEvent.created(dan);
+        emailUniquenessService.onEmployeeSaved(created);
+        emailUniquenessService.onEmployeeChanged(created);
+        emailUniquenessService.onEmployeeSaveCompleted(created);
+        when(employeeRepository.existsByEmail("dan@test.com")).thenReturn(true);
+        assertThat(emailUniquenessService.isTaken("dan@test.com")).isTrue();
+
+        // 1 stale email of 5 is still fine, 2 aren't
+        EmployeeChangedEvent.Snapshot before = EmployeeChangedEvent.Snapshot.of(dan);
+        dan.setEmail("daniel@test.com");
+        EmployeeChangedEvent renamed = EmployeeChangedEvent.updated(before, dan);
+        emailUniquenessService.onEmployeeSaved(renamed);
+        emailUniquenessService.onEmployeeChanged(renamed);
+        emailUniquenessService.onEmployeeSaveCompleted(renamed);
+        verify(employeeRepository, times(1)).streamAllEmails();
+
+        when(employeeRepository.streamAllEmails()).thenReturn(Stream.of("ann@test.com", "bob@test.com", "daniel@test.com"));
+        emailUniquenessService.onEmployeeChanged(EmployeeChangedEvent.deleted(
+                Employee.builder().id(UUID.randomUUID()).email("cid@test.com").build()));
+
+        // rebuilt in the background, once it's in place the old emails are gone and checking them costs no query
+        await().atMost(Duration.ofSeconds(5)).until(() -> !emailUniquenessService.isTaken("cid@test.com")
+                && meterRegistry.get("email.filter.checks").tag("outcome", "miss").counter().count() > 0);
+        verify(employeeRepository, times(2)).streamAllEmails();
+        clearInvocations(employeeRepository);
+        assertThat(emailUniquenessService.isTaken("dan@test.com")).isFalse();
+        verify(employeeRepository, never()).existsByEmail(anyString());
+    }
+
+    @Test
+    void rebuild_ShouldKeepEmailsOfUncommittedTransactions() {
+        when(employeeRepository.streamAllEmails()).thenReturn(Stream.of("ann@test.com"));
+        emailUniquenessService.rebuild();
+
+        Employee dan = Employee.builder().id(UUID.randomUUID()).firstName("Dan").lastName("Smith")
+                .email("dan@test.com").department("Engineering").salary(BigDecimal.valueOf(3000)).build();
+        EmployeeChangedEvent created = EmployeeChangedEvent.created(dan);
+        emailUniquenessService.onEmployeeSaved(created);
+
+        // the rebuild's stream doesn't see the row yet, the new filter must still have the email
+        when(employeeRepository.streamAllEmails()).thenReturn(Stream.of("ann@test.com"));
+        emailUniquenessService.rebuild();
+        when(employeeRepository.existsByEmail("dan@test.com")).thenReturn(true);
+        assertThat(emailUniquenessService.isTaken("dan@test.com")).isTrue();
+
+        // once the transaction is over the table has the last word again
+        emailUniquenessService.onEmployeeSaveCompleted(created);
+        when(employeeRepository.streamAllEmails()).thenReturn(Stream.of("ann@test.com"));
+        emailUniquenessService.rebuild();
+        clearInvocations(employeeRepository);
+        assertThat(emailUniquenessService.isTaken("dan@test.com")).isFalse();
+        verify(employeeRepository, never()).existsByEmail(anyString());
+    }
+}
@@ -0,0 +1,105 @@
+package com.example.employeemanagement.service;
+
+import com.example.employeemanagement.client.EmailValidationClient;
+import com.example.employeemanagement.client.ValidationCollapser;
+import com.example.employeemanagement.client.ValidationVerdict;
+import com.example.employeemanagement.service.impl.EmailValidatorServiceImpl;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class EmailValidatorServiceTest {
+
+    @Mock
+    private EmailValidationClient emailValidationClient;
+
+    private EmailValidatorServiceImpl emailValidatorService;
+
+    @BeforeEach
+    void setUp() {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        // a max batch size of 1 sends every check straight to checkEmail, batching has its own test
+        ValidationCollapser collapser = new ValidationCollapser("email",
+                values -> Map.of(values.get(0), emailValidationClient.checkEmail(values.get(0))),
+                Duration.ofMillis(5), 1, 1, 1, meterRegistry);
+        emailValidatorService = new EmailValidatorServiceImpl(
+                collapser, meterRegistry, 100, Duration.ofHours(1), Duration.ofMinutes(1));
+    }
+
+    @Test
+    void validateEmail_ShouldCacheVerdict_WhenUpstreamAnswers() {
+        // arrange
+        when(emailValidationClient.checkEmail("john.doe@example.com")).thenReturn(ValidationVerdict.VALID);
+
+        // act
+        boolean first = emailValidatorService.validateEmail("john.doe@example.com");
+        boolean second = emailValidatorService.validateEmail("John.Doe@example.com ");
+
+        // assert
+        assertThat(first).isTrue();
+        assertThat(second).isTrue();
+        verify(emailValidationClient, times(1)).checkEmail(anyString());
+    }
+
+    @Test
+    void validateEmail_ShouldNotCacheFallback_WhenUpstreamUnavailable() {
+        // arrange
+        when(emailValidationClient.checkEmail("john.doe@example.com"))
+                .thenReturn(ValidationVerdict.UNAVAILABLE)
+                .thenReturn(ValidationVerdict.VALID);
+
+        // act
+        boolean duringOutage = emailValidatorService.validateEmail("john.doe@example.com");
+        boolean afterRecovery = emailValidatorService.validateEmail("john.doe@example.com");
+
+        // assert
+        assertThat(duringOutage).isFalse();
+        assertThat(afterRecovery).isTrue();
+        verify(emailValidationClient, times(2)).checkEmail("john.doe@example.com");
+    }
+
+    @Test
+    void validateEmail_ShouldMakeOneUpstreamCall_WhenCalledConcurrentlyForSameEmail() throws Exception {
+        // arrange
+        CountDownLatch upstreamEntered = new CountDownLatch(1);
+        CountDownLatch releaseUpstream = new CountDownLatch(1);
+        when(emailValidationClient.checkEmail("john.doe@example.com")).thenAnswer(invocation -> {
+            upstreamEntered.countDown();
+            releaseUpstream.await();
+            return ValidationVerdict.INVALID;
+        });
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            // act
+            List<Future<Boolean>> results = new ArrayList<>();
+            results.add(executor.submit(() -> emailValidatorService.validateEmail("john.doe@example.com")));
+            upstreamEntered.await(5, TimeUnit.SECONDS);
+            for (int i = 0; i < 7; i++) {
+                results.add(executor.submit(() -> emailValidatorService.validateEmail("john.doe@example.com")));
+            }
+            releaseUpstream.countDown();
+
+            // assert
+            for (Future<Boolean> result : results) {
+                assertThat(result.get(5, TimeUnit.SECONDS)).isFalse();
+            }
+            verify(emailValidationClient, times(1)).checkEmail(anyString());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
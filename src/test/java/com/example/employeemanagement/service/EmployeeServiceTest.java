@@ -1,19 +1,47 @@
 package com.example.employeemanagement.service;
 
+import com.example.employeemanagement.dto.BatchCreateResult;
+import com.example.employeemanagement.dto.BatchItemResult;
+import com.example.employeemanagement.dto.BulkOperationRequest;
+import com.example.employeemanagement.dto.BulkOperationResult;
+import com.example.employeemanagement.dto.EmployeeFilter;
+import com.example.employeemanagement.dto.EmployeeField;
+import com.example.employeemanagement.dto.EmployeePage;
 import com.example.employeemanagement.entity.Employee;
+import com.example.employeemanagement.event.EmployeeChangedEvent;
+import com.example.employeemanagement.event.EmployeesBulkChangedEvent;
+import com.example.employeemanagement.exception.DuplicateEmailException;
 import com.example.employeemanagement.exception.EmployeeNotFoundException;
+import com.example.employeemanagement.exception.EmployeeVersionConflictException;
 import com.example.employeemanagement.exception.InvalidInputException;
+import com.example.employeemanagement.exception.ThirdPartyApiException;
 import com.example.employeemanagement.repository.EmployeeRepository;
 import com.example.employeemanagement.service.impl.EmployeeServiceImpl;
+import com.example.employeemanagement.util.AuditEventType;
 import com.example.employeemanagement.util.AuditLogger;
+import jakarta.persistence.EntityManager;
+import jakarta.validation.Validator;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.*;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.task.SyncTaskExecutor;
+import org.springframework.data.domain.Limit;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.math.BigDecimal;
+import java.time.Duration;
 import java.util.*;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
@@ -31,12 +59,34 @@ class EmployeeServiceTest {
     @Mock
     private DepartmentValidatorService departmentValidatorService;
 
+    @Mock
+    private EmailUniquenessService emailUniquenessService;
+
     @Mock
     private NotificationService notificationService;
 
     @Mock
     private AuditLogger auditLogger;
 
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private CacheManager cacheManager;
+
+    @Mock
+    private EntityManager entityManager;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @Mock
+    private Validator validator;
+
+    // runs the "parallel" validations inline so stubbing stays deterministic
+    @Spy
+    private Executor validationExecutor = new SyncTaskExecutor();
+
     @InjectMocks
     private EmployeeServiceImpl employeeService;
 
@@ -53,7 +103,11 @@ class EmployeeServiceTest {
                 .email("john.doe@example.com")
                 .department("Engineering")
                 .salary(BigDecimal.valueOf(5000))
+                .version(0L)
                 .build();
+        ReflectionTestUtils.setField(employeeService, "batchChunkSize", 2);
+        ReflectionTestUtils.setField(employeeService, "maxBulkIds", 10);
+        ReflectionTestUtils.setField(employeeService, "validationTimeout", Duration.ofSeconds(1));
     }
 
     @Test
@@ -70,7 +124,9 @@ class EmployeeServiceTest {
         assertThat(result).isNotNull();
         assertThat(result.getId()).isEqualTo(mockEmployee.getId());
         verify(notificationService, times(1)).sendEmployeeCreatedNotification(mockEmployee);
-        verify(auditLogger, atLeastOnce()).log(anyString());
+        verify(auditLogger).log(AuditEventType.EMPLOYEE_CREATE_STARTED, null, mockEmployee.getEmail());
+        verify(auditLogger).log(AuditEventType.EMPLOYEE_SAVED, mockId, mockEmployee.getEmail());
+        verify(auditLogger).log(AuditEventType.EMPLOYEE_CREATE_COMPLETED, mockId, mockEmployee.getEmail());
     }
 
     @Test
@@ -84,6 +140,19 @@ class EmployeeServiceTest {
                 .hasMessageContaining("Email is invalid");
     }
 
+    @Test
+    void createEmployee_ShouldThrowDuplicateEmailException_BeforeCallingThirdParties() {
+        // arrange
+        when(emailUniquenessService.isTaken(mockEmployee.getEmail())).thenReturn(true);
+
+        // act & assert
+        assertThatThrownBy(() -> employeeService.createEmployee(mockEmployee))
+                .isInstanceOf(DuplicateEmailException.class)
+                .hasMessageContaining(mockEmployee.getEmail());
+        verifyNoInteractions(emailValidatorService, departmentValidatorService);
+        verify(employeeRepository, never()).save(any());
+    }
+
     @Test
     void createEmployee_ShouldThrowInvalidInputException_WhenDepartmentInvalid() {
         // arrange
@@ -96,6 +165,61 @@ class EmployeeServiceTest {
                 .hasMessageContaining("Department is invalid");
     }
 
+    @Test
+    void createEmployee_ShouldFailWithinDeadline_WhenValidatorHangs() {
+        // arrange
+        CountDownLatch neverReleased = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        ReflectionTestUtils.setField(employeeService, "validationExecutor", executor);
+        ReflectionTestUtils.setField(employeeService, "validationTimeout", Duration.ofMillis(200));
+        when(emailValidatorService.validateEmail(mockEmployee.getEmail())).thenAnswer(invocation -> {
+            neverReleased.await();
+            return true;
+        });
+        when(departmentValidatorService.validateDepartment(mockEmployee.getDepartment())).thenReturn(true);
+
+        try {
+            // act & assert
+            assertThatThrownBy(() -> employeeService.createEmployee(mockEmployee))
+                    .isInstanceOf(ThirdPartyApiException.class)
+                    .hasMessageContaining("did not complete");
+            verify(employeeRepository, never()).save(any());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void createEmployees_ShouldReportPerItemResults_AndValidateEachDepartmentOnce() {
+        // arrange
+        Employee first = Employee.builder().firstName("A").lastName("A").email("a@example.com")
+                .department("Engineering").salary(BigDecimal.ONE).build();
+        Employee second = Employee.builder().firstName("B").lastName("B").email("b@example.com")
+                .department("Engineering").salary(BigDecimal.ONE).build();
+        Employee duplicate = Employee.builder().firstName("C").lastName("C").email("a@example.com")
+                .department("Engineering").salary(BigDecimal.ONE).build();
+
+        when(emailValidatorService.validateEmail(anyString())).thenReturn(true);
+        when(departmentValidatorService.validateDepartment("Engineering")).thenReturn(true);
+        doAnswer(invocation -> {
+            invocation.<Consumer<TransactionStatus>>getArgument(0).accept(mock(TransactionStatus.class));
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any(Consumer.class));
+
+        // act
+        BatchCreateResult result = employeeService.createEmployees(List.of(first, second, duplicate));
+
+        // assert
+        assertThat(result.getCreated()).isEqualTo(2);
+        assertThat(result.getFailed()).isEqualTo(1);
+        assertThat(result.getResults()).extracting(BatchItemResult::isSuccess).containsExactly(true, true, false);
+        assertThat(result.getResults().get(2).getError()).contains("Duplicate email");
+        verify(departmentValidatorService, times(1)).validateDepartment("Engineering");
+        verify(employeeRepository, times(1)).saveAll(List.of(first, second));
+        verify(notificationService, times(2)).sendEmployeeCreatedNotification(any(Employee.class));
+    }
+
     @Test
     void getEmployeeById_ShouldReturnEmployee_WhenFound() {
         // arrange
@@ -142,6 +266,80 @@ class EmployeeServiceTest {
         // assert
         assertThat(result.getFirstName()).isEqualTo("Jane");
         assertThat(result.getDepartment()).isEqualTo("Marketing");
+        verify(eventPublisher).publishEvent(new EmployeeChangedEvent(mockId,
+                new EmployeeChangedEvent.Snapshot("John", "Doe", "john.doe@example.com", "Engineering", BigDecimal.valueOf(5000)),
+                new EmployeeChangedEvent.Snapshot("Jane", "Smith", "jane.smith@example.com", "Marketing", BigDecimal.valueOf(6000))));
+    }
+
+    @Test
+    void updateEmployee_ShouldNotRevalidate_WhenEmailAndDepartmentUnchanged() {
+        // arrange
+        Employee updatedEmployee = Employee.builder()
+                .firstName("Johnny")
+                .lastName("Doe")
+                .email(mockEmployee.getEmail())
+                .department(mockEmployee.getDepartment())
+                .salary(BigDecimal.valueOf(7000))
+                .build();
+
+        when(employeeRepository.findById(mockId)).thenReturn(Optional.of(mockEmployee));
+        when(employeeRepository.save(any(Employee.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // act
+        Employee result = employeeService.updateEmployee(mockId, updatedEmployee);
+
+        // assert
+        assertThat(result.getSalary()).isEqualTo(BigDecimal.valueOf(7000));
+        verifyNoInteractions(emailValidatorService, departmentValidatorService);
+    }
+
+    @Test
+    void patchEmployee_ShouldWriteAndRevalidateOnlyChangedFields() {
+        // arrange: the email is sent again unchanged, the department is new
+        Map<EmployeeField, Object> patch = new EnumMap<>(EmployeeField.class);
+        patch.put(EmployeeField.EMAIL, mockEmployee.getEmail());
+        patch.put(EmployeeField.DEPARTMENT, "Marketing");
+        patch.put(EmployeeField.SALARY, new BigDecimal("5000.00"));
+
+        when(employeeRepository.findById(mockId)).thenReturn(Optional.of(mockEmployee));
+        when(departmentValidatorService.validateDepartment("Marketing")).thenReturn(true);
+        when(employeeRepository.updateFields(mockId, 0L, Map.of(EmployeeField.DEPARTMENT, "Marketing"))).thenReturn(1);
+
+        // act
+        Employee result = employeeService.patchEmployee(mockId, patch, 0L);
+
+        // assert
+        assertThat(result.getDepartment()).isEqualTo("Marketing");
+        assertThat(result.getVersion()).isEqualTo(1L);
+        verifyNoInteractions(emailValidatorService);
+        verify(employeeRepository, never()).save(any());
+        verify(eventPublisher).publishEvent(new EmployeeChangedEvent(mockId,
+                new EmployeeChangedEvent.Snapshot("John", "Doe", "john.doe@example.com", "Engineering", BigDecimal.valueOf(5000)),
+                new EmployeeChangedEvent.Snapshot("John", "Doe", "john.doe@example.com", "Marketing", BigDecimal.valueOf(5000))));
+    }
+
+    @Test
+    void patchEmployee_ShouldThrowConflict_WhenVersionIsStale() {
+        // arrange
+        when(employeeRepository.findById(mockId)).thenReturn(Optional.of(mockEmployee));
+
+        // act & assert: the client read version 0, someone else has written since
+        mockEmployee.setVersion(1L);
+        assertThatThrownBy(() -> employeeService.patchEmployee(mockId, Map.of(EmployeeField.FIRST_NAME, "Jane"), 0L))
+                .isInstanceOf(EmployeeVersionConflictException.class);
+        verify(employeeRepository, never()).updateFields(any(), anyLong(), any());
+    }
+
+    @Test
+    void patchEmployee_ShouldThrowConflict_WhenRowChangedBetweenReadAndWrite() {
+        // arrange
+        when(employeeRepository.findById(mockId)).thenReturn(Optional.of(mockEmployee));
+        when(employeeRepository.updateFields(mockId, 0L, Map.of(EmployeeField.FIRST_NAME, "Jane"))).thenReturn(0);
+
+        // act & assert
+        assertThatThrownBy(() -> employeeService.patchEmployee(mockId, Map.of(EmployeeField.FIRST_NAME, "Jane"), null))
+                .isInstanceOf(EmployeeVersionConflictException.class);
+        verifyNoInteractions(eventPublisher);
     }
 
     @Test
@@ -155,18 +353,71 @@ class EmployeeServiceTest {
 
         // assert
         verify(employeeRepository, times(1)).delete(mockEmployee);
+        verify(eventPublisher).publishEvent(EmployeeChangedEvent.deleted(mockEmployee));
+    }
+
+    @Test
+    void transferEmployees_ShouldValidateTargetDepartmentOnce_AndRunOneUpdate() {
+        // arrange
+        List<UUID> ids = List.of(mockId, UUID.randomUUID(), UUID.randomUUID());
+        BulkOperationRequest request = new BulkOperationRequest(ids, null, "HR", null, null);
+        when(departmentValidatorService.validateDepartment("HR")).thenReturn(true);
+        when(employeeRepository.transferAll(any(), eq("HR"))).thenReturn(3);
+
+        // act
+        BulkOperationResult result = employeeService.transferEmployees(request);
+
+        // assert
+        assertThat(result.getAffected()).isEqualTo(3);
+        verify(departmentValidatorService, times(1)).validateDepartment("HR");
+        // journaled by the after-commit listener, not inside the transaction
+        verifyNoInteractions(auditLogger);
+        verify(eventPublisher).publishEvent(new EmployeesBulkChangedEvent(EmployeesBulkChangedEvent.TRANSFER, 3));
+    }
+
+    @Test
+    void adjustSalaries_ShouldRejectRequest_WhenSelectionOrAdjustmentIsAmbiguous() {
+        // nothing selected
+        assertThatThrownBy(() -> employeeService.adjustSalaries(
+                new BulkOperationRequest(null, new EmployeeFilter(), null, BigDecimal.TEN, null)))
+                .isInstanceOf(InvalidInputException.class);
+        // both a percent and an amount
+        assertThatThrownBy(() -> employeeService.adjustSalaries(
+                new BulkOperationRequest(List.of(mockId), null, null, BigDecimal.TEN, BigDecimal.TEN)))
+                .isInstanceOf(InvalidInputException.class);
+        // a cut of 100% or more
+        assertThatThrownBy(() -> employeeService.adjustSalaries(
+                new BulkOperationRequest(List.of(mockId), null, null, BigDecimal.valueOf(-100), null)))
+                .isInstanceOf(InvalidInputException.class);
+
+        verifyNoInteractions(employeeRepository, eventPublisher);
+    }
+
+    @Test
+    void getEmployeesPage_ShouldReturnNextCursor_WhenMoreEmployeesExist() {
+        // arrange
+        Employee second = Employee.builder().id(UUID.randomUUID()).build();
+        when(employeeRepository.findAllByOrderByIdAsc(Limit.of(2))).thenReturn(List.of(mockEmployee, second));
+
+        // act
+        EmployeePage result = employeeService.getEmployeesPage(null, 1);
+
+        // assert
+        assertThat(result.getEmployees()).containsExactly(mockEmployee);
+        assertThat(result.getNextCursor()).isEqualTo(mockId);
     }
 
     @Test
-    void getAllEmployees_ShouldReturnListOfEmployees() {
+    void getEmployeesPage_ShouldReturnNoCursor_WhenLastPage() {
         // arrange
-        List<Employee> employees = Collections.singletonList(mockEmployee);
-        when(employeeRepository.findAll()).thenReturn(employees);
+        UUID after = UUID.randomUUID();
+        when(employeeRepository.findByIdGreaterThanOrderByIdAsc(after, Limit.of(11))).thenReturn(List.of(mockEmployee));
 
         // act
-        List<Employee> result = employeeService.getAllEmployees();
+        EmployeePage result = employeeService.getEmployeesPage(after, 10);
 
         // assert
-        assertThat(result).hasSize(1);
+        assertThat(result.getEmployees()).hasSize(1);
+        assertThat(result.getNextCursor()).isNull();
     }
 }
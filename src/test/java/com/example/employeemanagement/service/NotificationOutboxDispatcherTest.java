@@ -0,0 +1,195 @@
+package com.example.employeemanagement.service;
+
+import com.example.employeemanagement.entity.Employee;
+import com.example.employeemanagement.entity.NotificationOutboxMessage;
+import com.example.employeemanagement.entity.OutboxStatus;
+import com.example.employeemanagement.repository.EmployeeRepository;
+import com.example.employeemanagement.repository.NotificationOutboxRepository;
+import com.example.employeemanagement.service.impl.NotificationOutboxDispatcher;
+import com.icegreen.greenmail.junit5.GreenMailExtension;
+import com.icegreen.greenmail.util.ServerSetupTest;
+import jakarta.mail.internet.MimeMessage;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// runs against GreenMail as a local fake SMTP server
+@SpringBootTest(properties = {
+        "spring.mail.host=localhost",
+        "spring.mail.port=3025",
+        "spring.mail.username=",
+        "spring.mail.password=",
+        "spring.mail.properties.mail.smtp.auth=false",
+        "spring.mail.properties.mail.smtp.starttls.enable=false",
+        "notification.outbox.max-attempts=2"
+})
+@ActiveProfiles("test")
+class NotificationOutboxDispatcherTest {
+
+    @RegisterExtension
+    static GreenMailExtension greenMail = new GreenMailExtension(ServerSetupTest.SMTP);
+
+    @Autowired
+    private EmployeeService employeeService;
+
+    @Autowired
+    private NotificationOutboxDispatcher dispatcher;
+
+    @Autowired
+    private NotificationOutboxRepository outboxRepository;
+
+    @Autowired
+    private EmployeeRepository employeeRepository;
+
+    @BeforeEach
+    void setUp() {
+        outboxRepository.deleteAll();
+        employeeRepository.deleteAll();
+    }
+
+    @Test
+    void createEmployee_ShouldQueueMail_AndDispatcherShouldSendIt() throws Exception {
+        // arrange
+        employeeService.createEmployee(newEmployee("outbox.sent@test.com"));
+        assertThat(outboxRepository.countByStatus(OutboxStatus.PENDING)).isEqualTo(1);
+        assertThat(greenMail.getReceivedMessages()).isEmpty();
+
+        // act
+        int dispatched = dispatcher.dispatchBatch();
+
+        // assert
+        assertThat(dispatched).isEqualTo(1);
+        assertThat(greenMail.waitForIncomingEmail(5000, 1)).isTrue();
+        MimeMessage[] received = greenMail.getReceivedMessages();
+        assertThat(received).hasSize(1);
+        assertThat(received[0].getSubject()).isEqualTo("Welcome to the Company!");
+        assertThat(outboxRepository.countByStatus(OutboxStatus.SENT)).isEqualTo(1);
+    }
+
+    @Test
+    void dispatchBatch_ShouldSendWholeBatch_WhenSeveralMailsAreDue() {
+        // arrange
+        for (int i = 0; i < 5; i++) {
+            employeeService.createEmployee(newEmployee("outbox.batch" + i + "@test.com"));
+        }
+
+        // act
+        dispatcher.dispatchBatch();
+
+        // assert
+        assertThat(greenMail.waitForIncomingEmail(5000, 5)).isTrue();
+        assertThat(greenMail.getReceivedMessages()).hasSize(5);
+        assertThat(outboxRepository.countByStatus(OutboxStatus.SENT)).isEqualTo(5);
+    }
+
+    @Test
+    void dispatchBatch_ShouldSendEachMailOnce_WhenDispatchersRunConcurrently() throws Exception {
+        // arrange
+        for (int i = 0; i < 10; i++) {
+            employeeService.createEmployee(newEmployee("outbox.concurrent" + i + "@test.com"));
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        CountDownLatch start = new CountDownLatch(1);
+
+        // act: two instances polling at the same moment
+        List<Future<Integer>> dispatched = new ArrayList<>();
+        for (int i = 0; i < 2; i++) {
+            dispatched.add(executor.submit(() -> {
+                start.await();
+                return dispatcher.dispatchBatch();
+            }));
+        }
+        start.countDown();
+        int total = 0;
+        for (Future<Integer> result : dispatched) {
+            total += result.get(10, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        // assert
+        assertThat(total).isEqualTo(10);
+        assertThat(greenMail.waitForIncomingEmail(5000, 10)).isTrue();
+        assertThat(greenMail.getReceivedMessages()).hasSize(10);
+        assertThat(outboxRepository.countByStatus(OutboxStatus.SENT)).isEqualTo(10);
+    }
+
+    @Test
+    void dispatchBatch_ShouldLeaveClaimedMailAlone_UntilItsLeaseRunsOut() {
+        // arrange: claimed by another dispatcher that's still within its lease
+        employeeService.createEmployee(newEmployee("outbox.claimed@test.com"));
+        NotificationOutboxMessage claimed = outboxRepository.findAll().get(0);
+        claimed.setStatus(OutboxStatus.IN_FLIGHT);
+        claimed.setNextAttemptAt(Instant.now().plusSeconds(60));
+        outboxRepository.save(claimed);
+
+        // act + assert
+        assertThat(dispatcher.dispatchBatch()).isZero();
+
+        // act: that dispatcher died, its lease ran out
+        claimed.setNextAttemptAt(Instant.now());
+        outboxRepository.save(claimed);
+
+        // assert
+        assertThat(dispatcher.dispatchBatch()).isEqualTo(1);
+        assertThat(greenMail.waitForIncomingEmail(5000, 1)).isTrue();
+        assertThat(outboxRepository.countByStatus(OutboxStatus.SENT)).isEqualTo(1);
+    }
+
+    @Test
+    void dispatchBatch_ShouldRetryWithBackoff_ThenDeadLetter_WhenSmtpIsDown() {
+        // arrange
+        employeeService.createEmployee(newEmployee("outbox.dead@test.com"));
+        greenMail.stop();
+
+        // act: first attempt fails and is rescheduled
+        dispatcher.dispatchBatch();
+
+        // assert
+        NotificationOutboxMessage afterFirstAttempt = outboxRepository.findAll().get(0);
+        assertThat(afterFirstAttempt.getStatus()).isEqualTo(OutboxStatus.PENDING);
+        assertThat(afterFirstAttempt.getAttempts()).isEqualTo(1);
+        assertThat(afterFirstAttempt.getNextAttemptAt()).isAfter(Instant.now());
+        assertThat(afterFirstAttempt.getLastError()).isNotBlank();
+
+        // not due yet, nothing is picked up
+        assertThat(dispatcher.dispatchBatch()).isZero();
+
+        // act: make it due again, second attempt hits max-attempts
+        afterFirstAttempt.setNextAttemptAt(Instant.now());
+        outboxRepository.save(afterFirstAttempt);
+        dispatcher.dispatchBatch();
+
+        // assert
+        List<NotificationOutboxMessage> messages = outboxRepository.findAll();
+        assertThat(messages).singleElement()
+                .satisfies(message -> {
+                    assertThat(message.getStatus()).isEqualTo(OutboxStatus.DEAD);
+                    assertThat(message.getAttempts()).isEqualTo(2);
+                });
+    }
+
+    private Employee newEmployee(String email) {
+        return Employee.builder()
+                .firstName("Outbox")
+                .lastName("Test")
+                .email(email)
+                .department("Engineering")
+                .salary(BigDecimal.valueOf(3000))
+                .build();
+    }
+}
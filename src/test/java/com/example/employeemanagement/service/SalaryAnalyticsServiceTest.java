@@ -0,0 +1,163 @@
+package com.example.employeemanagement.service;
+
+import com.example.employeemanagement.dto.DepartmentSalaryDistribution;
+import com.example.employeemanagement.dto.SalaryHistogram;
+import com.example.employeemanagement.dto.SalaryPercentiles;
+import com.example.employeemanagement.entity.Employee;
+import com.example.employeemanagement.event.EmployeeChangedEvent;
+import com.example.employeemanagement.service.impl.SalaryAnalyticsServiceImpl;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+
+@ExtendWith(MockitoExtension.class)
+class SalaryAnalyticsServiceTest {
+
+    @Mock
+    private EmployeeService employeeService;
+
+    private SimpleMeterRegistry meterRegistry;
+    private SalaryAnalyticsServiceImpl analyticsService;
+
+    private final List<Employee> employees = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        // salaries 1000.00 .. 2000.00 in Engineering, 3000.50 and 3001.50 in Sales
+        for (int i = 0; i <= 10; i++) {
+            employees.add(employee("Engineering", BigDecimal.valueOf(1000 + 100 * i)));
+        }
+        employees.add(employee("Sales", new BigDecimal("3000.50")));
+        employees.add(employee("Sales", new BigDecimal("3001.50")));
+
+        meterRegistry = new SimpleMeterRegistry();
+        // tiny chunks, so every scan is split and merged
+        analyticsService = new SalaryAnalyticsServiceImpl(employeeService, meterRegistry, 4);
+        doAnswer(invocation -> {
+            Consumer<Employee> consumer = invocation.getArgument(0);
+            employees.forEach(consumer);
+            return null;
+        }).when(employeeService).streamAllEmployees(any());
+        analyticsService.rebuild();
+    }
+
+    @Test
+    void queries_ShouldAggregateSnapshotByDepartment() {
+        SalaryPercentiles engineering = analyticsService.getPercentiles("Engineering", List.of(0.0, 50.0, 95.0, 100.0));
+        assertThat(engineering.getHeadcount()).isEqualTo(11);
+        assertThat(engineering.getPercentiles()).containsExactly(
+                Map.entry("p0", new BigDecimal("1000.00")),
+                Map.entry("p50", new BigDecimal("1500.00")),
+                // rank 9.5, halfway between 1900 and 2000
+                Map.entry("p95", new BigDecimal("1950.00")),
+                Map.entry("p100", new BigDecimal("2000.00")));
+        assertThat(analyticsService.getPercentiles("Sales", List.of(50.0)).getPercentiles())
+                .containsExactly(Map.entry("p50", new BigDecimal("3001.00")));
+        assertThat(analyticsService.getPercentiles(null, List.of(50.0)).getHeadcount()).isEqualTo(13);
+        assertThat(analyticsService.getPercentiles("Legal", List.of(50.0)).getPercentiles()).isEmpty();
+
+        SalaryHistogram histogram = analyticsService.getHistogram("Engineering", 4);
+        assertThat(histogram.getBucketWidth()).isEqualTo(new BigDecimal("250.01"));
+        assertThat(histogram.getBuckets()).extracting(SalaryHistogram.Bucket::getCount).containsExactly(3L, 3L, 2L, 3L);
+        assertThat(histogram.getBuckets().get(0).getFrom()).isEqualTo(new BigDecimal("1000.00"));
+        assertThat(analyticsService.getHistogram(null, 2).getBuckets())
+                .extracting(SalaryHistogram.Bucket::getCount).containsExactly(11L, 2L);
+
+        List<DepartmentSalaryDistribution> distributions = analyticsService.getDepartmentDistributions();
+        assertThat(distributions).extracting(DepartmentSalaryDistribution::getDepartment).containsExactly("Engineering", "Sales");
+        DepartmentSalaryDistribution first = distributions.get(0);
+        assertThat(first.getHeadcount()).isEqualTo(11);
+        assertThat(first.getMinSalary()).isEqualTo(new BigDecimal("1000.00"));
+        assertThat(first.getP25()).isEqualTo(new BigDecimal("1250.00"));
+        assertThat(first.getMedian()).isEqualTo(new BigDecimal("1500.00"));
+        assertThat(first.getMaxSalary()).isEqualTo(new BigDecimal("2000.00"));
+        assertThat(first.getAverageSalary()).isEqualTo(new BigDecimal("1500.00"));
+        assertThat(distributions.get(1).getAverageSalary()).isEqualTo(new BigDecimal("3001.00"));
+    }
+
+    @Test
+    void onEmployeeChanged_ShouldUpdateSnapshotInPlace_AcrossManyCreatesAndDeletes() {
+        // enough rows to grow the columns past their initial capacity and move rows around on delete
+        List<Employee> created = new ArrayList<>();
+        for (int i = 0; i < 3000; i++) {
+            Employee employee = employee("Support", BigDecimal.valueOf(i));
+            created.add(employee);
+            analyticsService.onEmployeeChanged(EmployeeChangedEvent.created(employee));
+        }
+        for (int i = 0; i < 3000; i += 2) {
+            analyticsService.onEmployeeChanged(EmployeeChangedEvent.deleted(created.get(i)));
+        }
+        // the odd salaries 1, 3, .. 2999 are left, once the writer thread got to them
+        await().atMost(Duration.ofSeconds(5)).untilAsserted(() -> {
+            SalaryPercentiles support = analyticsService.getPercentiles("Support", List.of(0.0, 100.0));
+            assertThat(support.getHeadcount()).isEqualTo(1500);
+            assertThat(support.getPercentiles().values()).containsExactly(new BigDecimal("1.00"), new BigDecimal("2999.00"));
+        });
+
+        // a transfer with a raise moves the employee between departments instead of adding a row
+        Employee moved = created.get(2999);
+        EmployeeChangedEvent.Snapshot before = EmployeeChangedEvent.Snapshot.of(moved);
+        moved.setDepartment("Sales");
+        moved.setSalary(new BigDecimal("5000.25"));
+        analyticsService.onEmployeeChanged(EmployeeChangedEvent.updated(before, moved));
+
+        await().atMost(Duration.ofSeconds(5)).untilAsserted(() -> assertThat(
+                analyticsService.getPercentiles("Sales", List.of(100.0)).getPercentiles())
+                .containsEntry("p100", new BigDecimal("5000.25")));
+        assertThat(analyticsService.getPercentiles("Support", List.of(100.0)).getPercentiles())
+                .containsEntry("p100", new BigDecimal("2997.00"));
+        assertThat(meterRegistry.get("analytics.snapshot.rows").gauge().value()).isEqualTo(13 + 1500);
+        assertThat(meterRegistry.get("analytics.snapshot.memory").gauge().value()).isPositive();
+    }
+
+    @Test
+    void rebuild_ShouldReplayChangesThatCameInWhileStreaming() {
+        // committed after the stream read past them: a new hire and a deleted employee the stream still returns
+        Employee hired = employee("Legal", BigDecimal.valueOf(7000));
+        Employee left = employees.get(0);
+        doAnswer(invocation -> {
+            Consumer<Employee> consumer = invocation.getArgument(0);
+            analyticsService.onEmployeeChanged(EmployeeChangedEvent.created(hired));
+            analyticsService.onEmployeeChanged(EmployeeChangedEvent.deleted(left));
+            employees.forEach(consumer);
+            return null;
+        }).when(employeeService).streamAllEmployees(any());
+
+        analyticsService.rebuild();
+
+        await().atMost(Duration.ofSeconds(5)).untilAsserted(() -> {
+            assertThat(analyticsService.getPercentiles("Legal", List.of(50.0)).getPercentiles())
+                    .containsExactly(Map.entry("p50", new BigDecimal("7000.00")));
+            assertThat(analyticsService.getPercentiles("Engineering", List.of(0.0)).getPercentiles())
+                    .containsExactly(Map.entry("p0", new BigDecimal("1100.00")));
+            assertThat(analyticsService.getPercentiles(null, List.of(50.0)).getHeadcount()).isEqualTo(13);
+        });
+    }
+
+    private static Employee employee(String department, BigDecimal salary) {
+        return Employee.builder()
+                .id(UUID.randomUUID())
+                .firstName("First")
+                .lastName("Last")
+                .email(UUID.randomUUID() + "@test.com")
+                .department(department)
+                .salary(salary)
+                .build();
+    }
+}
@@ -0,0 +1,116 @@
+package com.example.employeemanagement.service;
+
+import com.example.employeemanagement.dto.EmployeeSuggestion;
+import com.example.employeemanagement.entity.Employee;
+import com.example.employeemanagement.event.EmployeeChangedEvent;
+import com.example.employeemanagement.service.impl.TypeaheadServiceImpl;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+
+@ExtendWith(MockitoExtension.class)
+class TypeaheadServiceTest {
+
+    @Mock
+    private EmployeeService employeeService;
+
+    private SimpleMeterRegistry meterRegistry;
+    private TypeaheadServiceImpl typeaheadService;
+
+    private final Employee jose = employee("José", "Núñez", "jose.nunez@test.com");
+    private final Employee joan = employee("Joan", "Smith", "j.smith@test.com");
+    private final Employee mary = employee("Mary", "Jones", "mary.jones@test.com");
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        // merge the delta into the base every other change, so the tests go through both
+        typeaheadService = new TypeaheadServiceImpl(employeeService, meterRegistry, 2);
+        doAnswer(invocation -> {
+            Consumer<Employee> consumer = invocation.getArgument(0);
+            List.of(jose, joan, mary).forEach(consumer);
+            return null;
+        }).when(employeeService).streamAllEmployees(any());
+        typeaheadService.rebuild();
+    }
+
+    @Test
+    void suggest_ShouldMatchNamesAndEmails_IgnoringCaseAndAccents() {
+        // key order: "joan smith", "jones", "jose nunez"
+        assertThat(names(typeaheadService.suggest("JO", 10))).containsExactly("Joan", "Mary", "José");
+        assertThat(names(typeaheadService.suggest("nun", 10))).containsExactly("José");
+        assertThat(names(typeaheadService.suggest("  jose   nu", 10))).containsExactly("José");
+        assertThat(names(typeaheadService.suggest("j.smith@", 10))).containsExactly("Joan");
+        assertThat(names(typeaheadService.suggest("jo", 1))).containsExactly("Joan");
+        assertThat(typeaheadService.suggest("x", 10)).isEmpty();
+
+        assertThat(meterRegistry.get("typeahead.index.keys").gauge().value()).isEqualTo(9);
+        assertThat(meterRegistry.get("typeahead.index.memory").gauge().value()).isPositive();
+    }
+
+    @Test
+    void suggest_ShouldFollowCreatesRenamesAndDeletes() {
+        Employee john = employee("John", "Adams", "john.adams@test.com");
+        typeaheadService.onEmployeeChanged(EmployeeChangedEvent.created(john));
+        assertThat(names(typeaheadService.suggest("joh", 10))).containsExactly("John");
+
+        // mary marries, the delta is merged into the base here
+        EmployeeChangedEvent.Snapshot before = EmployeeChangedEvent.Snapshot.of(mary);
+        mary.setLastName("Adams");
+        typeaheadService.onEmployeeChanged(EmployeeChangedEvent.updated(before, mary));
+        assertThat(names(typeaheadService.suggest("adams", 10))).containsExactlyInAnyOrder("John", "Mary");
+        assertThat(typeaheadService.suggest("jones", 10)).isEmpty();
+
+        typeaheadService.onEmployeeChanged(EmployeeChangedEvent.deleted(joan));
+        before = EmployeeChangedEvent.Snapshot.of(john);
+        john.setFirstName("Johnny");
+        typeaheadService.onEmployeeChanged(EmployeeChangedEvent.updated(before, john));
+        assertThat(names(typeaheadService.suggest("jo", 10))).containsExactly("Johnny", "José");
+        assertThat(meterRegistry.get("typeahead.index.keys").gauge().value()).isEqualTo(9);
+    }
+
+    @Test
+    void rebuild_ShouldReplayChangesThatCameInWhileStreaming() {
+        // committed after the stream read past them: a new hire, and joan leaving though the stream still has her
+        Employee john = employee("John", "Adams", "john.adams@test.com");
+        doAnswer(invocation -> {
+            Consumer<Employee> consumer = invocation.getArgument(0);
+            typeaheadService.onEmployeeChanged(EmployeeChangedEvent.created(john));
+            typeaheadService.onEmployeeChanged(EmployeeChangedEvent.deleted(joan));
+            List.of(jose, joan, mary).forEach(consumer);
+            return null;
+        }).when(employeeService).streamAllEmployees(any());
+
+        typeaheadService.rebuild();
+
+        assertThat(names(typeaheadService.suggest("jo", 10))).containsExactly("John", "Mary", "José");
+        assertThat(meterRegistry.get("typeahead.index.keys").gauge().value()).isEqualTo(9);
+    }
+
+    private static List<String> names(List<EmployeeSuggestion> suggestions) {
+        return suggestions.stream().map(EmployeeSuggestion::getFirstName).toList();
+    }
+
+    private static Employee employee(String firstName, String lastName, String email) {
+        return Employee.builder()
+                .id(UUID.randomUUID())
+                .firstName(firstName)
+                .lastName(lastName)
+                .email(email)
+                .department("Engineering")
+                .salary(BigDecimal.valueOf(5000))
+                .build();
+    }
+}
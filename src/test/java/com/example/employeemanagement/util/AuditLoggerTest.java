@@ -0,0 +1,88 @@
+package com.example.employeemanagement.util;
+
+import com.example.employeemanagement.event.EmployeesBulkChangedEvent;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AuditLoggerTest {
+
+    @TempDir
+    Path journalDir;
+
+    @Test
+    void loggedEvents_ShouldBeReplayedInOrder() throws Exception {
+        AuditLogger auditLogger = new AuditLogger(journalDir, DataSize.ofMegabytes(1), 1024, Duration.ofMillis(100));
+        auditLogger.start();
+
+        UUID id = UUID.randomUUID();
+        auditLogger.log(AuditEventType.EMPLOYEE_CREATE_STARTED, null, "john@example.com");
+        auditLogger.log(AuditEventType.EMPLOYEE_SAVED, id, "john@example.com");
+        auditLogger.logBatch(AuditEventType.BATCH_CREATE_COMPLETED, 3, 1);
+        auditLogger.onEmployeesBulkChanged(new EmployeesBulkChangedEvent(EmployeesBulkChangedEvent.DELETE, 5));
+        auditLogger.stop();
+
+        List<AuditRecord> records = new AuditJournalReader(journalDir).query(record -> true);
+
+        assertEquals(4, records.size());
+        assertEquals(AuditEventType.EMPLOYEE_CREATE_STARTED, records.get(0).type());
+        assertNull(records.get(0).employeeId());
+        assertEquals(id, records.get(1).employeeId());
+        assertEquals("john@example.com", records.get(1).email());
+        assertEquals(3, records.get(2).count());
+        assertEquals(1, records.get(2).failed());
+        assertEquals(AuditEventType.BULK_DELETE, records.get(3).type());
+        assertEquals(5, records.get(3).count());
+        assertTrue(records.get(0).sequence() < records.get(1).sequence());
+    }
+
+    @Test
+    void journal_ShouldRollOverToNewFiles_WhenMaxSizeReached() throws Exception {
+        AuditLogger auditLogger = new AuditLogger(journalDir, DataSize.ofBytes(512), 1024, Duration.ofMillis(100));
+        auditLogger.start();
+
+        UUID id = UUID.randomUUID();
+        for (int i = 0; i < 200; i++) {
+            auditLogger.log(AuditEventType.EMPLOYEE_SAVED, i == 100 ? id : UUID.randomUUID(), "user" + i + "@example.com");
+        }
+        auditLogger.stop();
+
+        try (Stream<Path> files = Files.list(journalDir)) {
+            assertTrue(files.count() > 1);
+        }
+        AuditJournalReader reader = new AuditJournalReader(journalDir);
+        assertEquals(200, reader.query(record -> true).size());
+
+        List<AuditRecord> matching = reader.query(record -> id.equals(record.employeeId()));
+        assertEquals(1, matching.size());
+        assertEquals("user100@example.com", matching.get(0).email());
+    }
+
+    @Test
+    void journal_ShouldStartANewFile_WhenRestartedWithinTheSameSecond() throws Exception {
+        for (int run = 0; run < 3; run++) {
+            AuditLogger auditLogger = new AuditLogger(journalDir, DataSize.ofMegabytes(1), 1024, Duration.ofMillis(100));
+            auditLogger.start();
+            auditLogger.log(AuditEventType.EMPLOYEE_SAVED, UUID.randomUUID(), "run" + run + "@example.com");
+            auditLogger.stop();
+        }
+
+        try (Stream<Path> files = Files.list(journalDir)) {
+            assertEquals(3, files.count());
+        }
+        List<AuditRecord> records = new AuditJournalReader(journalDir).query(record -> true);
+        assertEquals(List.of("run0@example.com", "run1@example.com", "run2@example.com"),
+                records.stream().map(AuditRecord::email).toList());
+    }
+}